@@ -4,12 +4,21 @@ import MyClasses.Keyboard.Screen;
 import MyClasses.Persons.Admin;
 import MyClasses.Persons.Author;
 import MyClasses.Persons.Customer;
+import MyClasses.Persons.Role;
+import MyClasses.Security.CredentialStore;
 import MyClasses.Utilities.AuditTrail;
+import MyClasses.Database.ChangeFeed;
 import MyClasses.Database.DatabaseConfig;
 import MyClasses.Database.DatabaseManager;
+import MyClasses.Database.StaleDataException;
+import MyClasses.Database.StartupLoader;
+import MyClasses.Database.UnitOfWork;
 
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 
 public class Main {
@@ -28,6 +37,17 @@ public class Main {
     // Database Manager (replaces FileManager)
     private DatabaseManager databaseManager;
 
+    // Tracks what changed since the last load/save so only deltas are written
+    private UnitOfWork unitOfWork;
+
+    // Saves made by other instances sharing the database; the feed thread queues them and the
+    // menu loop applies them between commands (this thread owns the collections)
+    private ChangeFeed changeFeed;
+    private final ConcurrentLinkedQueue<ChangeFeed.Batch> remoteChanges = new ConcurrentLinkedQueue<>();
+
+    // name -> account per role, hashed passwords, verified sessions
+    private CredentialStore credentials;
+
     // Currently logged in user
     private Object currentUser;
     private String currentUserType; // "ADMIN", "AUTHOR", "CUSTOMER"
@@ -42,6 +62,12 @@ public class Main {
         this.screen = new Screen();
 
         this.auditTrail = new AuditTrail();
+        this.unitOfWork = new UnitOfWork();
+        this.credentials = new CredentialStore(
+                DatabaseConfig.getIntProperty("security.hash.workFactor", 14),
+                DatabaseConfig.getIntProperty("security.hash.threads", 2),
+                DatabaseConfig.getIntProperty("security.hash.queueSize", 32),
+                DatabaseConfig.getIntProperty("security.session.ttl", 900000));
 
         // Initialize Database Manager instead of File Manager
         initializeDatabase();
@@ -66,6 +92,7 @@ public class Main {
             // Test connection
             if (DatabaseConfig.testConnection()) {
                 this.databaseManager = new DatabaseManager();
+                this.changeFeed = new ChangeFeed(databaseManager);
                 screen.display("✓ Database connection established");
                 auditTrail.logAction("SYSTEM", "Database connected successfully");
             } else {
@@ -91,39 +118,53 @@ public class Main {
         try {
             screen.display("Loading system data from database...");
 
-            // Load users
-            LinkedList<Admin> loadedAdmins = databaseManager.loadAdmins();
+            // Independent aggregates load in parallel; authors and favorites link once the catalog is in
+            StartupLoader loader = new StartupLoader(databaseManager, changeFeed.isEnabled() ? changeFeed : null,
+                    null, null, null, null);
+            loader.getAll().join();
+
+            LinkedList<Admin> loadedAdmins = loader.getAdmins().join();
             if (loadedAdmins != null && !loadedAdmins.isEmpty()) {
                 admins = loadedAdmins;
             }
 
-            LinkedList<Author> loadedAuthors = databaseManager.loadAuthors();
+            LinkedList<Item> loadedFormulations = loader.getFormulations().join();
+            if (loadedFormulations != null && !loadedFormulations.isEmpty()) {
+                allFormulations = loadedFormulations;
+            }
+
+            LinkedList<Author> loadedAuthors = loader.getAuthors().join();
             if (loadedAuthors != null && !loadedAuthors.isEmpty()) {
                 authors = loadedAuthors;
             }
 
-            LinkedList<Customer> loadedCustomers = databaseManager.loadCustomers();
+            LinkedList<Customer> loadedCustomers = loader.getCustomers().join();
             if (loadedCustomers != null && !loadedCustomers.isEmpty()) {
                 customers = loadedCustomers;
             }
 
-            // Load formulations
-            LinkedList<Item> loadedFormulations = databaseManager.loadFormulations();
-            if (loadedFormulations != null && !loadedFormulations.isEmpty()) {
-                allFormulations = loadedFormulations;
-            }
-
-            // Load audit trail
-            AuditTrail loadedAudit = databaseManager.loadAuditTrail();
+            AuditTrail loadedAudit = loader.getAuditTrail().join();
             if (loadedAudit != null) {
                 auditTrail = loadedAudit;
             }
 
+            credentials.rebuild(Role.ADMIN, admins);
+            credentials.rebuild(Role.AUTHOR, authors);
+            credentials.rebuild(Role.CUSTOMER, customers);
+
+            unitOfWork.trackAdmins(admins);
+            unitOfWork.trackAuthors(authors);
+            unitOfWork.trackCustomers(customers);
+            unitOfWork.trackItems(allFormulations);
+
+            changeFeed.start(remoteChanges::add);
+
             screen.display("✓ Data loaded successfully from database");
             screen.display("  Admins: " + admins.size());
             screen.display("  Authors: " + authors.size());
             screen.display("  Customers: " + customers.size());
             screen.display("  Formulations: " + allFormulations.size());
+            screen.display("  Load times: " + loader.getTimings());
 
             auditTrail.logAction("SYSTEM", "Data loaded from database at " + new Date());
 
@@ -142,10 +183,34 @@ public class Main {
         try {
             screen.display("\nSaving system data to database...");
 
-            databaseManager.saveAdmins(admins);
-            databaseManager.saveAuthors(authors);
-            databaseManager.saveCustomers(customers);
-            databaseManager.saveFormulations(allFormulations);
+            UnitOfWork.ChangeSet changes;
+            while (true) {
+                applyRemoteChanges();
+
+                // Only entities (and child collections) that changed since the last load/save
+                changes = unitOfWork.collectChanges(admins, authors, customers, allFormulations);
+                try {
+                    if (!databaseManager.saveChanges(changes)) {
+                        screen.display("⚠ Error saving data: changes were rolled back");
+                        auditTrail.logAction("SYSTEM", "Failed to save data: transaction rolled back");
+                        return;
+                    }
+                    break;
+                } catch (StaleDataException e) {
+                    // Nothing was written; load the version the other instance saved (it replaces
+                    // the local edits of that row only) so the rest can be saved again
+                    screen.display("⚠ " + e.getMessage());
+                    auditTrail.logAction("SYSTEM", "Save rejected as stale: " + e.getMessage());
+                    applyRemoteChanges(changeFeed.fetchCurrent(e));
+                    screen.display("The current version was loaded; your other changes are kept.");
+                    screen.display("Retry the save now? (1=Yes, 0=No)");
+                    if (pad.getInt() != 1) {
+                        screen.display("Changes not saved yet; they are written with the next save.");
+                        return;
+                    }
+                }
+            }
+            unitOfWork.markClean(changes);
             databaseManager.saveAuditTrail(auditTrail);
 
             screen.display("✓ All data saved successfully to database");
@@ -162,10 +227,13 @@ public class Main {
     private void initializeSystem() {
         if (admins.isEmpty()) {
             Admin defaultAdmin = new Admin(1, "System Admin", "HQ", "+1-000-0000", "1980-01-01", "admin123");
+            credentials.register(Role.ADMIN, defaultAdmin);
             admins.add(defaultAdmin);
 
             // Save to database immediately
-            databaseManager.saveAdmin(defaultAdmin);
+            if (databaseManager.saveAdmin(defaultAdmin)) {
+                unitOfWork.trackAdmin(defaultAdmin);
+            }
 
             screen.display("System initialized with default admin account.");
             screen.display("Username: admin (ID: 1) | Password: admin123");
@@ -183,6 +251,7 @@ public class Main {
 
         while (true) {
             try {
+                applyRemoteChanges();
                 if (currentUser == null) {
                     showWelcomeMenu();
                 } else {
@@ -196,6 +265,134 @@ public class Main {
         }
     }
 
+    // ============ CHANGES FROM OTHER INSTANCES ============
+
+    /**
+     * Apply the batches the change feed queued since the last command
+     */
+    private void applyRemoteChanges() {
+        ChangeFeed.Batch batch;
+        while ((batch = remoteChanges.poll()) != null) {
+            applyRemoteChanges(batch);
+        }
+    }
+
+    /**
+     * Refresh the items and customers other instances saved or deleted; nothing else is touched
+     * Unsaved local edits of such an entity are replaced: saving them would be rejected as stale.
+     */
+    private void applyRemoteChanges(ChangeFeed.Batch batch) {
+        int changed = 0;
+        int deleted = 0;
+
+        for (Item current : batch.getItems()) {
+            Item item = findFormulation(current.getItemID());
+            if (item == null) {
+                item = databaseManager.adoptFormulations(Collections.singletonList(current)).getFirst();
+                allFormulations.add(item);
+                Integer authorId = batch.getAuthorId(item.getItemID());
+                Author author = authorId != null ? findAuthor(authorId) : null;
+                if (author != null) {
+                    item.setAuthor(author);
+                    if (!author.getFormulatedItems().contains(item)) {
+                        author.getFormulatedItems().add(item);
+                    }
+                }
+            } else if (current.getVersion() > item.getVersion()) {
+                if (unitOfWork.hasUnsavedChanges(item)) {
+                    screen.display("⚠ Formulation '" + item.getName() +
+                            "' was changed on another instance; unsaved local edits replaced");
+                }
+                databaseManager.refreshFormulation(item, current);
+            } else {
+                continue;
+            }
+            unitOfWork.trackItem(item);
+            changed++;
+        }
+
+        for (Customer current : batch.getCustomers()) {
+            Customer customer = findCustomer(current.getCustomerID());
+            if (customer == null) {
+                customer = current;
+                customers.add(customer);
+                credentials.register(Role.CUSTOMER, customer);
+            } else if (current.getVersion() > customer.getVersion()) {
+                if (unitOfWork.hasUnsavedChanges(customer)) {
+                    screen.display("⚠ Customer '" + customer.getName() +
+                            "' was changed on another instance; unsaved local edits replaced");
+                }
+                boolean renamed = !Objects.equals(customer.getName(), current.getName());
+                if (renamed) {
+                    credentials.unregister(Role.CUSTOMER, customer);
+                }
+                databaseManager.refreshCustomer(customer, current);
+                if (renamed) {
+                    credentials.register(Role.CUSTOMER, customer);
+                }
+            } else {
+                continue;
+            }
+            unitOfWork.trackCustomer(customer);
+            changed++;
+        }
+
+        for (int itemId : batch.getDeletedItemIds()) {
+            Item item = findFormulation(itemId);
+            if (item != null) {
+                allFormulations.remove(item);
+                databaseManager.forgetFormulation(item);
+                for (Author author : authors) {
+                    author.getFormulatedItems().remove(item);
+                }
+                for (Customer customer : customers) {
+                    customer.getFavoriteFormulations().remove(item);
+                }
+                deleted++;
+            }
+        }
+        for (int customerId : batch.getDeletedCustomerIds()) {
+            Customer customer = findCustomer(customerId);
+            if (customer != null) {
+                customers.remove(customer);
+                credentials.unregister(Role.CUSTOMER, customer);
+                deleted++;
+            }
+        }
+
+        if (changed + deleted > 0) {
+            screen.display("✓ Applied changes from other instances: " + changed + " updated, "
+                    + deleted + " deleted");
+        }
+    }
+
+    private Item findFormulation(int itemId) {
+        for (Item item : allFormulations) {
+            if (item.getItemID() == itemId) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    private Author findAuthor(int authorId) {
+        for (Author author : authors) {
+            if (author.getAuthorID() == authorId) {
+                return author;
+            }
+        }
+        return null;
+    }
+
+    private Customer findCustomer(int customerId) {
+        for (Customer customer : customers) {
+            if (customer.getCustomerID() == customerId) {
+                return customer;
+            }
+        }
+        return null;
+    }
+
     // ============ WELCOME MENU (NOT LOGGED IN) ============
 
     private void showWelcomeMenu() {
@@ -257,6 +454,7 @@ public class Main {
 
             // Close database connection
             screen.display("Closing database connection...");
+            changeFeed.stop();
             databaseManager.close();
             DatabaseConfig.closeConnection();
 
@@ -266,6 +464,7 @@ public class Main {
         } catch (Exception e) {
             screen.display("Error during shutdown: " + e.getMessage());
             try {
+                changeFeed.stop();
                 databaseManager.close();
                 DatabaseConfig.closeConnection();
             } catch (Exception ex) {
@@ -289,22 +488,21 @@ public class Main {
             screen.display("Enter password:");
             String password = pad.getString();
 
-            for (Admin admin : admins) {
-                if (admin.getName().equals(name) && admin.getPassword().equals(password)) {
-                    currentUser = admin;
-                    currentUserType = "ADMIN";
+            Admin admin = (Admin) credentials.authenticate(Role.ADMIN, name, password);
+            if (admin != null) {
+                currentUser = admin;
+                currentUserType = "ADMIN";
 
-                    admin.setAuthors(authors);
-                    admin.setAdmins(admins);
-                    admin.setCustomers(customers);
-                    admin.setAllFormulations(allFormulations);
+                admin.setAuthors(authors);
+                admin.setAdmins(admins);
+                admin.setCustomers(customers);
+                admin.setAllFormulations(allFormulations);
 
-                    screen.display("\n✓ Login successful!");
-                    screen.display("Welcome, " + admin.getName());
+                screen.display("\n✓ Login successful!");
+                screen.display("Welcome, " + admin.getName());
 
-                    auditTrail.logAction("ADMIN:" + admin.getName(), "Logged in at " + new Date());
-                    return;
-                }
+                auditTrail.logAction("ADMIN:" + admin.getName(), "Logged in at " + new Date());
+                return;
             }
 
             screen.display("⚠ Invalid credentials!");
@@ -332,16 +530,15 @@ public class Main {
             screen.display("Enter password:");
             String password = pad.getString();
 
-            for (Author author : authors) {
-                if (author.getName().equals(name) && author.getPassword().equals(password)) {
-                    currentUser = author;
-                    currentUserType = "AUTHOR";
-                    screen.display("\n✓ Login successful!");
-                    screen.display("Welcome, " + author.getName());
+            Author author = (Author) credentials.authenticate(Role.AUTHOR, name, password);
+            if (author != null) {
+                currentUser = author;
+                currentUserType = "AUTHOR";
+                screen.display("\n✓ Login successful!");
+                screen.display("Welcome, " + author.getName());
 
-                    auditTrail.logAction("AUTHOR:" + author.getName(), "Logged in at " + new Date());
-                    return;
-                }
+                auditTrail.logAction("AUTHOR:" + author.getName(), "Logged in at " + new Date());
+                return;
             }
 
             screen.display("⚠ Invalid credentials!");
@@ -369,21 +566,20 @@ public class Main {
             screen.display("Enter password:");
             String password = pad.getString();
 
-            for (Customer customer : customers) {
-                if (customer.getName().equals(name) && customer.getPassword().equals(password)) {
-                    currentUser = customer;
-                    currentUserType = "CUSTOMER";
+            Customer customer = (Customer) credentials.authenticate(Role.CUSTOMER, name, password);
+            if (customer != null) {
+                currentUser = customer;
+                currentUserType = "CUSTOMER";
 
-                    // Set available formulations (only non-vetoed ones)
-                    LinkedList<Item> availableItems = getNonVetoedFormulations();
-                    customer.setAvailableFormulations(availableItems);
+                // Set available formulations (only non-vetoed ones)
+                LinkedList<Item> availableItems = getNonVetoedFormulations();
+                customer.setAvailableFormulations(availableItems);
 
-                    screen.display("\n✓ Login successful!");
-                    screen.display("Welcome, " + customer.getName());
+                screen.display("\n✓ Login successful!");
+                screen.display("Welcome, " + customer.getName());
 
-                    auditTrail.logAction("CUSTOMER:" + customer.getName(), "Logged in at " + new Date());
-                    return;
-                }
+                auditTrail.logAction("CUSTOMER:" + customer.getName(), "Logged in at " + new Date());
+                return;
             }
 
             screen.display("⚠ Invalid credentials!");
@@ -454,6 +650,7 @@ public class Main {
             customer.setDateofbirth(dob);
             customer.setPassword(password);
 
+            credentials.register(Role.CUSTOMER, customer);
             customers.add(customer);
 
             screen.display("\n✓ Registration successful!");
@@ -463,7 +660,9 @@ public class Main {
             auditTrail.logAction("SYSTEM", "New customer registered: " + name + " (ID: " + id + ")");
 
             // Auto-save to database after registration
-            databaseManager.saveCustomer(customer);
+            if (databaseManager.saveCustomer(customer)) {
+                unitOfWork.trackCustomer(customer);
+            }
             screen.display("✓ Customer saved to database");
 
         } catch (NumberFormatException e) {
@@ -571,20 +770,26 @@ public class Main {
                 case 1:
                     Author newAuthor = admin.createAuthorAccount();
                     if (newAuthor != null) {
+                        credentials.register(Role.AUTHOR, newAuthor);
                         authors.add(newAuthor);
                         auditTrail.logAction("ADMIN:" + admin.getName(),
                                 "Created author account: " + newAuthor.getName() + " (ID: " + newAuthor.getAuthorID() + ")");
-                        databaseManager.saveAuthor(newAuthor);
+                        if (databaseManager.saveAuthor(newAuthor)) {
+                            unitOfWork.trackAuthor(newAuthor);
+                        }
                         screen.display("✓ Author saved to database");
                     }
                     break;
                 case 2:
                     Admin newAdmin = admin.createAdminAccount();
                     if (newAdmin != null) {
+                        credentials.register(Role.ADMIN, newAdmin);
                         admins.add(newAdmin);
                         auditTrail.logAction("ADMIN:" + admin.getName(),
                                 "Created admin account: " + newAdmin.getName() + " (ID: " + newAdmin.getAdminID() + ")");
-                        databaseManager.saveAdmin(newAdmin);
+                        if (databaseManager.saveAdmin(newAdmin)) {
+                            unitOfWork.trackAdmin(newAdmin);
+                        }
                         screen.display("✓ Admin saved to database");
                     }
                     break;
@@ -635,10 +840,15 @@ public class Main {
                     Item newItem = author.Formulate();
                     if (newItem != null) {
                         allFormulations.add(newItem);
+                        for (Admin admin : admins) {
+                            admin.formulationAdded(newItem);
+                        }
                         screen.display("✓ Formulation added to system catalog");
                         auditTrail.logAction("AUTHOR:" + author.getName(),
                                 "Created formulation: " + newItem.getName() + " (ID: " + newItem.getItemID() + ")");
-                        databaseManager.saveItem(newItem);
+                        if (databaseManager.saveItem(newItem)) {
+                            unitOfWork.trackItem(newItem);
+                        }
                         screen.display("✓ Formulation saved to database");
                     }
                     break;
@@ -759,7 +969,7 @@ public class Main {
             totalPurchases += customer.getPurchasedItems().size();
         }
         screen.display("Total Purchases: " + totalPurchases);
-        screen.display("Audit Log Entries: " + auditTrail.records.size());
+        screen.display("Audit Log Entries: " + auditTrail.getRecordCount());
     }
 
     private void showAuthorStatistics(Author author) {
@@ -821,9 +1031,10 @@ public class Main {
      */
     private void viewAuditTrail() {
         screen.display("\n=== AUDIT TRAIL ===");
-        screen.display("Total log entries: " + auditTrail.records.size());
+        int totalEntries = auditTrail.getRecordCount();
+        screen.display("Total log entries: " + totalEntries);
 
-        if (auditTrail.records.isEmpty()) {
+        if (totalEntries == 0) {
             screen.display("No audit records available.");
             return;
         }
@@ -832,15 +1043,15 @@ public class Main {
         screen.display("-".repeat(70));
 
         // Show last 20 entries
-        int startIndex = Math.max(0, auditTrail.records.size() - 20);
-        for (int i = startIndex; i < auditTrail.records.size(); i++) {
-            screen.display((i + 1) + ". " + auditTrail.records.get(i));
+        int number = Math.max(0, totalEntries - 20) + 1;
+        for (String record : auditTrail.getRecentRecords(20)) {
+            screen.display((number++) + ". " + record);
         }
 
         screen.display("-".repeat(70));
 
-        if (auditTrail.records.size() > 20) {
-            screen.display("\nShowing last 20 of " + auditTrail.records.size() + " entries");
+        if (totalEntries > 20) {
+            screen.display("\nShowing last 20 of " + totalEntries + " entries");
         }
     }
 
@@ -906,6 +1117,7 @@ public class Main {
             }
 
             auditTrail.logAction(currentUserType + ":" + name, "Logged out at " + new Date());
+            credentials.endSession(Role.valueOf(currentUserType), name);
             screen.display("\nLogging out " + name + "...");
 
             // Auto-save to database on logout
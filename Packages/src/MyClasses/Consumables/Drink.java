@@ -57,28 +57,34 @@ public class Drink extends Item implements Serializable{
     }
 
     public void addIngredient(Ingredient ingredient) {
+        ensureDetails();
         if (ingredient != null) {
             if (ingredients == null) {
                 ingredients = new LinkedList<>();
             }
             ingredients.add(ingredient);
             recalculatePrice();
+            ingredientsChanged();
         }
     }
 
     public boolean removeIngredient(int ingredientID) {
+        ensureDetails();
         boolean removed = ingredients.removeIf(ing -> ing.ingredientID == ingredientID);
         if (removed) {
             recalculatePrice();
+            ingredientsChanged();
         }
         return removed;
     }
 
     public boolean modifyIngredientQuantity(int ingredientID, Quantity newQuantity) {
+        ensureDetails();
         for (Ingredient ing : ingredients) {
             if (ing.ingredientID == ingredientID) {
                 ing.quantity = newQuantity;
                 recalculatePrice();
+                ingredientsChanged();
                 return true;
             }
         }
@@ -86,6 +92,7 @@ public class Drink extends Item implements Serializable{
     }
 
     public void addFeedback(Feedback feedback) {
+        ensureDetails();
         if (feedback != null) {
             if (feedbacks == null) {
                 feedbacks = new LinkedList<>();
@@ -95,6 +102,7 @@ public class Drink extends Item implements Serializable{
     }
 
     public void addStandard(String standard) {
+        ensureDetails();
         if (standard != null && !standard.trim().isEmpty()) {
             if (standards == null) {
                 standards = new LinkedList<>();
@@ -127,6 +135,7 @@ public class Drink extends Item implements Serializable{
     }
 
     public Ingredient findIngredientByName(String name) {
+        ensureDetails();
         if (ingredients == null || name == null) return null;
 
         return ingredients.stream()
@@ -136,6 +145,7 @@ public class Drink extends Item implements Serializable{
     }
 
     public LinkedList<Feedback> getPositiveFeedbacks() {
+        ensureDetails();
         if (feedbacks == null) return new LinkedList<>();
 
         return feedbacks.stream()
@@ -144,6 +154,7 @@ public class Drink extends Item implements Serializable{
     }
 
     public LinkedList<Feedback> getNegativeFeedbacks() {
+        ensureDetails();
         if (feedbacks == null) return new LinkedList<>();
 
         return feedbacks.stream()
@@ -161,26 +172,32 @@ public class Drink extends Item implements Serializable{
     }
 
     public LinkedList<Ingredient> getIngredients() {
+        ensureDetails();
         return ingredients;
     }
 
     public Optcondition getLabCondition() {
+        ensureDetails();
         return labCondition;
     }
 
     public void setLabCondition(Optcondition labCondition) {
+        ensureDetails();
         this.labCondition = labCondition;
     }
 
     public LinkedList<String> getStandards() {
+        ensureDetails();
         return standards;
     }
 
     public Prepprotocol getPrepprotocol() {
+        ensureDetails();
         return prepprotocol;
     }
 
     public void setPrepprotocol(Prepprotocol prepprotocol) {
+        ensureDetails();
         this.prepprotocol = prepprotocol;
     }
 
@@ -189,22 +206,27 @@ public class Drink extends Item implements Serializable{
     }
 
     public LinkedList<Feedback> getFeedbacks() {
+        ensureDetails();
         return feedbacks;
     }
 
     public Conservecondition getConservecondition() {
+        ensureDetails();
         return conservecondition;
     }
 
     public void setConservecondition(Conservecondition conservecondition) {
+        ensureDetails();
         this.conservecondition = conservecondition;
     }
 
     public Consumpcondition getConsumpcondition() {
+        ensureDetails();
         return consumpcondition;
     }
 
     public void setConsumpcondition(Consumpcondition consumpcondition) {
+        ensureDetails();
         this.consumpcondition = consumpcondition;
     }
 
@@ -252,6 +274,20 @@ public class Drink extends Item implements Serializable{
         this.sideEffects = sideEffects;
     }
 
+    /**
+     * Details as after construction (fetched again through the detail loader when needed)
+     */
+    @Override
+    protected void clearDetails() {
+        this.ingredients = new LinkedList<>();
+        this.labCondition = null;
+        this.standards = new LinkedList<>();
+        this.prepprotocol = null;
+        this.feedbacks = new LinkedList<>();
+        this.conservecondition = null;
+        this.consumpcondition = null;
+    }
+
     @Override
     public String toString() {
         return "Drink{" +
@@ -60,30 +60,36 @@ public class Food extends Item implements Serializable {
 
 
     public void addIngredient(Ingredient ingredient) {
+        ensureDetails();
         if (ingredient != null) {
             if (ingredients == null) {
                 ingredients = new LinkedList<>();
             }
             ingredients.add(ingredient);
             recalculatePrice();
+            ingredientsChanged();
         }
     }
 
 
     public boolean removeIngredient(int ingredientID) {
+        ensureDetails();
         boolean removed = ingredients.removeIf(ing -> ing.ingredientID == ingredientID);
         if (removed) {
             recalculatePrice();
+            ingredientsChanged();
         }
         return removed;
     }
 
 
     public boolean modifyIngredientQuantity(int ingredientID, Quantity newQuantity) {
+        ensureDetails();
         for (Ingredient ing : ingredients) {
             if (ing.ingredientID == ingredientID) {
                 ing.quantity = newQuantity;
                 recalculatePrice();
+                ingredientsChanged();
                 return true;
             }
         }
@@ -94,6 +100,7 @@ public class Food extends Item implements Serializable {
      * Adds consumer feedback
      */
     public void addFeedback(Feedback feedback) {
+        ensureDetails();
         if (feedback != null) {
             if (feedbacks == null) {
                 feedbacks = new LinkedList<>();
@@ -105,6 +112,7 @@ public class Food extends Item implements Serializable {
 
 
     public void addStandard(String standard) {
+        ensureDetails();
         if (standard != null && !standard.trim().isEmpty()) {
             if (standards == null) {
                 standards = new LinkedList<>();
@@ -142,6 +150,7 @@ public class Food extends Item implements Serializable {
     }
 
     public Ingredient findIngredientByName(String name) {
+        ensureDetails();
         if (ingredients == null || name == null) return null;
 
         return ingredients.stream()
@@ -152,6 +161,7 @@ public class Food extends Item implements Serializable {
 
 
     public LinkedList<Feedback> getPositiveFeedbacks() {
+        ensureDetails();
         if (feedbacks == null) return new LinkedList<>();
 
         return feedbacks.stream()
@@ -161,6 +171,7 @@ public class Food extends Item implements Serializable {
 
 
     public LinkedList<Feedback> getNegativeFeedbacks() {
+        ensureDetails();
         if (feedbacks == null) return new LinkedList<>();
 
         return feedbacks.stream()
@@ -178,26 +189,32 @@ public class Food extends Item implements Serializable {
     }
 
     public LinkedList<Ingredient> getIngredients() {
+        ensureDetails();
         return ingredients;
     }
 
     public Optcondition getLabCondition() {
+        ensureDetails();
         return labCondition;
     }
 
     public void setLabCondition(Optcondition labCondition) {
+        ensureDetails();
         this.labCondition = labCondition;
     }
 
     public LinkedList<String> getStandards() {
+        ensureDetails();
         return this.standards;
     }
 
     public Prepprotocol getPrepprotocol() {
+        ensureDetails();
         return this.prepprotocol;
     }
 
     public void setPrepprotocol(Prepprotocol prepprotocol) {
+        ensureDetails();
         this.prepprotocol = prepprotocol;
     }
 
@@ -206,22 +223,27 @@ public class Food extends Item implements Serializable {
     }
 
     public LinkedList<Feedback> getFeedbacks() {
+        ensureDetails();
         return this.feedbacks;
     }
 
     public Conservecondition getConservecondition() {
+        ensureDetails();
         return this.conservecondition;
     }
 
     public void setConservecondition(Conservecondition conservecondition) {
+        ensureDetails();
         this.conservecondition = conservecondition;
     }
 
     public Consumpcondition getConsumpcondition() {
+        ensureDetails();
         return consumpcondition;
     }
 
     public void setConsumpcondition(Consumpcondition consumpcondition) {
+        ensureDetails();
         this.consumpcondition = consumpcondition;
     }
 
@@ -269,6 +291,20 @@ public class Food extends Item implements Serializable {
         this.sideEffects = sideEffects;
     }
 
+    /**
+     * Details as after construction (fetched again through the detail loader when needed)
+     */
+    @Override
+    protected void clearDetails() {
+        this.ingredients = new LinkedList<>();
+        this.labCondition = null;
+        this.standards = new LinkedList<>();
+        this.prepprotocol = null;
+        this.feedbacks = new LinkedList<>();
+        this.conservecondition = null;
+        this.consumpcondition = null;
+    }
+
     @Override
     public String toString() {
         return "Food{" +
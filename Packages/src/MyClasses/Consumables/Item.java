@@ -1,6 +1,7 @@
 package MyClasses.Consumables;
 
 import MyClasses.Persons.Author;
+import MyClasses.Utilities.AllergenIndex;
 import java.io.Serializable;
 
 import java.util.Date;
@@ -17,6 +18,36 @@ public abstract class Item implements Serializable{
     public Author author;
     private static final long serialVersionUID = 1L;
 
+    // Version of the database row this copy is based on (0 = never stored); a save is only
+    // accepted while the row still has this version, so concurrent edits are not overwritten
+    private volatile int version;
+
+    // Allergens found in the ingredients, cached by AllergenIndex
+    private transient volatile AllergenIndex.ItemMask allergenMask;
+
+    // Details (ingredients, conditions, protocol, standards, feedbacks) fetched on first access
+    // through this loader; items without a loader always hold their details
+    private transient volatile DetailLoader detailLoader;
+    private transient volatile boolean detailsLoaded;
+    private transient volatile boolean detailsReferenced;
+
+    // Told about ingredient edits (the reverse ingredient index of the catalog)
+    private transient volatile IngredientListener ingredientListener;
+
+    /**
+     * Fills an item's details on demand (see MyClasses.Database.ItemDetailCache)
+     */
+    public interface DetailLoader {
+        void ensureLoaded(Item item);
+    }
+
+    /**
+     * Told when an item's ingredient list is edited; loading or releasing details is not an edit
+     */
+    public interface IngredientListener {
+        void ingredientsChanged(Item item);
+    }
+
     public Item(){
     }
 
@@ -75,4 +106,92 @@ public abstract class Item implements Serializable{
     public Date getEntryDate() {
         return entry_date;
     }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public AllergenIndex.ItemMask getAllergenMask() {
+        return allergenMask;
+    }
+
+    public void setAllergenMask(AllergenIndex.ItemMask allergenMask) {
+        this.allergenMask = allergenMask;
+    }
+
+    public void setIngredientListener(IngredientListener ingredientListener) {
+        this.ingredientListener = ingredientListener;
+    }
+
+    /**
+     * Called by the ingredient mutators after an edit (not while the loader fills the details)
+     */
+    protected final void ingredientsChanged() {
+        if (!isDetailsLoaded()) {
+            return;
+        }
+        allergenMask = null;
+        IngredientListener listener = ingredientListener;
+        if (listener != null) {
+            listener.ingredientsChanged(this);
+        }
+    }
+
+    // ============ LAZY DETAILS ============
+
+    public void setDetailLoader(DetailLoader detailLoader) {
+        this.detailLoader = detailLoader;
+    }
+
+    public DetailLoader getDetailLoader() {
+        return detailLoader;
+    }
+
+    /**
+     * True if the details are in memory (always the case for items without a loader)
+     */
+    public boolean isDetailsLoaded() {
+        return detailLoader == null || detailsLoaded;
+    }
+
+    public void setDetailsLoaded(boolean detailsLoaded) {
+        this.detailsLoaded = detailsLoaded;
+    }
+
+    public boolean isDetailsReferenced() {
+        return detailsReferenced;
+    }
+
+    public void setDetailsReferenced(boolean detailsReferenced) {
+        this.detailsReferenced = detailsReferenced;
+    }
+
+    /**
+     * Drop the details; the next access fetches them again through the loader
+     */
+    public void releaseDetails() {
+        if (detailLoader != null) {
+            detailsLoaded = false;
+            clearDetails();
+        }
+    }
+
+    /**
+     * Called by every detail getter/mutator before it touches a detail field
+     */
+    protected final void ensureDetails() {
+        DetailLoader loader = detailLoader;
+        if (loader != null) {
+            loader.ensureLoaded(this);
+        }
+    }
+
+    /**
+     * Reset the detail fields to their freshly constructed state
+     */
+    protected abstract void clearDetails();
 }
@@ -0,0 +1,263 @@
+package MyClasses.Database;
+
+import MyClasses.Utilities.AuditTrail;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous, append-only audit sink
+ * AuditTrail.logAction hands each record to onRecord(), which only offers it to a bounded
+ * queue; a background thread inserts queued records in batches and advances the high-water
+ * mark (last sequence committed). History in audit_trail is never deleted or rewritten.
+ *
+ * If the queue fills up (e.g. database unreachable) logging still never blocks: the writer
+ * stops queueing and later catches up by reading the missed records back from the AuditTrail.
+ */
+public class AuditLogWriter implements AuditTrail.AuditListener {
+
+    private static final int QUEUE_CAPACITY = 10000;
+    private static final int BATCH_SIZE = 500;
+    private static final long POLL_INTERVAL_MS = 500;
+    private static final long RETRY_DELAY_MS = 2000;
+
+    private final AuditTrail auditTrail;
+    private final ArrayBlockingQueue<AuditEntry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread worker;
+    private final Object lock = new Object();
+
+    private volatile boolean running = true;
+    private volatile long highWaterMark;   // last sequence committed to the database
+    private long lastSeen;                 // last sequence logged (guarded by lock)
+    private long resyncFrom;               // first sequence not queued, -1 when queueing (guarded by lock)
+
+    /**
+     * @param auditTrail trail to follow
+     * @param persistedUpTo records with sequence below this are already in the database
+     */
+    public AuditLogWriter(AuditTrail auditTrail, long persistedUpTo) {
+        this.auditTrail = auditTrail;
+        this.highWaterMark = persistedUpTo - 1;
+        this.lastSeen = persistedUpTo - 1;
+        // Start in catch-up mode so records logged before we attached are written too
+        this.resyncFrom = persistedUpTo;
+
+        auditTrail.setListener(this);
+        long nextSequence = auditTrail.getNextSequence();
+        synchronized (lock) {
+            lastSeen = Math.max(lastSeen, nextSequence - 1);
+        }
+
+        this.worker = new Thread(this::run, "audit-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Called from AuditTrail.logAction - must never block on the database
+     */
+    @Override
+    public void onRecord(long sequence, Date timestamp, String user, String action) {
+        synchronized (lock) {
+            lastSeen = sequence;
+            if (resyncFrom >= 0) {
+                return; // catch-up will read it from the trail
+            }
+            if (!queue.offer(new AuditEntry(sequence, timestamp, user, action))) {
+                resyncFrom = sequence;
+                System.err.println("⚠ Audit queue full - records will be written when the database catches up");
+            }
+        }
+    }
+
+    public AuditTrail getAuditTrail() {
+        return auditTrail;
+    }
+
+    public long getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * Wait until everything logged so far is committed
+     * @return true if caught up within the timeout
+     */
+    public boolean flush(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (lock) {
+            long target = lastSeen;
+            while (highWaterMark < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || !worker.isAlive()) {
+                    return false;
+                }
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Stop following the trail, write what is pending and stop the worker
+     */
+    public void shutdown(long timeoutMillis) {
+        auditTrail.setListener(null);
+        flush(timeoutMillis);
+        running = false;
+        worker.interrupt();
+    }
+
+    // ============ WORKER ============
+
+    private void run() {
+        ArrayList<AuditEntry> batch = new ArrayList<>(BATCH_SIZE);
+
+        while (running) {
+            try {
+                AuditEntry first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, BATCH_SIZE - 1);
+                    persistWithRetry(batch);
+                    batch.clear();
+                } else {
+                    catchUp();
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * After an overflow: re-read the missed records from the trail, then resume queueing
+     */
+    private void catchUp() throws InterruptedException {
+        while (true) {
+            long from;
+            long to;
+            synchronized (lock) {
+                if (resyncFrom < 0) {
+                    return;
+                }
+                if (!queue.isEmpty()) {
+                    return; // older queued entries go first
+                }
+                if (lastSeen < resyncFrom) {
+                    resyncFrom = -1;
+                    return;
+                }
+                from = resyncFrom;
+                to = lastSeen;
+            }
+
+            ArrayList<AuditEntry> batch = new ArrayList<>(BATCH_SIZE);
+            long sequence = from;
+            while (sequence <= to) {
+                int limit = (int) Math.min(BATCH_SIZE, to - sequence + 1);
+                int visited = auditTrail.visitRecordsFrom(sequence, limit,
+                        (seq, timestamp, user, action) -> batch.add(new AuditEntry(seq, timestamp, user, action)));
+                if (visited == 0) {
+                    break; // trail was cleared meanwhile
+                }
+                persistWithRetry(batch);
+                batch.clear();
+                sequence += visited;
+            }
+            advanceHighWaterMark(to);
+
+            synchronized (lock) {
+                if (lastSeen == to) {
+                    resyncFrom = -1; // nothing logged meanwhile, back to queueing
+                    return;
+                }
+                resyncFrom = to + 1;
+            }
+        }
+    }
+
+    private void persistWithRetry(ArrayList<AuditEntry> batch) throws InterruptedException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        while (true) {
+            try {
+                insertBatch(batch);
+                advanceHighWaterMark(batch.get(batch.size() - 1).sequence);
+                return;
+            } catch (SQLException e) {
+                System.err.println("⚠ Audit write failed, retrying: " + e.getMessage());
+                if (!running) {
+                    return;
+                }
+                Thread.sleep(RETRY_DELAY_MS);
+            }
+        }
+    }
+
+    private void insertBatch(ArrayList<AuditEntry> batch) throws SQLException {
+        String sql = "INSERT INTO audit_trail (timestamp, user_type, user_name, action) VALUES (?, ?, ?, ?)";
+
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                for (AuditEntry entry : batch) {
+                    pstmt.setTimestamp(1, entry.timestamp);
+                    pstmt.setString(2, entry.userType);
+                    pstmt.setString(3, entry.userName);
+                    pstmt.setString(4, entry.action);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private void advanceHighWaterMark(long sequence) {
+        synchronized (lock) {
+            if (sequence > highWaterMark) {
+                highWaterMark = sequence;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    // ============ INNER CLASS: AUDIT ENTRY ============
+
+    private static class AuditEntry {
+        final long sequence;
+        final Timestamp timestamp;
+        final String userType;
+        final String userName;
+        final String action;
+
+        AuditEntry(long sequence, Date timestamp, String user, String action) {
+            this.sequence = sequence;
+            this.timestamp = new Timestamp(timestamp.getTime());
+            // user is "TYPE:Name" or just "TYPE" (e.g. SYSTEM)
+            String[] userTypeName = user.split(":", 2);
+            this.userType = userTypeName[0];
+            this.userName = userTypeName.length > 1 ? userTypeName[1] : "";
+            this.action = action;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package MyClasses.Database;
+
+import MyClasses.Consumables.Item;
+import MyClasses.Persons.Customer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows the saves other application instances make to the shared database
+ *
+ * Every item and customer save writes a change_log row (table, row, new version, instance) in
+ * its own transaction. The feed remembers the last change_id it has seen and, every
+ * db.changeFeed.pollMillis, reads the newer rows, skips its own instance's, and fetches only
+ * the rows that changed (items whose loaded copy is already at that version are skipped), plus
+ * the items and customers deleted meanwhile (deleted_rows). The listener then refreshes just
+ * those cached objects.
+ *
+ * Positions are taken before the startup load reads anything (see StartupLoader), so a change
+ * committed during the load is delivered again rather than missed. IDs are allocated before
+ * commit, so a later change_id can become visible first: the cursor waits at such a gap for up
+ * to db.changeFeed.gapMillis (after that the ID is taken to belong to a rolled-back save).
+ */
+public class ChangeFeed {
+
+    /**
+     * Receives the changes of one poll, on the feed thread
+     */
+    public interface Listener {
+        void changesArrived(Batch batch);
+    }
+
+    private final DatabaseManager databaseManager;
+    private final long pollMillis;
+    private final long gapMillis;
+    private final int batchSize;
+
+    // Feed thread only (markPosition runs before the feed thread starts)
+    private Cursor changes = new Cursor();
+    private Cursor tombstones = new Cursor();
+
+    private ScheduledExecutorService scheduler;
+    private Listener listener;
+
+    public ChangeFeed(DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+        this.pollMillis = DatabaseConfig.getIntProperty("db.changeFeed.pollMillis", 2000);
+        this.gapMillis = DatabaseConfig.getIntProperty("db.changeFeed.gapMillis", 10000);
+        this.batchSize = Math.max(1, DatabaseConfig.getIntProperty("db.changeFeed.batchSize", 500));
+    }
+
+    /**
+     * False if db.changeFeed.pollMillis is 0 (single instance: nothing to follow)
+     */
+    public boolean isEnabled() {
+        return pollMillis > 0;
+    }
+
+    /**
+     * Continue from the current end of change_log and deleted_rows; call before loading
+     */
+    public void markPosition() {
+        try (Connection connection = DatabaseConfig.getConnection();
+             Statement stmt = connection.createStatement()) {
+            changes = new Cursor(maxId(stmt, "SELECT COALESCE(MAX(change_id), 0) FROM change_log"));
+            tombstones = new Cursor(maxId(stmt, "SELECT COALESCE(MAX(tombstone_id), 0) FROM deleted_rows"));
+        } catch (SQLException e) {
+            // The first poll positions the feed instead; only changes made during the load are missed
+            System.err.println("⚠ Change feed could not read its start position: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Poll every db.changeFeed.pollMillis on a daemon thread until stop()
+     */
+    public synchronized void start(Listener listener) {
+        if (!isEnabled() || scheduler != null) {
+            return;
+        }
+        this.listener = listener;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollAndDeliver, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        System.out.println("✓ Change feed started (polling every " + pollMillis + " ms)");
+    }
+
+    /**
+     * Fetch the current version of a row a save was rejected for, without waiting for the
+     * next poll (does nothing if the feed is not running)
+     */
+    public synchronized void refreshSoon(StaleDataException conflict) {
+        if (scheduler == null) {
+            return;
+        }
+        Listener current = listener;
+        scheduler.execute(() -> {
+            Batch batch = fetchCurrent(conflict);
+            if (!batch.isEmpty()) {
+                current.changesArrived(batch);
+            }
+        });
+    }
+
+    /**
+     * Current version of the row a save was rejected for, read now on the calling thread
+     * (works whether or not the feed is running); a row that no longer exists comes back deleted
+     */
+    public Batch fetchCurrent(StaleDataException conflict) {
+        LinkedList<Integer> ids = new LinkedList<>(Collections.singletonList(conflict.getRowId()));
+        LinkedList<Integer> none = new LinkedList<>();
+        if ("items".equals(conflict.getTable())) {
+            Batch batch = load(ids, none, none, none);
+            if (batch.items.isEmpty()) {
+                batch.deletedItemIds.add(conflict.getRowId());
+            }
+            return batch;
+        }
+        Batch batch = load(none, ids, none, none);
+        if (batch.customers.isEmpty()) {
+            batch.deletedCustomerIds.add(conflict.getRowId());
+        }
+        return batch;
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // ============ POLLING ============
+
+    private void pollAndDeliver() {
+        try {
+            Batch batch = poll();
+            if (!batch.isEmpty()) {
+                listener.changesArrived(batch);
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Positions only move once a poll succeeded; the next one retries
+            System.err.println("⚠ Change feed poll failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Changes committed by other instances since the last poll
+     */
+    Batch poll() throws SQLException {
+        if (!changes.isPositioned() || !tombstones.isPositioned()) {
+            markPosition();
+            return new Batch();
+        }
+
+        Cursor nextChanges = changes.copy();
+        Cursor nextTombstones = tombstones.copy();
+        LinkedHashSet<Integer> itemIds = new LinkedHashSet<>();
+        LinkedHashSet<Integer> customerIds = new LinkedHashSet<>();
+        LinkedHashSet<Integer> deletedItemIds = new LinkedHashSet<>();
+        LinkedHashSet<Integer> deletedCustomerIds = new LinkedHashSet<>();
+        long now = System.currentTimeMillis();
+
+        String changeSql = "SELECT change_id, table_name, row_id, version, instance_id FROM change_log " +
+                "WHERE change_id > ? ORDER BY change_id LIMIT ?";
+        String tombstoneSql = "SELECT tombstone_id, table_name, row_id FROM deleted_rows " +
+                "WHERE tombstone_id > ? ORDER BY tombstone_id LIMIT ?";
+
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            try (PreparedStatement pstmt = connection.prepareStatement(changeSql)) {
+                pstmt.setLong(1, nextChanges.last);
+                pstmt.setInt(2, batchSize);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next() && nextChanges.accept(rs.getLong("change_id"), now, gapMillis)) {
+                        if (databaseManager.getInstanceId().equals(rs.getString("instance_id"))) {
+                            continue;
+                        }
+                        int rowId = rs.getInt("row_id");
+                        String table = rs.getString("table_name");
+                        if ("items".equals(table)) {
+                            // The loaded copy may already be at this version (e.g. loaded after the save)
+                            Item loaded = databaseManager.getIdentityMap().get(rowId);
+                            if (loaded == null || loaded.getVersion() < rs.getInt("version")) {
+                                itemIds.add(rowId);
+                            }
+                        } else if ("customers".equals(table)) {
+                            customerIds.add(rowId);
+                        }
+                    }
+                }
+            }
+
+            try (PreparedStatement pstmt = connection.prepareStatement(tombstoneSql)) {
+                pstmt.setLong(1, nextTombstones.last);
+                pstmt.setInt(2, batchSize);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next() && nextTombstones.accept(rs.getLong("tombstone_id"), now, gapMillis)) {
+                        String table = rs.getString("table_name");
+                        if ("items".equals(table)) {
+                            deletedItemIds.add(rs.getInt("row_id"));
+                        } else if ("customers".equals(table)) {
+                            deletedCustomerIds.add(rs.getInt("row_id"));
+                        }
+                    }
+                }
+            }
+        }
+
+        Batch batch = load(itemIds, customerIds, deletedItemIds, deletedCustomerIds);
+        changes = nextChanges;
+        tombstones = nextTombstones;
+        return batch;
+    }
+
+    /**
+     * Current rows of the changed items and customers (a row re-created after its deletion is
+     * reported as changed only)
+     */
+    private Batch load(Collection<Integer> itemIds, Collection<Integer> customerIds,
+                       Collection<Integer> deletedItemIds, Collection<Integer> deletedCustomerIds) {
+        Batch batch = new Batch();
+        batch.items.addAll(databaseManager.loadFormulationSummaries(itemIds, batch.itemAuthorIds));
+
+        LinkedHashMap<Customer, LinkedList<Integer>> favoriteIds = new LinkedHashMap<>();
+        batch.customers.addAll(databaseManager.loadCustomerAccountsByIds(customerIds, favoriteIds));
+        databaseManager.linkFavorites(favoriteIds);
+
+        for (int itemId : deletedItemIds) {
+            if (!itemIds.contains(itemId)) {
+                batch.deletedItemIds.add(itemId);
+            }
+        }
+        for (int customerId : deletedCustomerIds) {
+            if (!customerIds.contains(customerId)) {
+                batch.deletedCustomerIds.add(customerId);
+            }
+        }
+        return batch;
+    }
+
+    private static long maxId(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // ============ BATCH ============
+
+    /**
+     * What other instances changed: current summaries of changed items (not canonical yet),
+     * changed customers with their favorites linked, and deleted IDs
+     */
+    public static class Batch {
+        private final LinkedList<Item> items = new LinkedList<>();
+        private final HashMap<Integer, Integer> itemAuthorIds = new HashMap<>();
+        private final LinkedList<Customer> customers = new LinkedList<>();
+        private final LinkedList<Integer> deletedItemIds = new LinkedList<>();
+        private final LinkedList<Integer> deletedCustomerIds = new LinkedList<>();
+
+        public LinkedList<Item> getItems() {
+            return items;
+        }
+
+        /**
+         * items.author_id of a changed item, or null
+         */
+        public Integer getAuthorId(int itemId) {
+            return itemAuthorIds.get(itemId);
+        }
+
+        public LinkedList<Customer> getCustomers() {
+            return customers;
+        }
+
+        public LinkedList<Integer> getDeletedItemIds() {
+            return deletedItemIds;
+        }
+
+        public LinkedList<Integer> getDeletedCustomerIds() {
+            return deletedCustomerIds;
+        }
+
+        public boolean isEmpty() {
+            return items.isEmpty() && customers.isEmpty() && deletedItemIds.isEmpty() && deletedCustomerIds.isEmpty();
+        }
+    }
+
+    // ============ CURSOR ============
+
+    /**
+     * Last consumed ID of an auto-increment log table, waiting at gaps for late commits
+     */
+    private static class Cursor {
+        long last;
+        private long gapId = -1;
+        private long gapSeenAt;
+
+        Cursor() {
+            this(-1);
+        }
+
+        Cursor(long last) {
+            this.last = last;
+        }
+
+        boolean isPositioned() {
+            return last >= 0;
+        }
+
+        /**
+         * True if the row with this ID may be consumed now; false if an earlier ID is still
+         * missing (it and the rows after it are read again next time)
+         */
+        boolean accept(long id, long now, long gapTimeout) {
+            if (id != last + 1) {
+                if (gapId != last + 1) {
+                    gapId = last + 1;
+                    gapSeenAt = now;
+                }
+                if (now - gapSeenAt < gapTimeout) {
+                    return false;
+                }
+            }
+            last = id;
+            return true;
+        }
+
+        Cursor copy() {
+            Cursor copy = new Cursor(last);
+            copy.gapId = gapId;
+            copy.gapSeenAt = gapSeenAt;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package MyClasses.Database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded JDBC connection pool
+ * Connections are leased per operation and returned by calling close() on the lease.
+ * - validation on borrow (for connections idle longer than VALIDATION_INTERVAL_MS)
+ * - idle eviction (connections unused for idleTimeoutMillis are closed)
+ * - leak detection (leases held longer than leakThresholdMillis are reported with the borrower's stack)
+ * - per-connection PreparedStatement cache keyed by SQL text (prepareStatement(String) only);
+ *   closing a cached statement just clears its parameters/batch so the next caller reuses it
+ */
+public class ConnectionPool {
+
+    private static final long VALIDATION_INTERVAL_MS = 1000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_INTERVAL_MS = 15000;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxConnections;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int statementCacheSize;
+
+    // Permits bound the number of physical connections handed out at once
+    private final Semaphore permits;
+    private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> leased = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown = false;
+
+    public ConnectionPool(String url, String user, String password, int maxConnections,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                          int statementCacheSize) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxConnections = maxConnections;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxConnections, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                HOUSEKEEPING_INTERVAL_MS, HOUSEKEEPING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection; close() on the returned object gives it back to the pool
+     */
+    public Connection borrow() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool is shut down");
+        }
+
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + borrowTimeoutMillis +
+                        " ms waiting for a database connection (" + leased.size() + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(DriverManager.getConnection(url, user, password));
+            }
+            Connection lease = pooled.lease();
+            leased.add(pooled);
+            return lease;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Take the most recently used idle connection, discarding any that fail validation
+     */
+    private PooledConnection takeValidIdle() {
+        while (true) {
+            PooledConnection candidate;
+            synchronized (idle) {
+                candidate = idle.pollFirst();
+            }
+            if (candidate == null) {
+                return null;
+            }
+            if (candidate.isUsable()) {
+                return candidate;
+            }
+            candidate.closePhysical();
+        }
+    }
+
+    /**
+     * Called by the lease proxy when the borrower closes it
+     */
+    private void giveBack(PooledConnection pooled) {
+        pooled.leaseTrace = null;
+        leased.remove(pooled);
+        try {
+            if (shutdown || !pooled.resetForReuse()) {
+                pooled.closePhysical();
+            } else {
+                synchronized (idle) {
+                    idle.addFirst(pooled);
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Evict idle connections and report leaked leases
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        ArrayList<PooledConnection> expired = new ArrayList<>();
+        synchronized (idle) {
+            Iterator<PooledConnection> it = idle.iterator();
+            while (it.hasNext()) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastReturnedAt > idleTimeoutMillis) {
+                    it.remove();
+                    expired.add(pooled);
+                }
+            }
+        }
+        for (PooledConnection pooled : expired) {
+            pooled.closePhysical();
+        }
+
+        if (leakThresholdMillis > 0) {
+            for (PooledConnection pooled : leased) {
+                if (!pooled.leakReported && now - pooled.leasedAt > leakThresholdMillis) {
+                    pooled.leakReported = true;
+                    System.err.println("⚠ Possible connection leak: leased " + (now - pooled.leasedAt) +
+                            " ms ago by thread '" + pooled.leasedBy + "'");
+                    if (pooled.leaseTrace != null) {
+                        pooled.leaseTrace.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Close idle connections and stop housekeeping; leased connections close when returned
+     */
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+
+        ArrayList<PooledConnection> toClose;
+        synchronized (idle) {
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+        }
+        for (PooledConnection pooled : toClose) {
+            pooled.closePhysical();
+        }
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    public int getActiveCount() {
+        return leased.size();
+    }
+
+    public int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPool{active=" + getActiveCount() + ", idle=" + getIdleCount() +
+                ", max=" + maxConnections + "}";
+    }
+
+    // ============ INNER CLASS: POOLED CONNECTION ============
+
+    /**
+     * Physical connection plus lease bookkeeping; borrowers only ever see a per-lease proxy
+     */
+    private class PooledConnection {
+        private final Connection physical;
+        private volatile long leasedAt;
+        private volatile long lastReturnedAt;
+        private volatile String leasedBy;
+        private volatile Throwable leaseTrace;
+        private volatile boolean leakReported;
+
+        // Only touched by the current borrower, so no locking needed
+        private final LinkedHashMap<String, CachedStatement> statementCache =
+                new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                        if (size() > statementCacheSize) {
+                            eldest.getValue().evict();
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.lastReturnedAt = System.currentTimeMillis();
+        }
+
+        /**
+         * Reuse a prepared statement for this SQL text, or prepare and cache a new one.
+         * If the cached statement is still open in an enclosing loop, an uncached one is returned.
+         */
+        PreparedStatement prepareCached(String sql) throws SQLException {
+            if (statementCacheSize <= 0) {
+                return physical.prepareStatement(sql);
+            }
+
+            CachedStatement cached = statementCache.get(sql);
+            if (cached != null && cached.inUse) {
+                return physical.prepareStatement(sql);
+            }
+            if (cached == null || cached.statement.isClosed()) {
+                cached = new CachedStatement(physical.prepareStatement(sql));
+                statementCache.put(sql, cached);
+            }
+            return cached.checkOut();
+        }
+
+        Connection lease() {
+            leasedAt = System.currentTimeMillis();
+            leasedBy = Thread.currentThread().getName();
+            leaseTrace = leakThresholdMillis > 0 ? new Throwable("Connection leased here") : null;
+            leakReported = false;
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, new Lease(this));
+        }
+
+        /**
+         * Validation on borrow; recently returned connections skip the round trip
+         */
+        boolean isUsable() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (System.currentTimeMillis() - lastReturnedAt < VALIDATION_INTERVAL_MS) {
+                    return true;
+                }
+                return physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Undo anything a borrower left behind so the next lease starts clean
+         */
+        boolean resetForReuse() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                for (CachedStatement cached : statementCache.values()) {
+                    cached.checkIn();
+                }
+                lastReturnedAt = System.currentTimeMillis();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                // Connection is being discarded anyway
+            }
+        }
+    }
+
+    // ============ INNER CLASS: LEASE ============
+
+    /**
+     * Handle given to one borrower; close() returns the connection, later calls fail
+     */
+    private class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean open = true;
+
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if ("close".equals(name)) {
+                if (open) {
+                    open = false;
+                    giveBack(pooled);
+                }
+                return null;
+            }
+            if ("isClosed".equals(name)) {
+                return !open || pooled.physical.isClosed();
+            }
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(name)) {
+                return "PooledConnection[" + pooled.physical + "]";
+            }
+            if (!open) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if ("prepareStatement".equals(name) && args != null && args.length == 1) {
+                return pooled.prepareCached((String) args[0]);
+            }
+
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // ============ INNER CLASS: CACHED STATEMENT ============
+
+    /**
+     * PreparedStatement kept open across leases; the borrower's close() only resets it
+     */
+    private static class CachedStatement implements InvocationHandler {
+        private final PreparedStatement statement;
+        private PreparedStatement proxy;
+        private boolean inUse;
+        private boolean evicted;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        PreparedStatement checkOut() {
+            inUse = true;
+            proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, this);
+            return proxy;
+        }
+
+        void checkIn() {
+            if (!inUse) {
+                return;
+            }
+            inUse = false;
+            proxy = null;
+            try {
+                if (evicted) {
+                    statement.close();
+                } else {
+                    statement.clearParameters();
+                    statement.clearBatch();
+                }
+            } catch (SQLException e) {
+                evicted = true;
+            }
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    // Statement is being discarded anyway
+                }
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if ("close".equals(name)) {
+                if (proxy == this.proxy) {
+                    checkIn();
+                }
+                return null;
+            }
+            if ("isClosed".equals(name)) {
+                return proxy != this.proxy || statement.isClosed();
+            }
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            if (proxy != this.proxy) {
+                throw new SQLException("Statement has already been closed");
+            }
+
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -17,9 +17,19 @@ public class DatabaseConfig {
     private static final String DB_USER = "root";
     private static final String DB_PASSWORD = "root";
 
-    // Connection pool settings
+    // Connection pool settings (overridable via db.pool.* properties)
     private static final int MAX_CONNECTIONS = 10;
-    private static Connection connection = null;
+    private static final long BORROW_TIMEOUT_MS = 30000;
+    private static final long IDLE_TIMEOUT_MS = 300000;
+    private static final long LEAK_THRESHOLD_MS = 60000;
+    private static final int STATEMENT_CACHE_SIZE = 64;
+    private static ConnectionPool pool = null;
+
+    // Bulk loading: max item_ids per IN (...) list when loading details for a subset of items
+    private static final int DEFAULT_BULK_CHUNK_SIZE = 500;
+
+    // Streaming loads: rows fetched per round trip through a server-side cursor
+    private static final int DEFAULT_FETCH_SIZE = 1000;
 
     // Alternative: Load from properties file
     private static Properties dbProperties = null;
@@ -51,58 +61,51 @@ public class DatabaseConfig {
     }
 
     /**
-     * Get database connection
+     * Borrow a pooled database connection
+     * Callers must close() it (try-with-resources) to return it to the pool
      * @return Connection object
      */
     public static Connection getConnection() throws SQLException {
-        if (connection != null && !connection.isClosed()) {
-            return connection;
-        }
-
-        String url = DB_URL;
-        String user = DB_USER;
-        String password = DB_PASSWORD;
+        return getPool().borrow();
+    }
 
-        // Use properties file if available
-        if (dbProperties != null) {
-            url = dbProperties.getProperty("db.url", DB_URL);
-            user = dbProperties.getProperty("db.user", DB_USER);
-            password = dbProperties.getProperty("db.password", DB_PASSWORD);
+    /**
+     * Get the shared connection pool, creating it on first use
+     */
+    public static synchronized ConnectionPool getPool() {
+        if (pool == null || pool.isShutdown()) {
+            pool = new ConnectionPool(
+                    getDatabaseUrl(),
+                    getProperty("db.user", DB_USER),
+                    getProperty("db.password", DB_PASSWORD),
+                    (int) getLongProperty("db.pool.maxConnections", MAX_CONNECTIONS),
+                    getLongProperty("db.pool.timeout", BORROW_TIMEOUT_MS),
+                    getLongProperty("db.pool.idleTimeout", IDLE_TIMEOUT_MS),
+                    getLongProperty("db.pool.leakThreshold", LEAK_THRESHOLD_MS),
+                    (int) getLongProperty("db.pool.statementCacheSize", STATEMENT_CACHE_SIZE)
+            );
+            System.out.println("✓ Database connection pool created (" + pool.getMaxConnections() + " max)");
         }
-
-        connection = DriverManager.getConnection(url, user, password);
-        System.out.println("✓ Database connection established");
-        return connection;
+        return pool;
     }
 
     /**
      * Get a new connection (for multi-threaded scenarios)
+     * Not pooled - prefer getConnection()
      */
     public static Connection getNewConnection() throws SQLException {
-        String url = DB_URL;
-        String user = DB_USER;
-        String password = DB_PASSWORD;
-
-        if (dbProperties != null) {
-            url = dbProperties.getProperty("db.url", DB_URL);
-            user = dbProperties.getProperty("db.user", DB_USER);
-            password = dbProperties.getProperty("db.password", DB_PASSWORD);
-        }
-
-        return DriverManager.getConnection(url, user, password);
+        return DriverManager.getConnection(getDatabaseUrl(),
+                getProperty("db.user", DB_USER),
+                getProperty("db.password", DB_PASSWORD));
     }
 
     /**
-     * Close database connection
+     * Shut down the connection pool
      */
-    public static void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("✓ Database connection closed");
-            }
-        } catch (SQLException e) {
-            System.err.println("❌ Error closing connection: " + e.getMessage());
+    public static synchronized void closeConnection() {
+        if (pool != null && !pool.isShutdown()) {
+            pool.shutdown();
+            System.out.println("✓ Database connection pool closed");
         }
     }
 
@@ -110,8 +113,7 @@ public class DatabaseConfig {
      * Test database connection
      */
     public static boolean testConnection() {
-        try {
-            Connection conn = getConnection();
+        try (Connection conn = getConnection()) {
             boolean isValid = conn.isValid(5);
             System.out.println(isValid ? "✓ Database connection is valid" : "❌ Database connection is invalid");
             return isValid;
@@ -125,10 +127,86 @@ public class DatabaseConfig {
      * Get database URL
      */
     public static String getDatabaseUrl() {
+        return withCursorFetch(withBatchRewrite(getProperty("db.url", DB_URL)));
+    }
+
+    /**
+     * Make sure Connector/J rewrites executeBatch() inserts into multi-row statements
+     * (one round trip per batch instead of one per row) unless the URL sets it explicitly
+     */
+    private static String withBatchRewrite(String url) {
+        if (url.contains("rewriteBatchedStatements=")) {
+            return url;
+        }
+        return url + (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+    }
+
+    /**
+     * Let Connector/J honour setFetchSize() with a server-side cursor, so a statement with a
+     * fetch size reads its rows in batches (several such result sets can be open on one
+     * connection); statements without a fetch size are unaffected
+     */
+    private static String withCursorFetch(String url) {
+        if (url.contains("useCursorFetch=")) {
+            return url;
+        }
+        return url + (url.contains("?") ? "&" : "?") + "useCursorFetch=true";
+    }
+
+    private static String getProperty(String key, String defaultValue) {
+        if (dbProperties != null) {
+            return dbProperties.getProperty(key, defaultValue);
+        }
+        return defaultValue;
+    }
+
+    private static long getLongProperty(String key, long defaultValue) {
+        try {
+            return Long.parseLong(getProperty(key, String.valueOf(defaultValue)).trim());
+        } catch (NumberFormatException e) {
+            System.err.println("⚠ Invalid " + key + ", using default " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Get a text setting from the properties file, or the default if missing
+     */
+    public static String getStringProperty(String key, String defaultValue) {
+        return getProperty(key, defaultValue);
+    }
+
+    /**
+     * Get an integer setting from the properties file, or the default if missing/invalid
+     */
+    public static int getIntProperty(String key, int defaultValue) {
+        return (int) getLongProperty(key, defaultValue);
+    }
+
+    /**
+     * Get chunk size used by bulk detail loading (db.bulk.chunkSize)
+     */
+    public static int getBulkChunkSize() {
         if (dbProperties != null) {
-            return dbProperties.getProperty("db.url", DB_URL);
+            try {
+                int size = Integer.parseInt(dbProperties.getProperty("db.bulk.chunkSize",
+                        String.valueOf(DEFAULT_BULK_CHUNK_SIZE)).trim());
+                if (size > 0) {
+                    return size;
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("⚠ Invalid db.bulk.chunkSize, using default " + DEFAULT_BULK_CHUNK_SIZE);
+            }
         }
-        return DB_URL;
+        return DEFAULT_BULK_CHUNK_SIZE;
+    }
+
+    /**
+     * Get rows per round trip for streaming loads (db.fetchSize)
+     */
+    public static int getFetchSize() {
+        int size = getIntProperty("db.fetchSize", DEFAULT_FETCH_SIZE);
+        return size > 0 ? size : DEFAULT_FETCH_SIZE;
     }
 
     /**
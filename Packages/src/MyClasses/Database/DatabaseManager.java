@@ -7,12 +7,28 @@ import MyClasses.Persons.*;
 import MyClasses.Restrictions.*;
 import MyClasses.Feedback;
 import MyClasses.SideEffects;
+import MyClasses.Utilities.ActivityRollups;
 import MyClasses.Utilities.AuditTrail;
+import MyClasses.Utilities.AutocompleteIndex;
+import MyClasses.Utilities.CatalogIndex;
+import MyClasses.Utilities.FormulationSearchIndex;
+import MyClasses.Utilities.IngredientUsageIndex;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.LinkedList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Database Manager - Handles all database operations
@@ -20,16 +36,28 @@ import java.util.HashMap;
  */
 public class DatabaseManager {
 
-    private Connection connection;
+    private static final long AUDIT_FLUSH_TIMEOUT_MS = 10000;
 
+    // Appends audit records in the background; attached by loadAuditTrail/saveAuditTrail
+    private AuditLogWriter auditWriter;
+
+    // One canonical Item per item_id for every loader (catalog, authors, favorites)
+    private final ItemIdentityMap identityMap = new ItemIdentityMap();
+
+    // Items are loaded as summaries; their details are fetched on first access and bounded here
+    private final ItemDetailCache detailCache = new ItemDetailCache(this::fillDetails,
+            DatabaseConfig.getIntProperty("db.detailCache.size", 500));
+
+    // Written into change_log with every save, so change feeds skip their own instance's changes
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /**
+     * Every operation leases its own connection from DatabaseConfig's pool,
+     * so work on different threads never shares a connection or transaction.
+     * Nothing is leased here: the first operation reports an unreachable database.
+     */
     public DatabaseManager() {
-        try {
-            this.connection = DatabaseConfig.getConnection();
-            System.out.println("✓ DatabaseManager initialized");
-        } catch (SQLException e) {
-            System.err.println("❌ Failed to initialize DatabaseManager: " + e.getMessage());
-            e.printStackTrace();
-        }
+        System.out.println("✓ DatabaseManager initialized");
     }
 
     // =====================================================
@@ -40,6 +68,20 @@ public class DatabaseManager {
      * Save admin to database
      */
     public boolean saveAdmin(Admin admin) {
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            upsertAdmin(connection, admin);
+            System.out.println("✓ Admin saved: " + admin.getName());
+            return true;
+        } catch (SQLException e) {
+            System.err.println("❌ Error saving admin: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Insert or update the admins row
+     */
+    private void upsertAdmin(Connection connection, Admin admin) throws SQLException {
         String sql = "INSERT INTO admins (admin_id, name, address, contact, date_of_birth, password, role) " +
                 "VALUES (?, ?, ?, ?, ?, ?, ?) " +
                 "ON DUPLICATE KEY UPDATE name=?, address=?, contact=?, date_of_birth=?, password=?";
@@ -60,11 +102,6 @@ public class DatabaseManager {
             pstmt.setString(12, admin.getPassword());
 
             pstmt.executeUpdate();
-            System.out.println("✓ Admin saved: " + admin.getName());
-            return true;
-        } catch (SQLException e) {
-            System.err.println("❌ Error saving admin: " + e.getMessage());
-            return false;
         }
     }
 
@@ -81,11 +118,19 @@ public class DatabaseManager {
      * Load all admins from database
      */
     public LinkedList<Admin> loadAdmins() {
+        return loadAdmins(null);
+    }
+
+    /**
+     * Load admins whose row changed at or after changedSince (all admins if null)
+     */
+    public LinkedList<Admin> loadAdmins(Timestamp changedSince) {
         LinkedList<Admin> admins = new LinkedList<>();
-        String sql = "SELECT * FROM admins";
+        String sql = "SELECT * FROM admins" + changedSinceFilter(changedSince);
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection connection = DatabaseConfig.getConnection();
+             PreparedStatement pstmt = prepareChangedSince(connection, sql, changedSince, 1);
+             ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
                 Admin admin = new Admin(
@@ -98,7 +143,7 @@ public class DatabaseManager {
                 );
                 admins.add(admin);
             }
-            System.out.println("✓ Loaded " + admins.size() + " admin(s)");
+            System.out.println("✓ Loaded " + admins.size() + describeChangedSince(changedSince) + " admin(s)");
         } catch (SQLException e) {
             System.err.println("❌ Error loading admins: " + e.getMessage());
         }
@@ -114,6 +159,25 @@ public class DatabaseManager {
      * Save author to database
      */
     public boolean saveAuthor(Author author) {
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            upsertAuthor(connection, author);
+
+            // Save author's formulations
+            saveAuthorFormulations(connection, author);
+            touchRows(connection, "authors", "author_id", Collections.singletonList(author.getAuthorID()));
+
+            System.out.println("✓ Author saved: " + author.getName());
+            return true;
+        } catch (SQLException e) {
+            System.err.println("❌ Error saving author: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Insert or update the authors row
+     */
+    private void upsertAuthor(Connection connection, Author author) throws SQLException {
         String sql = "INSERT INTO authors (author_id, name, address, contact, date_of_birth, password, role) " +
                 "VALUES (?, ?, ?, ?, ?, ?, ?) " +
                 "ON DUPLICATE KEY UPDATE name=?, address=?, contact=?, date_of_birth=?, password=?";
@@ -134,31 +198,27 @@ public class DatabaseManager {
             pstmt.setString(12, author.getPassword());
 
             pstmt.executeUpdate();
-
-            // Save author's formulations
-            saveAuthorFormulations(author);
-
-            System.out.println("✓ Author saved: " + author.getName());
-            return true;
-        } catch (SQLException e) {
-            System.err.println("❌ Error saving author: " + e.getMessage());
-            return false;
         }
     }
 
     /**
      * Save author's formulations reference
      */
-    private void saveAuthorFormulations(Author author) {
-        for (Item item : author.getFormulatedItems()) {
-            String sql = "INSERT IGNORE INTO item_authors (item_id, author_id) VALUES (?, ?)";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+    private void saveAuthorFormulations(Connection connection, Author author) {
+        if (author.getFormulatedItems().isEmpty()) {
+            return;
+        }
+
+        String sql = "INSERT IGNORE INTO item_authors (item_id, author_id) VALUES (?, ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (Item item : author.getFormulatedItems()) {
                 pstmt.setInt(1, item.getItemID());
                 pstmt.setInt(2, author.getAuthorID());
-                pstmt.executeUpdate();
-            } catch (SQLException e) {
-                System.err.println("Error saving author-item relationship: " + e.getMessage());
+                pstmt.addBatch();
             }
+            pstmt.executeBatch();
+        } catch (SQLException e) {
+            System.err.println("Error saving author-item relationship: " + e.getMessage());
         }
     }
 
@@ -172,14 +232,31 @@ public class DatabaseManager {
     }
 
     /**
-     * Load all authors from database
+     * Load all authors from database (with their formulations)
      */
     public LinkedList<Author> loadAuthors() {
+        LinkedList<Author> authors = loadAuthorAccounts();
+        linkAuthorFormulations(authors, loadAuthorItemIds());
+        return authors;
+    }
+
+    /**
+     * Load all author accounts without their formulations (see linkAuthorFormulations)
+     */
+    public LinkedList<Author> loadAuthorAccounts() {
+        return loadAuthorAccounts(null);
+    }
+
+    /**
+     * Author accounts whose row changed at or after changedSince (all if null)
+     */
+    public LinkedList<Author> loadAuthorAccounts(Timestamp changedSince) {
         LinkedList<Author> authors = new LinkedList<>();
-        String sql = "SELECT * FROM authors";
+        String sql = "SELECT * FROM authors" + changedSinceFilter(changedSince);
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection connection = DatabaseConfig.getConnection();
+             PreparedStatement pstmt = prepareChangedSince(connection, sql, changedSince, 1);
+             ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
                 Author author = new Author(
@@ -190,16 +267,9 @@ public class DatabaseManager {
                         rs.getString("date_of_birth")
                 );
                 author.setPassword(rs.getString("password"));
-
-                // Load author's formulations
-                LinkedList<Item> formulations = loadAuthorFormulations(author.getAuthorID());
-                for (Item item : formulations) {
-                    author.getFormulatedItems().add(item);
-                }
-
                 authors.add(author);
             }
-            System.out.println("✓ Loaded " + authors.size() + " author(s)");
+            System.out.println("✓ Loaded " + authors.size() + describeChangedSince(changedSince) + " author(s)");
         } catch (SQLException e) {
             System.err.println("❌ Error loading authors: " + e.getMessage());
         }
@@ -208,29 +278,60 @@ public class DatabaseManager {
     }
 
     /**
-     * Load formulations by author
+     * author_id -> IDs of the items they formulated, for all authors in one query
      */
-    private LinkedList<Item> loadAuthorFormulations(int authorId) {
-        LinkedList<Item> formulations = new LinkedList<>();
-        String sql = "SELECT i.* FROM items i " +
-                "JOIN item_authors ia ON i.item_id = ia.item_id " +
-                "WHERE ia.author_id = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, authorId);
-            ResultSet rs = pstmt.executeQuery();
+    public LinkedHashMap<Integer, LinkedList<Integer>> loadAuthorItemIds() {
+        return loadAuthorItemIds(null);
+    }
 
-            while (rs.next()) {
-                Item item = loadItemFromResultSet(rs);
-                if (item != null) {
-                    formulations.add(item);
+    /**
+     * Item IDs of the authors whose row changed at or after changedSince (all authors if null)
+     */
+    public LinkedHashMap<Integer, LinkedList<Integer>> loadAuthorItemIds(Timestamp changedSince) {
+        LinkedHashMap<Integer, LinkedList<Integer>> itemIdsByAuthor = new LinkedHashMap<>();
+        String sql = "SELECT author_id, item_id FROM item_authors"
+                + changedSinceFilter(changedSince, "author_id", "authors") + " ORDER BY author_id, item_id";
+
+        try (Connection connection = DatabaseConfig.getConnection();
+             PreparedStatement pstmt = prepareStreaming(connection, sql)) {
+            bindChangedSince(pstmt, changedSince, 1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+                    itemIdsByAuthor.computeIfAbsent(rs.getInt("author_id"), k -> new LinkedList<>())
+                            .add(rs.getInt("item_id"));
                 }
             }
         } catch (SQLException e) {
             System.err.println("Error loading author formulations: " + e.getMessage());
         }
 
-        return formulations;
+        return itemIdsByAuthor;
+    }
+
+    /**
+     * Attach formulations to authors (shared instances from the identity map)
+     * Cheapest once the catalog is loaded: the items are then already canonical.
+     */
+    public void linkAuthorFormulations(Collection<Author> authors, Map<Integer, LinkedList<Integer>> itemIdsByAuthor) {
+        ArrayList<Integer> allIds = new ArrayList<>();
+        for (LinkedList<Integer> itemIds : itemIdsByAuthor.values()) {
+            allIds.addAll(itemIds);
+        }
+        resolveItems(allIds);
+
+        for (Author author : authors) {
+            LinkedList<Integer> itemIds = itemIdsByAuthor.get(author.getAuthorID());
+            if (itemIds == null) {
+                continue;
+            }
+            for (int itemId : itemIds) {
+                Item item = identityMap.get(itemId);
+                if (item != null) {
+                    author.getFormulatedItems().add(item);
+                }
+            }
+        }
     }
 
     // =====================================================
@@ -239,8 +340,55 @@ public class DatabaseManager {
 
     /**
      * Save customer to database
+     * @throws StaleDataException if another instance saved the customer since this copy was loaded
      */
     public boolean saveCustomer(Customer customer) {
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            try {
+                connection.setAutoCommit(false);
+                upsertCustomer(connection, customer);
+
+                // Save purchases
+                savePurchases(connection, customer);
+
+                // Save favorites
+                saveFavorites(connection, customer);
+
+                // Save feedbacks
+                saveFeedbacks(connection, customer);
+
+                int version = claimVersion(connection, "customers", "customer_id",
+                        customer.getCustomerID(), customer.getVersion());
+                logChanges(connection, "customers", Collections.singletonMap(customer.getCustomerID(), version));
+
+                connection.commit();
+                connection.setAutoCommit(true);
+
+                advanceVersion(customer, version);
+                System.out.println("✓ Customer saved: " + customer.getName());
+                return true;
+            } catch (SQLException | StaleDataException e) {
+                try {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+                throw e;
+            }
+        } catch (StaleDataException e) {
+            System.err.println("❌ Save rejected: " + e.getMessage());
+            throw e;
+        } catch (SQLException e) {
+            System.err.println("❌ Error saving customer: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Insert or update the customers row
+     */
+    private void upsertCustomer(Connection connection, Customer customer) throws SQLException {
         String sql = "INSERT INTO customers (customer_id, name, address, contact, date_of_birth, age, password, role) " +
                 "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
                 "ON DUPLICATE KEY UPDATE name=?, address=?, contact=?, date_of_birth=?, age=?, password=?";
@@ -263,68 +411,73 @@ public class DatabaseManager {
             pstmt.setString(14, customer.getPassword());
 
             pstmt.executeUpdate();
+        }
+    }
 
-            // Save purchases
-            savePurchases(customer);
-
-            // Save favorites
-            saveFavorites(customer);
-
-            // Save feedbacks
-            saveFeedbacks(customer);
+    /**
+     * Save customer purchases
+     */
+    private void savePurchases(Connection connection, Customer customer) {
+        if (customer.getPurchasedItems().isEmpty()) {
+            return;
+        }
 
-            System.out.println("✓ Customer saved: " + customer.getName());
-            return true;
+        try {
+            insertPurchases(connection, customer.getCustomerID(), customer.getPurchasedItems().values());
         } catch (SQLException e) {
-            System.err.println("❌ Error saving customer: " + e.getMessage());
-            return false;
+            System.err.println("Error saving purchase: " + e.getMessage());
         }
     }
 
     /**
-     * Save customer purchases
+     * Insert purchase rows for one customer in a single batch
      */
-    private void savePurchases(Customer customer) {
+    private void insertPurchases(Connection connection, int customerId,
+                                 Collection<Customer.PurchaseRecord> purchases) throws SQLException {
         String sql = "INSERT INTO purchases (customer_id, item_id, item_name, price, purchase_date, payment_method) " +
                 "VALUES (?, ?, ?, ?, ?, ?) " +
                 "ON DUPLICATE KEY UPDATE item_id=item_id";
 
-        for (Customer.PurchaseRecord purchase : customer.getPurchasedItems().values()) {
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setInt(1, customer.getCustomerID());
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (Customer.PurchaseRecord purchase : purchases) {
+                pstmt.setInt(1, customerId);
                 pstmt.setInt(2, purchase.getItemID());
                 pstmt.setString(3, purchase.getItemName());
                 pstmt.setDouble(4, purchase.getPrice());
                 pstmt.setTimestamp(5, new Timestamp(purchase.getPurchaseDate().getTime()));
                 pstmt.setString(6, purchase.getPaymentMethod());
-                pstmt.executeUpdate();
-            } catch (SQLException e) {
-                System.err.println("Error saving purchase: " + e.getMessage());
+                pstmt.addBatch();
             }
+            pstmt.executeBatch();
         }
     }
 
     /**
      * Save customer favorites
      */
-    private void saveFavorites(Customer customer) {
+    private void saveFavorites(Connection connection, Customer customer) {
         String sql = "INSERT IGNORE INTO favorites (customer_id, item_id) VALUES (?, ?)";
 
-        for (Item favorite : customer.getFavoriteFormulations()) {
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        if (customer.getFavoriteFormulations().isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (Item favorite : customer.getFavoriteFormulations()) {
                 pstmt.setInt(1, customer.getCustomerID());
                 pstmt.setInt(2, favorite.getItemID());
-                pstmt.executeUpdate();
-            } catch (SQLException e) {
-                System.err.println("Error saving favorite: " + e.getMessage());
+                pstmt.addBatch();
             }
+            pstmt.executeBatch();
+        } catch (SQLException e) {
+            System.err.println("Error saving favorite: " + e.getMessage());
         }
     }
 
     /**
      * Save customer feedbacks
      */
-    private void saveFeedbacks(Customer customer) {
+    private void saveFeedbacks(Connection connection, Customer customer) {
         String sql = "INSERT INTO feedbacks (item_id, customer_id, customer_name, comment, is_like) " +
                 "VALUES (?, ?, ?, ?, ?) " +
                 "ON DUPLICATE KEY UPDATE comment=?, is_like=?";
@@ -358,34 +511,138 @@ public class DatabaseManager {
 
     /**
      * Load all customers from database
+     * Customers, consumer info (with allergies), purchases and favorites are each read by one
+     * query ordered by customer_id and merge-joined in Java; every result set is streamed through
+     * a server-side cursor (DatabaseConfig.getFetchSize() rows per round trip), so the number of
+     * queries and the buffered rows do not grow with the number of customers.
      */
     public LinkedList<Customer> loadCustomers() {
-        LinkedList<Customer> customers = new LinkedList<>();
-        String sql = "SELECT * FROM customers";
+        LinkedHashMap<Customer, LinkedList<Integer>> favoriteIds = new LinkedHashMap<>();
+        LinkedList<Customer> customers = loadCustomerAccounts(favoriteIds);
+        linkFavorites(favoriteIds);
+        return customers;
+    }
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    /**
+     * Load all customers with consumer info and purchases; favorites are only collected as
+     * item IDs into favoriteIds (see linkFavorites), so this does not depend on the catalog
+     */
+    public LinkedList<Customer> loadCustomerAccounts(LinkedHashMap<Customer, LinkedList<Integer>> favoriteIds) {
+        return loadCustomerAccounts(null, favoriteIds);
+    }
 
-            while (rs.next()) {
-                Customer customer = new Customer(
-                        rs.getInt("customer_id"),
-                        rs.getInt("age")
-                );
-                customer.setName(rs.getString("name"));
-                customer.setAddress(rs.getString("address"));
-                customer.setContact(rs.getString("contact"));
-                customer.setDateofbirth(rs.getString("date_of_birth"));
-                customer.setPassword(rs.getString("password"));
+    /**
+     * loadCustomerAccounts limited to customers whose row changed at or after changedSince
+     * (all customers if null); their info, purchases and favorites are read in full
+     */
+    public LinkedList<Customer> loadCustomerAccounts(Timestamp changedSince,
+                                                     LinkedHashMap<Customer, LinkedList<Integer>> favoriteIds) {
+        return loadCustomerAccounts(changedSince, null, favoriteIds);
+    }
 
-                // Load purchases
-                loadCustomerPurchases(customer);
+    /**
+     * loadCustomerAccounts limited to the given customer IDs (rows reported by the change feed)
+     */
+    public LinkedList<Customer> loadCustomerAccountsByIds(Collection<Integer> customerIds,
+                                                          LinkedHashMap<Customer, LinkedList<Integer>> favoriteIds) {
+        if (customerIds.isEmpty()) {
+            return new LinkedList<>();
+        }
+        return loadCustomerAccounts(null, customerIds, favoriteIds);
+    }
 
-                // Load favorites
-                loadCustomerFavorites(customer);
+    private LinkedList<Customer> loadCustomerAccounts(Timestamp changedSince, Collection<Integer> customerIds,
+                                                      LinkedHashMap<Customer, LinkedList<Integer>> favoriteIds) {
+        LinkedList<Customer> customers = new LinkedList<>();
 
-                customers.add(customer);
+        String customerSql = "SELECT * FROM customers" + (customerIds != null
+                ? idFilter("customer_id", customerIds) : changedSinceFilter(changedSince))
+                + " ORDER BY customer_id";
+        String infoSql = "SELECT csi.customer_id, csi.info_id, csi.profile, csi.age_range, ca.allergy " +
+                "FROM consumer_specific_info csi " +
+                "LEFT JOIN consumer_allergies ca ON ca.info_id = csi.info_id" +
+                (customerIds != null ? idFilter("csi.customer_id", customerIds)
+                        : changedSinceFilter(changedSince, "csi.customer_id", "customers")) +
+                " ORDER BY csi.customer_id, csi.info_id, ca.allergy_id";
+        String purchaseSql = "SELECT * FROM purchases" + (customerIds != null ? idFilter("customer_id", customerIds)
+                : changedSinceFilter(changedSince, "customer_id", "customers")) + " ORDER BY customer_id, purchase_id";
+        String favoriteSql = "SELECT customer_id, item_id FROM favorites" + (customerIds != null
+                ? idFilter("customer_id", customerIds) : changedSinceFilter(changedSince, "customer_id", "customers"))
+                + " ORDER BY customer_id, favorite_id";
+
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            try (PreparedStatement customerStmt = prepareStreaming(connection, customerSql);
+                 PreparedStatement infoStmt = prepareStreaming(connection, infoSql);
+                 PreparedStatement purchaseStmt = prepareStreaming(connection, purchaseSql);
+                 PreparedStatement favoriteStmt = prepareStreaming(connection, favoriteSql)) {
+                bindChangedSince(customerStmt, changedSince, 1);
+                bindChangedSince(infoStmt, changedSince, 1);
+                bindChangedSince(purchaseStmt, changedSince, 1);
+                bindChangedSince(favoriteStmt, changedSince, 1);
+
+                try (ResultSet customerRows = customerStmt.executeQuery();
+                     ResultSet infoResult = infoStmt.executeQuery();
+                     ResultSet purchaseResult = purchaseStmt.executeQuery();
+                     ResultSet favoriteResult = favoriteStmt.executeQuery()) {
+
+                    CustomerOrderedRows infoRows = new CustomerOrderedRows(infoResult);
+                    CustomerOrderedRows purchaseRows = new CustomerOrderedRows(purchaseResult);
+                    CustomerOrderedRows favoriteRows = new CustomerOrderedRows(favoriteResult);
+
+                    while (customerRows.next()) {
+                        Customer customer = new Customer(
+                                customerRows.getInt("customer_id"),
+                                customerRows.getInt("age")
+                        );
+                        customer.setName(customerRows.getString("name"));
+                        customer.setAddress(customerRows.getString("address"));
+                        customer.setContact(customerRows.getString("contact"));
+                        customer.setDateofbirth(customerRows.getString("date_of_birth"));
+                        customer.setPassword(customerRows.getString("password"));
+                        customer.setVersion(customerRows.getInt("version"));
+
+                        int customerId = customer.getCustomerID();
+
+                        // Consumer info (first info row) and its allergies
+                        while (infoRows.seek(customerId)) {
+                            ResultSet rs = infoRows.getRow();
+                            if (customer.getInfo() == null) {
+                                ConsumerSpecificInfo info = new ConsumerSpecificInfo(rs.getString("profile"));
+                                info.setAgeRange(rs.getString("age_range"));
+                                customer.setInfo(info);
+                            }
+                            customer.getInfo().addAllergy(rs.getString("allergy"));
+                            infoRows.advance();
+                        }
+
+                        // Purchases
+                        while (purchaseRows.seek(customerId)) {
+                            ResultSet rs = purchaseRows.getRow();
+                            Timestamp purchaseDate = rs.getTimestamp("purchase_date");
+                            Customer.PurchaseRecord purchase = new Customer.PurchaseRecord(
+                                    rs.getInt("item_id"),
+                                    rs.getString("item_name"),
+                                    rs.getDouble("price"),
+                                    purchaseDate != null ? new Date(purchaseDate.getTime()) : null,
+                                    rs.getString("payment_method")
+                            );
+                            customer.getPurchasedItems().put(purchase.getItemID(), purchase);
+                            purchaseRows.advance();
+                        }
+
+                        // Favorite item IDs (resolved to items by linkFavorites)
+                        while (favoriteRows.seek(customerId)) {
+                            favoriteIds.computeIfAbsent(customer, k -> new LinkedList<>())
+                                    .add(favoriteRows.getRow().getInt("item_id"));
+                            favoriteRows.advance();
+                        }
+
+                        customers.add(customer);
+                    }
+                }
             }
-            System.out.println("✓ Loaded " + customers.size() + " customer(s)");
+
+            System.out.println("✓ Loaded " + customers.size() + describeChangedSince(changedSince) + " customer(s)");
         } catch (SQLException e) {
             System.err.println("❌ Error loading customers: " + e.getMessage());
         }
@@ -394,167 +651,378 @@ public class DatabaseManager {
     }
 
     /**
-     * Load customer purchases
+     * Attach favorites to customers (shared instances from the identity map)
+     * Items not loaded yet are read with one bulk lookup for all customers.
      */
-    private void loadCustomerPurchases(Customer customer) {
-        String sql = "SELECT * FROM purchases WHERE customer_id = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, customer.getCustomerID());
-            ResultSet rs = pstmt.executeQuery();
+    public void linkFavorites(Map<Customer, LinkedList<Integer>> favoriteIds) {
+        ArrayList<Integer> allIds = new ArrayList<>();
+        for (LinkedList<Integer> itemIds : favoriteIds.values()) {
+            allIds.addAll(itemIds);
+        }
+        resolveItems(allIds);
 
-            while (rs.next()) {
-                Customer.PurchaseRecord purchase = new Customer.PurchaseRecord(
-                        rs.getInt("item_id"),
-                        rs.getString("item_name"),
-                        rs.getDouble("price"),
-                        new Date(rs.getTimestamp("purchase_date").getTime()),
-                        rs.getString("payment_method")
-                );
-                customer.getPurchasedItems().put(purchase.getItemID(), purchase);
+        for (Map.Entry<Customer, LinkedList<Integer>> entry : favoriteIds.entrySet()) {
+            for (int itemId : entry.getValue()) {
+                Item item = identityMap.get(itemId);
+                if (item != null) {
+                    entry.getKey().getFavoriteFormulations().add(item);
+                }
             }
-        } catch (SQLException e) {
-            System.err.println("Error loading purchases: " + e.getMessage());
         }
     }
 
+    // ============ CHANGED-SINCE QUERIES (warm start deltas) ============
+
     /**
-     * Load customer favorites
+     * WHERE clause selecting rows whose updated_at is at or after changedSince ("" if null)
+     * Inclusive because TIMESTAMP has whole seconds: a row changed in the same second as the
+     * previous load is read again rather than missed. Callers pass a time already moved back by
+     * the warm-start safety window (WarmStartSnapshot.getChangedSince), since updated_at is
+     * stamped before commit.
      */
-    private void loadCustomerFavorites(Customer customer) {
-        String sql = "SELECT i.* FROM items i " +
-                "JOIN favorites f ON i.item_id = f.item_id " +
-                "WHERE f.customer_id = ?";
+    private static String changedSinceFilter(Timestamp changedSince) {
+        return changedSince == null ? "" : " WHERE updated_at >= ?";
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, customer.getCustomerID());
-            ResultSet rs = pstmt.executeQuery();
+    /**
+     * WHERE clause selecting child rows whose parent row (column -> parentTable) changed
+     */
+    private static String changedSinceFilter(Timestamp changedSince, String column, String parentTable) {
+        if (changedSince == null) {
+            return "";
+        }
+        String parentKey = column.substring(column.indexOf('.') + 1);
+        return " WHERE " + column + " IN (SELECT " + parentKey + " FROM " + parentTable + " WHERE updated_at >= ?)";
+    }
 
-            while (rs.next()) {
-                Item item = loadItemFromResultSet(rs);
-                if (item != null) {
-                    customer.getFavoriteFormulations().add(item);
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error loading favorites: " + e.getMessage());
+    private static void bindChangedSince(PreparedStatement pstmt, Timestamp changedSince, int index) throws SQLException {
+        if (changedSince != null) {
+            pstmt.setTimestamp(index, changedSince);
         }
     }
 
-    // =====================================================
-    // ITEM/FORMULATION OPERATIONS
-    // =====================================================
+    private PreparedStatement prepareChangedSince(Connection connection, String sql, Timestamp changedSince,
+                                                  int index) throws SQLException {
+        PreparedStatement pstmt = connection.prepareStatement(sql);
+        bindChangedSince(pstmt, changedSince, index);
+        return pstmt;
+    }
+
+    private static String describeChangedSince(Timestamp changedSince) {
+        return changedSince == null ? "" : " changed";
+    }
 
     /**
-     * Save item (Food or Drink) to database
+     * Current time on the database server (the clock updated_at is set with)
      */
-    public boolean saveItem(Item item) {
-        try {
-            // Start transaction
-            connection.setAutoCommit(false);
-
-            // Save base item data
-            saveItemBase(item);
+    public Timestamp getDatabaseTime() throws SQLException {
+        try (Connection connection = DatabaseConfig.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT CURRENT_TIMESTAMP")) {
+            rs.next();
+            return rs.getTimestamp(1);
+        }
+    }
 
-            // Save type-specific data
-            if (item instanceof Food) {
-                saveFood((Food) item);
-            } else if (item instanceof Drink) {
-                saveDrink((Drink) item);
+    /**
+     * IDs of rows deleted from a table at or after a time (from the deleted_rows tombstones)
+     */
+    public LinkedList<Integer> loadDeletedIds(String table, Timestamp deletedSince) {
+        LinkedList<Integer> ids = new LinkedList<>();
+        String sql = "SELECT row_id FROM deleted_rows WHERE table_name = ? AND deleted_at >= ?";
+
+        try (Connection connection = DatabaseConfig.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, table);
+            pstmt.setTimestamp(2, deletedSince);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt("row_id"));
+                }
             }
-
-            // Save related data
-            saveIngredients(item);
-            saveLabConditions(item);
-            savePreparationProtocol(item);
-            saveConservationConditions(item);
-            saveConsumptionConditions(item);
-            saveStandards(item);
-            saveVeto(item);
-            saveFeedbacksForItem(item);
-
-            // Commit transaction
-            connection.commit();
-            connection.setAutoCommit(true);
-
-            System.out.println("✓ Item saved: " + item.getName());
-            return true;
         } catch (SQLException e) {
-            try {
-                connection.rollback();
-                connection.setAutoCommit(true);
-            } catch (SQLException ex) {
-                ex.printStackTrace();
-            }
-            System.err.println("❌ Error saving item: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+            System.err.println("❌ Error loading deleted " + table + ": " + e.getMessage());
         }
+        return ids;
     }
 
     /**
-     * Save base item data
+     * Bump updated_at of parent rows whose child rows were written (author-item links), so
+     * changed-since queries see the whole aggregate as changed; saved items and customers get
+     * this from claimVersion
      */
-    private void saveItemBase(Item item) throws SQLException {
-        String sql = "INSERT INTO items (item_id, item_type, name, price, entry_date, expiry_date, " +
-                "average_price_per_kg, author_id) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
-                "ON DUPLICATE KEY UPDATE name=?, price=?, expiry_date=?, average_price_per_kg=?";
-
+    private void touchRows(Connection connection, String table, String idColumn, Collection<Integer> ids)
+            throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String sql = "UPDATE " + table + " SET updated_at = CURRENT_TIMESTAMP WHERE " + idColumn + " = ?";
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, item.getItemID());
-            pstmt.setString(2, item instanceof Food ? "FOOD" : "DRINK");
-            pstmt.setString(3, item.getName());
-            pstmt.setDouble(4, item.getPrice());
-            pstmt.setDate(5, item.getEntry_date() != null ? new java.sql.Date(item.getEntry_date().getTime()) : null);
-            pstmt.setString(6, item.getExpiry_date());
-
-            double avgPrice = 0;
-            if (item instanceof Food) {
-                avgPrice = ((Food) item).getAveragePricePerKg();
-            } else if (item instanceof Drink) {
-                avgPrice = ((Drink) item).getAveragePricePerKg();
+            for (int id : ids) {
+                pstmt.setInt(1, id);
+                pstmt.addBatch();
             }
-            pstmt.setDouble(7, avgPrice);
+            pstmt.executeBatch();
+        }
+    }
 
-            int authorId = 0;
-            if (item.getAuthor() != null) {
-                authorId = ((Author) item.getAuthor()).getAuthorID();
+    /**
+     * WHERE clause selecting rows by a list of integer IDs (inlined: they cannot carry SQL)
+     */
+    private static String idFilter(String column, Collection<Integer> ids) {
+        StringBuilder sb = new StringBuilder(" WHERE ").append(column).append(" IN (");
+        boolean first = true;
+        for (int id : ids) {
+            if (!first) {
+                sb.append(", ");
             }
-            pstmt.setInt(8, authorId);
-
-            // For UPDATE
-            pstmt.setString(9, item.getName());
-            pstmt.setDouble(10, item.getPrice());
-            pstmt.setString(11, item.getExpiry_date());
-            pstmt.setDouble(12, avgPrice);
-
-            pstmt.executeUpdate();
+            sb.append(id);
+            first = false;
         }
+        return sb.append(')').toString();
     }
 
+    // ============ ROW VERSIONS AND CHANGE LOG (cross-instance saves) ============
+
     /**
-     * Save Food-specific data
+     * Move a saved row from the version its changes are based on to the next one (and bump
+     * updated_at), inside the save's transaction. If another instance committed the row first
+     * the version no longer matches: the whole save is rolled back instead of overwriting it.
+     * The row stays locked until commit, so concurrent saves of it are serialized.
+     * @return the new version
      */
-    private void saveFood(Food food) throws SQLException {
-        String sql = "INSERT INTO foods (food_id, item_id) VALUES (?, ?) " +
-                "ON DUPLICATE KEY UPDATE item_id=?";
-
+    private int claimVersion(Connection connection, String table, String idColumn, int id, int expectedVersion)
+            throws SQLException {
+        String sql = "UPDATE " + table + " SET version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE "
+                + idColumn + " = ? AND version = ?";
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, food.getFoodID());
-            pstmt.setInt(2, food.getItemID());
-            pstmt.setInt(3, food.getItemID());
-            pstmt.executeUpdate();
+            pstmt.setInt(1, id);
+            pstmt.setInt(2, expectedVersion);
+            if (pstmt.executeUpdate() == 0) {
+                throw new StaleDataException(table, id, expectedVersion);
+            }
         }
+        return expectedVersion + 1;
     }
 
     /**
-     * Save Drink-specific data
+     * Record saved row versions in change_log (same transaction) for the other instances' change feeds
      */
-    private void saveDrink(Drink drink) throws SQLException {
-        String sql = "INSERT INTO drinks (drink_id, item_id) VALUES (?, ?) " +
-                "ON DUPLICATE KEY UPDATE item_id=?";
-
+    private void logChanges(Connection connection, String table, Map<Integer, Integer> versionsById)
+            throws SQLException {
+        if (versionsById.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO change_log (table_name, row_id, version, instance_id) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (Map.Entry<Integer, Integer> entry : versionsById.entrySet()) {
+                pstmt.setString(1, table);
+                pstmt.setInt(2, entry.getKey());
+                pstmt.setInt(3, entry.getValue());
+                pstmt.setString(4, instanceId);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    // A change feed may already have moved the copy to a newer version meanwhile
+    private static void advanceVersion(Item item, int version) {
+        item.setVersion(Math.max(item.getVersion(), version));
+    }
+
+    private static void advanceVersion(Customer customer, int version) {
+        customer.setVersion(Math.max(customer.getVersion(), version));
+    }
+
+    /**
+     * ID of this application instance in change_log
+     */
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Prepare a query whose rows are fetched in batches through a server-side cursor
+     */
+    private PreparedStatement prepareStreaming(Connection connection, String sql) throws SQLException {
+        PreparedStatement pstmt = connection.prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        pstmt.setFetchSize(DatabaseConfig.getFetchSize());
+        return pstmt;
+    }
+
+    /**
+     * Cursor over a result set ordered by customer_id, for merge-joining it with the customers
+     */
+    private static class CustomerOrderedRows {
+        private final ResultSet rs;
+        private boolean hasRow;
+
+        CustomerOrderedRows(ResultSet rs) throws SQLException {
+            this.rs = rs;
+            this.hasRow = rs.next();
+        }
+
+        /**
+         * Skip rows of smaller customer IDs (rows without a customer) and
+         * tell whether the current row belongs to the given customer
+         */
+        boolean seek(int customerId) throws SQLException {
+            while (hasRow && currentCustomerId() < customerId) {
+                hasRow = rs.next();
+            }
+            return hasRow && currentCustomerId() == customerId;
+        }
+
+        ResultSet getRow() {
+            return rs;
+        }
+
+        void advance() throws SQLException {
+            hasRow = rs.next();
+        }
+
+        private long currentCustomerId() throws SQLException {
+            int customerId = rs.getInt("customer_id");
+            return rs.wasNull() ? Long.MIN_VALUE : customerId;
+        }
+    }
+
+    // =====================================================
+    // ITEM/FORMULATION OPERATIONS
+    // =====================================================
+
+    /**
+     * Save item (Food or Drink) to database
+     * @throws StaleDataException if another instance saved the item since this copy was loaded
+     */
+    public boolean saveItem(Item item) {
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            try {
+                // Start transaction
+                connection.setAutoCommit(false);
+
+                // Save base item data, type-specific data and all related data
+                saveItemParts(connection, item, EnumSet.allOf(UnitOfWork.ItemPart.class));
+                int version = claimVersion(connection, "items", "item_id", item.getItemID(), item.getVersion());
+                logChanges(connection, "items", Collections.singletonMap(item.getItemID(), version));
+
+                // Commit transaction
+                connection.commit();
+                connection.setAutoCommit(true);
+
+                advanceVersion(item, version);
+                identityMap.register(item);
+                System.out.println("✓ Item saved: " + item.getName());
+                return true;
+            } catch (SQLException | StaleDataException e) {
+                try {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+                throw e;
+            }
+        } catch (StaleDataException e) {
+            System.err.println("❌ Save rejected: " + e.getMessage());
+            throw e;
+        } catch (SQLException e) {
+            System.err.println("❌ Error saving item: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Save the selected parts of an item (BASE also writes the foods/drinks row)
+     * The caller claims the item's next version afterwards (see claimVersion).
+     */
+    private void saveItemParts(Connection connection, Item item, EnumSet<UnitOfWork.ItemPart> parts) throws SQLException {
+        if (parts.contains(UnitOfWork.ItemPart.BASE)) {
+            saveItemBase(connection, item);
+
+            if (item instanceof Food) {
+                saveFood(connection, (Food) item);
+            } else if (item instanceof Drink) {
+                saveDrink(connection, (Drink) item);
+            }
+        }
+
+        if (parts.contains(UnitOfWork.ItemPart.INGREDIENTS)) saveIngredients(connection, item);
+        if (parts.contains(UnitOfWork.ItemPart.LAB_CONDITIONS)) saveLabConditions(connection, item);
+        if (parts.contains(UnitOfWork.ItemPart.PREPARATION_PROTOCOL)) savePreparationProtocol(connection, item);
+        if (parts.contains(UnitOfWork.ItemPart.CONSERVATION_CONDITIONS)) saveConservationConditions(connection, item);
+        if (parts.contains(UnitOfWork.ItemPart.CONSUMPTION_CONDITIONS)) saveConsumptionConditions(connection, item);
+        if (parts.contains(UnitOfWork.ItemPart.STANDARDS)) saveStandards(connection, item);
+        if (parts.contains(UnitOfWork.ItemPart.VETO)) saveVeto(connection, item);
+        if (parts.contains(UnitOfWork.ItemPart.FEEDBACKS)) saveFeedbacksForItem(connection, item);
+    }
+
+    /**
+     * Save base item data
+     */
+    private void saveItemBase(Connection connection, Item item) throws SQLException {
+        String sql = "INSERT INTO items (item_id, item_type, name, price, entry_date, expiry_date, " +
+                "average_price_per_kg, author_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE name=?, price=?, expiry_date=?, average_price_per_kg=?";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, item.getItemID());
+            pstmt.setString(2, item instanceof Food ? "FOOD" : "DRINK");
+            pstmt.setString(3, item.getName());
+            pstmt.setDouble(4, item.getPrice());
+            pstmt.setDate(5, item.getEntry_date() != null ? new java.sql.Date(item.getEntry_date().getTime()) : null);
+            pstmt.setString(6, item.getExpiry_date());
+
+            double avgPrice = 0;
+            if (item instanceof Food) {
+                avgPrice = ((Food) item).getAveragePricePerKg();
+            } else if (item instanceof Drink) {
+                avgPrice = ((Drink) item).getAveragePricePerKg();
+            }
+            pstmt.setDouble(7, avgPrice);
+
+            int authorId = 0;
+            if (item.getAuthor() != null) {
+                authorId = ((Author) item.getAuthor()).getAuthorID();
+            }
+            pstmt.setInt(8, authorId);
+
+            // For UPDATE
+            pstmt.setString(9, item.getName());
+            pstmt.setDouble(10, item.getPrice());
+            pstmt.setString(11, item.getExpiry_date());
+            pstmt.setDouble(12, avgPrice);
+
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Save Food-specific data
+     */
+    private void saveFood(Connection connection, Food food) throws SQLException {
+        String sql = "INSERT INTO foods (food_id, item_id) VALUES (?, ?) " +
+                "ON DUPLICATE KEY UPDATE item_id=?";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, food.getFoodID());
+            pstmt.setInt(2, food.getItemID());
+            pstmt.setInt(3, food.getItemID());
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Save Drink-specific data
+     */
+    private void saveDrink(Connection connection, Drink drink) throws SQLException {
+        String sql = "INSERT INTO drinks (drink_id, item_id) VALUES (?, ?) " +
+                "ON DUPLICATE KEY UPDATE item_id=?";
+
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, drink.getDrinkID());
             pstmt.setInt(2, drink.getItemID());
@@ -566,7 +1034,7 @@ public class DatabaseManager {
     /**
      * Save ingredients
      */
-    private void saveIngredients(Item item) throws SQLException {
+    private void saveIngredients(Connection connection, Item item) throws SQLException {
         // Delete existing ingredients
         String deleteSql = "DELETE FROM ingredients WHERE item_id = ?";
         try (PreparedStatement pstmt = connection.prepareStatement(deleteSql)) {
@@ -582,12 +1050,12 @@ public class DatabaseManager {
             ingredients = ((Drink) item).getIngredients();
         }
 
-        if (ingredients != null) {
+        if (ingredients != null && !ingredients.isEmpty()) {
             String sql = "INSERT INTO ingredients (item_id, name, weight, volume, fraction, unit) " +
                     "VALUES (?, ?, ?, ?, ?, ?)";
 
-            for (Ingredient ing : ingredients) {
-                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                for (Ingredient ing : ingredients) {
                     pstmt.setInt(1, item.getItemID());
                     pstmt.setString(2, ing.getName());
 
@@ -603,8 +1071,9 @@ public class DatabaseManager {
                         pstmt.setString(6, "");
                     }
 
-                    pstmt.executeUpdate();
+                    pstmt.addBatch();
                 }
+                pstmt.executeBatch();
             }
         }
     }
@@ -612,7 +1081,7 @@ public class DatabaseManager {
     /**
      * Save lab conditions
      */
-    private void saveLabConditions(Item item) throws SQLException {
+    private void saveLabConditions(Connection connection, Item item) throws SQLException {
         Optcondition labCond = null;
         if (item instanceof Food) {
             labCond = ((Food) item).getLabCondition();
@@ -645,7 +1114,7 @@ public class DatabaseManager {
     /**
      * Save preparation protocol
      */
-    private void savePreparationProtocol(Item item) throws SQLException {
+    private void savePreparationProtocol(Connection connection, Item item) throws SQLException {
         Prepprotocol protocol = null;
         if (item instanceof Food) {
             protocol = ((Food) item).getPrepprotocol();
@@ -653,14 +1122,14 @@ public class DatabaseManager {
             protocol = ((Drink) item).getPrepprotocol();
         }
 
-        if (protocol != null && !protocol.isEmpty()) {
-            // Delete existing protocol
-            String deleteSql = "DELETE FROM preparation_protocols WHERE item_id = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(deleteSql)) {
-                pstmt.setInt(1, item.getItemID());
-                pstmt.executeUpdate();
-            }
+        // Delete existing protocol (also when it was cleared)
+        String deleteSql = "DELETE FROM preparation_protocols WHERE item_id = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(deleteSql)) {
+            pstmt.setInt(1, item.getItemID());
+            pstmt.executeUpdate();
+        }
 
+        if (protocol != null && !protocol.isEmpty()) {
             // Insert steps
             String sql = "INSERT INTO preparation_protocols (item_id, step_number, step_description, " +
                     "step_temp, step_pressure, step_moisture, step_vibration, step_period) " +
@@ -669,13 +1138,18 @@ public class DatabaseManager {
             LinkedList<String> steps = protocol.getSteps();
             LinkedList<Optcondition> stepConditions = protocol.getStepConditions();
 
-            for (int i = 0; i < steps.size(); i++) {
-                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                // Walk both lists together; get(i) on a LinkedList would be O(n) per step
+                Iterator<String> stepIt = steps.iterator();
+                Iterator<Optcondition> condIt = stepConditions.iterator();
+                int stepNumber = 1;
+
+                while (stepIt.hasNext()) {
                     pstmt.setInt(1, item.getItemID());
-                    pstmt.setInt(2, i + 1);
-                    pstmt.setString(3, steps.get(i));
+                    pstmt.setInt(2, stepNumber++);
+                    pstmt.setString(3, stepIt.next());
 
-                    Optcondition cond = stepConditions.get(i);
+                    Optcondition cond = condIt.hasNext() ? condIt.next() : null;
                     if (cond != null) {
                         pstmt.setDouble(4, cond.getTemp());
                         pstmt.setDouble(5, cond.getPressure());
@@ -690,8 +1164,9 @@ public class DatabaseManager {
                         pstmt.setInt(8, 0);
                     }
 
-                    pstmt.executeUpdate();
+                    pstmt.addBatch();
                 }
+                pstmt.executeBatch();
             }
         }
     }
@@ -699,7 +1174,7 @@ public class DatabaseManager {
     /**
      * Save conservation conditions
      */
-    private void saveConservationConditions(Item item) throws SQLException {
+    private void saveConservationConditions(Connection connection, Item item) throws SQLException {
         Conservecondition conserveCond = null;
         if (item instanceof Food) {
             conserveCond = ((Food) item).getConservecondition();
@@ -730,7 +1205,7 @@ public class DatabaseManager {
     /**
      * Save consumption conditions
      */
-    private void saveConsumptionConditions(Item item) throws SQLException {
+    private void saveConsumptionConditions(Connection connection, Item item) throws SQLException {
         Consumpcondition consumpCond = null;
         if (item instanceof Food) {
             consumpCond = ((Food) item).getConsumpcondition();
@@ -760,7 +1235,7 @@ public class DatabaseManager {
     /**
      * Save standards
      */
-    private void saveStandards(Item item) throws SQLException {
+    private void saveStandards(Connection connection, Item item) throws SQLException {
         LinkedList<String> standards = null;
         if (item instanceof Food) {
             standards = ((Food) item).getStandards();
@@ -768,22 +1243,23 @@ public class DatabaseManager {
             standards = ((Drink) item).getStandards();
         }
 
-        if (standards != null && !standards.isEmpty()) {
-            // Delete existing
-            String deleteSql = "DELETE FROM standards WHERE item_id = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(deleteSql)) {
-                pstmt.setInt(1, item.getItemID());
-                pstmt.executeUpdate();
-            }
+        // Delete existing (also when the list was cleared)
+        String deleteSql = "DELETE FROM standards WHERE item_id = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(deleteSql)) {
+            pstmt.setInt(1, item.getItemID());
+            pstmt.executeUpdate();
+        }
 
+        if (standards != null && !standards.isEmpty()) {
             // Insert new
             String sql = "INSERT INTO standards (item_id, standard_text) VALUES (?, ?)";
-            for (String standard : standards) {
-                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                for (String standard : standards) {
                     pstmt.setInt(1, item.getItemID());
                     pstmt.setString(2, standard);
-                    pstmt.executeUpdate();
+                    pstmt.addBatch();
                 }
+                pstmt.executeBatch();
             }
         }
     }
@@ -791,7 +1267,7 @@ public class DatabaseManager {
     /**
      * Save veto information
      */
-    private void saveVeto(Item item) throws SQLException {
+    private void saveVeto(Connection connection, Item item) throws SQLException {
         Veto veto = null;
         if (item instanceof Food) {
             veto = ((Food) item).getVeto();
@@ -823,7 +1299,7 @@ public class DatabaseManager {
     /**
      * Save feedbacks for item
      */
-    private void saveFeedbacksForItem(Item item) throws SQLException {
+    private void saveFeedbacksForItem(Connection connection, Item item) throws SQLException {
         LinkedList<Feedback> feedbacks = null;
         if (item instanceof Food) {
             feedbacks = ((Food) item).getFeedbacks();
@@ -831,23 +1307,38 @@ public class DatabaseManager {
             feedbacks = ((Drink) item).getFeedbacks();
         }
 
+        // Delete existing (feedbacks has no natural key, so re-inserting would duplicate rows)
+        String deleteSql = "DELETE FROM feedbacks WHERE item_id = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(deleteSql)) {
+            pstmt.setInt(1, item.getItemID());
+            pstmt.executeUpdate();
+        }
+
         if (feedbacks != null && !feedbacks.isEmpty()) {
-            String sql = "INSERT INTO feedbacks (item_id, customer_name, comment, is_like, timestamp) " +
-                    "VALUES (?, ?, ?, ?, ?) " +
-                    "ON DUPLICATE KEY UPDATE comment=?, is_like=?";
+            insertFeedbacks(connection, item.getItemID(), feedbacks);
+        }
+    }
+
+    /**
+     * Insert feedback rows for one item in a single batch
+     */
+    private void insertFeedbacks(Connection connection, int itemId, Collection<Feedback> feedbacks) throws SQLException {
+        String sql = "INSERT INTO feedbacks (item_id, customer_name, comment, is_like, timestamp) " +
+                "VALUES (?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE comment=?, is_like=?";
 
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             for (Feedback feedback : feedbacks) {
-                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                    pstmt.setInt(1, item.getItemID());
-                    pstmt.setString(2, feedback.getConsumerName());
-                    pstmt.setString(3, feedback.getComment());
-                    pstmt.setBoolean(4, feedback.isLike());
-                    pstmt.setTimestamp(5, new Timestamp(feedback.getTimestamp().getTime()));
-                    pstmt.setString(6, feedback.getComment());
-                    pstmt.setBoolean(7, feedback.isLike());
-                    pstmt.executeUpdate();
-                }
+                pstmt.setInt(1, itemId);
+                pstmt.setString(2, feedback.getConsumerName());
+                pstmt.setString(3, feedback.getComment());
+                pstmt.setBoolean(4, feedback.isLike());
+                pstmt.setTimestamp(5, new Timestamp(feedback.getTimestamp().getTime()));
+                pstmt.setString(6, feedback.getComment());
+                pstmt.setBoolean(7, feedback.isLike());
+                pstmt.addBatch();
             }
+            pstmt.executeBatch();
         }
     }
 
@@ -861,31 +1352,445 @@ public class DatabaseManager {
     }
 
     /**
-     * Load all formulations from database
+     * Load all formulations from database as summaries (base row and veto)
+     * Ingredients, conditions, protocol, standards and feedbacks are fetched per item on first
+     * access through the detail cache, so memory follows the items actually viewed.
      */
     public LinkedList<Item> loadFormulations() {
-        LinkedList<Item> formulations = new LinkedList<>();
+        LinkedHashMap<Integer, Item> itemsById = new LinkedHashMap<>();
+        LinkedHashMap<Integer, Item> newItems = new LinkedHashMap<>();
         String sql = "SELECT * FROM items";
 
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+
+                while (rs.next()) {
+                    // Items already loaded (e.g. as someone's favorite) are reused as they are
+                    Item item = identityMap.get(rs.getInt("item_id"));
+                    if (item == null) {
+                        item = loadItemFromResultSet(rs);
+                        if (item == null) {
+                            continue;
+                        }
+                        newItems.put(item.getItemID(), item);
+                    }
+                    itemsById.put(item.getItemID(), item);
+                }
+            }
+
+            // Whole catalog is new, so the veto table is scanned once without an IN list
+            loadItemVetos(connection, newItems, newItems.size() == itemsById.size());
+            attachDetailLoader(newItems.values());
+            for (Item item : newItems.values()) {
+                itemsById.put(item.getItemID(), identityMap.putIfAbsent(item));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error loading formulations: " + e.getMessage());
+        }
+
+        LinkedList<Item> formulations = new LinkedList<>(itemsById.values());
+        System.out.println("✓ Loaded " + formulations.size() + " formulation(s)");
+        return formulations;
+    }
+
+    /**
+     * Formulation summaries whose items row changed at or after changedSince
+     * The items are not registered as canonical yet; pass the merged catalog to adoptFormulations.
+     */
+    public LinkedList<Item> loadChangedFormulations(Timestamp changedSince) {
+        LinkedHashMap<Integer, Item> changed = new LinkedHashMap<>();
+        String sql = "SELECT * FROM items" + changedSinceFilter(changedSince);
+
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            try (PreparedStatement pstmt = prepareChangedSince(connection, sql, changedSince, 1);
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Item item = loadItemFromResultSet(rs);
+                    if (item != null) {
+                        changed.put(item.getItemID(), item);
+                    }
+                }
+            }
+            loadItemVetos(connection, changed, false);
+        } catch (SQLException e) {
+            System.err.println("❌ Error loading changed formulations: " + e.getMessage());
+        }
+
+        System.out.println("✓ Loaded " + changed.size() + " changed formulation(s)");
+        return new LinkedList<>(changed.values());
+    }
+
+    /**
+     * Make formulation summaries built outside loadFormulations (e.g. from a snapshot) part of
+     * the session: details load through the detail cache, and each item becomes canonical
+     * @return the canonical instances, in the same order
+     */
+    public LinkedList<Item> adoptFormulations(Collection<Item> summaries) {
+        attachDetailLoader(summaries);
+        LinkedList<Item> canonical = new LinkedList<>();
+        for (Item item : summaries) {
+            canonical.add(identityMap.putIfAbsent(item));
+        }
+        return canonical;
+    }
+
+    /**
+     * resolveItems on a connection leased only if some IDs are not loaded yet
+     */
+    private LinkedList<Item> resolveItems(List<Integer> itemIds) {
+        if (identityMap.missingIds(itemIds).isEmpty()) {
+            return resolveItems(null, itemIds);
+        }
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            return resolveItems(connection, itemIds);
+        } catch (SQLException e) {
+            System.err.println("Error loading items: " + e.getMessage());
+            return new LinkedList<>();
+        }
+    }
+
+    /**
+     * Canonical items for a list of IDs, in the same order
+     * Only IDs missing from the identity map are read from the database (base rows and
+     * vetos in chunks of DatabaseConfig.getBulkChunkSize()); unknown IDs are skipped.
+     */
+    private LinkedList<Item> resolveItems(Connection connection, List<Integer> itemIds) {
+        LinkedList<Integer> missing = identityMap.missingIds(itemIds);
+        if (!missing.isEmpty()) {
+            LinkedHashMap<Integer, Item> loaded = loadItemSummaries(connection, missing, null);
+            attachDetailLoader(loaded.values());
+            canonicalize(loaded.values());
+        }
+
+        LinkedList<Item> items = new LinkedList<>();
+        for (int itemId : itemIds) {
+            Item item = identityMap.get(itemId);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Base rows and vetos of the given items, read in chunks of DatabaseConfig.getBulkChunkSize()
+     * The items are fresh instances, not registered as canonical; unknown IDs are skipped.
+     * @param authorIds if not null, receives item_id -> items.author_id
+     */
+    private LinkedHashMap<Integer, Item> loadItemSummaries(Connection connection, Collection<Integer> itemIds,
+                                                           Map<Integer, Integer> authorIds) {
+        LinkedHashMap<Integer, Item> loaded = new LinkedHashMap<>();
+        int chunkSize = DatabaseConfig.getBulkChunkSize();
+        ArrayList<Integer> ids = new ArrayList<>(itemIds);
+
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            String sql = "SELECT * FROM items WHERE item_id IN (" + placeholders + ")";
+
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    pstmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Item item = loadItemFromResultSet(rs);
+                        if (item != null) {
+                            loaded.put(item.getItemID(), item);
+                            if (authorIds != null) {
+                                int authorId = rs.getInt("author_id");
+                                if (!rs.wasNull()) {
+                                    authorIds.put(item.getItemID(), authorId);
+                                }
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("Error loading items: " + e.getMessage());
+            }
+        }
+
+        loadItemVetos(connection, loaded, false);
+        return loaded;
+    }
+
+    /**
+     * Current summaries of items another instance changed (see ChangeFeed); not canonical, so
+     * they can be compared with the loaded copies before refreshFormulation/adoptFormulations
+     * @param authorIds receives item_id -> items.author_id
+     */
+    public LinkedList<Item> loadFormulationSummaries(Collection<Integer> itemIds, Map<Integer, Integer> authorIds) {
+        if (itemIds.isEmpty()) {
+            return new LinkedList<>();
+        }
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            return new LinkedList<>(loadItemSummaries(connection, itemIds, authorIds).values());
+        } catch (SQLException e) {
+            System.err.println("❌ Error loading changed formulations: " + e.getMessage());
+            return new LinkedList<>();
+        }
+    }
+
+    /**
+     * Bring a loaded item up to a newer version read from the database (call on the thread that
+     * owns the catalog): base fields, veto and version are copied over, details are dropped and
+     * fetched again on next access
+     */
+    public void refreshFormulation(Item item, Item current) {
+        item.setName(current.getName());
+        item.setPrice(current.getPrice());
+        item.setExpiryDate(current.getExpiryDate());
+        if (item instanceof Food && current instanceof Food) {
+            ((Food) item).setAveragePricePerKg(((Food) current).getAveragePricePerKg());
+            ((Food) item).setVeto(((Food) current).getVeto());
+        } else if (item instanceof Drink && current instanceof Drink) {
+            ((Drink) item).setAveragePricePerKg(((Drink) current).getAveragePricePerKg());
+            ((Drink) item).setVeto(((Drink) current).getVeto());
+        }
+        item.setVersion(current.getVersion());
+        item.setAllergenMask(null);
+
+        // Items created in this session hold their details without a loader until now
+        if (item.getDetailLoader() == null) {
+            item.setDetailLoader(detailCache);
+        }
+        detailCache.invalidate(item);
+    }
+
+    /**
+     * Bring a loaded customer up to a newer version read from the database (call on the thread
+     * that owns the customers); the loaded instance is kept because screens and sessions hold it
+     */
+    public void refreshCustomer(Customer customer, Customer current) {
+        customer.setName(current.getName());
+        customer.setAddress(current.getAddress());
+        customer.setContact(current.getContact());
+        customer.setDateofbirth(current.getDateofbirth());
+        customer.setPassword(current.getPassword());
+        customer.setAge(current.getAge());
+        customer.setInfo(current.getInfo());
+        customer.getPurchasedItems().clear();
+        customer.getPurchasedItems().putAll(current.getPurchasedItems());
+        customer.getFavoriteFormulations().clear();
+        customer.getFavoriteFormulations().addAll(current.getFavoriteFormulations());
+        customer.setVersion(current.getVersion());
+    }
+
+    /**
+     * Drop an item deleted from the database from the identity map and the detail cache
+     */
+    public void forgetFormulation(Item item) {
+        identityMap.remove(item.getItemID());
+        detailCache.remove(item);
+    }
+
+    /**
+     * Stream the detail text the search index covers (ingredient names, standards, preparation
+     * steps, feedback comments) into it without building any details: one query per table,
+     * ordered by item_id, so each formulation's field is indexed in one piece
+     * @param itemIds formulations whose text changed in the database (it replaces what is
+     *                indexed for them), or null for every formulation (startup)
+     */
+    public void loadSearchText(FormulationSearchIndex index, Collection<Integer> itemIds) {
+        if (itemIds != null && itemIds.isEmpty()) {
+            return;
+        }
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            loadSearchField(connection, index, itemIds, "ingredients", "name",
+                    "item_id, ingredient_id", FormulationSearchIndex.Field.INGREDIENTS);
+            loadSearchField(connection, index, itemIds, "standards", "standard_text",
+                    "item_id, standard_id", FormulationSearchIndex.Field.STANDARDS);
+            loadSearchField(connection, index, itemIds, "preparation_protocols", "step_description",
+                    "item_id, step_number", FormulationSearchIndex.Field.PROTOCOL);
+            loadSearchField(connection, index, itemIds, "feedbacks", "comment",
+                    "item_id, feedback_id", FormulationSearchIndex.Field.FEEDBACK);
+        } catch (SQLException e) {
+            System.err.println("❌ Error loading search text: " + e.getMessage());
+        }
+    }
+
+    private void loadSearchField(Connection connection, FormulationSearchIndex index, Collection<Integer> itemIds,
+                                 String table, String column, String orderBy,
+                                 FormulationSearchIndex.Field field) throws SQLException {
+        String sql = "SELECT item_id, " + column + " FROM " + table +
+                (itemIds != null ? idFilter("item_id", itemIds) : "") + " ORDER BY " + orderBy;
+        HashSet<Integer> seen = streamItemRows(connection, sql, rs -> rs.getString(column),
+                (itemId, texts) -> putSearchField(index, itemId, field, texts, itemIds != null));
+
+        if (itemIds != null) {
+            // Rows deleted by the change: the field is now empty
+            for (int id : itemIds) {
+                if (!seen.contains(id)) {
+                    index.replaceStoredText(id, field, new LinkedList<>());
+                }
+            }
+        }
+    }
+
+    private static void putSearchField(FormulationSearchIndex index, int itemId, FormulationSearchIndex.Field field,
+                                       LinkedList<String> texts, boolean replace) {
+        if (replace) {
+            index.replaceStoredText(itemId, field, texts);
+        } else {
+            index.indexStoredText(itemId, field, texts);
+        }
+    }
+
+    /**
+     * Stream the ingredient lines into the reverse ingredient index without building any details
+     * @param itemIds formulations whose ingredients changed in the database (their lines are
+     *                replaced), or null for every formulation (startup)
+     */
+    public void loadIngredientUsage(IngredientUsageIndex index, Collection<Integer> itemIds) {
+        if (itemIds != null && itemIds.isEmpty()) {
+            return;
+        }
+        String sql = "SELECT * FROM ingredients" + (itemIds != null ? idFilter("item_id", itemIds) : "") +
+                " ORDER BY item_id, ingredient_id";
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            HashSet<Integer> seen = streamItemRows(connection, sql, this::ingredientFromRow, (itemId, ingredients) -> {
+                if (itemIds != null) {
+                    index.replaceStoredIngredients(itemId, ingredients);
+                } else {
+                    index.indexStoredIngredients(itemId, ingredients);
+                }
+            });
+            if (itemIds != null) {
+                for (int id : itemIds) {
+                    if (!seen.contains(id)) {
+                        index.replaceStoredIngredients(id, new LinkedList<>());
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error loading ingredient usage: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fill the autocomplete index with the stored ingredient names, units and standards, each
+     * counted by the formulations using it (grouped in the database; no rows are streamed)
+     */
+    public void loadSuggestions(AutocompleteIndex index) {
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            loadSuggestionCounts(connection, index, AutocompleteIndex.Kind.INGREDIENT,
+                    "SELECT name, COUNT(DISTINCT item_id) FROM ingredients GROUP BY name");
+            loadSuggestionCounts(connection, index, AutocompleteIndex.Kind.UNIT,
+                    "SELECT unit, COUNT(DISTINCT item_id) FROM ingredients WHERE unit IS NOT NULL GROUP BY unit");
+            loadSuggestionCounts(connection, index, AutocompleteIndex.Kind.STANDARD,
+                    "SELECT standard_text, COUNT(DISTINCT item_id) FROM standards " +
+                            "WHERE standard_text IS NOT NULL GROUP BY standard_text");
+        } catch (SQLException e) {
+            System.err.println("❌ Error loading suggestions: " + e.getMessage());
+        }
+    }
+
+    private static void loadSuggestionCounts(Connection connection, AutocompleteIndex index,
+                                             AutocompleteIndex.Kind kind, String sql) throws SQLException {
         try (Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                index.add(kind, rs.getString(1), rs.getInt(2));
+            }
+        }
+    }
+
+    /**
+     * Reads one row of a child-table query
+     */
+    private interface RowReader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Receives all rows of one item
+     */
+    private interface ItemRowsHandler<T> {
+        void apply(int itemId, LinkedList<T> rows);
+    }
 
+    /**
+     * Run a streaming query ordered by item_id and hand over its rows one item at a time
+     * @return IDs of the items that had rows
+     */
+    private <T> HashSet<Integer> streamItemRows(Connection connection, String sql, RowReader<T> reader,
+                                                ItemRowsHandler<T> handler) throws SQLException {
+        HashSet<Integer> seen = new HashSet<>();
+        try (PreparedStatement pstmt = prepareStreaming(connection, sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            int itemId = 0;
+            LinkedList<T> rows = null;
             while (rs.next()) {
-                Item item = loadItemFromResultSet(rs);
-                if (item != null) {
-                    formulations.add(item);
+                int rowItemId = rs.getInt("item_id");
+                if (rows != null && rowItemId != itemId) {
+                    handler.apply(itemId, rows);
+                    rows = null;
                 }
+                if (rows == null) {
+                    itemId = rowItemId;
+                    rows = new LinkedList<>();
+                    seen.add(itemId);
+                }
+                rows.add(reader.read(rs));
+            }
+            if (rows != null) {
+                handler.apply(itemId, rows);
             }
-            System.out.println("✓ Loaded " + formulations.size() + " formulation(s)");
+        }
+        return seen;
+    }
+
+    /**
+     * Register freshly loaded items as canonical (an instance registered meanwhile wins)
+     */
+    private void canonicalize(Collection<Item> loaded) {
+        for (Item item : loaded) {
+            identityMap.putIfAbsent(item);
+        }
+    }
+
+    public ItemIdentityMap getIdentityMap() {
+        return identityMap;
+    }
+
+    public ItemDetailCache getDetailCache() {
+        return detailCache;
+    }
+
+    private void attachDetailLoader(Collection<Item> items) {
+        for (Item item : items) {
+            item.setDetailLoader(detailCache);
+        }
+    }
+
+    /**
+     * Fetch one item's details (called by the detail cache on first access)
+     * The stored average price is kept; attaching ingredients would otherwise recompute it.
+     */
+    private void fillDetails(Item item) {
+        double averagePricePerKg = item instanceof Food ? ((Food) item).getAveragePricePerKg()
+                : item instanceof Drink ? ((Drink) item).getAveragePricePerKg() : 0;
+
+        HashMap<Integer, Item> single = new HashMap<>();
+        single.put(item.getItemID(), item);
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            loadItemDetails(connection, single, false);
         } catch (SQLException e) {
-            System.err.println("❌ Error loading formulations: " + e.getMessage());
+            System.err.println("❌ Error loading formulation details: " + e.getMessage());
         }
 
-        return formulations;
+        if (item instanceof Food) {
+            ((Food) item).setAveragePricePerKg(averagePricePerKg);
+        } else if (item instanceof Drink) {
+            ((Drink) item).setAveragePricePerKg(averagePricePerKg);
+        }
     }
 
     /**
-     * Load item from ResultSet
+     * Build item (base columns only) from ResultSet
+     * Vetos are attached afterwards in bulk by loadItemVetos, details lazily by loadItemDetails
      */
     private Item loadItemFromResultSet(ResultSet rs) throws SQLException {
         String itemType = rs.getString("item_type");
@@ -909,259 +1814,410 @@ public class DatabaseManager {
             item.setName(rs.getString("name"));
             item.setPrice(rs.getDouble("price"));
             item.setExpiryDate(rs.getString("expiry_date"));
+            item.setVersion(rs.getInt("version"));
 
             if (item instanceof Food) {
                 ((Food) item).setAveragePricePerKg(rs.getDouble("average_price_per_kg"));
             } else if (item instanceof Drink) {
                 ((Drink) item).setAveragePricePerKg(rs.getDouble("average_price_per_kg"));
             }
-
-            // Load related data
-            loadItemDetails(item);
         }
 
         return item;
     }
 
     /**
-     * Load all item details
+     * Attach veto rows (part of the summary: catalog views filter on it)
      */
-    private void loadItemDetails(Item item) {
+    private void loadItemVetos(Connection connection, Map<Integer, Item> itemsById, boolean wholeCatalog) {
+        if (itemsById.isEmpty()) {
+            return;
+        }
+
         try {
-            loadItemIngredients(item);
-            loadItemLabConditions(item);
-            loadItemPreparationProtocol(item);
-            loadItemConservationConditions(item);
-            loadItemConsumptionConditions(item);
-            loadItemStandards(item);
-            loadItemVeto(item);
-            loadItemFeedbacks(item);
+            loadChildRows(connection, "vetos", "item_id", itemsById, wholeCatalog, this::applyVetoRow);
         } catch (SQLException e) {
-            System.err.println("Error loading item details: " + e.getMessage());
+            System.err.println("Error loading vetos: " + e.getMessage());
         }
     }
 
     /**
-     * Load ingredients for item
+     * Load all item details (everything but the base row and veto) for a set of items
+     * @param itemsById items to fill, keyed by item_id
+     * @param wholeCatalog true when itemsById holds every item, so child tables are read in full;
+     *                     otherwise rows are fetched in item_id chunks of DatabaseConfig.getBulkChunkSize()
      */
-    private void loadItemIngredients(Item item) throws SQLException {
-        String sql = "SELECT * FROM ingredients WHERE item_id = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, item.getItemID());
-            ResultSet rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                Quantity quantity = new Quantity(
-                        rs.getDouble("weight"),
-                        rs.getDouble("volume"),
-                        rs.getDouble("fraction"),
-                        rs.getString("unit")
-                );
-
-                Ingredient ingredient = new Ingredient(
-                        rs.getInt("ingredient_id"),
-                        rs.getString("name"),
-                        quantity
-                );
+    private void loadItemDetails(Connection connection, Map<Integer, Item> itemsById, boolean wholeCatalog) {
+        if (itemsById.isEmpty()) {
+            return;
+        }
 
-                if (item instanceof Food) {
-                    ((Food) item).addIngredient(ingredient);
-                } else if (item instanceof Drink) {
-                    ((Drink) item).addIngredient(ingredient);
-                }
-            }
+        try {
+            loadChildRows(connection, "ingredients", "item_id", itemsById, wholeCatalog, this::applyIngredientRow);
+            loadChildRows(connection, "lab_conditions", "item_id", itemsById, wholeCatalog, this::applyLabConditionRow);
+            loadChildRows(connection, "preparation_protocols", "item_id, step_number", itemsById, wholeCatalog, this::applyProtocolStepRow);
+            loadChildRows(connection, "conservation_conditions", "item_id", itemsById, wholeCatalog, this::applyConservationConditionRow);
+            loadChildRows(connection, "consumption_conditions", "item_id", itemsById, wholeCatalog, this::applyConsumptionConditionRow);
+            loadChildRows(connection, "standards", "item_id", itemsById, wholeCatalog, this::applyStandardRow);
+            loadChildRows(connection, "feedbacks", "item_id", itemsById, wholeCatalog, this::applyFeedbackRow);
+        } catch (SQLException e) {
+            System.err.println("Error loading item details: " + e.getMessage());
         }
     }
 
     /**
-     * Load lab conditions for item
+     * Callback that attaches one child-table row to its owning item
      */
-    private void loadItemLabConditions(Item item) throws SQLException {
-        String sql = "SELECT * FROM lab_conditions WHERE item_id = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, item.getItemID());
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                Optcondition labCond = new Optcondition(
-                        rs.getDouble("temperature"),
-                        rs.getDouble("pressure"),
-                        rs.getDouble("moisture"),
-                        rs.getDouble("vibration"),
-                        rs.getInt("period")
-                );
-
-                if (item instanceof Food) {
-                    ((Food) item).setLabCondition(labCond);
-                } else if (item instanceof Drink) {
-                    ((Drink) item).setLabCondition(labCond);
-                }
-            }
-        }
+    private interface ChildRowHandler {
+        void apply(Item item, ResultSet rs) throws SQLException;
     }
 
     /**
-     * Load preparation protocol for item
+     * Read a child table for many items and hand every row to its owning item
      */
-    private void loadItemPreparationProtocol(Item item) throws SQLException {
-        String sql = "SELECT * FROM preparation_protocols WHERE item_id = ? ORDER BY step_number";
+    private void loadChildRows(Connection connection, String table, String orderBy, Map<Integer, Item> itemsById,
+                               boolean wholeCatalog, ChildRowHandler handler) throws SQLException {
+        if (wholeCatalog) {
+            String sql = "SELECT * FROM " + table + " ORDER BY " + orderBy;
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                dispatchChildRows(rs, itemsById, handler);
+            }
+            return;
+        }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, item.getItemID());
-            ResultSet rs = pstmt.executeQuery();
+        int chunkSize = DatabaseConfig.getBulkChunkSize();
+        ArrayList<Integer> ids = new ArrayList<>(itemsById.keySet());
 
-            Prepprotocol protocol = new Prepprotocol();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            String sql = "SELECT * FROM " + table + " WHERE item_id IN (" + placeholders + ") ORDER BY " + orderBy;
 
-            while (rs.next()) {
-                String stepDesc = rs.getString("step_description");
-
-                Optcondition stepCond = new Optcondition(
-                        rs.getDouble("step_temp"),
-                        rs.getDouble("step_pressure"),
-                        rs.getDouble("step_moisture"),
-                        rs.getDouble("step_vibration"),
-                        rs.getInt("step_period")
-                );
-
-                protocol.addStep(stepDesc, stepCond);
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    pstmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    dispatchChildRows(rs, itemsById, handler);
+                }
             }
+        }
+    }
 
-            if (!protocol.isEmpty()) {
-                if (item instanceof Food) {
-                    ((Food) item).setPrepprotocol(protocol);
-                } else if (item instanceof Drink) {
-                    ((Drink) item).setPrepprotocol(protocol);
-                }
+    private void dispatchChildRows(ResultSet rs, Map<Integer, Item> itemsById,
+                                   ChildRowHandler handler) throws SQLException {
+        while (rs.next()) {
+            Item item = itemsById.get(rs.getInt("item_id"));
+            if (item != null) {
+                handler.apply(item, rs);
             }
         }
     }
 
     /**
-     * Load conservation conditions for item
+     * Attach ingredient row
      */
-    private void loadItemConservationConditions(Item item) throws SQLException {
-        String sql = "SELECT * FROM conservation_conditions WHERE item_id = ?";
+    private void applyIngredientRow(Item item, ResultSet rs) throws SQLException {
+        Ingredient ingredient = ingredientFromRow(rs);
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, item.getItemID());
-            ResultSet rs = pstmt.executeQuery();
+        if (item instanceof Food) {
+            ((Food) item).addIngredient(ingredient);
+        } else if (item instanceof Drink) {
+            ((Drink) item).addIngredient(ingredient);
+        }
+    }
 
-            if (rs.next()) {
-                Conservecondition conserveCond = new Conservecondition(
-                        rs.getDouble("temperature"),
-                        rs.getDouble("moisture"),
-                        rs.getString("container")
-                );
+    private Ingredient ingredientFromRow(ResultSet rs) throws SQLException {
+        Quantity quantity = new Quantity(
+                rs.getDouble("weight"),
+                rs.getDouble("volume"),
+                rs.getDouble("fraction"),
+                rs.getString("unit")
+        );
+
+        return new Ingredient(
+                rs.getInt("ingredient_id"),
+                rs.getString("name"),
+                quantity
+        );
+    }
 
-                if (item instanceof Food) {
-                    ((Food) item).setConservecondition(conserveCond);
-                } else if (item instanceof Drink) {
-                    ((Drink) item).setConservecondition(conserveCond);
-                }
-            }
+    /**
+     * Attach lab conditions row (first row per item wins)
+     */
+    private void applyLabConditionRow(Item item, ResultSet rs) throws SQLException {
+        Optcondition labCond = new Optcondition(
+                rs.getDouble("temperature"),
+                rs.getDouble("pressure"),
+                rs.getDouble("moisture"),
+                rs.getDouble("vibration"),
+                rs.getInt("period")
+        );
+
+        if (item instanceof Food && ((Food) item).getLabCondition() == null) {
+            ((Food) item).setLabCondition(labCond);
+        } else if (item instanceof Drink && ((Drink) item).getLabCondition() == null) {
+            ((Drink) item).setLabCondition(labCond);
         }
     }
 
     /**
-     * Load consumption conditions for item
+     * Attach one preparation protocol step (rows arrive ordered by step_number)
      */
-    private void loadItemConsumptionConditions(Item item) throws SQLException {
-        String sql = "SELECT * FROM consumption_conditions WHERE item_id = ?";
+    private void applyProtocolStepRow(Item item, ResultSet rs) throws SQLException {
+        String stepDesc = rs.getString("step_description");
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, item.getItemID());
-            ResultSet rs = pstmt.executeQuery();
+        Optcondition stepCond = new Optcondition(
+                rs.getDouble("step_temp"),
+                rs.getDouble("step_pressure"),
+                rs.getDouble("step_moisture"),
+                rs.getDouble("step_vibration"),
+                rs.getInt("step_period")
+        );
 
-            if (rs.next()) {
-                Consumpcondition consumpCond = new Consumpcondition(
-                        rs.getDouble("temperature"),
-                        rs.getDouble("moisture")
-                );
-
-                if (item instanceof Food) {
-                    ((Food) item).setConsumpcondition(consumpCond);
-                } else if (item instanceof Drink) {
-                    ((Drink) item).setConsumpcondition(consumpCond);
-                }
+        Prepprotocol protocol = null;
+        if (item instanceof Food) {
+            protocol = ((Food) item).getPrepprotocol();
+            if (protocol == null) {
+                protocol = new Prepprotocol();
+                ((Food) item).setPrepprotocol(protocol);
+            }
+        } else if (item instanceof Drink) {
+            protocol = ((Drink) item).getPrepprotocol();
+            if (protocol == null) {
+                protocol = new Prepprotocol();
+                ((Drink) item).setPrepprotocol(protocol);
             }
         }
+
+        if (protocol != null) {
+            protocol.addStep(stepDesc, stepCond);
+        }
     }
 
     /**
-     * Load standards for item
+     * Attach conservation conditions row (first row per item wins)
      */
-    private void loadItemStandards(Item item) throws SQLException {
-        String sql = "SELECT * FROM standards WHERE item_id = ?";
+    private void applyConservationConditionRow(Item item, ResultSet rs) throws SQLException {
+        Conservecondition conserveCond = new Conservecondition(
+                rs.getDouble("temperature"),
+                rs.getDouble("moisture"),
+                rs.getString("container")
+        );
+
+        if (item instanceof Food && ((Food) item).getConservecondition() == null) {
+            ((Food) item).setConservecondition(conserveCond);
+        } else if (item instanceof Drink && ((Drink) item).getConservecondition() == null) {
+            ((Drink) item).setConservecondition(conserveCond);
+        }
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, item.getItemID());
-            ResultSet rs = pstmt.executeQuery();
+    /**
+     * Attach consumption conditions row (first row per item wins)
+     */
+    private void applyConsumptionConditionRow(Item item, ResultSet rs) throws SQLException {
+        Consumpcondition consumpCond = new Consumpcondition(
+                rs.getDouble("temperature"),
+                rs.getDouble("moisture")
+        );
+
+        if (item instanceof Food && ((Food) item).getConsumpcondition() == null) {
+            ((Food) item).setConsumpcondition(consumpCond);
+        } else if (item instanceof Drink && ((Drink) item).getConsumpcondition() == null) {
+            ((Drink) item).setConsumpcondition(consumpCond);
+        }
+    }
 
-            while (rs.next()) {
-                String standard = rs.getString("standard_text");
+    /**
+     * Attach standard row
+     */
+    private void applyStandardRow(Item item, ResultSet rs) throws SQLException {
+        String standard = rs.getString("standard_text");
 
-                if (item instanceof Food) {
-                    ((Food) item).addStandard(standard);
-                } else if (item instanceof Drink) {
-                    ((Drink) item).addStandard(standard);
-                }
-            }
+        if (item instanceof Food) {
+            ((Food) item).addStandard(standard);
+        } else if (item instanceof Drink) {
+            ((Drink) item).addStandard(standard);
         }
     }
 
     /**
-     * Load veto for item
+     * Attach veto row (first row per item wins)
      */
-    private void loadItemVeto(Item item) throws SQLException {
-        String sql = "SELECT * FROM vetos WHERE item_id = ?";
+    private void applyVetoRow(Item item, ResultSet rs) throws SQLException {
+        java.sql.Date vetoDate = rs.getDate("veto_date");
+        Veto veto = new Veto(
+                rs.getBoolean("is_vetoed"),
+                rs.getString("reason"),
+                vetoDate != null ? new Date(vetoDate.getTime()) : null,
+                null // Initiator reference
+        );
+
+        if (item instanceof Food && ((Food) item).getVeto() == null) {
+            ((Food) item).setVeto(veto);
+        } else if (item instanceof Drink && ((Drink) item).getVeto() == null) {
+            ((Drink) item).setVeto(veto);
+        }
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, item.getItemID());
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                Veto veto = new Veto(
-                        rs.getBoolean("is_vetoed"),
-                        rs.getString("reason"),
-                        new Date(rs.getDate("veto_date").getTime()),
-                        null // Initiator reference
-                );
+    /**
+     * Attach feedback row
+     */
+    private void applyFeedbackRow(Item item, ResultSet rs) throws SQLException {
+        Feedback feedback = new Feedback(
+                rs.getString("comment"),
+                rs.getBoolean("is_like"),
+                rs.getString("customer_name")
+        );
+        Timestamp timestamp = rs.getTimestamp("timestamp");
+        if (timestamp != null) {
+            feedback.setTimestamp(new Date(timestamp.getTime()));
+        }
 
-                if (item instanceof Food) {
-                    ((Food) item).setVeto(veto);
-                } else if (item instanceof Drink) {
-                    ((Drink) item).setVeto(veto);
-                }
-            }
+        if (item instanceof Food) {
+            ((Food) item).addFeedback(feedback);
+        } else if (item instanceof Drink) {
+            ((Drink) item).addFeedback(feedback);
         }
     }
 
+    // =====================================================
+    // INCREMENTAL (UNIT OF WORK) OPERATIONS
+    // =====================================================
+
     /**
-     * Load feedbacks for item
+     * Write only the deltas collected by a UnitOfWork, in one transaction
+     * @return true if committed (caller should then call unitOfWork.markClean(changes))
+     * @throws StaleDataException if another instance saved one of the items or customers first
+     *         (nothing is written)
      */
-    private void loadItemFeedbacks(Item item) throws SQLException {
-        String sql = "SELECT * FROM feedbacks WHERE item_id = ?";
+    public boolean saveChanges(UnitOfWork.ChangeSet changes) {
+        if (changes.isEmpty()) {
+            return true;
+        }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, item.getItemID());
-            ResultSet rs = pstmt.executeQuery();
+        // item_id / customer_id -> version claimed in this transaction
+        LinkedHashMap<Integer, Integer> itemVersions = new LinkedHashMap<>();
+        LinkedHashMap<Integer, Integer> customerVersions = new LinkedHashMap<>();
 
-            while (rs.next()) {
-                Feedback feedback = new Feedback(
-                        rs.getString("comment"),
-                        rs.getBoolean("is_like"),
-                        rs.getString("customer_name")
-                );
-                feedback.setTimestamp(new Date(rs.getTimestamp("timestamp").getTime()));
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            try {
+                connection.setAutoCommit(false);
+
+                for (Admin admin : changes.admins) {
+                    upsertAdmin(connection, admin);
+                }
+                for (Author author : changes.authors) {
+                    upsertAuthor(connection, author);
+                }
+                for (Customer customer : changes.customers) {
+                    upsertCustomer(connection, customer);
+                }
+
+                // Items before link rows that reference them
+                for (UnitOfWork.ItemChange change : changes.items) {
+                    EnumSet<UnitOfWork.ItemPart> parts = EnumSet.copyOf(change.parts);
+                    if (change.appendedFeedbacks != null) {
+                        parts.remove(UnitOfWork.ItemPart.FEEDBACKS);
+                    }
+                    // Unchanged base row still needs to exist for child rows of a new item
+                    if (change.isNew) {
+                        parts.add(UnitOfWork.ItemPart.BASE);
+                    }
+                    saveItemParts(connection, change.item, parts);
+
+                    if (change.appendedFeedbacks != null) {
+                        insertFeedbacks(connection, change.item.getItemID(), change.appendedFeedbacks);
+                    }
+                    itemVersions.put(change.item.getItemID(),
+                            claimVersion(connection, "items", "item_id", change.item.getItemID(), change.version));
+                }
+
+                if (!changes.addedAuthorItems.isEmpty()) {
+                    String sql = "INSERT IGNORE INTO item_authors (item_id, author_id) VALUES (?, ?)";
+                    try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                        for (int[] link : changes.addedAuthorItems) {
+                            pstmt.setInt(1, link[1]);
+                            pstmt.setInt(2, link[0]);
+                            pstmt.addBatch();
+                        }
+                        pstmt.executeBatch();
+                    }
+                }
 
-                if (item instanceof Food) {
-                    ((Food) item).addFeedback(feedback);
-                } else if (item instanceof Drink) {
-                    ((Drink) item).addFeedback(feedback);
+                for (UnitOfWork.PurchaseChange change : changes.newPurchases) {
+                    insertPurchases(connection, change.customerId, Collections.singletonList(change.purchase));
                 }
+
+                if (!changes.addedFavorites.isEmpty()) {
+                    String sql = "INSERT IGNORE INTO favorites (customer_id, item_id) VALUES (?, ?)";
+                    try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                        for (int[] favorite : changes.addedFavorites) {
+                            pstmt.setInt(1, favorite[0]);
+                            pstmt.setInt(2, favorite[1]);
+                            pstmt.addBatch();
+                        }
+                        pstmt.executeBatch();
+                    }
+                }
+
+                if (!changes.removedFavorites.isEmpty()) {
+                    String sql = "DELETE FROM favorites WHERE customer_id = ? AND item_id = ?";
+                    try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                        for (int[] favorite : changes.removedFavorites) {
+                            pstmt.setInt(1, favorite[0]);
+                            pstmt.setInt(2, favorite[1]);
+                            pstmt.addBatch();
+                        }
+                        pstmt.executeBatch();
+                    }
+                }
+
+                // Links, purchases and favorites only touch child tables; mark their owners changed
+                LinkedHashSet<Integer> touchedAuthors = new LinkedHashSet<>();
+                for (int[] link : changes.addedAuthorItems) {
+                    touchedAuthors.add(link[0]);
+                }
+                touchRows(connection, "authors", "author_id", touchedAuthors);
+
+                // Every customer with a changed row, purchase or favorite moves to its next version
+                for (Map.Entry<Customer, Integer> entry : changes.customerVersions.entrySet()) {
+                    int customerId = entry.getKey().getCustomerID();
+                    customerVersions.put(customerId,
+                            claimVersion(connection, "customers", "customer_id", customerId, entry.getValue()));
+                }
+                logChanges(connection, "items", itemVersions);
+                logChanges(connection, "customers", customerVersions);
+
+                connection.commit();
+                connection.setAutoCommit(true);
+
+                for (UnitOfWork.ItemChange change : changes.items) {
+                    advanceVersion(change.item, itemVersions.get(change.item.getItemID()));
+                }
+                for (Customer customer : changes.customerVersions.keySet()) {
+                    advanceVersion(customer, customerVersions.get(customer.getCustomerID()));
+                }
+
+                System.out.println("✓ Changes saved: " + changes);
+                return true;
+            } catch (SQLException | StaleDataException e) {
+                try {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+                throw e;
             }
+        } catch (StaleDataException e) {
+            System.err.println("❌ Save rejected: " + e.getMessage());
+            throw e;
+        } catch (SQLException e) {
+            System.err.println("❌ Error saving changes: " + e.getMessage());
+            e.printStackTrace();
+            return false;
         }
     }
 
@@ -1171,83 +2227,132 @@ public class DatabaseManager {
 
     /**
      * Save audit trail
+     * audit_trail is append-only: records are written in the background by the AuditLogWriter
+     * as they are logged, so saving only waits for the writer to catch up.
      */
     public void saveAuditTrail(AuditTrail auditTrail) {
-        String sql = "INSERT INTO audit_trail (timestamp, user_type, user_name, action) VALUES (?, ?, ?, ?)";
+        if (auditWriter == null || auditWriter.getAuditTrail() != auditTrail) {
+            // Trail not loaded from the database - everything in it is new
+            attachAuditTrail(auditTrail, 0);
+        }
 
-        try {
-            // Clear existing records (optional - or append only new ones)
-            Statement stmt = connection.createStatement();
-            stmt.executeUpdate("DELETE FROM audit_trail");
-
-            // Insert all records
-            for (String record : auditTrail.records) {
-                // Parse record: [timestamp] user: action
-                // Format: [2025-12-14 10:30:45] ADMIN:John Doe: Logged in
-
-                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                    // Simple parsing (you may need to improve this)
-                    String[] parts = record.split("] ", 2);
-                    String timestampStr = parts[0].substring(1); // Remove '['
-
-                    String[] userAction = parts[1].split(": ", 2);
-                    String userPart = userAction[0];
-                    String action = userAction.length > 1 ? userAction[1] : "";
-
-                    String[] userTypeName = userPart.split(":", 2);
-                    String userType = userTypeName[0];
-                    String userName = userTypeName.length > 1 ? userTypeName[1] : "";
-
-                    pstmt.setTimestamp(1, Timestamp.valueOf(timestampStr));
-                    pstmt.setString(2, userType);
-                    pstmt.setString(3, userName);
-                    pstmt.setString(4, action);
-                    pstmt.executeUpdate();
-                } catch (Exception e) {
-                    // Skip malformed records
-                    System.err.println("Skipping malformed audit record: " + record);
-                }
-            }
+        if (auditWriter.flush(AUDIT_FLUSH_TIMEOUT_MS)) {
+            System.out.println("✓ Audit trail saved (" + (auditWriter.getHighWaterMark() + 1) + " records written)");
+        } else {
+            System.err.println("⚠ Audit trail not fully written yet - pending records will be retried in the background");
+        }
+    }
 
-            System.out.println("✓ Audit trail saved (" + auditTrail.records.size() + " records)");
-        } catch (SQLException e) {
-            System.err.println("❌ Error saving audit trail: " + e.getMessage());
+    /**
+     * Follow an audit trail with a background writer, replacing any previous one
+     * @param persistedUpTo records with sequence below this are already in the database
+     */
+    private synchronized void attachAuditTrail(AuditTrail auditTrail, long persistedUpTo) {
+        if (auditWriter != null) {
+            auditWriter.shutdown(AUDIT_FLUSH_TIMEOUT_MS);
         }
+        auditWriter = new AuditLogWriter(auditTrail, persistedUpTo);
     }
 
     /**
      * Load audit trail
      */
     public AuditTrail loadAuditTrail() {
-        AuditTrail auditTrail = new AuditTrail();
-        auditTrail.records.clear(); // Clear default initialization
+        AuditTrail auditTrail = AuditTrail.createEmpty();
 
         String sql = "SELECT * FROM audit_trail ORDER BY timestamp";
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection connection = DatabaseConfig.getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
-                // Reconstruct record in original format
-                String timestamp = rs.getTimestamp("timestamp").toString();
-                String userType = rs.getString("user_type");
-                String userName = rs.getString("user_name");
-                String action = rs.getString("action");
-
-                String record = String.format("[%s] %s:%s: %s",
-                        timestamp, userType, userName, action);
-
-                auditTrail.records.add(record);
+                auditTrail.restoreRecord(rs.getTimestamp("timestamp"),
+                        rs.getString("user_type"),
+                        rs.getString("user_name"),
+                        rs.getString("action"));
             }
 
-            System.out.println("✓ Audit trail loaded (" + auditTrail.records.size() + " records)");
+            System.out.println("✓ Audit trail loaded (" + auditTrail.getRecordCount() + " records)");
         } catch (SQLException e) {
             System.err.println("❌ Error loading audit trail: " + e.getMessage());
         }
 
+        // Everything loaded is already stored; new records are appended as they are logged
+        attachAuditTrail(auditTrail, auditTrail.getNextSequence());
         return auditTrail;
     }
 
+    /**
+     * Count the stored feedback by verdict, without loading any of it
+     * @return {likes, dislikes}
+     */
+    public long[] loadFeedbackCounts() {
+        long[] counts = new long[2];
+        String sql = "SELECT is_like, COUNT(*) FROM feedbacks GROUP BY is_like";
+
+        try (Connection connection = DatabaseConfig.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                counts[rs.getBoolean(1) ? 0 : 1] += rs.getLong(2);
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error counting feedback: " + e.getMessage());
+        }
+        return counts;
+    }
+
+    /**
+     * Backfill the activity rollups from the purchases and feedbacks tables
+     * Rows are summed per item and minute in the database, so one row is read per busy minute
+     * of an item rather than per purchase or feedback; oldest first, so bucket windows only grow.
+     */
+    public void loadActivityRollups(ActivityRollups rollups) {
+        String authors = "LEFT JOIN (SELECT item_id, MIN(author_id) AS author_id FROM item_authors " +
+                "GROUP BY item_id) a ON a.item_id = t.item_id ";
+        String purchaseSql = "SELECT t.item_id, i.item_type, a.author_id, t.minute, t.purchases, t.revenue " +
+                "FROM (SELECT item_id, FLOOR(UNIX_TIMESTAMP(purchase_date) / 60) AS minute, " +
+                "COUNT(*) AS purchases, SUM(price) AS revenue FROM purchases " +
+                "WHERE item_id IS NOT NULL GROUP BY item_id, minute) t " +
+                "JOIN items i ON i.item_id = t.item_id " + authors + "ORDER BY t.minute";
+        String feedbackSql = "SELECT t.item_id, i.item_type, a.author_id, t.minute, t.likes, t.dislikes " +
+                "FROM (SELECT item_id, FLOOR(UNIX_TIMESTAMP(timestamp) / 60) AS minute, " +
+                "SUM(CASE WHEN is_like THEN 1 ELSE 0 END) AS likes, " +
+                "SUM(CASE WHEN is_like THEN 0 ELSE 1 END) AS dislikes FROM feedbacks " +
+                "WHERE item_id IS NOT NULL GROUP BY item_id, minute) t " +
+                "JOIN items i ON i.item_id = t.item_id " + authors + "ORDER BY t.minute";
+
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            try (PreparedStatement stmt = prepareStreaming(connection, purchaseSql);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rollups.recordPurchases(rs.getInt("item_id"), rollupAuthor(rs), rollupType(rs),
+                            rs.getLong("minute") * 60_000L, rs.getInt("purchases"), rs.getDouble("revenue"));
+                }
+            }
+            try (PreparedStatement stmt = prepareStreaming(connection, feedbackSql);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rollups.recordFeedback(rs.getInt("item_id"), rollupAuthor(rs), rollupType(rs),
+                            rs.getLong("minute") * 60_000L, rs.getInt("likes"), rs.getInt("dislikes"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error loading activity rollups: " + e.getMessage());
+        }
+    }
+
+    private static Integer rollupAuthor(ResultSet rs) throws SQLException {
+        int authorId = rs.getInt("author_id");
+        return rs.wasNull() ? null : authorId;
+    }
+
+    private static CatalogIndex.ItemType rollupType(ResultSet rs) throws SQLException {
+        return "DRINK".equals(rs.getString("item_type")) ? CatalogIndex.ItemType.DRINK : CatalogIndex.ItemType.FOOD;
+    }
+
     // =====================================================
     // UTILITY METHODS
     // =====================================================
@@ -1256,31 +2361,30 @@ public class DatabaseManager {
      * Test database connection
      */
     public boolean testConnection() {
-        try {
-            return connection != null && !connection.isClosed() && connection.isValid(5);
+        try (Connection connection = DatabaseConfig.getConnection()) {
+            return connection.isValid(5);
         } catch (SQLException e) {
             return false;
         }
     }
 
     /**
-     * Close database connection
+     * Close database connections (shuts down the shared pool)
      */
     public void close() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("✓ Database connection closed");
-            }
-        } catch (SQLException e) {
-            System.err.println("❌ Error closing connection: " + e.getMessage());
+        if (auditWriter != null) {
+            auditWriter.shutdown(AUDIT_FLUSH_TIMEOUT_MS);
+            auditWriter = null;
         }
+        System.out.println("✓ " + detailCache.getStatistics());
+        DatabaseConfig.closeConnection();
     }
 
     /**
-     * Get connection for external use
+     * Borrow a pooled connection for external use
+     * Caller must close() it to return it to the pool
      */
-    public Connection getConnection() {
-        return connection;
+    public Connection getConnection() throws SQLException {
+        return DatabaseConfig.getConnection();
     }
-}
\ No newline at end of file
+}
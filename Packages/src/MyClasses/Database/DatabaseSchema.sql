@@ -51,6 +51,7 @@ CREATE TABLE customers (
     age INT,
     password VARCHAR(255) NOT NULL,
     role VARCHAR(50) DEFAULT 'CUSTOMER',
+    version INT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_customer_name (name)
@@ -88,6 +89,7 @@ CREATE TABLE items (
     expiry_date DATE,
     average_price_per_kg DECIMAL(10, 2),
     author_id INT,
+    version INT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (author_id) REFERENCES authors(author_id) ON DELETE SET NULL,
@@ -344,6 +346,46 @@ CREATE TABLE item_authors (
     FOREIGN KEY (author_id) REFERENCES authors(author_id) ON DELETE CASCADE
 );
 
+-- =====================================================
+-- TOMBSTONES (deletes seen by the warm-start delta load and the change feed)
+-- =====================================================
+
+CREATE TABLE deleted_rows (
+    tombstone_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    table_name VARCHAR(50) NOT NULL,
+    row_id INT NOT NULL,
+    deleted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_deleted_rows_table (table_name, deleted_at)
+);
+
+CREATE TRIGGER trg_admins_deleted AFTER DELETE ON admins FOR EACH ROW
+    INSERT INTO deleted_rows (table_name, row_id) VALUES ('admins', OLD.admin_id);
+
+CREATE TRIGGER trg_authors_deleted AFTER DELETE ON authors FOR EACH ROW
+    INSERT INTO deleted_rows (table_name, row_id) VALUES ('authors', OLD.author_id);
+
+CREATE TRIGGER trg_customers_deleted AFTER DELETE ON customers FOR EACH ROW
+    INSERT INTO deleted_rows (table_name, row_id) VALUES ('customers', OLD.customer_id);
+
+CREATE TRIGGER trg_items_deleted AFTER DELETE ON items FOR EACH ROW
+    INSERT INTO deleted_rows (table_name, row_id) VALUES ('items', OLD.item_id);
+
+-- =====================================================
+-- CHANGE LOG (cross-instance cache invalidation)
+-- =====================================================
+
+-- One row per committed item/customer save, written in the save's transaction;
+-- every instance polls it (change_id > last seen) and refreshes only those rows
+CREATE TABLE change_log (
+    change_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    table_name VARCHAR(50) NOT NULL,
+    row_id INT NOT NULL,
+    version INT NOT NULL,
+    instance_id VARCHAR(36) NOT NULL,
+    changed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_change_log_time (changed_at)
+);
+
 -- =====================================================
 -- INSERT DEFAULT ADMIN
 -- =====================================================
@@ -420,6 +462,12 @@ CREATE INDEX idx_feedbacks_customer ON feedbacks(customer_id);
 CREATE INDEX idx_purchases_item ON purchases(item_id);
 CREATE INDEX idx_notifications_status ON notifications(status);
 
+-- Changed-since queries of the warm-start load
+CREATE INDEX idx_admins_updated ON admins(updated_at);
+CREATE INDEX idx_authors_updated ON authors(updated_at);
+CREATE INDEX idx_customers_updated ON customers(updated_at);
+CREATE INDEX idx_items_updated ON items(updated_at);
+
 -- =====================================================
 -- END OF SCHEMA
 -- =====================================================
\ No newline at end of file
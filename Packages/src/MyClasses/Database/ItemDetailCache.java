@@ -0,0 +1,195 @@
+package MyClasses.Database;
+
+import MyClasses.Consumables.Item;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of formulation details
+ * Items are loaded as summaries (base row and veto); their details are filled on first access
+ * and kept for at most `capacity` items. Replacement is CLOCK (second-chance LRU): an access to
+ * a loaded item only sets its referenced flag, so hits take no lock, and the sweep releases the
+ * first item not referenced since the last pass. Items with unsaved detail edits are never released.
+ */
+public class ItemDetailCache implements Item.DetailLoader {
+
+    /**
+     * Fetches an item's details from storage
+     */
+    public interface DetailSource {
+        void fill(Item item);
+    }
+
+    /**
+     * Told when details come and go; decides whether an item may be released
+     */
+    public interface Listener {
+        void detailsLoaded(Item item);
+
+        boolean hasUnsavedDetails(Item item);
+
+        void detailsReleased(Item item);
+    }
+
+    private final DetailSource source;
+    private final int capacity;
+    private final ArrayDeque<Item> clock = new ArrayDeque<>();
+    private volatile Listener listener;
+    private Item filling;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long evictions = 0;
+    private long pinned = 0;
+
+    public ItemDetailCache(DetailSource source, int capacity) {
+        this.source = source;
+        this.capacity = Math.max(1, capacity);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Make the item's details available (detail getters of Food/Drink call this)
+     */
+    @Override
+    public void ensureLoaded(Item item) {
+        if (item.isDetailsLoaded()) {
+            hits.increment();
+            item.setDetailsReferenced(true);
+            return;
+        }
+
+        ArrayList<Item> candidates;
+        synchronized (this) {
+            if (item == filling || item.isDetailsLoaded()) {
+                // Re-entered from the fill itself, or another thread filled it meanwhile
+                return;
+            }
+            misses.increment();
+            filling = item;
+            try {
+                source.fill(item);
+            } finally {
+                filling = null;
+            }
+            item.setDetailsLoaded(true);
+            item.setDetailsReferenced(true);
+            clock.addLast(item);
+            candidates = pickVictims();
+        }
+
+        // Listener calls happen outside the cache lock (it takes its own lock and may read details)
+        Listener current = listener;
+        if (current != null) {
+            current.detailsLoaded(item);
+        }
+        release(candidates, current);
+    }
+
+    /**
+     * Forget an item (e.g. after it was deleted); its details stay as they are
+     */
+    public synchronized void remove(Item item) {
+        clock.remove(item);
+    }
+
+    /**
+     * Drop an item's details because they changed in the database; the next access refetches them
+     * (unsaved detail edits are dropped too)
+     */
+    public void invalidate(Item item) {
+        synchronized (this) {
+            clock.remove(item);
+            item.releaseDetails();
+            item.setDetailsReferenced(false);
+        }
+        Listener current = listener;
+        if (current != null) {
+            current.detailsReleased(item);
+        }
+    }
+
+    public synchronized int size() {
+        return clock.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized String getStatistics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        double hitRate = total == 0 ? 0 : hitCount * 100.0 / total;
+        return String.format("Detail cache: %d/%d item(s), %d hit(s), %d miss(es) (%.1f%% hits), " +
+                "%d eviction(s), %d kept for unsaved edits", clock.size(), capacity, hitCount, missCount,
+                hitRate, evictions, pinned);
+    }
+
+    // ============ HELPER METHODS ============
+
+    /**
+     * CLOCK sweep: unlink the items to release until the cache is back within capacity
+     */
+    private ArrayList<Item> pickVictims() {
+        ArrayList<Item> victims = new ArrayList<>();
+        int budget = 2 * clock.size();
+        while (clock.size() > capacity && budget-- > 0) {
+            Item candidate = clock.pollFirst();
+            if (candidate.isDetailsReferenced()) {
+                candidate.setDetailsReferenced(false);
+                clock.addLast(candidate);
+            } else {
+                victims.add(candidate);
+            }
+        }
+        return victims;
+    }
+
+    private void release(ArrayList<Item> victims, Listener current) {
+        for (Item victim : victims) {
+            // Used again while it waited to be released (checked first: the unsaved-edit
+            // check reads the details itself)
+            if (victim.isDetailsReferenced()) {
+                synchronized (this) {
+                    clock.addLast(victim);
+                }
+                continue;
+            }
+            if (current != null && current.hasUnsavedDetails(victim)) {
+                synchronized (this) {
+                    pinned++;
+                    victim.setDetailsReferenced(false);
+                    clock.addLast(victim);
+                }
+                continue;
+            }
+            synchronized (this) {
+                victim.releaseDetails();
+                victim.setDetailsReferenced(false);
+                evictions++;
+            }
+            if (current != null) {
+                current.detailsReleased(victim);
+            }
+        }
+    }
+}
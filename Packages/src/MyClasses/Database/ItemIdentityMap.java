@@ -0,0 +1,86 @@
+package MyClasses.Database;
+
+import MyClasses.Consumables.Item;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+
+/**
+ * Session-wide identity map: item_id -> the one canonical Item instance
+ * Every loader in DatabaseManager resolves item references through this map, so an item
+ * referenced by the catalog, an author and many customers' favorites is built (and its
+ * detail rows queried) only once, and all of them share the same object.
+ */
+public class ItemIdentityMap {
+
+    private final HashMap<Integer, Item> itemsById = new HashMap<>();
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Canonical instance for an ID, or null if it has not been loaded yet
+     */
+    public synchronized Item get(int itemId) {
+        Item item = itemsById.get(itemId);
+        if (item != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return item;
+    }
+
+    public synchronized boolean contains(int itemId) {
+        return itemsById.containsKey(itemId);
+    }
+
+    /**
+     * Register a freshly loaded item unless another instance is already canonical
+     * @return the canonical instance (the existing one if there was one)
+     */
+    public synchronized Item putIfAbsent(Item item) {
+        Item existing = itemsById.putIfAbsent(item.getItemID(), item);
+        return existing != null ? existing : item;
+    }
+
+    /**
+     * Make an item canonical for its ID (e.g. after it was created and saved in this session)
+     */
+    public synchronized void register(Item item) {
+        itemsById.put(item.getItemID(), item);
+    }
+
+    public synchronized void remove(int itemId) {
+        itemsById.remove(itemId);
+    }
+
+    /**
+     * IDs from the list that have no canonical instance yet (duplicates removed)
+     */
+    public synchronized LinkedList<Integer> missingIds(Collection<Integer> itemIds) {
+        LinkedHashSet<Integer> missing = new LinkedHashSet<>();
+        for (int itemId : itemIds) {
+            if (!itemsById.containsKey(itemId)) {
+                missing.add(itemId);
+            }
+        }
+        return new LinkedList<>(missing);
+    }
+
+    public synchronized int size() {
+        return itemsById.size();
+    }
+
+    public synchronized void clear() {
+        itemsById.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    public synchronized String getStatistics() {
+        return "Identity map: " + itemsById.size() + " item(s), " + hits + " shared reference(s), "
+                + misses + " miss(es)";
+    }
+}
@@ -0,0 +1,33 @@
+package MyClasses.Database;
+
+/**
+ * A save was rejected because the row changed in the database since this copy was loaded
+ * (another instance saved it first). Nothing of the save was written; the change feed brings
+ * in the current version, after which the edit can be made again.
+ */
+public class StaleDataException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String table;
+    private final int rowId;
+
+    public StaleDataException(String table, int rowId, int expectedVersion) {
+        super(describe(table) + " " + rowId + " was changed on another instance (this copy is version "
+                + expectedVersion + "); reload it and try again");
+        this.table = table;
+        this.rowId = rowId;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public int getRowId() {
+        return rowId;
+    }
+
+    private static String describe(String table) {
+        return "items".equals(table) ? "Formulation" : "customers".equals(table) ? "Customer" : "Row of " + table;
+    }
+}
@@ -0,0 +1,389 @@
+package MyClasses.Database;
+
+import MyClasses.Consumables.Item;
+import MyClasses.Persons.Admin;
+import MyClasses.Persons.Author;
+import MyClasses.Persons.Customer;
+import MyClasses.Utilities.ActivityRollups;
+import MyClasses.Utilities.AuditTrail;
+import MyClasses.Utilities.AutocompleteIndex;
+import MyClasses.Utilities.FormulationSearchIndex;
+import MyClasses.Utilities.IngredientUsageIndex;
+import MyClasses.Utilities.SnapshotCodec;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Loads the startup data as independent phases on pooled connections
+ *
+ * Admins, formulations, author accounts, author-item links, customers and the audit trail are
+ * read concurrently (each phase leases its own connection). Only linking authors to their
+ * formulations and customers to their favorites waits for the catalog, and that step is in
+ * memory once the catalog is there. Each aggregate's future completes as soon as it is ready,
+ * so callers can publish it without waiting for the rest; every phase is timed.
+ *
+ * With a WarmStartSnapshot the admin, author, customer and formulation phases read only the
+ * rows changed since the snapshot and merge them into it, so startup follows the churn
+ * rather than the size of the tables.
+ *
+ * A ChangeFeed passed in is positioned before any row is read, so it picks up every change
+ * committed by other instances while (or after) this load runs.
+ *
+ * A FormulationSearchIndex and an IngredientUsageIndex passed in get the formulations' detail
+ * text and ingredient lines streamed into them once the catalog is loaded, and an
+ * AutocompleteIndex the stored ingredient names, units and standards with their counts, and
+ * ActivityRollups the purchase and feedback history. Those phases are not part of getAll():
+ * logins never wait for them.
+ */
+public class StartupLoader {
+
+    private final DatabaseManager databaseManager;
+    // Local copy of the last load (null if db.warmStart.dir is empty)
+    private final WarmStartSnapshot snapshot;
+    private final ExecutorService executor;
+    // Phase name -> duration in ms, in completion order
+    private final LinkedHashMap<String, Long> timings = new LinkedHashMap<>();
+    private final long startedAt = System.nanoTime();
+
+    private final CompletableFuture<LinkedList<Admin>> admins;
+    private final CompletableFuture<LinkedList<Item>> formulations;
+    private final CompletableFuture<LinkedList<Author>> authors;
+    private final CompletableFuture<LinkedList<Customer>> customers;
+    private final CompletableFuture<AuditTrail> auditTrail;
+    private final CompletableFuture<long[]> feedbackCounts;
+    private final CompletableFuture<Void> all;
+    private final CompletableFuture<Void> searchText;
+    private final CompletableFuture<Void> ingredientUsage;
+    private final CompletableFuture<Void> suggestions;
+    private final CompletableFuture<Void> activity;
+
+    /**
+     * Start loading right away (threads: db.startup.threads, kept below the connection pool size)
+     */
+    public StartupLoader(DatabaseManager databaseManager) {
+        this(databaseManager, null, null, null, null, null);
+    }
+
+    /**
+     * @param changeFeed feed to position before loading, or null
+     * @param searchIndex index to stream the formulation text into, or null
+     * @param usageIndex index to stream the ingredient lines into, or null
+     * @param autocomplete index to fill with the stored entry values, or null
+     * @param rollups rollups to backfill with the purchase and feedback history, or null
+     */
+    public StartupLoader(DatabaseManager databaseManager, ChangeFeed changeFeed, FormulationSearchIndex searchIndex,
+                         IngredientUsageIndex usageIndex, AutocompleteIndex autocomplete, ActivityRollups rollups) {
+        this.databaseManager = databaseManager;
+        this.snapshot = WarmStartSnapshot.fromConfig();
+
+        int threads = Math.max(1, DatabaseConfig.getIntProperty("db.startup.threads", 4));
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 5, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemonThreads());
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+
+        // Database time and change feed position taken before any row is read: the high-water
+        // mark of snapshots written now, and where the feed continues
+        CompletableFuture<Timestamp> clock = snapshot == null && changeFeed == null
+                ? CompletableFuture.completedFuture(null)
+                : phase("database clock", () -> {
+                    if (changeFeed != null) {
+                        changeFeed.markPosition();
+                    }
+                    return snapshot == null ? null : readDatabaseClock();
+                });
+
+        auditTrail = phase("audit trail", databaseManager::loadAuditTrail);
+        feedbackCounts = phase("feedback counts", databaseManager::loadFeedbackCounts);
+
+        admins = delta(clock, "admins", WarmStartSnapshot.ADMINS, SnapshotCodec.ADMINS, "admins",
+                databaseManager::loadAdmins)
+                .thenApplyAsync(delta -> timed("admins snapshot", () -> reconcile(delta,
+                        SnapshotCodec::readAdmin, SnapshotCodec::writeAdmin, Admin::getAdminID,
+                        databaseManager::loadAdmins)), executor);
+
+        // A full load registers the items as canonical itself; merged snapshot rows are adopted
+        formulations = delta(clock, "formulations", WarmStartSnapshot.FORMULATIONS,
+                SnapshotCodec.FORMULATION_SUMMARIES, "items",
+                since -> since == null ? databaseManager.loadFormulations()
+                        : databaseManager.loadChangedFormulations(since))
+                .thenApplyAsync(delta -> timed("formulations snapshot", () -> databaseManager.adoptFormulations(
+                        reconcile(delta, SnapshotCodec::readItemSummary, SnapshotCodec::writeItemSummary,
+                                Item::getItemID, databaseManager::loadFormulations))), executor);
+
+        CompletableFuture<Delta<Author>> authorAccounts = delta(clock, "authors", WarmStartSnapshot.AUTHORS,
+                SnapshotCodec.AUTHORS, "authors", databaseManager::loadAuthorAccounts);
+        CompletableFuture<LinkedHashMap<Integer, LinkedList<Integer>>> authorItemIds = clock.thenApplyAsync(now ->
+                timed("author links", () -> databaseManager.loadAuthorItemIds(
+                        sinceOf(now, WarmStartSnapshot.AUTHORS, SnapshotCodec.AUTHORS))), executor);
+        authors = CompletableFuture.allOf(authorAccounts, authorItemIds, formulations)
+                .thenApplyAsync(ready -> timed("link authors", () -> {
+                    Delta<Author> delta = authorAccounts.join();
+                    databaseManager.linkAuthorFormulations(delta.changed, authorItemIds.join());
+                    Map<Integer, Item> itemsById = byId(formulations.join());
+                    return reconcile(delta, (in, version) -> SnapshotCodec.readAuthor(in, version, itemsById),
+                            SnapshotCodec::writeAuthor, Author::getAuthorID, databaseManager::loadAuthors);
+                }), executor);
+
+        LinkedHashMap<Customer, LinkedList<Integer>> favoriteIds = new LinkedHashMap<>();
+        CompletableFuture<Delta<Customer>> customerAccounts = delta(clock, "customers",
+                WarmStartSnapshot.CUSTOMERS, SnapshotCodec.CUSTOMERS, "customers",
+                since -> databaseManager.loadCustomerAccounts(since, favoriteIds));
+        customers = CompletableFuture.allOf(customerAccounts, formulations)
+                .thenApplyAsync(ready -> timed("link favorites", () -> {
+                    Delta<Customer> delta = customerAccounts.join();
+                    databaseManager.linkFavorites(favoriteIds);
+                    Map<Integer, Item> itemsById = byId(formulations.join());
+                    return reconcile(delta, (in, version) -> SnapshotCodec.readCustomer(in, version, itemsById),
+                            SnapshotCodec::writeCustomer, Customer::getCustomerID, databaseManager::loadCustomers);
+                }), executor);
+
+        // Read after the catalog so they never hold up the other phases
+        searchText = searchIndex == null ? CompletableFuture.completedFuture(null)
+                : formulations.thenRunAsync(() -> timed("search text", () -> {
+                    databaseManager.loadSearchText(searchIndex, null);
+                    return null;
+                }), executor);
+        ingredientUsage = usageIndex == null ? CompletableFuture.completedFuture(null)
+                : formulations.thenRunAsync(() -> timed("ingredient usage", () -> {
+                    databaseManager.loadIngredientUsage(usageIndex, null);
+                    return null;
+                }), executor);
+        suggestions = autocomplete == null ? CompletableFuture.completedFuture(null)
+                : formulations.thenRunAsync(() -> timed("suggestions", () -> {
+                    databaseManager.loadSuggestions(autocomplete);
+                    return null;
+                }), executor);
+        activity = rollups == null ? CompletableFuture.completedFuture(null)
+                : formulations.thenRunAsync(() -> timed("activity rollups", () -> {
+                    databaseManager.loadActivityRollups(rollups);
+                    return null;
+                }), executor);
+
+        all = CompletableFuture.allOf(admins, formulations, authors, customers, auditTrail, feedbackCounts)
+                .whenComplete((result, error) -> timed("total", startedAt));
+        CompletableFuture.allOf(all, searchText, ingredientUsage, suggestions, activity).whenComplete((result, error) -> executor.shutdown());
+    }
+
+    // Each future completes on a loader thread; publish the result on the thread that owns it
+
+    public CompletableFuture<LinkedList<Admin>> getAdmins() {
+        return admins;
+    }
+
+    public CompletableFuture<LinkedList<Item>> getFormulations() {
+        return formulations;
+    }
+
+    /**
+     * Authors with their formulations linked (completes after the catalog)
+     */
+    public CompletableFuture<LinkedList<Author>> getAuthors() {
+        return authors;
+    }
+
+    /**
+     * Customers with info, purchases and favorites linked (completes after the catalog)
+     */
+    public CompletableFuture<LinkedList<Customer>> getCustomers() {
+        return customers;
+    }
+
+    public CompletableFuture<AuditTrail> getAuditTrail() {
+        return auditTrail;
+    }
+
+    /**
+     * Stored likes and dislikes, {likes, dislikes}
+     */
+    public CompletableFuture<long[]> getFeedbackCounts() {
+        return feedbackCounts;
+    }
+
+    /**
+     * Completes when every aggregate is loaded (the total time is recorded by then)
+     */
+    public CompletableFuture<Void> getAll() {
+        return all;
+    }
+
+    /**
+     * Completes when the formulation text is in the search index (after getFormulations)
+     */
+    public CompletableFuture<Void> getSearchText() {
+        return searchText;
+    }
+
+    /**
+     * Completes when the ingredient lines are in the usage index (after getFormulations)
+     */
+    public CompletableFuture<Void> getIngredientUsage() {
+        return ingredientUsage;
+    }
+
+    /**
+     * Completes when the stored entry values are in the autocomplete index (after getFormulations)
+     */
+    public CompletableFuture<Void> getSuggestions() {
+        return suggestions;
+    }
+
+    /**
+     * Completes when the purchase and feedback history is in the rollups (after getFormulations)
+     */
+    public CompletableFuture<Void> getActivity() {
+        return activity;
+    }
+
+    /**
+     * Phase durations so far, e.g. "admins 12 ms, formulations 340 ms, ..., total 355 ms"
+     */
+    public synchronized String getTimings() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> entry : timings.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(entry.getKey()).append(' ').append(entry.getValue()).append(" ms");
+        }
+        return sb.toString();
+    }
+
+    // ============ WARM START ============
+
+    /**
+     * Stage one of an aggregate: the rows changed since its snapshot's high-water mark and the
+     * IDs deleted since then, or every row if there is no usable snapshot
+     */
+    private <T> CompletableFuture<Delta<T>> delta(CompletableFuture<Timestamp> clock, String phaseName,
+                                                  String aggregate, int kind, String table,
+                                                  Function<Timestamp, LinkedList<T>> loadChanged) {
+        return clock.thenApplyAsync(now -> timed(phaseName, () -> {
+            Delta<T> delta = new Delta<>(aggregate, kind, now, sinceOf(now, aggregate, kind));
+            delta.changed = loadChanged.apply(delta.since);
+            if (delta.since != null) {
+                delta.deleted = databaseManager.loadDeletedIds(table, delta.since);
+            }
+            return delta;
+        }), executor);
+    }
+
+    /**
+     * Stage two: snapshot rows merged with the delta (a full load if the snapshot turns out
+     * unreadable); the snapshot is rewritten after a full load or when the churn warrants it
+     */
+    private <T> LinkedList<T> reconcile(Delta<T> delta, WarmStartSnapshot.Decoder<T> decoder,
+                                        WarmStartSnapshot.Encoder<T> encoder, ToIntFunction<T> idOf,
+                                        Supplier<LinkedList<T>> fullLoad) {
+        LinkedList<T> rows = delta.changed;
+        boolean fullyLoaded = delta.since == null;
+
+        if (!fullyLoaded) {
+            try {
+                rows = WarmStartSnapshot.merge(snapshot.read(delta.aggregate, delta.kind, decoder),
+                        delta.changed, delta.deleted, idOf);
+                System.out.println("✓ Warm start: " + rows.size() + " " + delta.aggregate + " from snapshot ("
+                        + delta.changed.size() + " changed, " + delta.deleted.size() + " deleted)");
+            } catch (IOException e) {
+                System.err.println("⚠ " + e.getMessage() + "; reloading all " + delta.aggregate);
+                rows = fullLoad.get();
+                fullyLoaded = true;
+            }
+        }
+
+        if (delta.now != null && (fullyLoaded
+                || snapshot.isWorthRewriting(delta.changed.size() + delta.deleted.size(), rows.size()))) {
+            snapshot.write(delta.aggregate, delta.kind, delta.now, rows, encoder);
+        }
+        return rows;
+    }
+
+    /**
+     * Time to load changes from (the high-water mark minus the safety window), or null for a
+     * full load (no snapshot or unknown clock)
+     */
+    private Timestamp sinceOf(Timestamp now, String aggregate, int kind) {
+        return snapshot != null && now != null ? snapshot.getChangedSince(aggregate, kind) : null;
+    }
+
+    private Timestamp readDatabaseClock() {
+        try {
+            return databaseManager.getDatabaseTime();
+        } catch (SQLException e) {
+            System.err.println("⚠ Could not read database time, loading without warm start: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Map<Integer, Item> byId(Collection<Item> items) {
+        HashMap<Integer, Item> itemsById = new HashMap<>();
+        for (Item item : items) {
+            itemsById.put(item.getItemID(), item);
+        }
+        return itemsById;
+    }
+
+    /**
+     * What stage one of an aggregate found in the database
+     */
+    private static class Delta<T> {
+        final String aggregate;
+        final int kind;
+        final Timestamp now;
+        final Timestamp since;
+        LinkedList<T> changed;
+        LinkedList<Integer> deleted = new LinkedList<>();
+
+        Delta(String aggregate, int kind, Timestamp now, Timestamp since) {
+            this.aggregate = aggregate;
+            this.kind = kind;
+            this.now = now;
+            this.since = since;
+        }
+    }
+
+    // ============ HELPER METHODS ============
+
+    private <T> CompletableFuture<T> phase(String name, Supplier<T> load) {
+        return CompletableFuture.supplyAsync(() -> timed(name, load), executor);
+    }
+
+    private <T> T timed(String name, Supplier<T> step) {
+        long start = System.nanoTime();
+        try {
+            return step.get();
+        } finally {
+            timed(name, start);
+        }
+    }
+
+    private synchronized void timed(String name, long startNanos) {
+        timings.put(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "startup-load-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,596 @@
+package MyClasses.Database;
+
+import MyClasses.Conditions.Conservecondition;
+import MyClasses.Conditions.Consumpcondition;
+import MyClasses.Conditions.Optcondition;
+import MyClasses.Conditions.Prepprotocol;
+import MyClasses.Consumables.Drink;
+import MyClasses.Consumables.Food;
+import MyClasses.Consumables.Item;
+import MyClasses.Feedback;
+import MyClasses.Ingredients.Ingredient;
+import MyClasses.Persons.Admin;
+import MyClasses.Persons.Author;
+import MyClasses.Persons.Customer;
+import MyClasses.Restrictions.Veto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Unit of work - dirty tracking for incremental persistence
+ * Remembers the field values of every admin, author, customer and item (and of each item
+ * child collection) as last loaded/saved. collectChanges() compares the live objects to
+ * those snapshots and returns only the deltas; DatabaseManager.saveChanges() writes them
+ * in one transaction and markClean() then adopts the new snapshots.
+ * Item details that are not in memory (see ItemDetailCache) are left out of the snapshot
+ * until they are loaded; as the cache's listener it also keeps items with unsaved detail
+ * edits from being released. Changes carry the row version they are based on, so a save is
+ * rejected (StaleDataException) if another instance saved the row first.
+ */
+public class UnitOfWork implements ItemDetailCache.Listener {
+
+    /**
+     * Independently persisted parts of an item (one child table each, BASE = items row)
+     */
+    public enum ItemPart {
+        BASE, INGREDIENTS, LAB_CONDITIONS, PREPARATION_PROTOCOL, CONSERVATION_CONDITIONS,
+        CONSUMPTION_CONDITIONS, STANDARDS, VETO, FEEDBACKS
+    }
+
+    // Parts loaded lazily with the item details (BASE and VETO are always in memory)
+    private static final EnumSet<ItemPart> DETAIL_PARTS =
+            EnumSet.complementOf(EnumSet.of(ItemPart.BASE, ItemPart.VETO));
+
+    private final HashMap<Integer, List<Object>> adminSnapshots = new HashMap<>();
+    private final HashMap<Integer, AuthorSnapshot> authorSnapshots = new HashMap<>();
+    private final HashMap<Integer, CustomerSnapshot> customerSnapshots = new HashMap<>();
+    private final HashMap<Integer, ItemSnapshot> itemSnapshots = new HashMap<>();
+
+    // ============ TRACKING ============
+
+    public synchronized void trackAdmins(Collection<Admin> admins) {
+        for (Admin admin : admins) {
+            trackAdmin(admin);
+        }
+    }
+
+    public synchronized void trackAdmin(Admin admin) {
+        adminSnapshots.put(admin.getAdminID(), adminValues(admin));
+    }
+
+    public synchronized void trackAuthors(Collection<Author> authors) {
+        for (Author author : authors) {
+            trackAuthor(author);
+        }
+    }
+
+    public synchronized void trackAuthor(Author author) {
+        authorSnapshots.put(author.getAuthorID(), new AuthorSnapshot(author));
+    }
+
+    public synchronized void trackCustomers(Collection<Customer> customers) {
+        for (Customer customer : customers) {
+            trackCustomer(customer);
+        }
+    }
+
+    public synchronized void trackCustomer(Customer customer) {
+        customerSnapshots.put(customer.getCustomerID(), new CustomerSnapshot(customer));
+    }
+
+    public synchronized void trackItems(Collection<Item> items) {
+        for (Item item : items) {
+            trackItem(item);
+        }
+    }
+
+    public synchronized void trackItem(Item item) {
+        itemSnapshots.put(item.getItemID(), new ItemSnapshot(item));
+    }
+
+    // ============ LAZY DETAILS (ItemDetailCache.Listener) ============
+
+    /**
+     * Details just arrived from the database: they are the clean state to compare against
+     */
+    @Override
+    public synchronized void detailsLoaded(Item item) {
+        ItemSnapshot snapshot = itemSnapshots.get(item.getItemID());
+        if (snapshot != null) {
+            snapshot.captureDetails(item);
+        }
+    }
+
+    @Override
+    public synchronized boolean hasUnsavedDetails(Item item) {
+        ItemSnapshot snapshot = itemSnapshots.get(item.getItemID());
+        if (snapshot == null || !item.isDetailsLoaded()) {
+            return false;
+        }
+        ItemSnapshot current = new ItemSnapshot(item);
+        for (ItemPart part : DETAIL_PARTS) {
+            if (!Objects.equals(current.parts.get(part), snapshot.parts.get(part))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void detailsReleased(Item item) {
+        ItemSnapshot snapshot = itemSnapshots.get(item.getItemID());
+        if (snapshot != null) {
+            snapshot.clearDetails();
+        }
+    }
+
+    // ============ CHANGE DETECTION ============
+
+    /**
+     * True if the item differs from its last loaded/saved state (or was never stored)
+     */
+    public synchronized boolean hasUnsavedChanges(Item item) {
+        ItemSnapshot snapshot = itemSnapshots.get(item.getItemID());
+        if (snapshot == null) {
+            return true;
+        }
+        for (Map.Entry<ItemPart, List<Object>> part : new ItemSnapshot(item).parts.entrySet()) {
+            if (!Objects.equals(part.getValue(), snapshot.parts.get(part.getKey()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * True if the customer differs from its last loaded/saved state (or was never stored)
+     */
+    public synchronized boolean hasUnsavedChanges(Customer customer) {
+        CustomerSnapshot snapshot = customerSnapshots.get(customer.getCustomerID());
+        if (snapshot == null) {
+            return true;
+        }
+        CustomerSnapshot current = new CustomerSnapshot(customer);
+        return !current.base.equals(snapshot.base) || !current.purchaseIds.equals(snapshot.purchaseIds)
+                || !current.favoriteIds.equals(snapshot.favoriteIds);
+    }
+
+    /**
+     * Compare live objects with their snapshots and collect what needs writing
+     */
+    public synchronized ChangeSet collectChanges(Collection<Admin> admins, Collection<Author> authors,
+                                                 Collection<Customer> customers, Collection<Item> items) {
+        ChangeSet changes = new ChangeSet();
+
+        for (Admin admin : admins) {
+            List<Object> current = adminValues(admin);
+            List<Object> previous = adminSnapshots.get(admin.getAdminID());
+            if (!current.equals(previous)) {
+                changes.admins.add(admin);
+                changes.adminSnapshots.put(admin.getAdminID(), current);
+            }
+        }
+
+        for (Author author : authors) {
+            AuthorSnapshot current = new AuthorSnapshot(author);
+            AuthorSnapshot previous = authorSnapshots.get(author.getAuthorID());
+            boolean baseChanged = previous == null || !previous.base.equals(current.base);
+            boolean linksChanged = previous == null || !previous.itemIds.equals(current.itemIds);
+
+            if (baseChanged) {
+                changes.authors.add(author);
+            }
+            if (linksChanged) {
+                for (Integer itemId : current.itemIds) {
+                    if (previous == null || !previous.itemIds.contains(itemId)) {
+                        changes.addedAuthorItems.add(new int[]{author.getAuthorID(), itemId});
+                    }
+                }
+            }
+            if (baseChanged || linksChanged) {
+                changes.authorSnapshots.put(author.getAuthorID(), current);
+            }
+        }
+
+        for (Customer customer : customers) {
+            CustomerSnapshot current = new CustomerSnapshot(customer);
+            CustomerSnapshot previous = customerSnapshots.get(customer.getCustomerID());
+            boolean changed = false;
+
+            if (previous == null || !previous.base.equals(current.base)) {
+                changes.customers.add(customer);
+                changed = true;
+            }
+            for (Map.Entry<Integer, Customer.PurchaseRecord> entry : customer.getPurchasedItems().entrySet()) {
+                if (previous == null || !previous.purchaseIds.contains(entry.getKey())) {
+                    changes.newPurchases.add(new PurchaseChange(customer.getCustomerID(), entry.getValue()));
+                    changed = true;
+                }
+            }
+            for (Integer itemId : current.favoriteIds) {
+                if (previous == null || !previous.favoriteIds.contains(itemId)) {
+                    changes.addedFavorites.add(new int[]{customer.getCustomerID(), itemId});
+                    changed = true;
+                }
+            }
+            if (previous != null) {
+                for (Integer itemId : previous.favoriteIds) {
+                    if (!current.favoriteIds.contains(itemId)) {
+                        changes.removedFavorites.add(new int[]{customer.getCustomerID(), itemId});
+                        changed = true;
+                    }
+                }
+            }
+            if (changed) {
+                changes.customerSnapshots.put(customer.getCustomerID(), current);
+                changes.customerVersions.put(customer, customer.getVersion());
+            }
+        }
+
+        for (Item item : items) {
+            ItemSnapshot current = new ItemSnapshot(item);
+            ItemSnapshot previous = itemSnapshots.get(item.getItemID());
+
+            if (previous == null) {
+                changes.items.add(new ItemChange(item, true, EnumSet.allOf(ItemPart.class), null));
+                changes.itemSnapshots.put(item.getItemID(), current);
+                continue;
+            }
+
+            EnumSet<ItemPart> dirtyParts = EnumSet.noneOf(ItemPart.class);
+            for (ItemPart part : ItemPart.values()) {
+                List<Object> values = current.parts.get(part);
+                // A part that is not loaded cannot have been edited
+                if (values != null && !values.equals(previous.parts.get(part))) {
+                    dirtyParts.add(part);
+                }
+            }
+            if (dirtyParts.isEmpty()) {
+                continue;
+            }
+
+            // Feedback is usually appended: if the old rows are an unchanged prefix, only insert the tail
+            LinkedList<Feedback> appendedFeedbacks = null;
+            if (dirtyParts.contains(ItemPart.FEEDBACKS)) {
+                List<Feedback> feedbacks = feedbacksOf(item);
+                List<Object> previousFeedbacks = previous.parts.get(ItemPart.FEEDBACKS);
+                if (feedbacks != null && previousFeedbacks != null && feedbacks.size() > previous.feedbackCount &&
+                        feedbackValues(feedbacks, previous.feedbackCount).equals(previousFeedbacks)) {
+                    appendedFeedbacks = new LinkedList<>(feedbacks.subList(previous.feedbackCount, feedbacks.size()));
+                }
+            }
+
+            changes.items.add(new ItemChange(item, false, dirtyParts, appendedFeedbacks));
+            changes.itemSnapshots.put(item.getItemID(), current);
+        }
+
+        return changes;
+    }
+
+    /**
+     * Adopt the snapshots captured by collectChanges once the change set is committed
+     */
+    public synchronized void markClean(ChangeSet changes) {
+        adminSnapshots.putAll(changes.adminSnapshots);
+        authorSnapshots.putAll(changes.authorSnapshots);
+        customerSnapshots.putAll(changes.customerSnapshots);
+        itemSnapshots.putAll(changes.itemSnapshots);
+    }
+
+    public synchronized void clear() {
+        adminSnapshots.clear();
+        authorSnapshots.clear();
+        customerSnapshots.clear();
+        itemSnapshots.clear();
+    }
+
+    // ============ CHANGE SET ============
+
+    /**
+     * Deltas to write in one transaction
+     */
+    public static class ChangeSet {
+        final LinkedList<Admin> admins = new LinkedList<>();
+        final LinkedList<Author> authors = new LinkedList<>();
+        final LinkedList<int[]> addedAuthorItems = new LinkedList<>();   // {author_id, item_id}
+        final LinkedList<Customer> customers = new LinkedList<>();
+        final LinkedList<PurchaseChange> newPurchases = new LinkedList<>();
+        final LinkedList<int[]> addedFavorites = new LinkedList<>();     // {customer_id, item_id}
+        final LinkedList<int[]> removedFavorites = new LinkedList<>();   // {customer_id, item_id}
+        final LinkedList<ItemChange> items = new LinkedList<>();
+        // Customers written by this change set -> the row version their changes are based on
+        final LinkedHashMap<Customer, Integer> customerVersions = new LinkedHashMap<>();
+
+        private final HashMap<Integer, List<Object>> adminSnapshots = new HashMap<>();
+        private final HashMap<Integer, AuthorSnapshot> authorSnapshots = new HashMap<>();
+        private final HashMap<Integer, CustomerSnapshot> customerSnapshots = new HashMap<>();
+        private final HashMap<Integer, ItemSnapshot> itemSnapshots = new HashMap<>();
+
+        /**
+         * Formulations written by this change set (new or changed)
+         */
+        public LinkedList<Item> getItems() {
+            LinkedList<Item> changed = new LinkedList<>();
+            for (ItemChange change : items) {
+                changed.add(change.item);
+            }
+            return changed;
+        }
+
+        public boolean isEmpty() {
+            return admins.isEmpty() && authors.isEmpty() && addedAuthorItems.isEmpty() &&
+                    customers.isEmpty() && newPurchases.isEmpty() && addedFavorites.isEmpty() &&
+                    removedFavorites.isEmpty() && items.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "ChangeSet{admins=" + admins.size() +
+                    ", authors=" + authors.size() +
+                    ", authorItems=" + addedAuthorItems.size() +
+                    ", customers=" + customers.size() +
+                    ", purchases=" + newPurchases.size() +
+                    ", favorites=+" + addedFavorites.size() + "/-" + removedFavorites.size() +
+                    ", items=" + items.size() + "}";
+        }
+    }
+
+    static class PurchaseChange {
+        final int customerId;
+        final Customer.PurchaseRecord purchase;
+
+        PurchaseChange(int customerId, Customer.PurchaseRecord purchase) {
+            this.customerId = customerId;
+            this.purchase = purchase;
+        }
+    }
+
+    static class ItemChange {
+        final Item item;
+        final boolean isNew;
+        final EnumSet<ItemPart> parts;
+        final LinkedList<Feedback> appendedFeedbacks; // null = rewrite all feedbacks if FEEDBACKS is dirty
+        final int version;                            // row version the change is based on
+
+        ItemChange(Item item, boolean isNew, EnumSet<ItemPart> parts, LinkedList<Feedback> appendedFeedbacks) {
+            this.item = item;
+            this.isNew = isNew;
+            this.parts = parts;
+            this.appendedFeedbacks = appendedFeedbacks;
+            this.version = item.getVersion();
+        }
+    }
+
+    // ============ SNAPSHOTS ============
+
+    private static class AuthorSnapshot {
+        final List<Object> base;
+        final HashSet<Integer> itemIds = new HashSet<>();
+
+        AuthorSnapshot(Author author) {
+            this.base = personValues(author.getAuthorID(), author.getName(), author.getAddress(),
+                    author.getContact(), author.getDateofbirth(), author.getPassword(), 0);
+            for (Item item : author.getFormulatedItems()) {
+                itemIds.add(item.getItemID());
+            }
+        }
+    }
+
+    private static class CustomerSnapshot {
+        final List<Object> base;
+        final HashSet<Integer> purchaseIds;
+        final HashSet<Integer> favoriteIds = new HashSet<>();
+
+        CustomerSnapshot(Customer customer) {
+            this.base = personValues(customer.getCustomerID(), customer.getName(), customer.getAddress(),
+                    customer.getContact(), customer.getDateofbirth(), customer.getPassword(), customer.getAge());
+            this.purchaseIds = new HashSet<>(customer.getPurchasedItems().keySet());
+            for (Item item : customer.getFavoriteFormulations()) {
+                favoriteIds.add(item.getItemID());
+            }
+        }
+    }
+
+    private static class ItemSnapshot {
+        final EnumMap<ItemPart, List<Object>> parts = new EnumMap<>(ItemPart.class);
+        int feedbackCount;
+
+        ItemSnapshot(Item item) {
+            parts.put(ItemPart.BASE, itemBaseValues(item));
+            parts.put(ItemPart.VETO, vetoValues(vetoOf(item)));
+            // Reading details that are not in memory would load them; they are captured on load
+            if (item.isDetailsLoaded()) {
+                captureDetails(item);
+            }
+        }
+
+        void captureDetails(Item item) {
+            List<Feedback> feedbacks = feedbacksOf(item);
+            this.feedbackCount = feedbacks != null ? feedbacks.size() : 0;
+
+            parts.put(ItemPart.INGREDIENTS, ingredientValues(ingredientsOf(item)));
+            parts.put(ItemPart.LAB_CONDITIONS, Arrays.asList(optconditionValues(labConditionOf(item))));
+            parts.put(ItemPart.PREPARATION_PROTOCOL, protocolValues(protocolOf(item)));
+            parts.put(ItemPart.CONSERVATION_CONDITIONS, conservationValues(conservationOf(item)));
+            parts.put(ItemPart.CONSUMPTION_CONDITIONS, consumptionValues(consumptionOf(item)));
+            parts.put(ItemPart.STANDARDS, standardsValues(standardsOf(item)));
+            parts.put(ItemPart.FEEDBACKS, feedbackValues(feedbacks, feedbackCount));
+        }
+
+        void clearDetails() {
+            for (ItemPart part : DETAIL_PARTS) {
+                parts.remove(part);
+            }
+            feedbackCount = 0;
+        }
+    }
+
+    // ============ SNAPSHOT VALUES ============
+    // The values themselves (boxed primitives, strings, dates as epoch milliseconds), nested one
+    // list per element and compared with equals: unlike a hash, no edit can match the saved state
+
+    private static List<Object> adminValues(Admin admin) {
+        return personValues(admin.getAdminID(), admin.getName(), admin.getAddress(),
+                admin.getContact(), admin.getDateofbirth(), admin.getPassword(), 0);
+    }
+
+    private static List<Object> personValues(int id, String name, String address, String contact,
+                                             String dob, String password, int age) {
+        return Arrays.asList(id, name, address, contact, dob, password, age);
+    }
+
+    private static List<Object> itemBaseValues(Item item) {
+        return Arrays.asList(
+                item instanceof Food ? "FOOD" : "DRINK",
+                item.getName(),
+                item.getPrice(),
+                item.getExpiry_date(),
+                item.getEntry_date() != null ? item.getEntry_date().getTime() : null,
+                item instanceof Food ? ((Food) item).getAveragePricePerKg()
+                        : item instanceof Drink ? ((Drink) item).getAveragePricePerKg() : 0.0,
+                item.getAuthor() != null ? item.getAuthor().getAuthorID() : 0);
+    }
+
+    private static List<Object> ingredientValues(List<Ingredient> ingredients) {
+        ArrayList<Object> values = new ArrayList<>();
+        if (ingredients == null) {
+            return values;
+        }
+        for (Ingredient ing : ingredients) {
+            if (ing.getQuantity() != null) {
+                values.add(Arrays.asList(ing.getName(), ing.getQuantity().getWeight(), ing.getQuantity().getVolume(),
+                        ing.getQuantity().getFraction(), ing.getQuantity().getUnit()));
+            } else {
+                values.add(Arrays.asList(ing.getName()));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Values of a condition, or null for none
+     */
+    private static List<Object> optconditionValues(Optcondition cond) {
+        if (cond == null) {
+            return null;
+        }
+        return Arrays.asList(cond.getTemp(), cond.getPressure(), cond.getMoisture(),
+                cond.getVibration(), cond.getPeriod());
+    }
+
+    private static List<Object> protocolValues(Prepprotocol protocol) {
+        ArrayList<Object> values = new ArrayList<>();
+        if (protocol == null) {
+            return values;
+        }
+        Iterator<Optcondition> condIt = protocol.getStepConditions().iterator();
+        for (String step : protocol.getSteps()) {
+            values.add(Arrays.asList(step, optconditionValues(condIt.hasNext() ? condIt.next() : null)));
+        }
+        return values;
+    }
+
+    private static List<Object> conservationValues(Conservecondition cond) {
+        if (cond == null) {
+            return new ArrayList<>();
+        }
+        return Arrays.asList(cond.getTemp(), cond.getMoisture(), cond.getContainer());
+    }
+
+    private static List<Object> consumptionValues(Consumpcondition cond) {
+        if (cond == null) {
+            return new ArrayList<>();
+        }
+        return Arrays.asList(cond.getTemperature(), cond.getMoisture());
+    }
+
+    private static List<Object> standardsValues(List<String> standards) {
+        return standards != null ? new ArrayList<>(standards) : new ArrayList<>();
+    }
+
+    private static List<Object> vetoValues(Veto veto) {
+        if (veto == null) {
+            return new ArrayList<>();
+        }
+        return Arrays.asList(veto.isVetoed, veto.reason, veto.date != null ? veto.date.getTime() : null);
+    }
+
+    /**
+     * Values of the first count feedbacks (used to detect pure appends)
+     */
+    private static List<Object> feedbackValues(List<Feedback> feedbacks, int count) {
+        ArrayList<Object> values = new ArrayList<>();
+        if (feedbacks == null) {
+            return values;
+        }
+        Iterator<Feedback> it = feedbacks.iterator();
+        for (int i = 0; i < count && it.hasNext(); i++) {
+            Feedback feedback = it.next();
+            values.add(Arrays.asList(feedback.getConsumerName(), feedback.getComment(), feedback.isLike(),
+                    feedback.getTimestamp() != null ? feedback.getTimestamp().getTime() : null));
+        }
+        return values;
+    }
+
+    // ============ ITEM ACCESSORS ============
+
+    private static LinkedList<Ingredient> ingredientsOf(Item item) {
+        if (item instanceof Food) return ((Food) item).getIngredients();
+        if (item instanceof Drink) return ((Drink) item).getIngredients();
+        return null;
+    }
+
+    private static Optcondition labConditionOf(Item item) {
+        if (item instanceof Food) return ((Food) item).getLabCondition();
+        if (item instanceof Drink) return ((Drink) item).getLabCondition();
+        return null;
+    }
+
+    private static Prepprotocol protocolOf(Item item) {
+        if (item instanceof Food) return ((Food) item).getPrepprotocol();
+        if (item instanceof Drink) return ((Drink) item).getPrepprotocol();
+        return null;
+    }
+
+    private static Conservecondition conservationOf(Item item) {
+        if (item instanceof Food) return ((Food) item).getConservecondition();
+        if (item instanceof Drink) return ((Drink) item).getConservecondition();
+        return null;
+    }
+
+    private static Consumpcondition consumptionOf(Item item) {
+        if (item instanceof Food) return ((Food) item).getConsumpcondition();
+        if (item instanceof Drink) return ((Drink) item).getConsumpcondition();
+        return null;
+    }
+
+    private static LinkedList<String> standardsOf(Item item) {
+        if (item instanceof Food) return ((Food) item).getStandards();
+        if (item instanceof Drink) return ((Drink) item).getStandards();
+        return null;
+    }
+
+    private static Veto vetoOf(Item item) {
+        if (item instanceof Food) return ((Food) item).getVeto();
+        if (item instanceof Drink) return ((Drink) item).getVeto();
+        return null;
+    }
+
+    static LinkedList<Feedback> feedbacksOf(Item item) {
+        if (item instanceof Food) return ((Food) item).getFeedbacks();
+        if (item instanceof Drink) return ((Drink) item).getFeedbacks();
+        return null;
+    }
+}
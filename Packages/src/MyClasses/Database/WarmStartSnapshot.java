@@ -0,0 +1,183 @@
+package MyClasses.Database;
+
+import MyClasses.Utilities.SnapshotCodec;
+import MyClasses.Utilities.SnapshotReader;
+import MyClasses.Utilities.SnapshotWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.function.ToIntFunction;
+
+/**
+ * Local copy of the last loaded admins, authors, customers and formulation summaries
+ *
+ * One snapshot file per aggregate (SnapshotWriter format). Record 0 is a header: the
+ * high-water mark (database time taken before the rows were read) and the database URL; the
+ * other records are the rows. At startup the rows changed since the high-water mark
+ * (updated_at) and the deleted_rows tombstones are merged into the file's rows, so the
+ * database only returns the churn.
+ *
+ * updated_at and deleted_at are stamped when a statement runs, not when its transaction
+ * commits, so a save still open when the mark was taken can commit rows stamped before it.
+ * Deltas are therefore read from db.warmStart.safetyWindowSeconds (at least the longest
+ * transaction) before the mark; rows read twice merge to the same result. A file is rewritten when the churn since its mark exceeds
+ * db.warmStart.rewritePercent of its rows, so the deltas never grow without bound.
+ */
+public class WarmStartSnapshot {
+
+    public static final String ADMINS = "admins";
+    public static final String AUTHORS = "authors";
+    public static final String CUSTOMERS = "customers";
+    public static final String FORMULATIONS = "formulations";
+
+    private final Path directory;
+    private final int rewritePercent;
+    private final long safetyWindowMillis;
+
+    public interface Encoder<T> {
+        void write(SnapshotWriter.RecordOutput out, T value);
+    }
+
+    public interface Decoder<T> {
+        T read(SnapshotReader.RecordInput in, int schemaVersion);
+    }
+
+    public WarmStartSnapshot(Path directory, int rewritePercent, int safetyWindowSeconds) {
+        this.directory = directory;
+        this.rewritePercent = Math.max(0, rewritePercent);
+        this.safetyWindowMillis = Math.max(0, safetyWindowSeconds) * 1000L;
+    }
+
+    /**
+     * Snapshot configured in database.properties (db.warmStart.dir), or null if disabled
+     */
+    public static WarmStartSnapshot fromConfig() {
+        String dir = DatabaseConfig.getStringProperty("db.warmStart.dir", "data/warmstart").trim();
+        if (dir.isEmpty()) {
+            return null;
+        }
+        return new WarmStartSnapshot(Paths.get(dir), DatabaseConfig.getIntProperty("db.warmStart.rewritePercent", 10),
+                DatabaseConfig.getIntProperty("db.warmStart.safetyWindowSeconds", 300));
+    }
+
+    /**
+     * High-water mark of an aggregate's file, or null if it is missing, unreadable, in an
+     * older layout, or was taken from another database
+     */
+    public Timestamp getHighWaterMark(String aggregate, int kind) {
+        Path file = fileOf(aggregate);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (SnapshotReader reader = new SnapshotReader(file, kind)) {
+            if (reader.getRecordCount() == 0) {
+                return null;
+            }
+            if (reader.getSchemaVersion() < SnapshotCodec.SCHEMA_VERSION) {
+                // Rows without their versions would make every later save look stale
+                System.out.println("⚠ Warm-start " + aggregate + " snapshot has an older layout; ignored");
+                return null;
+            }
+            SnapshotReader.RecordInput header = reader.record(0);
+            long highWater = header.readLong();
+            String databaseUrl = header.readString();
+            if (!DatabaseConfig.getDatabaseUrl().equals(databaseUrl)) {
+                System.out.println("⚠ Warm-start " + aggregate + " snapshot is from another database; ignored");
+                return null;
+            }
+            return new Timestamp(highWater);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("⚠ Warm-start " + aggregate + " snapshot unreadable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Time to read an aggregate's delta from: its high-water mark minus the safety window,
+     * or null if there is no usable mark (see getHighWaterMark)
+     */
+    public Timestamp getChangedSince(String aggregate, int kind) {
+        Timestamp highWater = getHighWaterMark(aggregate, kind);
+        return highWater == null ? null : new Timestamp(highWater.getTime() - safetyWindowMillis);
+    }
+
+    /**
+     * Rows stored for an aggregate (header skipped)
+     */
+    public <T> LinkedList<T> read(String aggregate, int kind, Decoder<T> decoder) throws IOException {
+        LinkedList<T> rows = new LinkedList<>();
+        try (SnapshotReader reader = new SnapshotReader(fileOf(aggregate), kind)) {
+            for (int i = 1; i < reader.getRecordCount(); i++) {
+                rows.add(decoder.read(reader.record(i), reader.getSchemaVersion()));
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt " + aggregate + " snapshot: " + e, e);
+        }
+        return rows;
+    }
+
+    /**
+     * Replace an aggregate's file (a failed write only costs a slower next start)
+     * @param highWater database time taken before the rows were read
+     */
+    public <T> void write(String aggregate, int kind, Timestamp highWater, Collection<T> rows, Encoder<T> encoder) {
+        try (SnapshotWriter writer = new SnapshotWriter(fileOf(aggregate), kind, SnapshotCodec.SCHEMA_VERSION)) {
+            SnapshotWriter.RecordOutput header = writer.beginRecord();
+            header.writeLong(highWater.getTime());
+            header.writeString(DatabaseConfig.getDatabaseUrl());
+            writer.endRecord();
+
+            for (T row : rows) {
+                encoder.write(writer.beginRecord(), row);
+                writer.endRecord();
+            }
+            writer.commit();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("⚠ Could not write warm-start " + aggregate + " snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * True if enough rows changed since the file's mark that rewriting it pays off
+     */
+    public boolean isWorthRewriting(int churn, int rowCount) {
+        return churn > 0 && (long) churn * 100 >= (long) rewritePercent * rowCount;
+    }
+
+    /**
+     * Snapshot rows with changed rows replacing (or added after) them and deleted rows removed
+     */
+    public static <T> LinkedList<T> merge(Collection<T> snapshotRows, Collection<T> changedRows,
+                                          Collection<Integer> deletedIds, ToIntFunction<T> idOf) {
+        LinkedHashMap<Integer, T> rowsById = new LinkedHashMap<>();
+        for (T row : snapshotRows) {
+            rowsById.put(idOf.applyAsInt(row), row);
+        }
+        for (T row : changedRows) {
+            rowsById.put(idOf.applyAsInt(row), row);
+        }
+
+        // A row re-created after its deletion is in changedRows and stays
+        HashSet<Integer> changedIds = new HashSet<>();
+        for (T row : changedRows) {
+            changedIds.add(idOf.applyAsInt(row));
+        }
+        for (int id : deletedIds) {
+            if (!changedIds.contains(id)) {
+                rowsById.remove(id);
+            }
+        }
+        return new LinkedList<>(rowsById.values());
+    }
+
+    private Path fileOf(String aggregate) {
+        return directory.resolve(aggregate + ".snap");
+    }
+}
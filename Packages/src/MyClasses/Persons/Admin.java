@@ -8,6 +8,7 @@ import MyClasses.Ingredients.Ingredient;
 import MyClasses.Keyboard.Keypad;
 import MyClasses.Keyboard.Screen;
 import MyClasses.Restrictions.Veto;
+import MyClasses.Utilities.CatalogIndex;
 import MyClasses.Feedback;
 import java.io.Serializable;
 
@@ -33,6 +34,10 @@ public class Admin extends Person implements Formulation,Serializable {
     private LinkedList<Item> allFormulations;
     private static final long serialVersionUID = 1L;
 
+    // id -> item lookup over allFormulations: built on first use after setAllFormulations,
+    // then kept in step by the list's owner through formulationAdded
+    private transient CatalogIndex formulationIndex;
+
     private transient Keypad pad = new Keypad();
     private transient Screen screen = new Screen();
 
@@ -523,12 +528,10 @@ public class Admin extends Person implements Formulation,Serializable {
     // ============ HELPER METHODS ============
 
     private Item findFormulationById(int id) {
-        for (Item item : allFormulations) {
-            if (item.getItemID() == id) {
-                return item;
-            }
+        if (formulationIndex == null) {
+            formulationIndex = new CatalogIndex(allFormulations);
         }
-        return null;
+        return formulationIndex.getItem(id);
     }
 
     private LinkedList<Ingredient> getIngredients(Item item) {
@@ -583,6 +586,16 @@ public class Admin extends Person implements Formulation,Serializable {
 
     public void setAllFormulations(LinkedList<Item> allFormulations) {
         this.allFormulations = allFormulations;
+        this.formulationIndex = null;
+    }
+
+    /**
+     * The owner of the shared formulation list added an item to it
+     */
+    public void formulationAdded(Item formulation) {
+        if (formulationIndex != null) {
+            formulationIndex.addItem(formulation);
+        }
     }
 
     // ============ GETTERS ============
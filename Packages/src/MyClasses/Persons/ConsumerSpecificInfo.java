@@ -1,5 +1,8 @@
 package MyClasses.Persons;
 
+import MyClasses.Utilities.AllergenIndex;
+
+import java.util.BitSet;
 import java.util.LinkedList;
 import java.io.Serializable;
 
@@ -13,6 +16,9 @@ public class ConsumerSpecificInfo implements Serializable {
     private LinkedList<String> positiveImpacts;
     private static final long serialVersionUID = 1L;
 
+    // Allergies as AllergenIndex bits; cleared by every allergy mutator
+    private transient volatile BitSet allergyMask;
+
     public ConsumerSpecificInfo() {
         this.allergies = new LinkedList<>();
         this.positiveImpacts = new LinkedList<>();
@@ -32,6 +38,7 @@ public class ConsumerSpecificInfo implements Serializable {
                 allergies = new LinkedList<>();
             }
             allergies.add(allergy);
+            allergyMask = null;
         }
     }
 
@@ -39,8 +46,9 @@ public class ConsumerSpecificInfo implements Serializable {
      * Removes an allergy from the list
      */
     public boolean removeAllergy(String allergy) {
-        if (allergies != null) {
-            return allergies.remove(allergy);
+        if (allergies != null && allergies.remove(allergy)) {
+            allergyMask = null;
+            return true;
         }
         return false;
     }
@@ -83,6 +91,20 @@ public class ConsumerSpecificInfo implements Serializable {
 
     public void setAllergies(LinkedList<String> allergies) {
         this.allergies = allergies;
+        this.allergyMask = null;
+    }
+
+    /**
+     * Allergies as AllergenIndex bits, computed once per allergy list
+     * (edit the list through addAllergy/removeAllergy/setAllergies so the bits follow it)
+     */
+    public BitSet getAllergyMask() {
+        BitSet mask = allergyMask;
+        if (mask == null) {
+            mask = AllergenIndex.getGlobal().maskOf(allergies);
+            allergyMask = mask;
+        }
+        return mask;
     }
 
     public String getAgeRange() {
@@ -8,6 +8,7 @@ import MyClasses.Formulation;
 import MyClasses.Ingredients.Ingredient;
 import MyClasses.Keyboard.Keypad;
 import MyClasses.Keyboard.Screen;
+import MyClasses.Utilities.AllergenIndex;
 import java.io.Serializable;
 
 import java.util.LinkedList;
@@ -30,9 +31,24 @@ public class Customer extends Person implements Formulation,Serializable {
     // Payment tracking
     private HashMap<Integer, PurchaseRecord> purchasedItems; // itemID -> PurchaseRecord
 
+    // Version of the database row this copy is based on (0 = never stored)
+    private volatile int version;
+
     private transient Keypad pad = new Keypad();
     private transient Screen screen = new Screen();
 
+    // Told about new purchases and feedback (the system metrics)
+    private transient volatile ActivityListener activityListener;
+
+    /**
+     * Told when the customer pays for an item or gives feedback; loading purchases is not an event
+     */
+    public interface ActivityListener {
+        void purchased(Customer customer, PurchaseRecord record);
+
+        void feedbackGiven(Customer customer, Item item, Feedback feedback);
+    }
+
     public Customer() {
         super();
         this.favoriteFormulations = new LinkedList<>();
@@ -93,6 +109,10 @@ public class Customer extends Person implements Formulation,Serializable {
             );
 
             purchasedItems.put(item.getItemID(), record);
+            ActivityListener listener = activityListener;
+            if (listener != null) {
+                listener.purchased(this, record);
+            }
             screen.display("\n✓ Payment successful!");
             screen.display("You can now view full details of this formulation.");
             return true;
@@ -441,6 +461,10 @@ public class Customer extends Person implements Formulation,Serializable {
         } else if (item instanceof Drink) {
             ((Drink) item).addFeedback(feedback);
         }
+        ActivityListener listener = activityListener;
+        if (listener != null) {
+            listener.feedbackGiven(this, item, feedback);
+        }
 
         screen.display("\n✓ Thank you for your feedback!");
         return feedback;
@@ -487,29 +511,14 @@ public class Customer extends Person implements Formulation,Serializable {
         if (info == null || info.getAllergies() == null || info.getAllergies().isEmpty()) {
             return false;
         }
-
-        LinkedList<Ingredient> ingredients = getIngredients(item);
-        if (ingredients == null) return false;
-
-        for (Ingredient ing : ingredients) {
-            for (String allergen : info.getAllergies()) {
-                if (ing.getName() != null &&
-                        ing.getName().toLowerCase().contains(allergen.toLowerCase())) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return AllergenIndex.getGlobal().containsAny(item, info.getAllergyMask());
     }
 
     public LinkedList<Item> getSafeFormulations(LinkedList<Item> allFormulations) {
-        LinkedList<Item> safe = new LinkedList<>();
-        for (Item item : allFormulations) {
-            if (!hasAllergenIn(item)) {
-                safe.add(item);
-            }
+        if (info == null || info.getAllergies() == null || info.getAllergies().isEmpty()) {
+            return new LinkedList<>(allFormulations);
         }
-        return safe;
+        return AllergenIndex.getGlobal().filterSafe(allFormulations, info.getAllergyMask());
     }
 
     // ============ GETTERS AND SETTERS ============
@@ -558,6 +567,18 @@ public class Customer extends Person implements Formulation,Serializable {
         return purchasedItems;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public void setActivityListener(ActivityListener activityListener) {
+        this.activityListener = activityListener;
+    }
+
     @Override
     public String toString() {
         return "Customer{" +
@@ -0,0 +1,356 @@
+package MyClasses.Security;
+
+import MyClasses.Persons.Person;
+import MyClasses.Persons.Role;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Login subsystem
+ * - name -> account index per role (no scan over all users)
+ * - passwords stored as salted scrypt hashes; legacy plaintext passwords are still accepted
+ *   (constant-time comparison) and re-hashed on the first successful login
+ * - every hash runs on a small bounded executor, so callers (e.g. the JavaFX thread) can wait
+ *   asynchronously and a burst of logins queues up instead of using every core
+ * - successful logins are remembered for a while (verified sessions), so repeated checks
+ *   of the same credentials do not pay for another memory-hard hash
+ */
+public class CredentialStore {
+
+    private static final String BUSY_MESSAGE = "Too many accounts being registered, please retry";
+
+    private final PasswordHasher hasher;
+    private final EnumMap<Role, HashMap<String, LinkedList<Person>>> accountsByName = new EnumMap<>(Role.class);
+    private final ThreadPoolExecutor hashExecutor;
+
+    // Verified sessions keyed by role + name; digest is an HMAC of the password under sessionKey
+    private final ConcurrentHashMap<String, VerifiedSession> verifiedSessions = new ConcurrentHashMap<>();
+    private final long sessionTtlMillis;
+    private final byte[] sessionKey = new byte[32];
+
+    // Hashed against when a name is unknown, so unknown names take as long as wrong passwords
+    private volatile String dummyHash;
+
+    /**
+     * @param workFactor scrypt ln (N = 2^ln)
+     * @param hashThreads max hashes running at once
+     * @param queueCapacity max hashes waiting; further requests are rejected
+     * @param sessionTtlMillis how long a verified login is remembered
+     */
+    public CredentialStore(int workFactor, int hashThreads, int queueCapacity, long sessionTtlMillis) {
+        this.hasher = new PasswordHasher(workFactor);
+        this.sessionTtlMillis = sessionTtlMillis;
+        new SecureRandom().nextBytes(sessionKey);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashExecutor = new ThreadPoolExecutor(hashThreads, hashThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "credential-hasher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        for (Role role : Role.values()) {
+            accountsByName.put(role, new HashMap<>());
+        }
+    }
+
+    // ============ ACCOUNT INDEX ============
+
+    /**
+     * Replace the index for a role
+     */
+    public synchronized void rebuild(Role role, Collection<? extends Person> accounts) {
+        HashMap<String, LinkedList<Person>> index = accountsByName.get(role);
+        index.clear();
+        for (Person account : accounts) {
+            index.computeIfAbsent(account.getName(), k -> new LinkedList<>()).add(account);
+        }
+        verifiedSessions.keySet().removeIf(key -> key.startsWith(role.name() + ":"));
+    }
+
+    /**
+     * Index a new account, hashing its password first if it is still plaintext
+     * (blocks the caller while hashing; see hashPasswordAsync)
+     */
+    public void register(Role role, Person account) {
+        String stored = account.getPassword();
+        if (stored != null && !PasswordHasher.isHashed(stored)) {
+            account.setPassword(hashPassword(stored));
+        }
+        synchronized (this) {
+            accountsByName.get(role).computeIfAbsent(account.getName(), k -> new LinkedList<>()).add(account);
+        }
+    }
+
+    public synchronized void unregister(Role role, Person account) {
+        LinkedList<Person> accounts = accountsByName.get(role).get(account.getName());
+        if (accounts != null) {
+            accounts.remove(account);
+            if (accounts.isEmpty()) {
+                accountsByName.get(role).remove(account.getName());
+            }
+        }
+        endSession(role, account.getName());
+    }
+
+    /**
+     * Hash a password on the hashing executor (waits for the result)
+     * @throws IllegalStateException when too many hashes are already waiting
+     */
+    public String hashPassword(String password) {
+        try {
+            Future<String> hash = hashExecutor.submit(() -> hasher.hash(password));
+            return hash.get();
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException(BUSY_MESSAGE, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Replace a new account's plaintext password with its hash on the hashing executor,
+     * so register() then only indexes it. Completes exceptionally (IllegalStateException)
+     * when too many hashes are already waiting.
+     */
+    public CompletableFuture<Void> hashPasswordAsync(Person account) {
+        String stored = account.getPassword();
+        if (stored == null || PasswordHasher.isHashed(stored)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return CompletableFuture.runAsync(() -> account.setPassword(hasher.hash(stored)), hashExecutor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<Void> busy = new CompletableFuture<>();
+            busy.completeExceptionally(new IllegalStateException(BUSY_MESSAGE));
+            return busy;
+        }
+    }
+
+    // ============ AUTHENTICATION ============
+
+    /**
+     * Outcome of a login checked on the hashing executor
+     * The account is not touched there: a legacy or outdated password hash is replaced by
+     * apply(), which must run on the thread that owns the accounts.
+     */
+    public static class Login {
+        private final Person account;
+        private final String verifiedPassword;
+        private final String upgradedPassword;
+
+        Login(Person account, String verifiedPassword, String upgradedPassword) {
+            this.account = account;
+            this.verifiedPassword = verifiedPassword;
+            this.upgradedPassword = upgradedPassword;
+        }
+
+        /**
+         * Store the upgraded hash (saved with the next save) unless the password changed since
+         * @return the account, or null if the credentials were wrong
+         */
+        public Person apply() {
+            if (upgradedPassword != null && Objects.equals(account.getPassword(), verifiedPassword)) {
+                account.setPassword(upgradedPassword);
+            }
+            return account;
+        }
+    }
+
+    /**
+     * Verify credentials on the hashing executor
+     * Completes with a Login to apply() on the owner thread. Completes exceptionally
+     * (IllegalStateException) when too many logins are already waiting.
+     */
+    public CompletableFuture<Login> authenticateAsync(Role role, String name, String password) {
+        ArrayList<Person> candidates = candidatesFor(role, name);
+
+        // Recently verified with the same password: no memory-hard hash needed
+        Person cached = checkSession(role, name, password, candidates);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(new Login(cached, null, null));
+        }
+
+        // Stored values are read here, on the caller's thread; the executor only hashes
+        ArrayList<String> stored = new ArrayList<>();
+        for (Person candidate : candidates) {
+            stored.add(candidate.getPassword());
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> verify(role, name, password, candidates, stored), hashExecutor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<Login> busy = new CompletableFuture<>();
+            busy.completeExceptionally(new IllegalStateException("Too many login attempts in progress, please retry"));
+            return busy;
+        }
+    }
+
+    /**
+     * Verify credentials, blocking the caller (the owner thread) until the hash is done
+     * @return the account, or null if the credentials are wrong
+     */
+    public Person authenticate(Role role, String name, String password) {
+        try {
+            return authenticateAsync(role, name, password).join().apply();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * True if the account logged in successfully within the session lifetime
+     * (privileged actions can rely on this instead of asking for the password again)
+     */
+    public boolean isSessionVerified(Role role, Person account) {
+        VerifiedSession session = verifiedSessions.get(sessionKey(role, account.getName()));
+        return session != null && session.account == account && !session.isExpired(System.currentTimeMillis());
+    }
+
+    public void endSession(Role role, String name) {
+        verifiedSessions.remove(sessionKey(role, name));
+    }
+
+    public void shutdown() {
+        hashExecutor.shutdownNow();
+        verifiedSessions.clear();
+    }
+
+    // ============ HELPER METHODS ============
+
+    private synchronized ArrayList<Person> candidatesFor(Role role, String name) {
+        LinkedList<Person> accounts = accountsByName.get(role).get(name);
+        return accounts == null ? new ArrayList<>() : new ArrayList<>(accounts);
+    }
+
+    /**
+     * @param stored the candidates' stored passwords, read on the caller's thread
+     */
+    private Login verify(Role role, String name, String password, ArrayList<Person> candidates,
+                         ArrayList<String> stored) {
+        if (candidates.isEmpty()) {
+            // Same cost as a wrong password, so response time does not reveal valid names
+            hasher.verify(password, getDummyHash());
+            return new Login(null, null, null);
+        }
+
+        int match = -1;
+        // Check every account with this name so timing does not depend on which one matches
+        for (int i = 0; i < candidates.size(); i++) {
+            if (matches(stored.get(i), password) && match < 0) {
+                match = i;
+            }
+        }
+        if (match < 0) {
+            return new Login(null, null, null);
+        }
+
+        Person account = candidates.get(match);
+        // Legacy plaintext or old parameters - a fresh hash is stored by Login.apply()
+        String upgraded = hasher.needsRehash(stored.get(match)) ? hasher.hash(password) : null;
+        verifiedSessions.put(sessionKey(role, name),
+                new VerifiedSession(account, sessionDigest(role, name, password),
+                        System.currentTimeMillis() + sessionTtlMillis));
+        return new Login(account, stored.get(match), upgraded);
+    }
+
+    private String getDummyHash() {
+        if (dummyHash == null) {
+            byte[] randomPassword = new byte[16];
+            new SecureRandom().nextBytes(randomPassword);
+            dummyHash = hasher.hash(new String(randomPassword, StandardCharsets.ISO_8859_1));
+        }
+        return dummyHash;
+    }
+
+    private boolean matches(String stored, String password) {
+        if (stored == null) {
+            return false;
+        }
+        if (PasswordHasher.isHashed(stored)) {
+            return hasher.verify(password, stored);
+        }
+        // Legacy plaintext password
+        return MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8),
+                password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Person checkSession(Role role, String name, String password, ArrayList<Person> candidates) {
+        VerifiedSession session = verifiedSessions.get(sessionKey(role, name));
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (session.isExpired(now) || !candidates.contains(session.account)) {
+            verifiedSessions.remove(sessionKey(role, name), session);
+            return null;
+        }
+        if (!MessageDigest.isEqual(session.digest, sessionDigest(role, name, password))) {
+            return null;
+        }
+        return session.account;
+    }
+
+    private static String sessionKey(Role role, String name) {
+        return role.name() + ":" + name;
+    }
+
+    private byte[] sessionDigest(Role role, String name, String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(sessionKey, "HmacSHA256"));
+            mac.update(sessionKey(role, name).getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    // ============ INNER CLASS: VERIFIED SESSION ============
+
+    private static class VerifiedSession {
+        final Person account;
+        final byte[] digest;
+        final long expiresAt;
+
+        VerifiedSession(Person account, byte[] digest, long expiresAt) {
+            this.account = account;
+            this.digest = digest;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
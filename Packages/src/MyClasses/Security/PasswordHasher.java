@@ -0,0 +1,311 @@
+package MyClasses.Security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Salted, memory-hard password hashing (scrypt, RFC 7914)
+ * Encoded form: $scrypt$ln=14,r=8,p=1$salt$hash (salt and hash in Base64)
+ * The work factor ln sets N = 2^ln; memory per hash is 128 * r * N bytes (16 MB for ln=14, r=8).
+ */
+public class PasswordHasher {
+
+    private static final String PREFIX = "$scrypt$";
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+    private static final int BLOCK_SIZE = 8;        // r
+    private static final int PARALLELISM = 1;       // p
+    // Largest byte[] the JVM allocates: V (128 * r * N bytes) and B (128 * r * p) must each fit
+    private static final long MAX_BUFFER = Integer.MAX_VALUE - 8;
+
+    private final int workFactor;                   // ln, N = 2^ln
+    private final SecureRandom random = new SecureRandom();
+
+    public PasswordHasher(int workFactor) {
+        if (!fits(workFactor, BLOCK_SIZE, PARALLELISM)) {
+            throw new IllegalArgumentException("Work factor must be between 1 and "
+                    + maxWorkFactor(BLOCK_SIZE) + ": " + workFactor);
+        }
+        this.workFactor = workFactor;
+    }
+
+    public int getWorkFactor() {
+        return workFactor;
+    }
+
+    /**
+     * Hash a password with a fresh random salt
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_LENGTH];
+        random.nextBytes(salt);
+
+        byte[] hash = scrypt(password.getBytes(StandardCharsets.UTF_8), salt,
+                1 << workFactor, BLOCK_SIZE, PARALLELISM, HASH_LENGTH);
+
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + "ln=" + workFactor + ",r=" + BLOCK_SIZE + ",p=" + PARALLELISM + "$"
+                + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    /**
+     * Check a password against an encoded hash; the comparison is constant-time
+     */
+    public boolean verify(String password, String encoded) {
+        EncodedHash parsed = EncodedHash.parse(encoded);
+        if (parsed == null) {
+            return false;
+        }
+        byte[] actual = scrypt(password.getBytes(StandardCharsets.UTF_8), parsed.salt,
+                1 << parsed.workFactor, parsed.blockSize, parsed.parallelism, parsed.hash.length);
+        return MessageDigest.isEqual(actual, parsed.hash);
+    }
+
+    /**
+     * True if the stored value is an encoded hash (not a legacy plaintext password)
+     */
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX) && EncodedHash.parse(stored) != null;
+    }
+
+    /**
+     * True if the stored value should be re-hashed with the current parameters
+     */
+    public boolean needsRehash(String stored) {
+        EncodedHash parsed = EncodedHash.parse(stored);
+        return parsed == null || parsed.workFactor != workFactor
+                || parsed.blockSize != BLOCK_SIZE || parsed.parallelism != PARALLELISM;
+    }
+
+    // ============ SCRYPT ============
+
+    /**
+     * True if scrypt with N = 2^ln, r and p can allocate its buffers (sizes computed as long)
+     */
+    static boolean fits(int ln, int r, int p) {
+        return ln >= 1 && ln < 31 && r >= 1 && p >= 1
+                && 128L * r * (1L << ln) <= MAX_BUFFER && 128L * r * p <= MAX_BUFFER;
+    }
+
+    private static int maxWorkFactor(int r) {
+        int ln = 1;
+        while (fits(ln + 1, r, PARALLELISM)) {
+            ln++;
+        }
+        return ln;
+    }
+
+    static byte[] scrypt(byte[] password, byte[] salt, int n, int r, int p, int length) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            // HMAC zero-pads keys, so {0} is the same key as an empty password (which SecretKeySpec rejects)
+            mac.init(new SecretKeySpec(password.length == 0 ? new byte[1] : password, "HmacSHA256"));
+
+            byte[] b = pbkdf2(mac, salt, p * 128 * r);
+            byte[] xy = new byte[256 * r];
+            byte[] v = new byte[128 * r * n];
+
+            for (int i = 0; i < p; i++) {
+                smix(b, i * 128 * r, r, n, v, xy);
+            }
+
+            return pbkdf2(mac, b, length);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    /**
+     * PBKDF2-HMAC-SHA256 with a single iteration (all scrypt needs)
+     */
+    private static byte[] pbkdf2(Mac mac, byte[] salt, int length) {
+        byte[] derived = new byte[length];
+        byte[] blockIndex = new byte[4];
+        int offset = 0;
+
+        for (int block = 1; offset < length; block++) {
+            blockIndex[0] = (byte) (block >>> 24);
+            blockIndex[1] = (byte) (block >>> 16);
+            blockIndex[2] = (byte) (block >>> 8);
+            blockIndex[3] = (byte) block;
+
+            mac.update(salt);
+            byte[] u = mac.doFinal(blockIndex);
+
+            int count = Math.min(u.length, length - offset);
+            System.arraycopy(u, 0, derived, offset, count);
+            offset += count;
+        }
+        return derived;
+    }
+
+    private static void smix(byte[] b, int bi, int r, int n, byte[] v, byte[] xy) {
+        int blockLength = 128 * r;
+        int xi = 0;
+        int yi = blockLength;
+
+        System.arraycopy(b, bi, xy, xi, blockLength);
+
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(xy, xi, v, i * blockLength, blockLength);
+            blockMix(xy, xi, yi, r);
+        }
+
+        for (int i = 0; i < n; i++) {
+            int j = integerify(xy, xi, r) & (n - 1);
+            blockXor(v, j * blockLength, xy, xi, blockLength);
+            blockMix(xy, xi, yi, r);
+        }
+
+        System.arraycopy(xy, xi, b, bi, blockLength);
+    }
+
+    private static void blockMix(byte[] by, int bi, int yi, int r) {
+        byte[] x = new byte[64];
+        System.arraycopy(by, bi + (2 * r - 1) * 64, x, 0, 64);
+
+        for (int i = 0; i < 2 * r; i++) {
+            blockXor(by, bi + i * 64, x, 0, 64);
+            salsa20_8(x);
+            System.arraycopy(x, 0, by, yi + i * 64, 64);
+        }
+
+        // Even blocks first, then odd blocks
+        for (int i = 0; i < r; i++) {
+            System.arraycopy(by, yi + (i * 2) * 64, by, bi + i * 64, 64);
+        }
+        for (int i = 0; i < r; i++) {
+            System.arraycopy(by, yi + (i * 2 + 1) * 64, by, bi + (i + r) * 64, 64);
+        }
+    }
+
+    private static void salsa20_8(byte[] b) {
+        int[] in = new int[16];
+        for (int i = 0; i < 16; i++) {
+            in[i] = (b[i * 4] & 0xff)
+                    | (b[i * 4 + 1] & 0xff) << 8
+                    | (b[i * 4 + 2] & 0xff) << 16
+                    | (b[i * 4 + 3] & 0xff) << 24;
+        }
+
+        int[] x = in.clone();
+        for (int i = 8; i > 0; i -= 2) {
+            // Columns
+            x[4] ^= Integer.rotateLeft(x[0] + x[12], 7);
+            x[8] ^= Integer.rotateLeft(x[4] + x[0], 9);
+            x[12] ^= Integer.rotateLeft(x[8] + x[4], 13);
+            x[0] ^= Integer.rotateLeft(x[12] + x[8], 18);
+            x[9] ^= Integer.rotateLeft(x[5] + x[1], 7);
+            x[13] ^= Integer.rotateLeft(x[9] + x[5], 9);
+            x[1] ^= Integer.rotateLeft(x[13] + x[9], 13);
+            x[5] ^= Integer.rotateLeft(x[1] + x[13], 18);
+            x[14] ^= Integer.rotateLeft(x[10] + x[6], 7);
+            x[2] ^= Integer.rotateLeft(x[14] + x[10], 9);
+            x[6] ^= Integer.rotateLeft(x[2] + x[14], 13);
+            x[10] ^= Integer.rotateLeft(x[6] + x[2], 18);
+            x[3] ^= Integer.rotateLeft(x[15] + x[11], 7);
+            x[7] ^= Integer.rotateLeft(x[3] + x[15], 9);
+            x[11] ^= Integer.rotateLeft(x[7] + x[3], 13);
+            x[15] ^= Integer.rotateLeft(x[11] + x[7], 18);
+            // Rows
+            x[1] ^= Integer.rotateLeft(x[0] + x[3], 7);
+            x[2] ^= Integer.rotateLeft(x[1] + x[0], 9);
+            x[3] ^= Integer.rotateLeft(x[2] + x[1], 13);
+            x[0] ^= Integer.rotateLeft(x[3] + x[2], 18);
+            x[6] ^= Integer.rotateLeft(x[5] + x[4], 7);
+            x[7] ^= Integer.rotateLeft(x[6] + x[5], 9);
+            x[4] ^= Integer.rotateLeft(x[7] + x[6], 13);
+            x[5] ^= Integer.rotateLeft(x[4] + x[7], 18);
+            x[11] ^= Integer.rotateLeft(x[10] + x[9], 7);
+            x[8] ^= Integer.rotateLeft(x[11] + x[10], 9);
+            x[9] ^= Integer.rotateLeft(x[8] + x[11], 13);
+            x[10] ^= Integer.rotateLeft(x[9] + x[8], 18);
+            x[12] ^= Integer.rotateLeft(x[15] + x[14], 7);
+            x[13] ^= Integer.rotateLeft(x[12] + x[15], 9);
+            x[14] ^= Integer.rotateLeft(x[13] + x[12], 13);
+            x[15] ^= Integer.rotateLeft(x[14] + x[13], 18);
+        }
+
+        for (int i = 0; i < 16; i++) {
+            int value = x[i] + in[i];
+            b[i * 4] = (byte) value;
+            b[i * 4 + 1] = (byte) (value >>> 8);
+            b[i * 4 + 2] = (byte) (value >>> 16);
+            b[i * 4 + 3] = (byte) (value >>> 24);
+        }
+    }
+
+    private static void blockXor(byte[] source, int si, byte[] dest, int di, int length) {
+        for (int i = 0; i < length; i++) {
+            dest[di + i] ^= source[si + i];
+        }
+    }
+
+    private static int integerify(byte[] b, int bi, int r) {
+        bi += (2 * r - 1) * 64;
+        return (b[bi] & 0xff)
+                | (b[bi + 1] & 0xff) << 8
+                | (b[bi + 2] & 0xff) << 16
+                | (b[bi + 3] & 0xff) << 24;
+    }
+
+    // ============ INNER CLASS: ENCODED HASH ============
+
+    private static class EncodedHash {
+        int workFactor;
+        int blockSize;
+        int parallelism;
+        byte[] salt;
+        byte[] hash;
+
+        /**
+         * Parse $scrypt$ln=..,r=..,p=..$salt$hash, or null if the value is not in that form
+         */
+        static EncodedHash parse(String encoded) {
+            if (encoded == null || !encoded.startsWith(PREFIX)) {
+                return null;
+            }
+            try {
+                String[] parts = encoded.substring(PREFIX.length()).split("\\$");
+                if (parts.length != 3) {
+                    return null;
+                }
+
+                EncodedHash parsed = new EncodedHash();
+                for (String parameter : parts[0].split(",")) {
+                    String[] keyValue = parameter.split("=", 2);
+                    int value = Integer.parseInt(keyValue[1]);
+                    switch (keyValue[0]) {
+                        case "ln":
+                            parsed.workFactor = value;
+                            break;
+                        case "r":
+                            parsed.blockSize = value;
+                            break;
+                        case "p":
+                            parsed.parallelism = value;
+                            break;
+                        default:
+                            return null;
+                    }
+                }
+                // Parameters whose buffers cannot be allocated are rejected, not attempted
+                if (!fits(parsed.workFactor, parsed.blockSize, parsed.parallelism)) {
+                    return null;
+                }
+
+                Base64.Decoder decoder = Base64.getDecoder();
+                parsed.salt = decoder.decode(parts[1]);
+                parsed.hash = decoder.decode(parts[2]);
+                return parsed;
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
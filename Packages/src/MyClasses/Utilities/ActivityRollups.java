@@ -0,0 +1,347 @@
+package MyClasses.Utilities;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.TimeZone;
+
+/**
+ * Purchases, revenue, likes and dislikes rolled up per author, per item and per item type,
+ * in minute, hour and day buckets of local time
+ * Every event is added to its series' all-time totals and to one bucket per resolution, so a
+ * trend over months is a copy of pre-aggregated arrays and never touches the raw rows. Each
+ * resolution keeps a bounded window of buckets (see Resolution); buckets that fall out of it
+ * are dropped while the totals keep them. Revenue is summed in cents. One lock guards everything.
+ */
+public class ActivityRollups {
+
+    public enum Resolution {
+        // Bucket length in minutes, buckets kept per series
+        MINUTE(1, 180), HOUR(60, 24 * 31), DAY(24 * 60, 3 * 366);
+
+        private final int minutes;
+        private final int retention;
+
+        Resolution(int minutes, int retention) {
+            this.minutes = minutes;
+            this.retention = retention;
+        }
+
+        public long getMillis() {
+            return minutes * 60_000L;
+        }
+
+        public int getRetention() {
+            return retention;
+        }
+    }
+
+    public enum Dimension {
+        AUTHOR, ITEM, TYPE
+    }
+
+    /**
+     * All-time sums of a series
+     */
+    public static class Totals {
+        private final long purchases;
+        private final long revenueCents;
+        private final long likes;
+        private final long dislikes;
+
+        Totals(long purchases, long revenueCents, long likes, long dislikes) {
+            this.purchases = purchases;
+            this.revenueCents = revenueCents;
+            this.likes = likes;
+            this.dislikes = dislikes;
+        }
+
+        public long getPurchases() {
+            return purchases;
+        }
+
+        public double getRevenue() {
+            return revenueCents / 100.0;
+        }
+
+        public long getLikes() {
+            return likes;
+        }
+
+        public long getDislikes() {
+            return dislikes;
+        }
+
+        /**
+         * Likes as a percentage of all feedback (0 without feedback)
+         */
+        public double getPositiveRating() {
+            long feedback = likes + dislikes;
+            return feedback > 0 ? likes * 100.0 / feedback : 0;
+        }
+    }
+
+    /**
+     * Consecutive buckets of one series, oldest first (index i starts at getBucketStart(i))
+     */
+    public static class Trend {
+        private final Resolution resolution;
+        private final long firstBucketStart;
+        private final int[] purchases;
+        private final double[] revenue;
+        private final int[] likes;
+        private final int[] dislikes;
+
+        Trend(Resolution resolution, long firstBucketStart, int buckets) {
+            this.resolution = resolution;
+            this.firstBucketStart = firstBucketStart;
+            this.purchases = new int[buckets];
+            this.revenue = new double[buckets];
+            this.likes = new int[buckets];
+            this.dislikes = new int[buckets];
+        }
+
+        public Resolution getResolution() {
+            return resolution;
+        }
+
+        public int size() {
+            return purchases.length;
+        }
+
+        /**
+         * Start of bucket i in epoch milliseconds
+         */
+        public long getBucketStart(int i) {
+            return firstBucketStart + i * resolution.getMillis();
+        }
+
+        public int[] getPurchases() {
+            return purchases;
+        }
+
+        public double[] getRevenue() {
+            return revenue;
+        }
+
+        public int[] getLikes() {
+            return likes;
+        }
+
+        public int[] getDislikes() {
+            return dislikes;
+        }
+    }
+
+    /**
+     * A window of buckets: slot 0 is bucket `first` (bucket n covers local time
+     * [n * length, (n + 1) * length)); arrays grow up to the resolution's retention
+     */
+    private static class Buckets {
+        long first;
+        int size = 0;
+        int[] purchases = new int[4];
+        long[] revenueCents = new long[4];
+        int[] likes = new int[4];
+        int[] dislikes = new int[4];
+
+        void add(long bucket, int retention, int purchaseCount, long cents, int likeCount, int dislikeCount) {
+            if (size == 0) {
+                first = bucket;
+                size = 1;
+            } else if (bucket < first) {
+                long last = first + size - 1;
+                if (last - bucket >= retention) {
+                    return;
+                }
+                int shift = (int) (first - bucket);
+                resize(size + shift);
+                move(0, shift, size);
+                clear(0, shift);
+                first = bucket;
+                size += shift;
+            } else if (bucket >= first + size) {
+                int newSize = (int) (bucket - first + 1);
+                if (newSize > retention) {
+                    // Drop the oldest buckets to make room
+                    int drop = newSize - retention;
+                    if (drop >= size) {
+                        size = 0;
+                    } else {
+                        move(drop, 0, size - drop);
+                        size -= drop;
+                    }
+                    first += drop;
+                    newSize = retention;
+                }
+                resize(newSize);
+                clear(size, newSize - size);
+                size = newSize;
+            }
+
+            int slot = (int) (bucket - first);
+            purchases[slot] += purchaseCount;
+            revenueCents[slot] += cents;
+            likes[slot] += likeCount;
+            dislikes[slot] += dislikeCount;
+        }
+
+        /**
+         * Add buckets [from, from + trend.size()) into the trend
+         */
+        void copyInto(Trend trend, long from) {
+            long start = Math.max(from, first);
+            long end = Math.min(from + trend.size(), first + size);
+            for (long bucket = start; bucket < end; bucket++) {
+                int slot = (int) (bucket - first);
+                int i = (int) (bucket - from);
+                trend.purchases[i] += purchases[slot];
+                trend.revenue[i] += revenueCents[slot] / 100.0;
+                trend.likes[i] += likes[slot];
+                trend.dislikes[i] += dislikes[slot];
+            }
+        }
+
+        private void resize(int capacity) {
+            if (capacity > purchases.length) {
+                int length = Math.max(capacity, purchases.length * 2);
+                purchases = Arrays.copyOf(purchases, length);
+                revenueCents = Arrays.copyOf(revenueCents, length);
+                likes = Arrays.copyOf(likes, length);
+                dislikes = Arrays.copyOf(dislikes, length);
+            }
+        }
+
+        private void move(int from, int to, int count) {
+            System.arraycopy(purchases, from, purchases, to, count);
+            System.arraycopy(revenueCents, from, revenueCents, to, count);
+            System.arraycopy(likes, from, likes, to, count);
+            System.arraycopy(dislikes, from, dislikes, to, count);
+        }
+
+        private void clear(int from, int count) {
+            Arrays.fill(purchases, from, from + count, 0);
+            Arrays.fill(revenueCents, from, from + count, 0);
+            Arrays.fill(likes, from, from + count, 0);
+            Arrays.fill(dislikes, from, from + count, 0);
+        }
+    }
+
+    private static class Series {
+        long purchases;
+        long revenueCents;
+        long likes;
+        long dislikes;
+        final EnumMap<Resolution, Buckets> buckets = new EnumMap<>(Resolution.class);
+    }
+
+    private final EnumMap<Dimension, HashMap<Integer, Series>> series = new EnumMap<>(Dimension.class);
+    private final TimeZone timeZone;
+
+    public ActivityRollups() {
+        this(TimeZone.getDefault());
+    }
+
+    /**
+     * @param timeZone where hour and day buckets start
+     */
+    public ActivityRollups(TimeZone timeZone) {
+        this.timeZone = timeZone;
+        for (Dimension dimension : Dimension.values()) {
+            series.put(dimension, new HashMap<>());
+        }
+    }
+
+    // ============ EVENTS ============
+
+    /**
+     * Record purchases of an item
+     * @param authorId the item's author, or null
+     * @param type the item's type, or null
+     */
+    public void recordPurchases(int itemId, Integer authorId, CatalogIndex.ItemType type, long time,
+                                int count, double revenue) {
+        record(itemId, authorId, type, time, count, Math.round(revenue * 100), 0, 0);
+    }
+
+    /**
+     * Record feedback on an item
+     */
+    public void recordFeedback(int itemId, Integer authorId, CatalogIndex.ItemType type, long time,
+                               int likes, int dislikes) {
+        record(itemId, authorId, type, time, 0, 0, likes, dislikes);
+    }
+
+    // ============ QUERIES ============
+
+    /**
+     * All-time totals of a series (zeros if it has no events)
+     * @param id author ID, item ID or ItemType ordinal
+     */
+    public synchronized Totals getTotals(Dimension dimension, int id) {
+        Series s = series.get(dimension).get(id);
+        return s == null ? new Totals(0, 0, 0, 0) : new Totals(s.purchases, s.revenueCents, s.likes, s.dislikes);
+    }
+
+    /**
+     * The last `buckets` buckets of a series up to and including the one holding `now`
+     */
+    public synchronized Trend getTrend(Dimension dimension, int id, Resolution resolution, int buckets, long now) {
+        long last = bucketOf(now, resolution);
+        long from = last - buckets + 1;
+        Trend trend = new Trend(resolution, bucketStart(from, resolution), buckets);
+        Series s = series.get(dimension).get(id);
+        Buckets window = s == null ? null : s.buckets.get(resolution);
+        if (window != null && window.size > 0) {
+            window.copyInto(trend, from);
+        }
+        return trend;
+    }
+
+    /**
+     * Number of series of a dimension (authors, items or types with any event)
+     */
+    public synchronized int size(Dimension dimension) {
+        return series.get(dimension).size();
+    }
+
+    // ============ HELPER METHODS ============
+
+    private synchronized void record(int itemId, Integer authorId, CatalogIndex.ItemType type, long time,
+                                     int purchaseCount, long cents, int likeCount, int dislikeCount) {
+        long localMinute = Math.floorDiv(time + timeZone.getOffset(time), 60_000L);
+        add(Dimension.ITEM, itemId, localMinute, purchaseCount, cents, likeCount, dislikeCount);
+        if (authorId != null) {
+            add(Dimension.AUTHOR, authorId, localMinute, purchaseCount, cents, likeCount, dislikeCount);
+        }
+        if (type != null) {
+            add(Dimension.TYPE, type.ordinal(), localMinute, purchaseCount, cents, likeCount, dislikeCount);
+        }
+    }
+
+    private void add(Dimension dimension, int id, long localMinute,
+                     int purchaseCount, long cents, int likeCount, int dislikeCount) {
+        Series s = series.get(dimension).computeIfAbsent(id, k -> new Series());
+        s.purchases += purchaseCount;
+        s.revenueCents += cents;
+        s.likes += likeCount;
+        s.dislikes += dislikeCount;
+        for (Resolution resolution : Resolution.values()) {
+            s.buckets.computeIfAbsent(resolution, r -> new Buckets())
+                    .add(Math.floorDiv(localMinute, resolution.minutes), resolution.retention,
+                            purchaseCount, cents, likeCount, dislikeCount);
+        }
+    }
+
+    private long bucketOf(long time, Resolution resolution) {
+        return Math.floorDiv(time + timeZone.getOffset(time), resolution.getMillis());
+    }
+
+    /**
+     * Epoch milliseconds at which a bucket starts (offset as at that instant)
+     */
+    private long bucketStart(long bucket, Resolution resolution) {
+        long local = bucket * resolution.getMillis();
+        return local - timeZone.getOffset(local);
+    }
+}
@@ -0,0 +1,167 @@
+package MyClasses.Utilities;
+
+import MyClasses.Consumables.Drink;
+import MyClasses.Consumables.Food;
+import MyClasses.Consumables.Item;
+import MyClasses.Ingredients.Ingredient;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Global allergen dictionary and per-item allergen bitmasks
+ * Every allergy any customer declares gets a bit; an item's mask has the bits of the
+ * allergens occurring in its ingredient names (same case-insensitive substring rule as
+ * before). Masks are computed once per item with an Aho-Corasick matcher and cached on the
+ * item until its ingredients or the dictionary change, so checking an item for a customer
+ * is a single BitSet intersection.
+ */
+public class AllergenIndex {
+
+    // Catalogs at least this large are filtered in parallel
+    private static final int PARALLEL_THRESHOLD = 2048;
+
+    private static final AllergenIndex GLOBAL = new AllergenIndex();
+
+    private final HashMap<String, Integer> termIds = new HashMap<>();
+    private final ArrayList<String> terms = new ArrayList<>();
+    // Immutable snapshot read without locking; replaced when a new term is registered
+    private volatile Dictionary dictionary = new Dictionary(0, new AllergenMatcher(new ArrayList<>()));
+
+    public static AllergenIndex getGlobal() {
+        return GLOBAL;
+    }
+
+    /**
+     * Dictionary bits for a list of allergies (new allergies are added to the dictionary)
+     */
+    public BitSet maskOf(Collection<String> allergies) {
+        BitSet mask = new BitSet();
+        if (allergies == null) {
+            return mask;
+        }
+        synchronized (this) {
+            boolean added = false;
+            for (String allergy : allergies) {
+                if (allergy == null) {
+                    continue;
+                }
+                String term = normalize(allergy);
+                Integer id = termIds.get(term);
+                if (id == null) {
+                    id = terms.size();
+                    terms.add(term);
+                    termIds.put(term, id);
+                    added = true;
+                }
+                mask.set(id);
+            }
+            if (added) {
+                dictionary = new Dictionary(dictionary.version + 1, new AllergenMatcher(new ArrayList<>(terms)));
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Dictionary bits of the allergens found in an item's ingredients (cached on the item)
+     */
+    public BitSet maskOf(Item item) {
+        Dictionary current = dictionary;
+        // The ingredient mutators clear the cached mask, so it only has to match the dictionary
+        ItemMask cached = item.getAllergenMask();
+        if (cached != null && cached.version == current.version) {
+            return cached.bits;
+        }
+
+        LinkedList<Ingredient> ingredients = getIngredients(item);
+        BitSet bits = new BitSet(current.matcher.getPatternCount());
+        if (ingredients != null) {
+            for (Ingredient ingredient : ingredients) {
+                current.matcher.collectMatches(ingredient.getName(), bits);
+            }
+        }
+        item.setAllergenMask(new ItemMask(current.version, bits));
+        return bits;
+    }
+
+    /**
+     * True if the item contains any allergen of the mask
+     */
+    public boolean containsAny(Item item, BitSet allergyMask) {
+        return allergyMask != null && !allergyMask.isEmpty() && maskOf(item).intersects(allergyMask);
+    }
+
+    /**
+     * Items free of every allergen in the mask, in their original order
+     */
+    public LinkedList<Item> filterSafe(Collection<Item> items, BitSet allergyMask) {
+        if (allergyMask == null || allergyMask.isEmpty()) {
+            return new LinkedList<>(items);
+        }
+        if (items.size() >= PARALLEL_THRESHOLD) {
+            List<Item> snapshot = new ArrayList<>(items);
+            return snapshot.parallelStream()
+                    .filter(item -> !maskOf(item).intersects(allergyMask))
+                    .collect(Collectors.toCollection(LinkedList::new));
+        }
+        LinkedList<Item> safe = new LinkedList<>();
+        for (Item item : items) {
+            if (!maskOf(item).intersects(allergyMask)) {
+                safe.add(item);
+            }
+        }
+        return safe;
+    }
+
+    // ============ HELPER METHODS ============
+
+    private static String normalize(String allergy) {
+        StringBuilder sb = new StringBuilder(allergy.length());
+        for (int i = 0; i < allergy.length(); i++) {
+            sb.append(Character.toLowerCase(allergy.charAt(i)));
+        }
+        return sb.toString();
+    }
+
+    private static LinkedList<Ingredient> getIngredients(Item item) {
+        if (item instanceof Food) {
+            return ((Food) item).getIngredients();
+        } else if (item instanceof Drink) {
+            return ((Drink) item).getIngredients();
+        }
+        return null;
+    }
+
+    // ============ INNER CLASS: DICTIONARY ============
+
+    private static class Dictionary {
+        final int version;
+        final AllergenMatcher matcher;
+
+        Dictionary(int version, AllergenMatcher matcher) {
+            this.version = version;
+            this.matcher = matcher;
+        }
+    }
+
+    // ============ INNER CLASS: ITEM MASK ============
+
+    /**
+     * Allergen bits of one item for one dictionary version (dropped when the ingredients change)
+     */
+    public static class ItemMask {
+        final int version;
+        final BitSet bits;
+
+        ItemMask(int version, BitSet bits) {
+            this.version = version;
+            this.bits = bits;
+        }
+    }
+}
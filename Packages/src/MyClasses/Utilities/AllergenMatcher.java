@@ -0,0 +1,171 @@
+package MyClasses.Utilities;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick multi-pattern matcher (case-insensitive substring search)
+ * Built once from a list of patterns; scanning a text is a single pass over its characters,
+ * independent of the number of patterns, and allocates nothing unless a pattern is found.
+ */
+public class AllergenMatcher {
+
+    private static final int ROOT = 0;
+
+    // Per state: sorted transition characters and their target states
+    private final char[][] transitionChars;
+    private final int[][] transitionTargets;
+    private final int[] failure;
+    // Pattern ids ending at each state (including those reached through failure links), or null
+    private final BitSet[] outputs;
+    private final int patternCount;
+
+    /**
+     * @param patterns pattern i gets id i in match results
+     */
+    public AllergenMatcher(List<String> patterns) {
+        this.patternCount = patterns.size();
+
+        // 1. Trie of the lowercased patterns
+        ArrayList<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        ArrayList<BitSet> trieOutputs = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        trieOutputs.add(null);
+
+        for (int id = 0; id < patterns.size(); id++) {
+            String pattern = patterns.get(id);
+            int state = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = Character.toLowerCase(pattern.charAt(i));
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    trieOutputs.add(null);
+                    trie.get(state).put(c, next);
+                }
+                state = next;
+            }
+            if (trieOutputs.get(state) == null) {
+                trieOutputs.set(state, new BitSet(patternCount));
+            }
+            trieOutputs.get(state).set(id);
+        }
+
+        int stateCount = trie.size();
+        transitionChars = new char[stateCount][];
+        transitionTargets = new int[stateCount][];
+        failure = new int[stateCount];
+        outputs = trieOutputs.toArray(new BitSet[0]);
+
+        for (int state = 0; state < stateCount; state++) {
+            TreeMap<Character, Integer> edges = trie.get(state);
+            transitionChars[state] = new char[edges.size()];
+            transitionTargets[state] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                transitionChars[state][i] = edge.getKey();
+                transitionTargets[state][i] = edge.getValue();
+                i++;
+            }
+        }
+
+        // 2. Failure links breadth-first; outputs inherit the outputs of their failure state
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : transitionTargets[ROOT]) {
+            failure[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < transitionChars[state].length; i++) {
+                char c = transitionChars[state][i];
+                int child = transitionTargets[state][i];
+
+                int fallback = failure[state];
+                while (fallback != ROOT && next(fallback, c) < 0) {
+                    fallback = failure[fallback];
+                }
+                int target = next(fallback, c);
+                failure[child] = (target >= 0 && target != child) ? target : ROOT;
+
+                BitSet inherited = outputs[failure[child]];
+                if (inherited != null) {
+                    if (outputs[child] == null) {
+                        outputs[child] = new BitSet(patternCount);
+                    }
+                    outputs[child].or(inherited);
+                }
+                queue.add(child);
+            }
+        }
+    }
+
+    public int getPatternCount() {
+        return patternCount;
+    }
+
+    /**
+     * True if any pattern occurs in the text (ignoring case)
+     */
+    public boolean matchesAny(CharSequence text) {
+        if (text == null || patternCount == 0) {
+            return false;
+        }
+        if (outputs[ROOT] != null) {
+            return true; // empty pattern
+        }
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, Character.toLowerCase(text.charAt(i)));
+            if (outputs[state] != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add the ids of all patterns occurring in the text to found
+     */
+    public void collectMatches(CharSequence text, BitSet found) {
+        if (text == null || patternCount == 0) {
+            return;
+        }
+        if (outputs[ROOT] != null) {
+            found.or(outputs[ROOT]);
+        }
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, Character.toLowerCase(text.charAt(i)));
+            if (outputs[state] != null) {
+                found.or(outputs[state]);
+            }
+        }
+    }
+
+    // ============ HELPER METHODS ============
+
+    private int step(int state, char c) {
+        while (true) {
+            int target = next(state, c);
+            if (target >= 0) {
+                return target;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = failure[state];
+        }
+    }
+
+    private int next(int state, char c) {
+        int index = Arrays.binarySearch(transitionChars[state], c);
+        return index >= 0 ? transitionTargets[state][index] : -1;
+    }
+}
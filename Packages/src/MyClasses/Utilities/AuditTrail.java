@@ -1,34 +1,124 @@
 package MyClasses.Utilities;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.LinkedList;
 
 
+/**
+ * Audit trail stored column by column
+ * Each record is an epoch-millis timestamp plus interned codes for user type, user name and
+ * action category (first word of the action); only the action text is kept per record.
+ * Per-user-type posting lists and a time-ordered index answer statistics and date-range
+ * queries without scanning, and the "[timestamp] user: action" text is only
+ * built when records are displayed or exported.
+ * The serialized form is still the list of formatted records the string-based trail wrote,
+ * so files serialized before the columnar layout keep loading.
+ */
 public class AuditTrail implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("records", LinkedList.class)
+    };
 
-    public LinkedList<String> records;
+    private static final int INITIAL_CAPACITY = 256;
     private static final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private static final SimpleDateFormat dayFormat = new SimpleDateFormat("yyyy-MM-dd");
+
+    // Columns - record i is (timestamps[i], userTypes[i], userNames[i], categories[i], actions[i])
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private int[] userTypes = new int[INITIAL_CAPACITY];
+    private int[] userNames = new int[INITIAL_CAPACITY];
+    private int[] categories = new int[INITIAL_CAPACITY];
+    private String[] actions = new String[INITIAL_CAPACITY];
+    private int size = 0;
+
+    // Interned strings shared by all records
+    private final Dictionary userTypeDictionary = new Dictionary();
+    private final Dictionary userNameDictionary = new Dictionary();
+    private final Dictionary categoryDictionary = new Dictionary();
+
+    // Posting lists: record indexes (ascending) per user type code / user name code
+    private final ArrayList<IntList> recordsByUserType = new ArrayList<>();
+    private final ArrayList<IntList> recordsByUserName = new ArrayList<>();
+
+    // True while records were appended in timestamp order - index order is then time order
+    private boolean appendedInTimeOrder = true;
+    // Record indexes sorted by timestamp; only built when records arrived out of order
+    private transient int[] timeIndex;
+
+    // Sequence number of record 0; keeps sequences monotonic across clearAll()
+    private long baseSequence = 0;
+
+    // Notified of every new record (e.g. the database audit writer); never blocks logAction
+    private transient AuditListener listener;
+
+    // Formatted records read by readObject, turned into columns by readResolve
+    private transient LinkedList<String> serializedRecords;
+
+    /**
+     * Receives each record as it is logged
+     */
+    public interface AuditListener {
+        void onRecord(long sequence, Date timestamp, String user, String action);
+    }
 
     public AuditTrail() {
-        records = new LinkedList<>();
         logAction("SYSTEM", "Audit trail initialized");
     }
 
+    private AuditTrail(boolean logInitialization) {
+        if (logInitialization) {
+            logAction("SYSTEM", "Audit trail initialized");
+        }
+    }
+
+    /**
+     * Audit trail with no records, to be filled with restoreRecord()
+     */
+    public static AuditTrail createEmpty() {
+        return new AuditTrail(false);
+    }
+
 
     public void logAction(String user, String action) {
+        replayAction(new Date(), user, action);
+    }
+
+    /**
+     * Log a record at the time it originally happened (e.g. one logged on another trail);
+     * the listener is notified, so it is stored like any new record
+     */
+    public synchronized void replayAction(Date timestamp, String user, String action) {
         try {
-            String timestamp = dateFormat.format(new Date());
-            String logEntry = String.format("[%s] %s: %s", timestamp, user, action);
-            records.add(logEntry);
+            int index = append(timestamp.getTime(), user, action);
 
+            if (listener != null) {
+                listener.onRecord(baseSequence + index, timestamp, user, action);
+            }
         } catch (Exception e) {
             System.err.println("Error logging audit action: " + e.getMessage());
         }
     }
 
+    /**
+     * Add a previously stored record without notifying the listener
+     */
+    public synchronized void restoreRecord(Date timestamp, String userType, String userName, String action) {
+        String user = (userName == null || userName.isEmpty()) ? userType : userType + ":" + userName;
+        append(timestamp.getTime(), user, action);
+    }
+
     public void logSecurityAction(String user, String action, boolean success) {
         String status = success ? "SUCCESS" : "FAILED";
         logAction("SECURITY:" + user, action + " - " + status);
@@ -44,164 +134,536 @@ public class AuditTrail implements Serializable {
     }
 
 
-    public LinkedList<String> getAllRecords() {
-        return new LinkedList<>(records);
+    public synchronized LinkedList<String> getAllRecords() {
+        LinkedList<String> allRecords = new LinkedList<>();
+        for (int i = 0; i < size; i++) {
+            allRecords.add(formatRecord(i));
+        }
+        return allRecords;
     }
 
-    public LinkedList<String> getRecordsByUser(String user) {
+    /**
+     * Records whose "user: action" text contains user + ":" (e.g. "ADMIN", "ADMIN:John" or "John")
+     */
+    public synchronized LinkedList<String> getRecordsByUser(String user) {
         LinkedList<String> userRecords = new LinkedList<>();
+        String key = user + ":";
 
-        for (String record : records) {
-            if (record.contains(user + ":")) {
-                userRecords.add(record);
+        // Match each (user type, user name) pair once instead of once per record
+        HashMap<Long, Boolean> userMatches = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            long pair = ((long) userTypes[i] << 32) | userNames[i];
+            Boolean matches = userMatches.get(pair);
+            if (matches == null) {
+                matches = (formatUser(i) + ":").contains(key);
+                userMatches.put(pair, matches);
+            }
+            if (matches || actions[i].contains(key)) {
+                userRecords.add(formatRecord(i));
             }
         }
 
         return userRecords;
     }
 
+    /**
+     * Records between two days inclusive (format: yyyy-MM-dd)
+     */
     public LinkedList<String> getRecordsByDateRange(String startDate, String endDate) {
-        LinkedList<String> dateRecords = new LinkedList<>();
-
-        for (String record : records) {
-            // Extract date from record (format: [yyyy-MM-dd HH:mm:ss])
-            if (record.length() > 20) {
-                String recordDate = record.substring(1, 11);
+        try {
+            long from;
+            long to;
+            synchronized (dayFormat) {
+                from = dayFormat.parse(startDate).getTime();
+                to = dayFormat.parse(endDate).getTime();
+            }
+            // End of endDate: start of the following day, exclusive
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(to);
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+            return getRecordsBetween(from, calendar.getTimeInMillis());
+        } catch (ParseException e) {
+            System.err.println("Invalid date range: " + startDate + " - " + endDate);
+            return new LinkedList<>();
+        }
+    }
 
-                if (recordDate.compareTo(startDate) >= 0 &&
-                        recordDate.compareTo(endDate) <= 0) {
-                    dateRecords.add(record);
-                }
+    /**
+     * Records with fromMillis <= timestamp < toMillis, in time order
+     */
+    public synchronized LinkedList<String> getRecordsBetween(long fromMillis, long toMillis) {
+        LinkedList<String> rangeRecords = new LinkedList<>();
+
+        if (appendedInTimeOrder) {
+            int start = lowerBound(fromMillis);
+            int end = lowerBound(toMillis);
+            for (int i = start; i < end; i++) {
+                rangeRecords.add(formatRecord(i));
+            }
+        } else {
+            int[] index = getTimeIndex();
+            int start = lowerBound(index, fromMillis);
+            int end = lowerBound(index, toMillis);
+            for (int i = start; i < end; i++) {
+                rangeRecords.add(formatRecord(index[i]));
             }
         }
 
-        return dateRecords;
+        return rangeRecords;
     }
 
-    public LinkedList<String> getRecentRecords(int count) {
+    /**
+     * Number of records with fromMillis <= timestamp < toMillis
+     */
+    public synchronized int countRecordsBetween(long fromMillis, long toMillis) {
+        if (appendedInTimeOrder) {
+            return lowerBound(toMillis) - lowerBound(fromMillis);
+        }
+        int[] index = getTimeIndex();
+        return lowerBound(index, toMillis) - lowerBound(index, fromMillis);
+    }
+
+    public synchronized LinkedList<String> getRecentRecords(int count) {
         LinkedList<String> recentRecords = new LinkedList<>();
 
-        int startIndex = Math.max(0, records.size() - count);
+        int startIndex = Math.max(0, size - count);
 
-        for (int i = startIndex; i < records.size(); i++) {
-            recentRecords.add(records.get(i));
+        for (int i = startIndex; i < size; i++) {
+            recentRecords.add(formatRecord(i));
         }
 
         return recentRecords;
     }
 
-    public LinkedList<String> searchRecords(String keyword) {
+    public synchronized LinkedList<String> searchRecords(String keyword) {
         LinkedList<String> matchingRecords = new LinkedList<>();
 
-        String lowerKeyword = keyword.toLowerCase();
+        // Match each interned user string once instead of once per record
+        boolean[] typeMatches = userTypeDictionary.matching(keyword);
+        boolean[] nameMatches = userNameDictionary.matching(keyword);
 
-        for (String record : records) {
-            if (record.toLowerCase().contains(lowerKeyword)) {
-                matchingRecords.add(record);
+        for (int i = 0; i < size; i++) {
+            if (typeMatches[userTypes[i]] || nameMatches[userNames[i]]
+                    || containsIgnoreCase(actions[i], keyword)) {
+                matchingRecords.add(formatRecord(i));
             }
         }
 
         return matchingRecords;
     }
 
-    public String getStatistics() {
+    public synchronized String getStatistics() {
         StringBuilder stats = new StringBuilder();
 
         stats.append("=== AUDIT TRAIL STATISTICS ===\n");
-        stats.append("Total records: ").append(records.size()).append("\n");
-
-        // Count by action type
-        int systemActions = 0;
-        int adminActions = 0;
-        int authorActions = 0;
-        int customerActions = 0;
-        int errorCount = 0;
-        int securityActions = 0;
-
-        for (String record : records) {
-            if (record.contains("SYSTEM:")) systemActions++;
-            else if (record.contains("ADMIN:")) adminActions++;
-            else if (record.contains("AUTHOR:")) authorActions++;
-            else if (record.contains("CUSTOMER:")) customerActions++;
-
-            if (record.contains("ERROR:")) errorCount++;
-            if (record.contains("SECURITY:")) securityActions++;
-        }
+        stats.append("Total records: ").append(size).append("\n");
 
         stats.append("\nActions by type:\n");
-        stats.append("  System: ").append(systemActions).append("\n");
-        stats.append("  Admin: ").append(adminActions).append("\n");
-        stats.append("  Author: ").append(authorActions).append("\n");
-        stats.append("  Customer: ").append(customerActions).append("\n");
-        stats.append("  Security: ").append(securityActions).append("\n");
-        stats.append("  Errors: ").append(errorCount).append("\n");
+        stats.append("  System: ").append(countByUserType("SYSTEM")).append("\n");
+        stats.append("  Admin: ").append(countByUserType("ADMIN")).append("\n");
+        stats.append("  Author: ").append(countByUserType("AUTHOR")).append("\n");
+        stats.append("  Customer: ").append(countByUserType("CUSTOMER")).append("\n");
+        stats.append("  Security: ").append(countByUserType("SECURITY")).append("\n");
+        stats.append("  Errors: ").append(countByUserType("ERROR")).append("\n");
+
+        // Count by action category
+        int[] categoryCounts = new int[categoryDictionary.size()];
+        for (int i = 0; i < size; i++) {
+            categoryCounts[categories[i]]++;
+        }
+        stats.append("\nActions by category:\n");
+        for (int code = 0; code < categoryCounts.length; code++) {
+            if (categoryCounts[code] > 0) {
+                stats.append("  ").append(categoryDictionary.get(code)).append(": ")
+                        .append(categoryCounts[code]).append("\n");
+            }
+        }
 
         // Get date range
-        if (!records.isEmpty()) {
-            String firstRecord = records.getFirst();
-            String lastRecord = records.getLast();
+        if (size > 0) {
+            long first = appendedInTimeOrder ? timestamps[0] : timestamps[getTimeIndex()[0]];
+            long last = appendedInTimeOrder ? timestamps[size - 1] : timestamps[getTimeIndex()[size - 1]];
 
-            if (firstRecord.length() > 20 && lastRecord.length() > 20) {
-                String firstDate = firstRecord.substring(1, 20);
-                String lastDate = lastRecord.substring(1, 20);
-
-                stats.append("\nDate range:\n");
-                stats.append("  First: ").append(firstDate).append("\n");
-                stats.append("  Last: ").append(lastDate).append("\n");
-            }
+            stats.append("\nDate range:\n");
+            stats.append("  First: ").append(formatTimestamp(first)).append("\n");
+            stats.append("  Last: ").append(formatTimestamp(last)).append("\n");
         }
 
         return stats.toString();
     }
 
-    public String exportToText() {
+    public synchronized String exportToText() {
         StringBuilder export = new StringBuilder();
 
         export.append("=".repeat(80)).append("\n");
         export.append("AUDIT TRAIL EXPORT\n");
-        export.append("Generated: ").append(dateFormat.format(new Date())).append("\n");
+        export.append("Generated: ").append(formatTimestamp(System.currentTimeMillis())).append("\n");
         export.append("=".repeat(80)).append("\n\n");
 
-        for (int i = 0; i < records.size(); i++) {
-            export.append(String.format("%5d. %s\n", i + 1, records.get(i)));
+        for (int i = 0; i < size; i++) {
+            export.append(String.format("%5d. ", i + 1));
+            appendRecord(export, i).append("\n");
         }
 
         export.append("\n").append("=".repeat(80)).append("\n");
-        export.append("Total entries: ").append(records.size()).append("\n");
+        export.append("Total entries: ").append(size).append("\n");
         export.append("=".repeat(80)).append("\n");
 
         return export.toString();
     }
 
 
-    public void clearAll() {
-        records.clear();
+    public synchronized void clearAll() {
+        baseSequence += size;
+        Arrays.fill(actions, 0, size, null);
+        size = 0;
+        for (IntList postings : recordsByUserType) {
+            postings.size = 0;
+        }
+        for (IntList postings : recordsByUserName) {
+            postings.size = 0;
+        }
+        appendedInTimeOrder = true;
+        timeIndex = null;
         logAction("SYSTEM", "Audit trail cleared");
     }
 
-    public int getRecordCount() {
-        return records.size();
+    public synchronized int getRecordCount() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Formatted record at a position (0 = oldest)
+     */
+    public synchronized String getRecord(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Audit record " + index + " of " + size);
+        }
+        return formatRecord(index);
+    }
+
+    public synchronized void setListener(AuditListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sequence number the next logged record will get
+     */
+    public synchronized long getNextSequence() {
+        return baseSequence + size;
+    }
+
+    /**
+     * Hand up to maxCount records with sequence >= fromSequence to the visitor, oldest first
+     * @return number of records visited
+     */
+    public synchronized int visitRecordsFrom(long fromSequence, int maxCount, AuditListener visitor) {
+        int start = (int) Math.max(0, fromSequence - baseSequence);
+        int end = (int) Math.min(size, (long) start + maxCount);
+        for (int i = start; i < end; i++) {
+            visitor.onRecord(baseSequence + i, new Date(timestamps[i]), formatUser(i), actions[i]);
+        }
+        return Math.max(0, end - start);
     }
 
     public void displayRecentActivity(int count) {
         System.out.println("\n=== RECENT ACTIVITY ===");
 
-        LinkedList<String> recent = getRecentRecords(count);
+        int recordCount;
+        LinkedList<String> recent;
+        synchronized (this) {
+            recordCount = size;
+            recent = getRecentRecords(count);
+        }
 
         if (recent.isEmpty()) {
             System.out.println("No activity recorded yet.");
             return;
         }
 
-        int startNum = Math.max(1, records.size() - count + 1);
+        int number = Math.max(1, recordCount - count + 1);
 
-        for (int i = 0; i < recent.size(); i++) {
-            System.out.println((startNum + i) + ". " + recent.get(i));
+        for (String record : recent) {
+            System.out.println((number++) + ". " + record);
         }
     }
 
     @Override
-    public String toString() {
-        return "AuditTrail{records=" + records.size() + " entries}";
+    public synchronized String toString() {
+        return "AuditTrail{records=" + size + " entries}";
+    }
+
+    // ============ SERIALIZATION ============
+
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("records", getAllRecords());
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        serializedRecords = (LinkedList<String>) in.readFields().get("records", null);
+    }
+
+    /**
+     * Rebuild the columns from "[timestamp] user: action" records
+     */
+    private Object readResolve() {
+        AuditTrail trail = createEmpty();
+        if (serializedRecords != null) {
+            for (String record : serializedRecords) {
+                trail.restoreFormatted(record);
+            }
+        }
+        return trail;
+    }
+
+    private void restoreFormatted(String record) {
+        int timeEnd = record.indexOf("] ");
+        int userEnd = timeEnd >= 0 ? record.indexOf(": ", timeEnd + 2) : -1;
+        long timestamp = 0;
+        if (record.startsWith("[") && userEnd >= 0) {
+            try {
+                synchronized (dateFormat) {
+                    timestamp = dateFormat.parse(record.substring(1, timeEnd)).getTime();
+                }
+            } catch (ParseException e) {
+                userEnd = -1;
+            }
+        }
+
+        if (userEnd < 0) {
+            // Not in the logAction format: keep the text rather than drop the record
+            restoreRecord(new Date(timestamp), "SYSTEM", null, record);
+        } else {
+            restoreRecord(new Date(timestamp), record.substring(timeEnd + 2, userEnd), null,
+                    record.substring(userEnd + 2));
+        }
+    }
+
+    // ============ STORAGE ============
+
+    private int append(long timestamp, String user, String action) {
+        ensureCapacity(size + 1);
+
+        // user is "TYPE:Name" or just "TYPE" (e.g. SYSTEM)
+        int separator = user.indexOf(':');
+        String userType = separator >= 0 ? user.substring(0, separator) : user;
+        String userName = separator >= 0 ? user.substring(separator + 1) : "";
+        if (action == null) {
+            action = "";
+        }
+
+        int index = size;
+        timestamps[index] = timestamp;
+        userTypes[index] = userTypeDictionary.intern(userType);
+        userNames[index] = userNameDictionary.intern(userName);
+        categories[index] = categoryDictionary.intern(categoryOf(action));
+        actions[index] = action;
+        size++;
+
+        postingList(recordsByUserType, userTypes[index]).add(index);
+        postingList(recordsByUserName, userNames[index]).add(index);
+
+        if (index > 0 && timestamp < timestamps[index - 1]) {
+            appendedInTimeOrder = false;
+        }
+        timeIndex = null;
+
+        return index;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= timestamps.length) {
+            return;
+        }
+        int capacity = Math.max(required, timestamps.length * 2);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        userTypes = Arrays.copyOf(userTypes, capacity);
+        userNames = Arrays.copyOf(userNames, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        actions = Arrays.copyOf(actions, capacity);
+    }
+
+    private static IntList postingList(ArrayList<IntList> postings, int code) {
+        while (postings.size() <= code) {
+            postings.add(new IntList());
+        }
+        return postings.get(code);
+    }
+
+    /**
+     * Category of an action: its first word ("Logged", "Failed", "Created", ...)
+     */
+    private static String categoryOf(String action) {
+        String trimmed = action.trim();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? "Other" : trimmed.substring(0, end);
+    }
+
+    private int countByUserType(String userType) {
+        int code = userTypeDictionary.find(userType);
+        return code >= 0 ? recordsByUserType.get(code).size : 0;
+    }
+
+    // ============ TIME INDEX ============
+
+    /**
+     * First record index whose timestamp is >= millis (records appended in time order)
+     */
+    private int lowerBound(long millis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First position in the time index whose timestamp is >= millis
+     */
+    private int lowerBound(int[] index, long millis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[index[mid]] < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int[] getTimeIndex() {
+        if (timeIndex == null) {
+            // Stable sort of record indexes by timestamp
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(timestamps[a], timestamps[b]));
+
+            timeIndex = new int[size];
+            for (int i = 0; i < size; i++) {
+                timeIndex[i] = order[i];
+            }
+        }
+        return timeIndex;
+    }
+
+    // ============ FORMATTING ============
+
+    private String formatRecord(int index) {
+        return appendRecord(new StringBuilder(64), index).toString();
+    }
+
+    private StringBuilder appendRecord(StringBuilder sb, int index) {
+        sb.append('[').append(formatTimestamp(timestamps[index])).append("] ");
+        sb.append(formatUser(index)).append(": ").append(actions[index]);
+        return sb;
+    }
+
+    private String formatUser(int index) {
+        String userType = userTypeDictionary.get(userTypes[index]);
+        String userName = userNameDictionary.get(userNames[index]);
+        return userName.isEmpty() ? userType : userType + ":" + userName;
+    }
+
+    private static String formatTimestamp(long millis) {
+        synchronized (dateFormat) {
+            return dateFormat.format(new Date(millis));
+        }
+    }
+
+    private static boolean containsIgnoreCase(String text, String keyword) {
+        int max = text.length() - keyword.length();
+        for (int i = 0; i <= max; i++) {
+            if (text.regionMatches(true, i, keyword, 0, keyword.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ============ INNER CLASS: DICTIONARY ============
+
+    /**
+     * Interns strings to dense int codes
+     */
+    private static class Dictionary implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final HashMap<String, Integer> codes = new HashMap<>();
+        private final ArrayList<String> values = new ArrayList<>();
+
+        int intern(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        int find(String value) {
+            Integer code = codes.get(value);
+            return code == null ? -1 : code;
+        }
+
+        String get(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        /**
+         * matches[code] is true when the value contains the keyword (ignoring case)
+         */
+        boolean[] matching(String keyword) {
+            boolean[] matches = new boolean[values.size()];
+            for (int code = 0; code < matches.length; code++) {
+                matches[code] = containsIgnoreCase(values.get(code), keyword);
+            }
+            return matches;
+        }
+    }
+
+    // ============ INNER CLASS: INT LIST ============
+
+    /**
+     * Growable list of primitive ints (posting list of record indexes)
+     */
+    private static class IntList implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        int[] values = new int[8];
+        int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
     }
-}
\ No newline at end of file
+}
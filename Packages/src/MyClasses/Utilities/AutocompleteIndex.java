@@ -0,0 +1,288 @@
+package MyClasses.Utilities;
+
+import MyClasses.Consumables.Drink;
+import MyClasses.Consumables.Food;
+import MyClasses.Consumables.Item;
+import MyClasses.Ingredients.Ingredient;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.PriorityQueue;
+
+/**
+ * Frequency-ranked suggestions for ingredient names, units and standards
+ * Each kind is a radix trie (edges carry whole label fragments, so long standards cost one
+ * node, not one per character) over normalized values (see IngredientUsageIndex.normalize).
+ * A node caches the highest frequency below it, so the top k completions of a prefix are found
+ * best-first without visiting the rest of the subtree. Values keep the first spelling seen.
+ *
+ * Frequencies start from how often each value is stored and grow as formulations are saved;
+ * a formulation saved again only counts values it did not have before in this session. They
+ * never decrease, so a spelling removed since startup keeps its rank until the next start.
+ */
+public class AutocompleteIndex {
+
+    public enum Kind {
+        INGREDIENT, UNIT, STANDARD
+    }
+
+    private final EnumMap<Kind, Node> roots = new EnumMap<>(Kind.class);
+    // Item ID -> values already counted for it in this session, per kind
+    private final EnumMap<Kind, HashMap<Integer, HashSet<String>>> countedByItem = new EnumMap<>(Kind.class);
+
+    public AutocompleteIndex() {
+        for (Kind kind : Kind.values()) {
+            roots.put(kind, new Node("", 0));
+            countedByItem.put(kind, new HashMap<>());
+        }
+    }
+
+    /**
+     * Add uses of a value (e.g. a stored value with its count)
+     */
+    public synchronized void add(Kind kind, String value, int uses) {
+        String key = IngredientUsageIndex.normalize(value);
+        if (key.isEmpty() || uses <= 0) {
+            return;
+        }
+        insert(roots.get(kind), key, value.trim().replaceAll("\\s+", " "), uses);
+    }
+
+    /**
+     * Count the values of a saved formulation it was not counted for yet (details must be loaded)
+     */
+    public synchronized void countItem(Item item) {
+        if (!item.isDetailsLoaded()) {
+            return;
+        }
+        LinkedList<Ingredient> ingredients = null;
+        LinkedList<String> standards = null;
+        if (item instanceof Food) {
+            ingredients = ((Food) item).getIngredients();
+            standards = ((Food) item).getStandards();
+        } else if (item instanceof Drink) {
+            ingredients = ((Drink) item).getIngredients();
+            standards = ((Drink) item).getStandards();
+        }
+
+        if (ingredients != null) {
+            for (Ingredient ingredient : ingredients) {
+                countOnce(Kind.INGREDIENT, item.getItemID(), ingredient.getName());
+                if (ingredient.getQuantity() != null) {
+                    countOnce(Kind.UNIT, item.getItemID(), ingredient.getQuantity().getUnit());
+                }
+            }
+        }
+        if (standards != null) {
+            for (String standard : standards) {
+                countOnce(Kind.STANDARD, item.getItemID(), standard);
+            }
+        }
+    }
+
+    /**
+     * Up to `limit` values starting with the prefix (case and spacing ignored), most used first
+     */
+    public synchronized LinkedList<String> suggest(Kind kind, String prefix, int limit) {
+        LinkedList<String> suggestions = new LinkedList<>();
+        if (limit <= 0) {
+            return suggestions;
+        }
+        Node start = find(roots.get(kind), IngredientUsageIndex.normalize(prefix));
+        if (start == null) {
+            return suggestions;
+        }
+
+        // Best-first: a node enters with the best frequency below it, a value with its own
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        queue.add(new Candidate(start, false));
+        while (!queue.isEmpty() && suggestions.size() < limit) {
+            Candidate candidate = queue.poll();
+            Node node = candidate.node;
+            if (candidate.value) {
+                suggestions.add(node.display);
+                continue;
+            }
+            if (node.count > 0) {
+                queue.add(new Candidate(node, true));
+            }
+            for (int i = 0; i < node.childCount; i++) {
+                queue.add(new Candidate(node.children[i], false));
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Times a value was counted (0 if unknown)
+     */
+    public synchronized int getCount(Kind kind, String value) {
+        String key = IngredientUsageIndex.normalize(value);
+        Node node = find(roots.get(kind), key);
+        // find stops inside an edge for a partial key; only a node ending exactly at the key counts
+        return node != null && node.isWholeKey && node.depth == key.length() ? node.count : 0;
+    }
+
+    // ============ HELPER METHODS ============
+
+    private void countOnce(Kind kind, int itemId, String value) {
+        String key = IngredientUsageIndex.normalize(value);
+        if (key.isEmpty()) {
+            return;
+        }
+        HashSet<String> counted = countedByItem.get(kind).computeIfAbsent(itemId, id -> new HashSet<>());
+        if (counted.add(key)) {
+            insert(roots.get(kind), key, value.trim().replaceAll("\\s+", " "), 1);
+        }
+    }
+
+    private void insert(Node root, String key, String display, int uses) {
+        LinkedList<Node> path = new LinkedList<>();
+        Node node = root;
+        int pos = 0;
+        while (true) {
+            path.add(node);
+            if (pos == key.length()) {
+                break;
+            }
+            int index = node.indexOf(key.charAt(pos));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(pos), key.length());
+                node.insertChild(leaf);
+                path.add(leaf);
+                node = leaf;
+                break;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, pos);
+            if (common < child.label.length()) {
+                // Split the edge where the key leaves it
+                Node middle = new Node(child.label.substring(0, common), pos + common);
+                child.label = child.label.substring(common);
+                middle.insertChild(child);
+                middle.best = child.best;
+                node.children[index] = middle;
+                child = middle;
+            }
+            node = child;
+            pos += common;
+        }
+
+        if (!node.isWholeKey) {
+            node.isWholeKey = true;
+            node.display = display;
+        }
+        node.count += uses;
+        for (Node onPath : path) {
+            onPath.best = Math.max(onPath.best, node.count);
+        }
+    }
+
+    /**
+     * Node whose subtree holds every key starting with the prefix, or null
+     */
+    private static Node find(Node root, String prefix) {
+        Node node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            int index = node.indexOf(prefix.charAt(pos));
+            if (index < 0) {
+                return null;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, prefix, pos);
+            if (pos + common == prefix.length()) {
+                return child;
+            }
+            if (common < child.label.length()) {
+                return null;
+            }
+            node = child;
+            pos += common;
+        }
+        return node;
+    }
+
+    private static int commonPrefix(String label, String key, int from) {
+        int max = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Radix trie node; children are kept sorted by the first character of their label
+     */
+    private static class Node {
+        String label;
+        // Length of the key ending at this node
+        int depth;
+        Node[] children = null;
+        char[] firstChars = null;
+        int childCount = 0;
+        boolean isWholeKey = false;
+        String display;
+        int count = 0;
+        // Highest count of any key in this subtree
+        int best = 0;
+
+        Node(String label, int depth) {
+            this.label = label;
+            this.depth = depth;
+        }
+
+        int indexOf(char c) {
+            if (childCount == 0) {
+                return -1;
+            }
+            int index = Arrays.binarySearch(firstChars, 0, childCount, c);
+            return index >= 0 ? index : -1;
+        }
+
+        void insertChild(Node child) {
+            if (children == null) {
+                children = new Node[2];
+                firstChars = new char[2];
+            } else if (childCount == children.length) {
+                children = Arrays.copyOf(children, childCount * 2);
+                firstChars = Arrays.copyOf(firstChars, childCount * 2);
+            }
+            char c = child.label.charAt(0);
+            int at = -(Arrays.binarySearch(firstChars, 0, childCount, c) + 1);
+            System.arraycopy(children, at, children, at + 1, childCount - at);
+            System.arraycopy(firstChars, at, firstChars, at + 1, childCount - at);
+            children[at] = child;
+            firstChars[at] = c;
+            childCount++;
+        }
+    }
+
+    private static class Candidate implements Comparable<Candidate> {
+        final Node node;
+        final boolean value;
+
+        Candidate(Node node, boolean value) {
+            this.node = node;
+            this.value = value;
+        }
+
+        int score() {
+            return value ? node.count : node.best;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int order = Integer.compare(other.score(), score());
+            if (order != 0) {
+                return order;
+            }
+            // A value before a subtree of equal rank (nothing below it can beat it)
+            return Boolean.compare(other.value, value);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package MyClasses.Utilities;
+
+import MyClasses.Consumables.Drink;
+import MyClasses.Consumables.Food;
+import MyClasses.Consumables.Item;
+import MyClasses.Persons.Author;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.TreeSet;
+
+/**
+ * In-memory indexes over the formulation catalog
+ * - id -> item map (catalog order)
+ * - veto bitset (one bit per item slot) and the non-vetoed items
+ * - FOOD / DRINK partition
+ * - author -> item ids multimap
+ * - sorted ids of the non-vetoed items, for keyset paging
+ * Kept up to date through addItem / updateItem / removeItem, so lookups are O(1) and
+ * listings are read-only views or O(result) instead of copies of the whole catalog.
+ */
+public class CatalogIndex {
+
+    public enum ItemType {
+        FOOD, DRINK;
+
+        public static ItemType of(Item item) {
+            if (item instanceof Food) {
+                return FOOD;
+            } else if (item instanceof Drink) {
+                return DRINK;
+            }
+            return null;
+        }
+    }
+
+    private final LinkedHashMap<Integer, Item> itemsById = new LinkedHashMap<>();
+    private final LinkedHashMap<Integer, Item> availableById = new LinkedHashMap<>();
+    private final TreeSet<Integer> availableIds = new TreeSet<>();
+    private final LinkedHashMap<Integer, Item> foodsById = new LinkedHashMap<>();
+    private final LinkedHashMap<Integer, Item> drinksById = new LinkedHashMap<>();
+    private final HashMap<Integer, LinkedHashSet<Integer>> itemIdsByAuthor = new HashMap<>();
+    private final HashMap<Integer, Integer> authorByItemId = new HashMap<>();
+
+    // Each indexed item owns a dense slot; bit n of vetoed is the veto flag of slot n
+    private final HashMap<Integer, Integer> slotByItemId = new HashMap<>();
+    private final BitSet vetoed = new BitSet();
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount = 0;
+    private int nextSlot = 0;
+
+    public CatalogIndex() {
+    }
+
+    public CatalogIndex(Collection<Item> items) {
+        rebuild(items, null);
+    }
+
+    // ============ MAINTENANCE ============
+
+    /**
+     * Replace the whole index with the given catalog and author links
+     */
+    public void rebuild(Collection<Item> items, Collection<Author> authors) {
+        clear();
+        for (Item item : items) {
+            addItem(item);
+        }
+        if (authors != null) {
+            for (Author author : authors) {
+                for (Item item : author.getFormulatedItems()) {
+                    if (itemsById.containsKey(item.getItemID())) {
+                        linkAuthor(author.getAuthorID(), item.getItemID());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Index a new item (replaces an indexed item with the same ID)
+     * @return the item previously indexed under this ID, or null
+     */
+    public Item addItem(Item item) {
+        int id = item.getItemID();
+        Item previous = itemsById.put(id, item);
+
+        Integer slot = slotByItemId.get(id);
+        if (slot == null) {
+            slot = allocateSlot();
+            slotByItemId.put(id, slot);
+        }
+
+        indexAttributes(item, slot);
+
+        if (item.getAuthor() != null) {
+            linkAuthor(item.getAuthor().getAuthorID(), id);
+        }
+        return previous;
+    }
+
+    /**
+     * Re-evaluate veto status and type after an item was edited
+     */
+    public void updateItem(Item item) {
+        addItem(item);
+    }
+
+    /**
+     * Remove an item and its author link
+     * @return true if the item was indexed
+     */
+    public boolean removeItem(Item item) {
+        int id = item.getItemID();
+        if (itemsById.remove(id) == null) {
+            return false;
+        }
+        availableById.remove(id);
+        availableIds.remove(id);
+        foodsById.remove(id);
+        drinksById.remove(id);
+
+        Integer slot = slotByItemId.remove(id);
+        vetoed.clear(slot);
+        releaseSlot(slot);
+
+        Integer authorId = authorByItemId.remove(id);
+        if (authorId != null) {
+            LinkedHashSet<Integer> itemIds = itemIdsByAuthor.get(authorId);
+            itemIds.remove(id);
+            if (itemIds.isEmpty()) {
+                itemIdsByAuthor.remove(authorId);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Record that an author formulated an item
+     */
+    public void linkAuthor(int authorId, int itemId) {
+        Integer previousAuthor = authorByItemId.put(itemId, authorId);
+        if (previousAuthor != null && previousAuthor != authorId) {
+            LinkedHashSet<Integer> previousItems = itemIdsByAuthor.get(previousAuthor);
+            previousItems.remove(itemId);
+            if (previousItems.isEmpty()) {
+                itemIdsByAuthor.remove(previousAuthor);
+            }
+        }
+        itemIdsByAuthor.computeIfAbsent(authorId, k -> new LinkedHashSet<>()).add(itemId);
+    }
+
+    public void clear() {
+        itemsById.clear();
+        availableById.clear();
+        availableIds.clear();
+        foodsById.clear();
+        drinksById.clear();
+        itemIdsByAuthor.clear();
+        authorByItemId.clear();
+        slotByItemId.clear();
+        vetoed.clear();
+        freeSlotCount = 0;
+        nextSlot = 0;
+    }
+
+    // ============ QUERIES ============
+
+    public Item getItem(int itemId) {
+        return itemsById.get(itemId);
+    }
+
+    public boolean containsItem(int itemId) {
+        return itemsById.containsKey(itemId);
+    }
+
+    public boolean isVetoed(int itemId) {
+        Integer slot = slotByItemId.get(itemId);
+        return slot != null && vetoed.get(slot);
+    }
+
+    public int size() {
+        return itemsById.size();
+    }
+
+    /**
+     * O(1): every indexed item is either vetoed or available
+     */
+    public int getVetoedCount() {
+        return itemsById.size() - availableById.size();
+    }
+
+    public int getCount(ItemType type) {
+        return type == ItemType.FOOD ? foodsById.size() : drinksById.size();
+    }
+
+    /**
+     * All items in catalog order (read-only view)
+     */
+    public Collection<Item> getItems() {
+        return Collections.unmodifiableCollection(itemsById.values());
+    }
+
+    /**
+     * Items that are not vetoed (read-only view)
+     */
+    public Collection<Item> getAvailableItems() {
+        return Collections.unmodifiableCollection(availableById.values());
+    }
+
+    public int getAvailableCount() {
+        return availableById.size();
+    }
+
+    /**
+     * Next page of non-vetoed items in item ID order (keyset paging)
+     * @param afterItemId last item ID of the previous page, or Integer.MIN_VALUE for the first page
+     */
+    public LinkedList<Item> getAvailablePage(int afterItemId, int limit) {
+        LinkedList<Item> page = new LinkedList<>();
+        for (int itemId : availableIds.tailSet(afterItemId, false)) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(availableById.get(itemId));
+        }
+        return page;
+    }
+
+    /**
+     * Items of one type (read-only view)
+     */
+    public Collection<Item> getItems(ItemType type) {
+        return Collections.unmodifiableCollection(
+                type == ItemType.FOOD ? foodsById.values() : drinksById.values());
+    }
+
+    /**
+     * Items formulated by an author, O(result)
+     */
+    public LinkedList<Item> getItemsByAuthor(int authorId) {
+        LinkedList<Item> authorItems = new LinkedList<>();
+        LinkedHashSet<Integer> itemIds = itemIdsByAuthor.get(authorId);
+        if (itemIds != null) {
+            for (int itemId : itemIds) {
+                authorItems.add(itemsById.get(itemId));
+            }
+        }
+        return authorItems;
+    }
+
+    /**
+     * Author linked to an item, or null
+     */
+    public Integer getAuthorId(int itemId) {
+        return authorByItemId.get(itemId);
+    }
+
+    public int getItemCountByAuthor(int authorId) {
+        LinkedHashSet<Integer> itemIds = itemIdsByAuthor.get(authorId);
+        return itemIds == null ? 0 : itemIds.size();
+    }
+
+    /**
+     * Veto status stored on the item itself
+     */
+    public static boolean isItemVetoed(Item item) {
+        if (item instanceof Food) {
+            return ((Food) item).isVetoed();
+        } else if (item instanceof Drink) {
+            return ((Drink) item).isVetoed();
+        }
+        return false;
+    }
+
+    // ============ HELPER METHODS ============
+
+    private void indexAttributes(Item item, int slot) {
+        int id = item.getItemID();
+
+        if (isItemVetoed(item)) {
+            vetoed.set(slot);
+            availableById.remove(id);
+            availableIds.remove(id);
+        } else {
+            vetoed.clear(slot);
+            availableById.put(id, item);
+            availableIds.add(id);
+        }
+
+        ItemType type = ItemType.of(item);
+        if (type == ItemType.FOOD) {
+            foodsById.put(id, item);
+            drinksById.remove(id);
+        } else if (type == ItemType.DRINK) {
+            drinksById.put(id, item);
+            foodsById.remove(id);
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        return nextSlot++;
+    }
+
+    private void releaseSlot(int slot) {
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+        }
+        freeSlots[freeSlotCount++] = slot;
+    }
+}
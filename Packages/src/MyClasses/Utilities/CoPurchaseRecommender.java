@@ -0,0 +1,394 @@
+package MyClasses.Utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+
+/**
+ * Item-to-item recommendations from co-occurrence in customers' baskets (purchases and favorites)
+ * The matrix is sparse and symmetric: each item has a row mapping the items sharing a basket
+ * with it to how many baskets they share, in open-addressing int tables (no boxed keys).
+ * Similarity is cosine over baskets, shared / sqrt(baskets(a) * baskets(b)). Each row keeps
+ * its TOP_K most similar items, found with a bounded heap and recomputed lazily once an
+ * addition touched the row, so a lookup reads a short cached list. One lock guards everything;
+ * lookups return copied IDs, so callers filter them (catalog, allergens) without holding it.
+ */
+public class CoPurchaseRecommender {
+
+    // Similar items cached per item; lookups asking for more get at most this many
+    public static final int TOP_K = 32;
+    // Only the first items of a larger basket are paired (a basket costs size^2 updates)
+    private static final int MAX_PAIRED_BASKET = 256;
+
+    private static class Row {
+        final int itemId;
+        // Baskets holding the item
+        int occurrences;
+        final IntIntTable shared = new IntIntTable();
+        int[] top = new int[0];
+        double[] topScores = new double[0];
+        boolean stale = true;
+
+        Row(int itemId) {
+            this.itemId = itemId;
+        }
+    }
+
+    private static class Basket {
+        int[] items = new int[4];
+        int size;
+
+        boolean contains(int itemId) {
+            for (int i = 0; i < size; i++) {
+                if (items[i] == itemId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // item ID -> index in rows; customer ID -> index in baskets
+    private final IntIntTable rowIndex = new IntIntTable();
+    private final ArrayList<Row> rows = new ArrayList<>();
+    private final IntIntTable basketIndex = new IntIntTable();
+    private final ArrayList<Basket> baskets = new ArrayList<>();
+
+    // ============ UPDATES ============
+
+    /**
+     * Drop everything (before the customers are published again)
+     */
+    public synchronized void clear() {
+        rowIndex.clear();
+        rows.clear();
+        basketIndex.clear();
+        baskets.clear();
+    }
+
+    /**
+     * Put items into a customer's basket (a purchase or favorite); items already in it are ignored
+     */
+    public synchronized void add(int customerId, Collection<Integer> itemIds) {
+        for (int itemId : itemIds) {
+            addItem(customerId, itemId);
+        }
+    }
+
+    public synchronized void add(int customerId, int itemId) {
+        addItem(customerId, itemId);
+    }
+
+    // ============ QUERIES ============
+
+    /**
+     * Up to `limit` items most often bought or favored together with an item, most similar first
+     */
+    public synchronized LinkedList<Integer> similarTo(int itemId, int limit) {
+        LinkedList<Integer> similar = new LinkedList<>();
+        int index = rowIndex.get(itemId, -1);
+        if (index < 0) {
+            return similar;
+        }
+        Row row = refresh(rows.get(index));
+        for (int i = 0; i < row.top.length && similar.size() < limit; i++) {
+            similar.add(row.top[i]);
+        }
+        return similar;
+    }
+
+    /**
+     * "You may also like": up to `limit` items similar to the customer's basket that are not in
+     * it, best first (scores of the basket items' cached similar items are summed)
+     */
+    public synchronized LinkedList<Integer> recommendFor(int customerId, int limit) {
+        LinkedList<Integer> recommended = new LinkedList<>();
+        int index = basketIndex.get(customerId, -1);
+        if (index < 0 || limit <= 0) {
+            return recommended;
+        }
+        Basket basket = baskets.get(index);
+
+        // candidate item ID -> slot in the parallel arrays
+        IntIntTable slots = new IntIntTable();
+        int[] candidates = new int[16];
+        double[] scores = new double[16];
+        int count = 0;
+        for (int b = 0; b < basket.size; b++) {
+            Row row = refresh(rows.get(rowIndex.get(basket.items[b], -1)));
+            for (int i = 0; i < row.top.length; i++) {
+                int candidate = row.top[i];
+                if (basket.contains(candidate)) {
+                    continue;
+                }
+                int slot = slots.get(candidate, -1);
+                if (slot < 0) {
+                    if (count == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, count * 2);
+                        scores = Arrays.copyOf(scores, count * 2);
+                    }
+                    slot = count++;
+                    slots.put(candidate, slot);
+                    candidates[slot] = candidate;
+                }
+                scores[slot] += row.topScores[i];
+            }
+        }
+
+        // Best first by repeated bounded selection: only as many rounds as items returned
+        boolean[] taken = new boolean[count];
+        while (recommended.size() < limit) {
+            int best = -1;
+            for (int i = 0; i < count; i++) {
+                if (!taken[i] && (best < 0 || scores[i] > scores[best])) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            taken[best] = true;
+            recommended.add(candidates[best]);
+        }
+        return recommended;
+    }
+
+    /**
+     * Number of items in any basket
+     */
+    public synchronized int size() {
+        return rows.size();
+    }
+
+    // ============ HELPER METHODS ============
+
+    private void addItem(int customerId, int itemId) {
+        int index = basketIndex.get(customerId, -1);
+        Basket basket;
+        if (index < 0) {
+            basket = new Basket();
+            basketIndex.put(customerId, baskets.size());
+            baskets.add(basket);
+        } else {
+            basket = baskets.get(index);
+            if (basket.contains(itemId)) {
+                return;
+            }
+        }
+
+        Row row = row(itemId);
+        row.occurrences++;
+        // Rows gaining a shared count are recomputed; the item's other neighbours keep their
+        // slightly higher scores for it until one of their own baskets changes
+        row.stale = true;
+
+        int paired = Math.min(basket.size, MAX_PAIRED_BASKET);
+        for (int i = 0; i < paired; i++) {
+            int other = basket.items[i];
+            Row otherRow = rows.get(rowIndex.get(other, -1));
+            row.shared.increment(other);
+            otherRow.shared.increment(itemId);
+            otherRow.stale = true;
+        }
+
+        if (basket.size == basket.items.length) {
+            basket.items = Arrays.copyOf(basket.items, basket.size * 2);
+        }
+        basket.items[basket.size++] = itemId;
+    }
+
+    private Row row(int itemId) {
+        int index = rowIndex.get(itemId, -1);
+        if (index >= 0) {
+            return rows.get(index);
+        }
+        Row row = new Row(itemId);
+        rowIndex.put(itemId, rows.size());
+        rows.add(row);
+        return row;
+    }
+
+    /**
+     * Recompute a row's cached similar items if an addition touched it (bounded min-heap of TOP_K)
+     */
+    private Row refresh(Row row) {
+        if (!row.stale) {
+            return row;
+        }
+        int[] heapIds = new int[TOP_K];
+        double[] heapScores = new double[TOP_K];
+        int[] heapSize = {0};
+        row.shared.forEach((other, shared) -> {
+            Row otherRow = rows.get(rowIndex.get(other, -1));
+            double score = shared / Math.sqrt((double) row.occurrences * otherRow.occurrences);
+            if (heapSize[0] < TOP_K) {
+                heapIds[heapSize[0]] = other;
+                heapScores[heapSize[0]] = score;
+                siftUp(heapIds, heapScores, heapSize[0]++);
+            } else if (score > heapScores[0]) {
+                heapIds[0] = other;
+                heapScores[0] = score;
+                siftDown(heapIds, heapScores, heapSize[0]);
+            }
+        });
+
+        // Drain the min-heap into descending order
+        int n = heapSize[0];
+        int[] top = new int[n];
+        double[] topScores = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            top[i] = heapIds[0];
+            topScores[i] = heapScores[0];
+            heapIds[0] = heapIds[i];
+            heapScores[0] = heapScores[i];
+            siftDown(heapIds, heapScores, i);
+        }
+        row.top = top;
+        row.topScores = topScores;
+        row.stale = false;
+        return row;
+    }
+
+    private static void siftUp(int[] ids, double[] scores, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (scores[parent] <= scores[i]) {
+                break;
+            }
+            swap(ids, scores, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] ids, double[] scores, int size) {
+        int i = 0;
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && scores[left] < scores[smallest]) {
+                smallest = left;
+            }
+            if (right < size && scores[right] < scores[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(ids, scores, i, smallest);
+            i = smallest;
+        }
+    }
+
+    private static void swap(int[] ids, double[] scores, int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+
+    /**
+     * Open-addressing int -> int table with linear probing (keys must not be Integer.MIN_VALUE)
+     */
+    private static class IntIntTable {
+        private static final int EMPTY = Integer.MIN_VALUE;
+
+        interface EntryVisitor {
+            void visit(int key, int value);
+        }
+
+        private int[] keys = newKeys(8);
+        private int[] values = new int[8];
+        private int size;
+
+        int get(int key, int missing) {
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+                if (keys[i] == EMPTY) {
+                    return missing;
+                }
+            }
+        }
+
+        void put(int key, int value) {
+            // slotFor may grow the arrays, so the slot is found before values is read
+            int slot = slotFor(key);
+            values[slot] = value;
+        }
+
+        void increment(int key) {
+            int slot = slotFor(key);
+            values[slot]++;
+        }
+
+        void forEach(EntryVisitor visitor) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY) {
+                    visitor.visit(keys[i], values[i]);
+                }
+            }
+        }
+
+        void clear() {
+            keys = newKeys(8);
+            values = new int[8];
+            size = 0;
+        }
+
+        /**
+         * Slot holding the key, inserted with value 0 if absent
+         */
+        private int slotFor(int key) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (keys[i] != EMPTY) {
+                if (keys[i] == key) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = 0;
+            size++;
+            return i;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != EMPTY) {
+                    int i = mix(oldKeys[j]) & mask;
+                    while (keys[i] != EMPTY) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+
+        private static int[] newKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
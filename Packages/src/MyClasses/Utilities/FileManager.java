@@ -9,9 +9,20 @@ import MyClasses.Persons.Author;
 import MyClasses.Persons.Customer;
 
 import java.io.*;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.Map;
 
 
+/**
+ * File storage under data/
+ * Each file is a versioned binary snapshot (SnapshotWriter / SnapshotReader, record layouts in
+ * SnapshotCodec). Files in the old serialized-object format are still read and are converted
+ * the next time they are saved.
+ */
 public class FileManager {
 
     // File paths
@@ -22,6 +33,11 @@ public class FileManager {
     private static final String FORMULATIONS_FILE = DATA_DIR + "formulations.txt";
     private static final String AUDIT_FILE = DATA_DIR + "audit_trail.txt";
 
+    // Formulations of the last load and the author IDs they referenced, used to re-link
+    // authors and customers (snapshots store references as IDs)
+    private LinkedHashMap<Integer, Item> loadedItems = null;
+    private SnapshotCodec.AuthorLinks authorLinks = new SnapshotCodec.AuthorLinks();
+
     public FileManager() {
         // Create data directory if it doesn't exist
         File dataDir = new File(DATA_DIR);
@@ -34,8 +50,8 @@ public class FileManager {
     // ============ ADMIN OPERATIONS ============
 
     public void saveAdmins(LinkedList<Admin> admins) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(ADMINS_FILE))) {
-            oos.writeObject(admins);
+        try {
+            writeSnapshot(ADMINS_FILE, SnapshotCodec.ADMINS, admins, SnapshotCodec::writeAdmin);
             System.out.println("✓ Admins saved to file: " + ADMINS_FILE);
         } catch (IOException e) {
             System.err.println("❌ Error saving admins: " + e.getMessage());
@@ -52,11 +68,13 @@ public class FileManager {
             return new LinkedList<>();
         }
 
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(ADMINS_FILE))) {
-            LinkedList<Admin> admins = (LinkedList<Admin>) ois.readObject();
+        try {
+            LinkedList<Admin> admins = isLegacyFile(ADMINS_FILE)
+                    ? (LinkedList<Admin>) readLegacy(ADMINS_FILE)
+                    : readSnapshot(ADMINS_FILE, SnapshotCodec.ADMINS, SnapshotCodec::readAdmin);
             System.out.println("✓ Loaded " + admins.size() + " admin(s) from file");
             return admins;
-        } catch (IOException | ClassNotFoundException e) {
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
             System.err.println("❌ Error loading admins: " + e.getMessage());
             return new LinkedList<>();
         }
@@ -64,10 +82,12 @@ public class FileManager {
 
     // ============ AUTHOR OPERATIONS ============
 
-
+    /**
+     * Authors are stored with the IDs of their formulations; save the formulations too
+     */
     public void saveAuthors(LinkedList<Author> authors) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(AUTHORS_FILE))) {
-            oos.writeObject(authors);
+        try {
+            writeSnapshot(AUTHORS_FILE, SnapshotCodec.AUTHORS, authors, SnapshotCodec::writeAuthor);
             System.out.println("✓ Authors saved to file: " + AUTHORS_FILE);
         } catch (IOException e) {
             System.err.println("❌ Error saving authors: " + e.getMessage());
@@ -84,11 +104,25 @@ public class FileManager {
             return new LinkedList<>();
         }
 
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(AUTHORS_FILE))) {
-            LinkedList<Author> authors = (LinkedList<Author>) ois.readObject();
+        try {
+            LinkedList<Author> authors;
+            if (isLegacyFile(AUTHORS_FILE)) {
+                authors = (LinkedList<Author>) readLegacy(AUTHORS_FILE);
+            } else {
+                Map<Integer, Item> itemsById = getLoadedItems();
+                authors = readSnapshot(AUTHORS_FILE, SnapshotCodec.AUTHORS,
+                        (in, version) -> SnapshotCodec.readAuthor(in, version, itemsById));
+
+                // Items refer to their authors by ID
+                HashMap<Integer, Author> authorsById = new HashMap<>();
+                for (Author author : authors) {
+                    authorsById.put(author.getAuthorID(), author);
+                }
+                SnapshotCodec.linkAuthors(authorLinks, itemsById, authorsById);
+            }
             System.out.println("✓ Loaded " + authors.size() + " author(s) from file");
             return authors;
-        } catch (IOException | ClassNotFoundException e) {
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
             System.err.println("❌ Error loading authors: " + e.getMessage());
             return new LinkedList<>();
         }
@@ -96,10 +130,12 @@ public class FileManager {
 
     // ============ CUSTOMER OPERATIONS ============
 
-
+    /**
+     * Favorites are stored as formulation IDs; save the formulations too
+     */
     public void saveCustomers(LinkedList<Customer> customers) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(CUSTOMERS_FILE))) {
-            oos.writeObject(customers);
+        try {
+            writeSnapshot(CUSTOMERS_FILE, SnapshotCodec.CUSTOMERS, customers, SnapshotCodec::writeCustomer);
             System.out.println("✓ Customers saved to file: " + CUSTOMERS_FILE);
         } catch (IOException e) {
             System.err.println("❌ Error saving customers: " + e.getMessage());
@@ -116,11 +152,18 @@ public class FileManager {
             return new LinkedList<>();
         }
 
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(CUSTOMERS_FILE))) {
-            LinkedList<Customer> customers = (LinkedList<Customer>) ois.readObject();
+        try {
+            LinkedList<Customer> customers;
+            if (isLegacyFile(CUSTOMERS_FILE)) {
+                customers = (LinkedList<Customer>) readLegacy(CUSTOMERS_FILE);
+            } else {
+                Map<Integer, Item> itemsById = getLoadedItems();
+                customers = readSnapshot(CUSTOMERS_FILE, SnapshotCodec.CUSTOMERS,
+                        (in, version) -> SnapshotCodec.readCustomer(in, version, itemsById));
+            }
             System.out.println("✓ Loaded " + customers.size() + " customer(s) from file");
             return customers;
-        } catch (IOException | ClassNotFoundException e) {
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
             System.err.println("❌ Error loading customers: " + e.getMessage());
             return new LinkedList<>();
         }
@@ -129,8 +172,8 @@ public class FileManager {
     // ============ FORMULATION OPERATIONS ============
 
     public void saveFormulations(LinkedList<Item> formulations) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(FORMULATIONS_FILE))) {
-            oos.writeObject(formulations);
+        try {
+            writeSnapshot(FORMULATIONS_FILE, SnapshotCodec.FORMULATIONS, formulations, SnapshotCodec::writeItem);
             System.out.println("✓ Formulations saved to file: " + FORMULATIONS_FILE);
         } catch (IOException e) {
             System.err.println("❌ Error saving formulations: " + e.getMessage());
@@ -144,15 +187,31 @@ public class FileManager {
         File file = new File(FORMULATIONS_FILE);
         if (!file.exists()) {
             System.out.println("ℹ No formulations file found. Starting fresh.");
+            loadedItems = new LinkedHashMap<>();
             return new LinkedList<>();
         }
 
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(FORMULATIONS_FILE))) {
-            LinkedList<Item> formulations = (LinkedList<Item>) ois.readObject();
+        try {
+            LinkedList<Item> formulations;
+            authorLinks = new SnapshotCodec.AuthorLinks();
+            if (isLegacyFile(FORMULATIONS_FILE)) {
+                formulations = (LinkedList<Item>) readLegacy(FORMULATIONS_FILE);
+            } else {
+                SnapshotCodec.AuthorLinks links = authorLinks;
+                formulations = readSnapshot(FORMULATIONS_FILE, SnapshotCodec.FORMULATIONS,
+                        (in, version) -> SnapshotCodec.readItem(in, version, links));
+            }
+
+            // Authors and customers loaded afterwards resolve their item IDs against these
+            loadedItems = new LinkedHashMap<>();
+            for (Item item : formulations) {
+                loadedItems.put(item.getItemID(), item);
+            }
             System.out.println("✓ Loaded " + formulations.size() + " formulation(s) from file");
             return formulations;
-        } catch (IOException | ClassNotFoundException e) {
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
             System.err.println("❌ Error loading formulations: " + e.getMessage());
+            loadedItems = new LinkedHashMap<>();
             return new LinkedList<>();
         }
     }
@@ -161,8 +220,24 @@ public class FileManager {
 
 
     public void saveAuditTrail(AuditTrail auditTrail) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(AUDIT_FILE))) {
-            oos.writeObject(auditTrail);
+        try (SnapshotWriter writer = new SnapshotWriter(Paths.get(AUDIT_FILE),
+                SnapshotCodec.AUDIT_TRAIL, SnapshotCodec.SCHEMA_VERSION)) {
+            try {
+                auditTrail.visitRecordsFrom(0, Integer.MAX_VALUE, (sequence, timestamp, user, action) -> {
+                    SnapshotWriter.RecordOutput out = writer.beginRecord();
+                    out.writeLong(timestamp.getTime());
+                    out.writeString(user);
+                    out.writeString(action);
+                    try {
+                        writer.endRecord();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.commit();
             System.out.println("✓ Audit trail saved to file: " + AUDIT_FILE);
         } catch (IOException e) {
             System.err.println("❌ Error saving audit trail: " + e.getMessage());
@@ -176,16 +251,85 @@ public class FileManager {
             return new AuditTrail();
         }
 
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(AUDIT_FILE))) {
-            AuditTrail auditTrail = (AuditTrail) ois.readObject();
+        try {
+            AuditTrail auditTrail;
+            if (isLegacyFile(AUDIT_FILE)) {
+                auditTrail = (AuditTrail) readLegacy(AUDIT_FILE);
+            } else {
+                auditTrail = AuditTrail.createEmpty();
+                try (SnapshotReader reader = new SnapshotReader(Paths.get(AUDIT_FILE), SnapshotCodec.AUDIT_TRAIL)) {
+                    for (int i = 0; i < reader.getRecordCount(); i++) {
+                        SnapshotReader.RecordInput in = reader.record(i);
+                        long timestamp = in.readLong();
+                        String user = in.readString();
+                        String action = in.readString();
+                        // The stored user is already "TYPE:name"
+                        auditTrail.restoreRecord(new java.util.Date(timestamp), user, null, action);
+                    }
+                }
+            }
             System.out.println("✓ Audit trail loaded from file");
             return auditTrail;
-        } catch (IOException | ClassNotFoundException e) {
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
             System.err.println("❌ Error loading audit trail: " + e.getMessage());
             return new AuditTrail();
         }
     }
 
+    // ============ SNAPSHOT HELPERS ============
+
+    private interface RecordEncoder<T> {
+        void write(SnapshotWriter.RecordOutput out, T value);
+    }
+
+    private interface RecordDecoder<T> {
+        T read(SnapshotReader.RecordInput in, int schemaVersion);
+    }
+
+    private <T> void writeSnapshot(String path, int kind, Collection<T> values,
+                                   RecordEncoder<T> encoder) throws IOException {
+        try (SnapshotWriter writer = new SnapshotWriter(Paths.get(path), kind, SnapshotCodec.SCHEMA_VERSION)) {
+            for (T value : values) {
+                encoder.write(writer.beginRecord(), value);
+                writer.endRecord();
+            }
+            writer.commit();
+        }
+    }
+
+    private <T> LinkedList<T> readSnapshot(String path, int kind, RecordDecoder<T> decoder) throws IOException {
+        LinkedList<T> values = new LinkedList<>();
+        try (SnapshotReader reader = new SnapshotReader(Paths.get(path), kind)) {
+            for (int i = 0; i < reader.getRecordCount(); i++) {
+                values.add(decoder.read(reader.record(i), reader.getSchemaVersion()));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Files written before the snapshot format hold a serialized object (read once, then re-saved)
+     */
+    private boolean isLegacyFile(String path) {
+        return !SnapshotReader.isSnapshot(Paths.get(path));
+    }
+
+    private Object readLegacy(String path) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(path)))) {
+            return ois.readObject();
+        }
+    }
+
+    /**
+     * Formulations by ID, loading the formulations file first if needed
+     */
+    private Map<Integer, Item> getLoadedItems() {
+        if (loadedItems == null) {
+            loadFormulations();
+        }
+        return loadedItems;
+    }
+
     // ============ BACKUP OPERATIONS ============
 
 
@@ -0,0 +1,466 @@
+package MyClasses.Utilities;
+
+import MyClasses.Conditions.Prepprotocol;
+import MyClasses.Consumables.Drink;
+import MyClasses.Consumables.Food;
+import MyClasses.Consumables.Item;
+import MyClasses.Feedback;
+import MyClasses.Ingredients.Ingredient;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Inverted full-text index over the formulation catalog
+ * Each formulation is indexed per field (name, ingredient names, standards, preparation steps,
+ * feedback comments); a term's postings list the (formulation, field) pairs it occurs in with
+ * its frequency there. Queries are ranked with BM25 per field, weighted by field, so a name
+ * match counts most. Every query word must match and the last one also matches as a prefix, so
+ * results follow the user while typing; the term dictionary is sorted, so a prefix is a range.
+ *
+ * Replacing a field bumps its generation: its old postings are invisible at once and are
+ * dropped when stale entries make up half of a postings list. A field indexed from memory is
+ * never overwritten by the database text streamed at startup. One lock guards everything.
+ */
+public class FormulationSearchIndex {
+
+    /**
+     * Indexed text of a formulation, with its weight in the score
+     */
+    public enum Field {
+        NAME(3.0), INGREDIENTS(2.0), STANDARDS(1.0), PROTOCOL(1.0), FEEDBACK(0.5);
+
+        private final double weight;
+
+        Field(double weight) {
+            this.weight = weight;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // A trailing prefix expands to at most this many terms (the most frequent ones)
+    private static final int MAX_PREFIX_TERMS = 256;
+    private static final int MAX_TERM_LENGTH = 40;
+
+    // Where a field's postings came from
+    private static final byte NOT_INDEXED = 0;
+    private static final byte FROM_DATABASE = 1;
+    private static final byte FROM_MEMORY = 2;
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final HashMap<Integer, Integer> slotsByItemId = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private int slotCount = 0;
+
+    // Per slot
+    private int[] itemIds = new int[0];
+    // Per cell (slot * FIELDS.length + field)
+    private int[] generations = new int[0];
+    private int[] fieldLengths = new int[0];
+    private byte[] sources = new byte[0];
+    private Postings[][] cellTerms = new Postings[0][];
+
+    private final long[] totalFieldLengths = new long[FIELDS.length];
+    private int documentCount = 0;
+
+    // Query scratch, per slot; a slot's entries are valid when its stamp is the current query's
+    private double[] scores = new double[0];
+    private int[] matchedWords = new int[0];
+    private int[] stamps = new int[0];
+    private int queryStamp = 0;
+
+    // ============ INDEXING ============
+
+    /**
+     * Index a formulation from memory: its name, and its detail text if the details are loaded
+     * (details that are not loaded have not been edited, so their indexed text stays)
+     */
+    public synchronized void indexItem(Item item) {
+        int itemId = item.getItemID();
+        put(itemId, Field.NAME, Collections.singletonList(item.getName()), FROM_MEMORY);
+        if (!item.isDetailsLoaded()) {
+            return;
+        }
+
+        LinkedList<Ingredient> ingredients = null;
+        LinkedList<String> standards = null;
+        Prepprotocol protocol = null;
+        LinkedList<Feedback> feedbacks = null;
+        if (item instanceof Food) {
+            Food food = (Food) item;
+            ingredients = food.getIngredients();
+            standards = food.getStandards();
+            protocol = food.getPrepprotocol();
+            feedbacks = food.getFeedbacks();
+        } else if (item instanceof Drink) {
+            Drink drink = (Drink) item;
+            ingredients = drink.getIngredients();
+            standards = drink.getStandards();
+            protocol = drink.getPrepprotocol();
+            feedbacks = drink.getFeedbacks();
+        }
+
+        LinkedList<String> texts = new LinkedList<>();
+        if (ingredients != null) {
+            for (Ingredient ingredient : ingredients) {
+                texts.add(ingredient.getName());
+            }
+        }
+        put(itemId, Field.INGREDIENTS, texts, FROM_MEMORY);
+
+        put(itemId, Field.STANDARDS, standards != null ? standards : new LinkedList<>(), FROM_MEMORY);
+
+        texts = new LinkedList<>();
+        if (protocol != null) {
+            for (int i = 0; i < protocol.getStepCount(); i++) {
+                texts.add(protocol.getStep(i));
+            }
+        }
+        put(itemId, Field.PROTOCOL, texts, FROM_MEMORY);
+
+        texts = new LinkedList<>();
+        if (feedbacks != null) {
+            for (Feedback feedback : feedbacks) {
+                texts.add(feedback.getComment());
+            }
+        }
+        put(itemId, Field.FEEDBACK, texts, FROM_MEMORY);
+    }
+
+    /**
+     * Index a field from the database; ignored if the field was indexed from memory meanwhile
+     */
+    public synchronized void indexStoredText(int itemId, Field field, Collection<String> texts) {
+        put(itemId, field, texts, FROM_DATABASE);
+    }
+
+    /**
+     * Replace a field with the database text (e.g. after another instance changed the formulation)
+     */
+    public synchronized void replaceStoredText(int itemId, Field field, Collection<String> texts) {
+        put(itemId, field, texts, FROM_MEMORY);
+    }
+
+    public synchronized void removeItem(int itemId) {
+        Integer slot = slotsByItemId.remove(itemId);
+        if (slot == null) {
+            return;
+        }
+        for (Field field : FIELDS) {
+            clearCell(slot * FIELDS.length + field.ordinal());
+        }
+        itemIds[slot] = -1;
+        freeSlots.push(slot);
+        documentCount--;
+    }
+
+    public synchronized boolean containsItem(int itemId) {
+        return slotsByItemId.containsKey(itemId);
+    }
+
+    public synchronized int size() {
+        return documentCount;
+    }
+
+    public synchronized int getTermCount() {
+        return terms.size();
+    }
+
+    // ============ SEARCH ============
+
+    /**
+     * Item IDs of the best matches, best first
+     * @param query words to match; the last one also matches as a prefix unless followed by a space
+     * @param accept filter on item IDs (e.g. in the catalog and not vetoed), or null
+     */
+    public synchronized LinkedList<Integer> search(String query, int limit, IntPredicate accept) {
+        LinkedList<Integer> results = new LinkedList<>();
+        LinkedList<String> words = tokenize(query);
+        if (words.isEmpty() || limit <= 0 || documentCount == 0) {
+            return results;
+        }
+        boolean lastIsPrefix = Character.isLetterOrDigit(query.charAt(query.length() - 1));
+
+        if (++queryStamp == 0) {
+            Arrays.fill(stamps, 0);
+            queryStamp = 1;
+        }
+        int[] touched = new int[16];
+        int touchedCount = 0;
+
+        int wordIndex = 0;
+        for (String word : words) {
+            boolean prefix = lastIsPrefix && wordIndex == words.size() - 1;
+            for (Postings postings : matchingTerms(word, prefix)) {
+                double idf = idf(postings.liveCount());
+                for (int i = 0; i < postings.size; i++) {
+                    int slot = postings.slots[i];
+                    int field = postings.fieldFrequencies[i] >>> 24;
+                    int cell = slot * FIELDS.length + field;
+                    if (postings.generations[i] != generations[cell]) {
+                        continue;
+                    }
+                    if (stamps[slot] != queryStamp) {
+                        if (wordIndex > 0) {
+                            continue;
+                        }
+                        stamps[slot] = queryStamp;
+                        scores[slot] = 0;
+                        matchedWords[slot] = 0;
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = slot;
+                    } else if (matchedWords[slot] < wordIndex) {
+                        // Missed an earlier word
+                        continue;
+                    }
+                    int frequency = postings.fieldFrequencies[i] & 0xFFFFFF;
+                    scores[slot] += FIELDS[field].getWeight() * idf * saturation(frequency, field, cell);
+                    matchedWords[slot] = wordIndex + 1;
+                }
+            }
+            wordIndex++;
+        }
+
+        // Best `limit` matches: min-heap on score, ties broken by the lower item ID
+        Comparator<Integer> ranking = (a, b) -> {
+            int order = Double.compare(scores[a], scores[b]);
+            return order != 0 ? order : Integer.compare(itemIds[b], itemIds[a]);
+        };
+        PriorityQueue<Integer> best = new PriorityQueue<>(Math.min(limit, 1024) + 1, ranking);
+        for (int i = 0; i < touchedCount; i++) {
+            int slot = touched[i];
+            if (matchedWords[slot] != words.size()
+                    || (best.size() == limit && ranking.compare(slot, best.peek()) <= 0)
+                    || (accept != null && !accept.test(itemIds[slot]))) {
+                continue;
+            }
+            best.add(slot);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        while (!best.isEmpty()) {
+            results.addFirst(itemIds[best.poll()]);
+        }
+        return results;
+    }
+
+    /**
+     * Lower-case words of a text, accents removed (e.g. "Crème brûlée" -> [creme, brulee])
+     */
+    public static LinkedList<String> tokenize(String text) {
+        LinkedList<String> tokens = new LinkedList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String plain = text;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 127) {
+                plain = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+                break;
+            }
+        }
+        plain = plain.toLowerCase(Locale.ROOT);
+
+        int start = -1;
+        for (int i = 0; i <= plain.length(); i++) {
+            boolean wordChar = i < plain.length() && Character.isLetterOrDigit(plain.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(plain.substring(start, Math.min(i, start + MAX_TERM_LENGTH)));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // ============ HELPER METHODS ============
+
+    private void put(int itemId, Field field, Collection<String> texts, byte source) {
+        int slot = slotOf(itemId);
+        int cell = slot * FIELDS.length + field.ordinal();
+        if (source == FROM_DATABASE && sources[cell] == FROM_MEMORY) {
+            return;
+        }
+        clearCell(cell);
+
+        HashMap<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String text : texts) {
+            for (String token : tokenize(text)) {
+                frequencies.merge(token, 1, Integer::sum);
+                length++;
+            }
+        }
+
+        Postings[] used = new Postings[frequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            Postings postings = terms.computeIfAbsent(entry.getKey(), Postings::new);
+            postings.add(slot, generations[cell], field.ordinal(), entry.getValue());
+            used[i++] = postings;
+        }
+        cellTerms[cell] = used;
+        fieldLengths[cell] = length;
+        totalFieldLengths[field.ordinal()] += length;
+        sources[cell] = source;
+    }
+
+    /**
+     * Make a field's postings stale and forget its length
+     */
+    private void clearCell(int cell) {
+        Postings[] old = cellTerms[cell];
+        generations[cell]++;
+        if (old != null) {
+            for (Postings postings : old) {
+                postings.stale++;
+                if (postings.stale * 2 > postings.size) {
+                    postings.compact(generations, FIELDS.length);
+                    if (postings.size == 0) {
+                        terms.remove(postings.term);
+                    }
+                }
+            }
+        }
+        totalFieldLengths[cell % FIELDS.length] -= fieldLengths[cell];
+        fieldLengths[cell] = 0;
+        cellTerms[cell] = null;
+        sources[cell] = NOT_INDEXED;
+    }
+
+    private int slotOf(int itemId) {
+        Integer slot = slotsByItemId.get(itemId);
+        if (slot != null) {
+            return slot;
+        }
+        if (freeSlots.isEmpty()) {
+            slot = slotCount++;
+            if (slot == itemIds.length) {
+                grow(Math.max(64, slot * 2));
+            }
+        } else {
+            slot = freeSlots.pop();
+        }
+        itemIds[slot] = itemId;
+        slotsByItemId.put(itemId, slot);
+        documentCount++;
+        return slot;
+    }
+
+    private void grow(int slots) {
+        itemIds = Arrays.copyOf(itemIds, slots);
+        generations = Arrays.copyOf(generations, slots * FIELDS.length);
+        fieldLengths = Arrays.copyOf(fieldLengths, slots * FIELDS.length);
+        sources = Arrays.copyOf(sources, slots * FIELDS.length);
+        cellTerms = Arrays.copyOf(cellTerms, slots * FIELDS.length);
+        scores = Arrays.copyOf(scores, slots);
+        matchedWords = Arrays.copyOf(matchedWords, slots);
+        stamps = Arrays.copyOf(stamps, slots);
+    }
+
+    /**
+     * Postings of a word, or of the most frequent terms it is a prefix of
+     */
+    private Collection<Postings> matchingTerms(String word, boolean prefix) {
+        if (!prefix) {
+            Postings postings = terms.get(word);
+            return postings == null ? Collections.emptyList() : Collections.singletonList(postings);
+        }
+        ArrayList<Postings> matches = new ArrayList<>(
+                terms.subMap(word, true, word + Character.MAX_VALUE, false).values());
+        if (matches.size() > MAX_PREFIX_TERMS) {
+            matches.sort((a, b) -> Integer.compare(b.liveCount(), a.liveCount()));
+            return matches.subList(0, MAX_PREFIX_TERMS);
+        }
+        return matches;
+    }
+
+    /**
+     * BM25 inverse document frequency, counting (formulation, field) pairs
+     */
+    private double idf(int entries) {
+        double n = Math.min(entries, documentCount);
+        return Math.log(1 + (documentCount - n + 0.5) / (n + 0.5));
+    }
+
+    /**
+     * BM25 term-frequency part, normalized by the field's length against its average
+     */
+    private double saturation(int frequency, int field, int cell) {
+        double averageLength = Math.max(1.0, (double) totalFieldLengths[field] / documentCount);
+        double norm = K1 * (1 - B + B * fieldLengths[cell] / averageLength);
+        return frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    /**
+     * Entries of one term: slot, generation of the slot's field when added, field << 24 | frequency
+     */
+    private static class Postings {
+        final String term;
+        int[] slots = new int[2];
+        int[] generations = new int[2];
+        int[] fieldFrequencies = new int[2];
+        int size = 0;
+        int stale = 0;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        int liveCount() {
+            return size - stale;
+        }
+
+        void add(int slot, int generation, int field, int frequency) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                generations = Arrays.copyOf(generations, size * 2);
+                fieldFrequencies = Arrays.copyOf(fieldFrequencies, size * 2);
+            }
+            slots[size] = slot;
+            generations[size] = generation;
+            fieldFrequencies[size] = field << 24 | Math.min(frequency, 0xFFFFFF);
+            size++;
+        }
+
+        /**
+         * Drop the entries of replaced fields
+         */
+        void compact(int[] currentGenerations, int fieldCount) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int cell = slots[i] * fieldCount + (fieldFrequencies[i] >>> 24);
+                if (generations[i] == currentGenerations[cell]) {
+                    slots[kept] = slots[i];
+                    generations[kept] = generations[i];
+                    fieldFrequencies[kept] = fieldFrequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            stale = 0;
+        }
+    }
+}
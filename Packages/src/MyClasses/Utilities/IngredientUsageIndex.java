@@ -0,0 +1,280 @@
+package MyClasses.Utilities;
+
+import MyClasses.Consumables.Drink;
+import MyClasses.Consumables.Food;
+import MyClasses.Consumables.Item;
+import MyClasses.Ingredients.Ingredient;
+import MyClasses.Ingredients.Quantity;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Reverse ingredient index: which formulations use an ingredient
+ * Names are normalized (trimmed, lower case, inner whitespace collapsed). Each name keeps the
+ * formulations listing it (by item ID, with how many lines they list it on) and the total
+ * weight and volume listed, so "where used" is one lookup instead of a scan of every item's
+ * details. An item's lines are replaced as a whole when its ingredient list is edited (it is
+ * the items' IngredientListener) or its stored ingredients are read; lines indexed from memory
+ * are never overwritten by the startup read. One lock guards everything.
+ */
+public class IngredientUsageIndex implements Item.IngredientListener {
+
+    /**
+     * Where an ingredient is used, as of the call that returned it
+     */
+    public static class Usage {
+        private final String name;
+        private final LinkedList<Integer> itemIds;
+        private final int lineCount;
+        private final double totalWeight;
+        private final double totalVolume;
+
+        Usage(String name, Entry entry) {
+            this.name = name;
+            this.itemIds = new LinkedList<>(entry.items.keySet());
+            this.lineCount = entry.lineCount;
+            this.totalWeight = entry.totalWeight;
+            this.totalVolume = entry.totalVolume;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Formulations using the ingredient, in item ID order
+         */
+        public LinkedList<Integer> getItemIds() {
+            return itemIds;
+        }
+
+        public int getFormulationCount() {
+            return itemIds.size();
+        }
+
+        /**
+         * Ingredient lines naming it (a formulation may list it more than once)
+         */
+        public int getLineCount() {
+            return lineCount;
+        }
+
+        public double getTotalWeight() {
+            return totalWeight;
+        }
+
+        public double getTotalVolume() {
+            return totalVolume;
+        }
+    }
+
+    private static class Entry {
+        final String displayName;
+        // item ID -> lines of that item naming the ingredient
+        final TreeMap<Integer, Integer> items = new TreeMap<>();
+        int lineCount;
+        double totalWeight;
+        double totalVolume;
+
+        Entry(String displayName) {
+            this.displayName = displayName;
+        }
+    }
+
+    /**
+     * One ingredient line as counted for an item
+     */
+    private static class Line {
+        final String key;
+        final double weight;
+        final double volume;
+
+        Line(String key, double weight, double volume) {
+            this.key = key;
+            this.weight = weight;
+            this.volume = volume;
+        }
+    }
+
+    private static class ItemLines {
+        final Line[] lines;
+        final boolean fromMemory;
+
+        ItemLines(Line[] lines, boolean fromMemory) {
+            this.lines = lines;
+            this.fromMemory = fromMemory;
+        }
+    }
+
+    private final HashMap<String, Entry> entries = new HashMap<>();
+    private final HashMap<Integer, ItemLines> linesByItem = new HashMap<>();
+
+    // ============ INDEXING ============
+
+    /**
+     * Count an item's current ingredients; does nothing if its details are not loaded (they
+     * are unedited then, so the lines read from the database stay)
+     */
+    public synchronized void indexItem(Item item) {
+        if (!item.isDetailsLoaded()) {
+            return;
+        }
+        LinkedList<Ingredient> ingredients = item instanceof Food ? ((Food) item).getIngredients()
+                : item instanceof Drink ? ((Drink) item).getIngredients() : null;
+        put(item.getItemID(), ingredients, true);
+    }
+
+    @Override
+    public void ingredientsChanged(Item item) {
+        indexItem(item);
+    }
+
+    /**
+     * Count an item's stored ingredients; ignored if its lines were indexed from memory meanwhile
+     */
+    public synchronized void indexStoredIngredients(int itemId, Collection<Ingredient> ingredients) {
+        ItemLines current = linesByItem.get(itemId);
+        if (current == null || !current.fromMemory) {
+            put(itemId, ingredients, false);
+        }
+    }
+
+    /**
+     * Replace an item's lines with its stored ingredients (e.g. after another instance changed it)
+     */
+    public synchronized void replaceStoredIngredients(int itemId, Collection<Ingredient> ingredients) {
+        put(itemId, ingredients, true);
+    }
+
+    public synchronized void removeItem(int itemId) {
+        ItemLines old = linesByItem.remove(itemId);
+        if (old != null) {
+            uncount(itemId, old.lines);
+        }
+    }
+
+    // ============ QUERIES ============
+
+    /**
+     * Where an ingredient is used, or null if no formulation lists it
+     */
+    public synchronized Usage getUsage(String ingredientName) {
+        String key = normalize(ingredientName);
+        Entry entry = entries.get(key);
+        return entry == null ? null : new Usage(entry.displayName, entry);
+    }
+
+    /**
+     * IDs of the formulations listing an ingredient, in item ID order
+     */
+    public synchronized LinkedList<Integer> getItemIds(String ingredientName) {
+        Entry entry = entries.get(normalize(ingredientName));
+        return entry == null ? new LinkedList<>() : new LinkedList<>(entry.items.keySet());
+    }
+
+    /**
+     * The ingredients used by the most formulations, most used first
+     */
+    public synchronized LinkedList<Usage> getMostUsed(int limit) {
+        PriorityQueue<Entry> best = new PriorityQueue<>((a, b) -> Integer.compare(a.items.size(), b.items.size()));
+        for (Entry entry : entries.values()) {
+            best.add(entry);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        LinkedList<Usage> usages = new LinkedList<>();
+        while (!best.isEmpty()) {
+            Entry entry = best.poll();
+            usages.addFirst(new Usage(entry.displayName, entry));
+        }
+        return usages;
+    }
+
+    /**
+     * Number of distinct ingredient names
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Lookup key of an ingredient name ("  Whole  Milk " -> "whole milk")
+     */
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(name.length());
+        boolean space = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+            } else {
+                if (space) {
+                    sb.append(' ');
+                    space = false;
+                }
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    // ============ HELPER METHODS ============
+
+    private void put(int itemId, Collection<Ingredient> ingredients, boolean fromMemory) {
+        ItemLines old = linesByItem.get(itemId);
+        if (old != null) {
+            uncount(itemId, old.lines);
+        }
+
+        Line[] lines = new Line[ingredients == null ? 0 : ingredients.size()];
+        int i = 0;
+        if (ingredients != null) {
+            for (Ingredient ingredient : ingredients) {
+                Quantity quantity = ingredient.getQuantity();
+                Line line = new Line(normalize(ingredient.getName()),
+                        quantity != null ? quantity.getWeight() : 0, quantity != null ? quantity.getVolume() : 0);
+                lines[i++] = line;
+                if (line.key.isEmpty()) {
+                    continue;
+                }
+                Entry entry = entries.computeIfAbsent(line.key,
+                        key -> new Entry(ingredient.getName().trim().replaceAll("\\s+", " ")));
+                entry.items.merge(itemId, 1, Integer::sum);
+                entry.lineCount++;
+                entry.totalWeight += line.weight;
+                entry.totalVolume += line.volume;
+            }
+        }
+        linesByItem.put(itemId, new ItemLines(lines, fromMemory));
+    }
+
+    private void uncount(int itemId, Line[] lines) {
+        for (Line line : lines) {
+            Entry entry = entries.get(line.key);
+            if (entry == null) {
+                continue;
+            }
+            Integer count = entry.items.get(itemId);
+            if (count != null && count > 1) {
+                entry.items.put(itemId, count - 1);
+            } else {
+                entry.items.remove(itemId);
+            }
+            entry.lineCount--;
+            entry.totalWeight -= line.weight;
+            entry.totalVolume -= line.volume;
+            if (entry.items.isEmpty()) {
+                entries.remove(line.key);
+            }
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package MyClasses.Utilities;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+
+/**
+ * Append-only notification log split into memory-mapped segment files
+ *
+ * Segment layout (big-endian):
+ *   header  magic "FDNL" (int), format version (short), unused (short)
+ *   records [byte type][...]; a type byte of 0 marks the end of the written data
+ *
+ * Record types:
+ *   SENT    [int length][payload]   full notification, written once when it is sent
+ *   NOTE    [int length][payload]   resolution notes, always followed by a STATUS record
+ *   STATUS  fixed 16 bytes          status byte, notification id, timestamp (plus padding)
+ *
+ * Every append writes the record body first, then an end marker after it, and its type byte
+ * last, so a record torn by a crash still reads as the end of the log and a shorter record
+ * written over it later is never followed by its leftovers. Reading stops at the first record
+ * that does not fit the segment. Appends never rewrite earlier records; a full segment is
+ * simply followed by a new one.
+ */
+public class NotificationLog {
+
+    static final int MAGIC = 0x46444E4C;    // "FDNL"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int SEGMENT_SIZE = 1024 * 1024;
+
+    private static final byte TYPE_END = 0;
+    private static final byte TYPE_SENT = 1;
+    private static final byte TYPE_NOTE = 2;
+    private static final byte TYPE_STATUS = 3;
+    private static final int STATUS_RECORD_SIZE = 16;
+
+    // Status codes stored in STATUS records (index = code)
+    private static final String[] STATUSES = {"PENDING", "RESOLVED", "IGNORED"};
+
+    private final Path directory;
+    private final ArrayList<MappedByteBuffer> segments = new ArrayList<>();
+    private MappedByteBuffer active;
+    private int segmentNumber = 0;
+
+    /**
+     * Callback for replay(), in append order
+     */
+    public interface ReplayHandler {
+        void sent(NotificationSystem.Notification notification);
+
+        void statusChanged(int notificationId, String status, Date when, String notes);
+    }
+
+    /**
+     * Open (or create) the log in a directory; existing segments are mapped, not read yet
+     */
+    public NotificationLog(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+
+        ArrayList<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "segment-*.log")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+
+        for (Path file : files) {
+            MappedByteBuffer segment = map(file, Files.size(file));
+            if (segment.getInt(0) != MAGIC) {
+                throw new IOException("Not a notification log segment: " + file);
+            }
+            segments.add(segment);
+            segmentNumber = Math.max(segmentNumber, parseSegmentNumber(file));
+        }
+
+        if (segments.isEmpty()) {
+            newSegment(SEGMENT_SIZE);
+        } else {
+            active = segments.get(segments.size() - 1);
+            active.position(findEnd(active));
+        }
+    }
+
+    /**
+     * True if nothing has been appended yet
+     */
+    public synchronized boolean isEmpty() {
+        return segments.size() == 1 && active.position() == HEADER_SIZE;
+    }
+
+    /**
+     * Read every record back, oldest first
+     */
+    public synchronized void replay(ReplayHandler handler) {
+        HashMap<Integer, String> pendingNotes = new HashMap<>();
+
+        for (MappedByteBuffer segment : segments) {
+            int end = segment == active ? active.position() : findEnd(segment);
+            int pos = HEADER_SIZE;
+            while (pos < end) {
+                int size = recordSize(segment, pos);
+                if (size < 0) {
+                    System.err.println("⚠ Notification log: unreadable record at " + pos + ", replay stopped");
+                    return;
+                }
+                byte type = segment.get(pos);
+                if (type == TYPE_STATUS) {
+                    String status = STATUSES[segment.get(pos + 1)];
+                    int notificationId = segment.getInt(pos + 4);
+                    Date when = new Date(segment.getLong(pos + 8));
+                    handler.statusChanged(notificationId, status, when, pendingNotes.remove(notificationId));
+                    pos += size;
+                    continue;
+                }
+
+                RecordCursor in = new RecordCursor(segment, pos + 5, pos + size);
+                try {
+                    if (type == TYPE_SENT) {
+                        handler.sent(readNotification(in));
+                    } else {
+                        pendingNotes.put(in.readInt(), in.readString());
+                    }
+                } catch (IndexOutOfBoundsException e) {
+                    System.err.println("⚠ Notification log: unreadable record at " + pos + ", replay stopped");
+                    return;
+                }
+                pos += size;
+            }
+        }
+    }
+
+    /**
+     * Append a newly sent notification
+     */
+    public synchronized void appendSent(NotificationSystem.Notification n) throws IOException {
+        byte[][] strings = {utf8(n.senderAdminName), utf8(n.recipientAuthorName), utf8(n.itemName),
+                utf8(n.issueDescription), utf8(n.severity)};
+        int length = 4 * 4 + 8;
+        for (byte[] s : strings) {
+            length += 4 + (s == null ? 0 : s.length);
+        }
+
+        int pos = reserve(5 + length);
+        active.position(pos + 1);
+        active.putInt(length);
+        active.putInt(n.notificationId);
+        active.putInt(n.senderAdminID);
+        active.putInt(n.recipientAuthorID);
+        active.putInt(n.itemID);
+        active.putLong(n.issueDate != null ? n.issueDate.getTime() : Long.MIN_VALUE);
+        for (byte[] s : strings) {
+            putBytes(s);
+        }
+        publish(pos, TYPE_SENT);
+    }
+
+    /**
+     * Append a status transition (with its notes, if any)
+     */
+    public synchronized void appendStatus(int notificationId, String status, Date when, String notes)
+            throws IOException {
+        int code = statusCode(status);
+
+        if (notes != null) {
+            byte[] text = utf8(notes);
+            int length = 4 + 4 + text.length;
+            int pos = reserve(5 + length);
+            active.position(pos + 1);
+            active.putInt(length);
+            active.putInt(notificationId);
+            putBytes(text);
+            publish(pos, TYPE_NOTE);
+        }
+
+        int pos = reserve(STATUS_RECORD_SIZE);
+        active.position(pos + 1);
+        active.put((byte) code);
+        active.putShort((short) 0);
+        active.putInt(notificationId);
+        active.putLong(when.getTime());
+        publish(pos, TYPE_STATUS);
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    // ============ HELPER METHODS ============
+
+    /**
+     * Position where a record of the given size starts (rolling over to a new segment if needed)
+     */
+    private int reserve(int size) throws IOException {
+        // Keep one byte free so the end marker after the record always fits
+        if (active.remaining() < size + 1) {
+            newSegment(Math.max(SEGMENT_SIZE, HEADER_SIZE + size + 1));
+        }
+        return active.position();
+    }
+
+    /**
+     * Make a fully written record visible: mark the end after it, set its type byte, then flush
+     * (reserve() leaves room for the end marker)
+     */
+    private void publish(int start, byte type) {
+        int end = active.position();
+        active.put(end, TYPE_END);
+        active.put(start, type);
+        active.force(start, end + 1 - start);
+    }
+
+    private void newSegment(int size) throws IOException {
+        segmentNumber++;
+        Path file = directory.resolve(String.format("segment-%05d.log", segmentNumber));
+        MappedByteBuffer segment = map(file, size);
+        segment.putInt(0, MAGIC);
+        segment.putShort(4, (short) FORMAT_VERSION);
+        segment.position(HEADER_SIZE);
+        segment.force(0, HEADER_SIZE);
+        segments.add(segment);
+        active = segment;
+    }
+
+    private static MappedByteBuffer map(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * Offset of the end marker (first slot without a complete record)
+     */
+    private static int findEnd(MappedByteBuffer segment) {
+        int pos = HEADER_SIZE;
+        int size;
+        while ((size = recordSize(segment, pos)) > 0) {
+            pos += size;
+        }
+        return pos;
+    }
+
+    /**
+     * Size of the record at pos, or -1 if there is none: the end marker, or bytes that do not
+     * form a record within the segment (e.g. left by an append torn before this format wrote
+     * end markers)
+     */
+    private static int recordSize(MappedByteBuffer segment, int pos) {
+        int limit = segment.limit();
+        if (pos >= limit) {
+            return -1;
+        }
+        byte type = segment.get(pos);
+        if (type == TYPE_STATUS) {
+            if (limit - pos < STATUS_RECORD_SIZE) {
+                return -1;
+            }
+            byte code = segment.get(pos + 1);
+            return code >= 0 && code < STATUSES.length ? STATUS_RECORD_SIZE : -1;
+        }
+        if ((type != TYPE_SENT && type != TYPE_NOTE) || limit - pos < 5) {
+            return -1;
+        }
+        int length = segment.getInt(pos + 1);
+        return length >= 0 && length <= limit - pos - 5 ? 5 + length : -1;
+    }
+
+    private static int parseSegmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring("segment-".length(), name.length() - ".log".length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static int statusCode(String status) {
+        for (int i = 0; i < STATUSES.length; i++) {
+            if (STATUSES[i].equals(status)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown notification status: " + status);
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void putBytes(byte[] bytes) {
+        if (bytes == null) {
+            active.putInt(-1);
+        } else {
+            active.putInt(bytes.length);
+            active.put(bytes);
+        }
+    }
+
+    private static NotificationSystem.Notification readNotification(RecordCursor in) {
+        int notificationId = in.readInt();
+        int senderAdminID = in.readInt();
+        int recipientAuthorID = in.readInt();
+        int itemID = in.readInt();
+        long issued = in.readLong();
+        return new NotificationSystem.Notification(notificationId, senderAdminID, in.readString(),
+                recipientAuthorID, in.readString(), itemID, in.readString(), in.readString(),
+                in.readString(), issued == Long.MIN_VALUE ? null : new Date(issued), "PENDING");
+    }
+
+    // ============ INNER CLASS: RECORD CURSOR ============
+
+    /**
+     * Sequential reader over one record inside a segment; reading past the record throws
+     * IndexOutOfBoundsException
+     */
+    private static class RecordCursor {
+        private final MappedByteBuffer segment;
+        private final int end;
+        private int pos;
+
+        RecordCursor(MappedByteBuffer segment, int pos, int end) {
+            this.segment = segment;
+            this.pos = pos;
+            this.end = end;
+        }
+
+        int readInt() {
+            check(4);
+            int value = segment.getInt(pos);
+            pos += 4;
+            return value;
+        }
+
+        long readLong() {
+            check(8);
+            long value = segment.getLong(pos);
+            pos += 8;
+            return value;
+        }
+
+        String readString() {
+            int length = readInt();
+            if (length < 0) {
+                return null;
+            }
+            check(length);
+            byte[] bytes = new byte[length];
+            segment.get(pos, bytes);
+            pos += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void check(int length) {
+            if (length > end - pos) {
+                throw new IndexOutOfBoundsException("Field runs past the record end at " + end);
+            }
+        }
+    }
+}
@@ -5,25 +5,40 @@ import MyClasses.Persons.Author;
 import MyClasses.Consumables.Item;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.LinkedList;
 
-
+/**
+ * Admin -> Author notifications about formulation issues
+ * Every change is one append to a memory-mapped NotificationLog (under data/notifications/);
+ * notifications are indexed in memory by ID and per recipient author, and each author's
+ * inbox keeps its own pending counter.
+ */
 public class NotificationSystem {
 
-    private static final String NOTIFICATIONS_FILE = "data/notifications.dat";
-    private LinkedList<Notification> notifications;
+    private static final String NOTIFICATIONS_DIR = "data/notifications";
+    // Single-file format used before the log; imported once, then renamed
+    private static final String LEGACY_NOTIFICATIONS_FILE = "data/notifications.dat";
+
+    private final LinkedList<Notification> notifications = new LinkedList<>();
+    private final HashMap<Integer, Notification> notificationsById = new HashMap<>();
+    private final HashMap<Integer, Inbox> inboxes = new HashMap<>();
+    private NotificationLog log;
+    private int nextNotificationId = 1;
 
     public NotificationSystem() {
-        this.notifications = new LinkedList<>();
         loadNotifications();
     }
 
     /**
      * Admin sends notification to Author about formulation issue
      */
-    public Notification sendNotification(Admin admin, Author author, Item item, String issueDescription, String severity) {
+    public synchronized Notification sendNotification(Admin admin, Author author, Item item, String issueDescription, String severity) {
         Notification notification = new Notification(
                 generateNotificationId(),
                 admin.getAdminID(),
@@ -38,8 +53,14 @@ public class NotificationSystem {
                 "PENDING"
         );
 
-        notifications.add(notification);
-        saveNotifications();
+        index(notification);
+        if (log != null) {
+            try {
+                log.appendSent(notification);
+            } catch (IOException e) {
+                System.err.println("Error saving notification: " + e.getMessage());
+            }
+        }
 
         System.out.println("✓ Notification sent to " + author.getName());
         return notification;
@@ -48,46 +69,39 @@ public class NotificationSystem {
     /**
      * Author views their notifications
      */
-    public LinkedList<Notification> getNotificationsForAuthor(int authorID) {
-        LinkedList<Notification> authorNotifications = new LinkedList<>();
-
-        for (Notification notif : notifications) {
-            if (notif.recipientAuthorID == authorID) {
-                authorNotifications.add(notif);
-            }
-        }
-
-        return authorNotifications;
+    public synchronized LinkedList<Notification> getNotificationsForAuthor(int authorID) {
+        Inbox inbox = inboxes.get(authorID);
+        return inbox == null ? new LinkedList<>() : new LinkedList<>(inbox.notifications);
     }
 
     /**
      * Author marks notification as resolved
      */
-    public void markAsResolved(int notificationId, String resolutionNotes) {
-        for (Notification notif : notifications) {
-            if (notif.notificationId == notificationId) {
-                notif.status = "RESOLVED";
-                notif.resolutionDate = new Date();
-                notif.resolutionNotes = resolutionNotes;
-                saveNotifications();
-                System.out.println("✓ Notification marked as resolved");
-                return;
+    public synchronized void markAsResolved(int notificationId, String resolutionNotes) {
+        Notification notif = notificationsById.get(notificationId);
+        if (notif == null) {
+            System.out.println("⚠ Notification not found");
+            return;
+        }
+
+        Date now = new Date();
+        applyStatus(notif, "RESOLVED", now, resolutionNotes);
+        if (log != null) {
+            try {
+                log.appendStatus(notificationId, "RESOLVED", now, resolutionNotes);
+            } catch (IOException e) {
+                System.err.println("Error saving notification: " + e.getMessage());
             }
         }
-        System.out.println("⚠ Notification not found");
+        System.out.println("✓ Notification marked as resolved");
     }
 
     /**
      * Get pending notifications count for author
      */
-    public int getPendingCount(int authorID) {
-        int count = 0;
-        for (Notification notif : notifications) {
-            if (notif.recipientAuthorID == authorID && "PENDING".equals(notif.status)) {
-                count++;
-            }
-        }
-        return count;
+    public synchronized int getPendingCount(int authorID) {
+        Inbox inbox = inboxes.get(authorID);
+        return inbox == null ? 0 : inbox.pending;
     }
 
     /**
@@ -108,49 +122,131 @@ public class NotificationSystem {
         }
     }
 
+    // ============ INDEXING ============
+
+    private void index(Notification notification) {
+        notifications.add(notification);
+        notificationsById.put(notification.notificationId, notification);
+        nextNotificationId = Math.max(nextNotificationId, notification.notificationId + 1);
+
+        Inbox inbox = inboxes.computeIfAbsent(notification.recipientAuthorID, id -> new Inbox());
+        inbox.notifications.add(notification);
+        if ("PENDING".equals(notification.status)) {
+            inbox.pending++;
+        }
+    }
+
     /**
-     * Save notifications to file
+     * Change a notification's status, keeping its inbox's pending counter in step
      */
-    private void saveNotifications() {
-        try {
-            // Create directory if it doesn't exist
-            File file = new File(NOTIFICATIONS_FILE);
-            file.getParentFile().mkdirs();
+    private void applyStatus(Notification notif, String status, Date when, String notes) {
+        Inbox inbox = inboxes.get(notif.recipientAuthorID);
+        boolean wasPending = "PENDING".equals(notif.status);
+        boolean isPending = "PENDING".equals(status);
+        if (inbox != null && wasPending != isPending) {
+            inbox.pending += isPending ? 1 : -1;
+        }
 
-            // Write to file
-            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(NOTIFICATIONS_FILE))) {
-                oos.writeObject(notifications);
-            }
-        } catch (IOException e) {
-            System.err.println("Error saving notifications: " + e.getMessage());
+        notif.status = status;
+        if (!isPending) {
+            notif.resolutionDate = when;
+            notif.resolutionNotes = notes;
         }
     }
 
+    // ============ PERSISTENCE ============
+
     /**
-     * Load notifications from file
+     * Open the notification log and rebuild the in-memory indexes from it
      */
-    @SuppressWarnings("unchecked")
     private void loadNotifications() {
         try {
-            File file = new File(NOTIFICATIONS_FILE);
-            if (!file.exists()) {
-                return; // No file yet, start fresh
+            log = new NotificationLog(Paths.get(NOTIFICATIONS_DIR));
+            log.replay(new NotificationLog.ReplayHandler() {
+                @Override
+                public void sent(Notification notification) {
+                    index(notification);
+                }
+
+                @Override
+                public void statusChanged(int notificationId, String status, Date when, String notes) {
+                    Notification notif = notificationsById.get(notificationId);
+                    if (notif != null) {
+                        applyStatus(notif, status, when, notes);
+                    }
+                }
+            });
+
+            if (log.isEmpty()) {
+                importLegacyNotifications();
             }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error loading notifications: " + e.getMessage());
+            System.err.println("⚠ Notifications will not be saved this session");
+            log = null;
+        }
+    }
+
+    /**
+     * Move notifications from the old single-file format (binary snapshot or Java
+     * serialization) into the log, then set the old file aside
+     */
+    @SuppressWarnings("unchecked")
+    private void importLegacyNotifications() throws IOException {
+        File file = new File(LEGACY_NOTIFICATIONS_FILE);
+        if (!file.exists()) {
+            return; // No file yet, start fresh
+        }
 
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(NOTIFICATIONS_FILE))) {
-                notifications = (LinkedList<Notification>) ois.readObject();
+        LinkedList<Notification> legacy = new LinkedList<>();
+        if (SnapshotReader.isSnapshot(file.toPath())) {
+            try (SnapshotReader reader = new SnapshotReader(file.toPath(), SnapshotCodec.NOTIFICATIONS)) {
+                for (int i = 0; i < reader.getRecordCount(); i++) {
+                    legacy.add(Notification.readFrom(reader.record(i)));
+                }
+            }
+        } else {
+            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
+                legacy = (LinkedList<Notification>) ois.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e.getMessage(), e);
             }
-        } catch (IOException | ClassNotFoundException e) {
-            System.err.println("Error loading notifications: " + e.getMessage());
-            notifications = new LinkedList<>();
         }
+
+        for (Notification notif : legacy) {
+            String status = notif.status;
+            Date resolved = notif.resolutionDate;
+            String notes = notif.resolutionNotes;
+
+            notif.status = "PENDING";
+            index(notif);
+            log.appendSent(notif);
+            if (!"PENDING".equals(status)) {
+                applyStatus(notif, status, resolved, notes);
+                log.appendStatus(notif.notificationId, status, resolved != null ? resolved : new Date(), notes);
+            }
+        }
+
+        Files.move(file.toPath(), Paths.get(LEGACY_NOTIFICATIONS_FILE + ".migrated"),
+                StandardCopyOption.REPLACE_EXISTING);
+        System.out.println("✓ Imported " + legacy.size() + " notification(s) into the notification log");
     }
 
     /**
      * Generate unique notification ID
      */
     private int generateNotificationId() {
-        return notifications.size() + 1;
+        return nextNotificationId++;
+    }
+
+    // ============ INNER CLASS: INBOX ============
+
+    /**
+     * One author's notifications (in arrival order) and how many are still pending
+     */
+    private static class Inbox {
+        final LinkedList<Notification> notifications = new LinkedList<>();
+        int pending = 0;
     }
 
     // ============ INNER CLASS: NOTIFICATION ============
@@ -189,6 +285,18 @@ public class NotificationSystem {
             this.status = status;
         }
 
+        /**
+         * Record from a data/notifications.dat snapshot (format used before NotificationLog)
+         */
+        static Notification readFrom(SnapshotReader.RecordInput in) {
+            Notification notification = new Notification(in.readInt(), in.readInt(), in.readString(),
+                    in.readInt(), in.readString(), in.readInt(), in.readString(), in.readString(),
+                    in.readString(), in.readDate(), in.readString());
+            notification.resolutionDate = in.readDate();
+            notification.resolutionNotes = in.readString();
+            return notification;
+        }
+
         @Override
         public String toString() {
             SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
@@ -0,0 +1,618 @@
+package MyClasses.Utilities;
+
+import MyClasses.Conditions.Conservecondition;
+import MyClasses.Conditions.Consumpcondition;
+import MyClasses.Conditions.Optcondition;
+import MyClasses.Conditions.Prepprotocol;
+import MyClasses.Consumables.Drink;
+import MyClasses.Consumables.Food;
+import MyClasses.Consumables.Item;
+import MyClasses.Feedback;
+import MyClasses.Ingredients.Ingredient;
+import MyClasses.Ingredients.Quantity;
+import MyClasses.Persons.Admin;
+import MyClasses.Persons.Author;
+import MyClasses.Persons.ConsumerSpecificInfo;
+import MyClasses.Persons.Customer;
+import MyClasses.Persons.Person;
+import MyClasses.Restrictions.Trademarkinfo;
+import MyClasses.Restrictions.Veto;
+import MyClasses.SideEffects;
+import MyClasses.Utilities.SnapshotReader.RecordInput;
+import MyClasses.Utilities.SnapshotWriter.RecordOutput;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Record layouts of the domain objects in snapshot files
+ * References between objects are stored as IDs instead of nested copies (an item records
+ * its author's ID, an author its items' IDs), so every object is written exactly once and
+ * the graph is re-linked after loading. Bump the schema version of a kind when its layout
+ * changes, and keep reading the older versions.
+ */
+public class SnapshotCodec {
+
+    // Snapshot kinds
+    public static final int ADMINS = 1;
+    public static final int AUTHORS = 2;
+    public static final int CUSTOMERS = 3;
+    public static final int FORMULATIONS = 4;
+    public static final int AUDIT_TRAIL = 5;
+    public static final int NOTIFICATIONS = 6;
+    public static final int FORMULATION_SUMMARIES = 7;
+
+    // 2: customers and formulation summaries end with their database row version
+    public static final int SCHEMA_VERSION = 2;
+
+    private static final int FOOD = 0;
+    private static final int DRINK = 1;
+    private static final int NO_ID = Integer.MIN_VALUE;
+
+    private SnapshotCodec() {
+    }
+
+    // ============ PERSONS ============
+
+    public static void writeAdmin(RecordOutput out, Admin admin) {
+        out.writeInt(admin.getAdminID());
+        writePerson(out, admin);
+    }
+
+    /**
+     * Admin account (its catalog/account lists are attached by the application after loading)
+     */
+    public static Admin readAdmin(RecordInput in, int schemaVersion) {
+        // Built through the full constructor so the ADMIN role is set, as for a new account
+        Admin admin = new Admin(in.readInt(), null, null, null, null, null);
+        readPerson(in, admin);
+        return admin;
+    }
+
+    public static void writeAuthor(RecordOutput out, Author author) {
+        out.writeInt(author.getAuthorID());
+        writePerson(out, author);
+        writeItemIds(out, author.getFormulatedItems());
+    }
+
+    /**
+     * Author with its formulated items resolved through itemsById (unknown IDs are skipped)
+     */
+    public static Author readAuthor(RecordInput in, int schemaVersion, Map<Integer, Item> itemsById) {
+        Author author = new Author(in.readInt(), null, null, null, null);
+        readPerson(in, author);
+        readItemIds(in, itemsById, author.getFormulatedItems());
+        return author;
+    }
+
+    public static void writeCustomer(RecordOutput out, Customer customer) {
+        out.writeInt(customer.getCustomerID());
+        out.writeInt(customer.getAge());
+        writePerson(out, customer);
+        writeConsumerInfo(out, customer.getInfo());
+        writeItemIds(out, customer.getFavoriteFormulations());
+        writeItemIds(out, customer.getAvailableFormulations());
+
+        out.writeInt(customer.getFeedbackHistory().size());
+        for (Feedback feedback : customer.getFeedbackHistory()) {
+            writeFeedback(out, feedback);
+        }
+
+        out.writeInt(customer.getPurchasedItems().size());
+        for (Customer.PurchaseRecord purchase : customer.getPurchasedItems().values()) {
+            out.writeInt(purchase.getItemID());
+            out.writeString(purchase.getItemName());
+            out.writeDouble(purchase.getPrice());
+            out.writeDate(purchase.getPurchaseDate());
+            out.writeString(purchase.getPaymentMethod());
+        }
+        out.writeInt(customer.getVersion());
+    }
+
+    public static Customer readCustomer(RecordInput in, int schemaVersion, Map<Integer, Item> itemsById) {
+        Customer customer = new Customer(in.readInt(), in.readInt());
+        readPerson(in, customer);
+        customer.setInfo(readConsumerInfo(in));
+        readItemIds(in, itemsById, customer.getFavoriteFormulations());
+        readItemIds(in, itemsById, customer.getAvailableFormulations());
+
+        int feedbackCount = in.readInt();
+        for (int i = 0; i < feedbackCount; i++) {
+            customer.getFeedbackHistory().add(readFeedback(in));
+        }
+
+        int purchaseCount = in.readInt();
+        for (int i = 0; i < purchaseCount; i++) {
+            Customer.PurchaseRecord purchase = new Customer.PurchaseRecord(
+                    in.readInt(), in.readString(), in.readDouble(), in.readDate(), in.readString());
+            customer.getPurchasedItems().put(purchase.getItemID(), purchase);
+        }
+        if (schemaVersion >= 2) {
+            customer.setVersion(in.readInt());
+        }
+        return customer;
+    }
+
+    // ============ ITEMS ============
+
+    /**
+     * Item with all its details; its author and co-authors are stored as author IDs
+     */
+    public static void writeItem(RecordOutput out, Item item) {
+        ItemParts parts = ItemParts.of(item);
+        out.writeInt(item instanceof Food ? FOOD : DRINK);
+        out.writeInt(item.getItemID());
+        out.writeInt(parts.typeId);
+        out.writeString(item.getName());
+        out.writeDouble(item.getPrice());
+        out.writeDate(item.getEntryDate());
+        out.writeString(item.getExpiryDate());
+        out.writeDouble(parts.averagePricePerKg);
+
+        out.writeInt(item.getAuthor() != null ? item.getAuthor().getAuthorID() : NO_ID);
+        out.writeInt(parts.authors.size());
+        for (Author author : parts.authors) {
+            out.writeInt(author.getAuthorID());
+        }
+
+        out.writeInt(parts.ingredients.size());
+        for (Ingredient ingredient : parts.ingredients) {
+            out.writeInt(ingredient.getIngredientID());
+            out.writeString(ingredient.getName());
+            Quantity quantity = ingredient.getQuantity();
+            out.writeBoolean(quantity != null);
+            if (quantity != null) {
+                out.writeDouble(quantity.getWeight());
+                out.writeDouble(quantity.getVolume());
+                out.writeDouble(quantity.getFraction());
+                out.writeString(quantity.getUnit());
+            }
+        }
+
+        writeOptcondition(out, parts.labCondition);
+        out.writeStrings(parts.standards);
+
+        out.writeBoolean(parts.prepprotocol != null);
+        if (parts.prepprotocol != null) {
+            out.writeStrings(parts.prepprotocol.getSteps());
+            out.writeInt(parts.prepprotocol.getStepConditions().size());
+            for (Optcondition condition : parts.prepprotocol.getStepConditions()) {
+                writeOptcondition(out, condition);
+            }
+        }
+
+        out.writeInt(parts.feedbacks.size());
+        for (Feedback feedback : parts.feedbacks) {
+            writeFeedback(out, feedback);
+        }
+
+        out.writeBoolean(parts.conservecondition != null);
+        if (parts.conservecondition != null) {
+            out.writeDouble(parts.conservecondition.getTemp());
+            out.writeDouble(parts.conservecondition.getMoisture());
+            out.writeString(parts.conservecondition.getContainer());
+        }
+
+        out.writeBoolean(parts.consumpcondition != null);
+        if (parts.consumpcondition != null) {
+            out.writeDouble(parts.consumpcondition.getTemperature());
+            out.writeDouble(parts.consumpcondition.getMoisture());
+        }
+
+        out.writeBoolean(parts.trademarkInfo != null);
+        if (parts.trademarkInfo != null) {
+            out.writeString(parts.trademarkInfo.date);
+            out.writeString(parts.trademarkInfo.authority);
+            out.writeInt(parts.trademarkInfo.authorizationnumber);
+            out.writeDate(parts.trademarkInfo.issueDate);
+        }
+
+        // Veto initiator is not stored (same as the database)
+        out.writeBoolean(parts.veto != null);
+        if (parts.veto != null) {
+            out.writeBoolean(parts.veto.isVetoed);
+            out.writeString(parts.veto.reason);
+            out.writeDate(parts.veto.date);
+        }
+
+        writeConsumerInfo(out, parts.consumerProfile);
+        writeConsumerInfo(out, parts.positiveImpacts);
+
+        out.writeBoolean(parts.sideEffects != null);
+        if (parts.sideEffects != null) {
+            writeConsumerInfo(out, parts.sideEffects.getExposedConsumerProfile());
+            out.writeStrings(parts.sideEffects.getSymptoms());
+            out.writeStrings(parts.sideEffects.getRemedies());
+        }
+    }
+
+    /**
+     * Item read back; the author IDs it referenced are added to authorLinks
+     * (see linkAuthors) so authors can be attached once they are loaded
+     */
+    public static Item readItem(RecordInput in, int schemaVersion, AuthorLinks authorLinks) {
+        int type = in.readInt();
+        Item item = type == FOOD ? new Food() : new Drink();
+        ItemParts parts = new ItemParts();
+
+        item.setItemID(in.readInt());
+        parts.typeId = in.readInt();
+        item.setName(in.readString());
+        item.setPrice(in.readDouble());
+        item.setEntryDate(in.readDate());
+        item.setExpiryDate(in.readString());
+        parts.averagePricePerKg = in.readDouble();
+
+        int authorId = in.readInt();
+        if (authorId != NO_ID) {
+            authorLinks.mainAuthors.put(item.getItemID(), authorId);
+        }
+        int coAuthorCount = in.readInt();
+        for (int i = 0; i < coAuthorCount; i++) {
+            authorLinks.coAuthors.computeIfAbsent(item.getItemID(), k -> new LinkedList<>()).add(in.readInt());
+        }
+
+        int ingredientCount = in.readInt();
+        for (int i = 0; i < ingredientCount; i++) {
+            int ingredientId = in.readInt();
+            String name = in.readString();
+            Quantity quantity = null;
+            if (in.readBoolean()) {
+                quantity = new Quantity(in.readDouble(), in.readDouble(), in.readDouble(), in.readString());
+            }
+            parts.ingredients.add(new Ingredient(ingredientId, name, quantity));
+        }
+
+        parts.labCondition = readOptcondition(in);
+        LinkedList<String> standards = in.readStrings();
+        if (standards != null) {
+            parts.standards.addAll(standards);
+        }
+
+        if (in.readBoolean()) {
+            Prepprotocol protocol = new Prepprotocol();
+            LinkedList<String> steps = in.readStrings();
+            protocol.setSteps(steps != null ? steps : new LinkedList<>());
+            LinkedList<Optcondition> stepConditions = new LinkedList<>();
+            int conditionCount = in.readInt();
+            for (int i = 0; i < conditionCount; i++) {
+                stepConditions.add(readOptcondition(in));
+            }
+            protocol.setStepConditions(stepConditions);
+            parts.prepprotocol = protocol;
+        }
+
+        int feedbackCount = in.readInt();
+        for (int i = 0; i < feedbackCount; i++) {
+            parts.feedbacks.add(readFeedback(in));
+        }
+
+        if (in.readBoolean()) {
+            parts.conservecondition = new Conservecondition(in.readDouble(), in.readDouble(), in.readString());
+        }
+        if (in.readBoolean()) {
+            parts.consumpcondition = new Consumpcondition(in.readDouble(), in.readDouble());
+        }
+        if (in.readBoolean()) {
+            Trademarkinfo trademark = new Trademarkinfo();
+            trademark.date = in.readString();
+            trademark.authority = in.readString();
+            trademark.authorizationnumber = in.readInt();
+            trademark.issueDate = in.readDate();
+            parts.trademarkInfo = trademark;
+        }
+        if (in.readBoolean()) {
+            parts.veto = new Veto(in.readBoolean(), in.readString(), in.readDate(), null);
+        }
+
+        parts.consumerProfile = readConsumerInfo(in);
+        parts.positiveImpacts = readConsumerInfo(in);
+
+        if (in.readBoolean()) {
+            SideEffects sideEffects = new SideEffects(readConsumerInfo(in));
+            addAll(sideEffects.getSymptoms(), in.readStrings());
+            addAll(sideEffects.getRemedies(), in.readStrings());
+            parts.sideEffects = sideEffects;
+        }
+
+        parts.applyTo(item);
+        return item;
+    }
+
+    /**
+     * Item summary as the database loads it (base row and veto); details are not included
+     * and must not be read here, since reading them would fetch them through the detail cache
+     */
+    public static void writeItemSummary(RecordOutput out, Item item) {
+        Veto veto = item instanceof Food ? ((Food) item).getVeto() : ((Drink) item).getVeto();
+        out.writeInt(item instanceof Food ? FOOD : DRINK);
+        out.writeInt(item.getItemID());
+        out.writeString(item.getName());
+        out.writeDouble(item.getPrice());
+        out.writeString(item.getExpiryDate());
+        out.writeDouble(item instanceof Food ? ((Food) item).getAveragePricePerKg()
+                : ((Drink) item).getAveragePricePerKg());
+
+        out.writeBoolean(veto != null);
+        if (veto != null) {
+            out.writeBoolean(veto.isVetoed);
+            out.writeString(veto.reason);
+            out.writeDate(veto.date);
+        }
+        out.writeInt(item.getVersion());
+    }
+
+    public static Item readItemSummary(RecordInput in, int schemaVersion) {
+        int type = in.readInt();
+        int itemId = in.readInt();
+        Item item;
+        if (type == FOOD) {
+            Food food = new Food();
+            food.setFoodID(itemId);
+            item = food;
+        } else {
+            Drink drink = new Drink();
+            drink.setDrinkID(itemId);
+            item = drink;
+        }
+        item.setItemID(itemId);
+        item.setName(in.readString());
+        item.setPrice(in.readDouble());
+        item.setExpiryDate(in.readString());
+        double averagePricePerKg = in.readDouble();
+
+        Veto veto = null;
+        if (in.readBoolean()) {
+            veto = new Veto(in.readBoolean(), in.readString(), in.readDate(), null);
+        }
+
+        if (item instanceof Food) {
+            ((Food) item).setAveragePricePerKg(averagePricePerKg);
+            ((Food) item).setVeto(veto);
+        } else {
+            ((Drink) item).setAveragePricePerKg(averagePricePerKg);
+            ((Drink) item).setVeto(veto);
+        }
+        if (schemaVersion >= 2) {
+            item.setVersion(in.readInt());
+        }
+        return item;
+    }
+
+    /**
+     * Attach loaded authors to the items that referenced them
+     */
+    public static void linkAuthors(AuthorLinks authorLinks, Map<Integer, Item> itemsById,
+                                   Map<Integer, Author> authorsById) {
+        for (Map.Entry<Integer, Integer> link : authorLinks.mainAuthors.entrySet()) {
+            Item item = itemsById.get(link.getKey());
+            Author author = authorsById.get(link.getValue());
+            if (item != null && author != null) {
+                item.setAuthor(author);
+            }
+        }
+        for (Map.Entry<Integer, LinkedList<Integer>> link : authorLinks.coAuthors.entrySet()) {
+            Item item = itemsById.get(link.getKey());
+            if (item == null) {
+                continue;
+            }
+            LinkedList<Author> itemAuthors = ItemParts.of(item).authors;
+            itemAuthors.clear();
+            for (int authorId : link.getValue()) {
+                Author author = authorsById.get(authorId);
+                if (author != null) {
+                    itemAuthors.add(author);
+                }
+            }
+        }
+    }
+
+    // ============ HELPER METHODS ============
+
+    private static void writePerson(RecordOutput out, Person person) {
+        out.writeInt(person.getPersonID());
+        out.writeString(person.getName());
+        out.writeString(person.getAddress());
+        out.writeString(person.getContact());
+        out.writeString(person.getDateofbirth());
+        out.writeString(person.getPassword());
+    }
+
+    private static void readPerson(RecordInput in, Person person) {
+        person.setPersonID(in.readInt());
+        person.setName(in.readString());
+        person.setAddress(in.readString());
+        person.setContact(in.readString());
+        person.setDateofbirth(in.readString());
+        person.setPassword(in.readString());
+    }
+
+    private static void writeItemIds(RecordOutput out, Collection<Item> items) {
+        out.writeInt(items.size());
+        for (Item item : items) {
+            out.writeInt(item.getItemID());
+        }
+    }
+
+    private static void readItemIds(RecordInput in, Map<Integer, Item> itemsById, Collection<Item> target) {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            Item item = itemsById.get(in.readInt());
+            if (item != null) {
+                target.add(item);
+            }
+        }
+    }
+
+    private static void writeConsumerInfo(RecordOutput out, ConsumerSpecificInfo info) {
+        out.writeBoolean(info != null);
+        if (info != null) {
+            out.writeString(info.getProfile());
+            out.writeString(info.getAgeRange());
+            out.writeStrings(info.getAllergies());
+            out.writeStrings(info.getPositiveImpacts());
+        }
+    }
+
+    private static ConsumerSpecificInfo readConsumerInfo(RecordInput in) {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        ConsumerSpecificInfo info = new ConsumerSpecificInfo(in.readString());
+        info.setAgeRange(in.readString());
+        info.setAllergies(in.readStrings());
+        info.setPositiveImpacts(in.readStrings());
+        return info;
+    }
+
+    private static void writeFeedback(RecordOutput out, Feedback feedback) {
+        out.writeString(feedback.getComment());
+        out.writeBoolean(feedback.isLike());
+        out.writeString(feedback.getConsumerName());
+        out.writeDate(feedback.getTimestamp());
+    }
+
+    private static Feedback readFeedback(RecordInput in) {
+        Feedback feedback = new Feedback(in.readString(), in.readBoolean(), in.readString());
+        feedback.setTimestamp(in.readDate());
+        return feedback;
+    }
+
+    private static void writeOptcondition(RecordOutput out, Optcondition condition) {
+        out.writeBoolean(condition != null);
+        if (condition != null) {
+            out.writeDouble(condition.getTemp());
+            out.writeDouble(condition.getPressure());
+            out.writeDouble(condition.getMoisture());
+            out.writeDouble(condition.getVibration());
+            out.writeInt(condition.getPeriod());
+        }
+    }
+
+    private static Optcondition readOptcondition(RecordInput in) {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new Optcondition(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), in.readInt());
+    }
+
+    private static void addAll(LinkedList<String> target, LinkedList<String> values) {
+        if (values != null) {
+            target.addAll(values);
+        }
+    }
+
+    // ============ INNER CLASS: AUTHOR LINKS ============
+
+    /**
+     * Author IDs referenced by loaded items, resolved by linkAuthors
+     */
+    public static class AuthorLinks {
+        final HashMap<Integer, Integer> mainAuthors = new HashMap<>();
+        final HashMap<Integer, LinkedList<Integer>> coAuthors = new HashMap<>();
+    }
+
+    // ============ INNER CLASS: ITEM PARTS ============
+
+    /**
+     * The detail fields Food and Drink both have, read from / written to either type
+     */
+    private static class ItemParts {
+        int typeId;
+        double averagePricePerKg;
+        LinkedList<Ingredient> ingredients = new LinkedList<>();
+        LinkedList<String> standards = new LinkedList<>();
+        LinkedList<Author> authors = new LinkedList<>();
+        LinkedList<Feedback> feedbacks = new LinkedList<>();
+        Optcondition labCondition;
+        Prepprotocol prepprotocol;
+        Conservecondition conservecondition;
+        Consumpcondition consumpcondition;
+        Trademarkinfo trademarkInfo;
+        Veto veto;
+        ConsumerSpecificInfo consumerProfile;
+        ConsumerSpecificInfo positiveImpacts;
+        SideEffects sideEffects;
+
+        static ItemParts of(Item item) {
+            ItemParts parts = new ItemParts();
+            if (item instanceof Food) {
+                Food food = (Food) item;
+                parts.typeId = food.getFoodID();
+                parts.averagePricePerKg = food.getAveragePricePerKg();
+                parts.ingredients = food.getIngredients();
+                parts.standards = food.getStandards();
+                parts.authors = food.getAuthors();
+                parts.feedbacks = food.getFeedbacks();
+                parts.labCondition = food.getLabCondition();
+                parts.prepprotocol = food.getPrepprotocol();
+                parts.conservecondition = food.getConservecondition();
+                parts.consumpcondition = food.getConsumpcondition();
+                parts.trademarkInfo = food.getTrademarkInfo();
+                parts.veto = food.getVeto();
+                parts.consumerProfile = food.getConsumerProfile();
+                parts.positiveImpacts = food.getPositiveImpacts();
+                parts.sideEffects = food.getSideEffects();
+            } else if (item instanceof Drink) {
+                Drink drink = (Drink) item;
+                parts.typeId = drink.getDrinkID();
+                parts.averagePricePerKg = drink.getAveragePricePerKg();
+                parts.ingredients = drink.getIngredients();
+                parts.standards = drink.getStandards();
+                parts.authors = drink.getAuthors();
+                parts.feedbacks = drink.getFeedbacks();
+                parts.labCondition = drink.getLabCondition();
+                parts.prepprotocol = drink.getPrepprotocol();
+                parts.conservecondition = drink.getConservecondition();
+                parts.consumpcondition = drink.getConsumpcondition();
+                parts.trademarkInfo = drink.getTrademarkInfo();
+                parts.veto = drink.getVeto();
+                parts.consumerProfile = drink.getConsumerProfile();
+                parts.positiveImpacts = drink.getPositiveImpacts();
+                parts.sideEffects = drink.getSideEffects();
+            }
+            if (parts.ingredients == null) parts.ingredients = new LinkedList<>();
+            if (parts.authors == null) parts.authors = new LinkedList<>();
+            if (parts.feedbacks == null) parts.feedbacks = new LinkedList<>();
+            return parts;
+        }
+
+        void applyTo(Item item) {
+            if (item instanceof Food) {
+                Food food = (Food) item;
+                food.setFoodID(typeId);
+                food.setAveragePricePerKg(averagePricePerKg);
+                food.getIngredients().addAll(ingredients);
+                food.getStandards().addAll(standards);
+                food.getFeedbacks().addAll(feedbacks);
+                food.setLabCondition(labCondition);
+                food.setPrepprotocol(prepprotocol);
+                food.setConservecondition(conservecondition);
+                food.setConsumpcondition(consumpcondition);
+                food.setTrademarkInfo(trademarkInfo);
+                food.setVeto(veto);
+                food.setConsumerProfile(consumerProfile);
+                food.setPositiveImpacts(positiveImpacts);
+                food.setSideEffects(sideEffects);
+            } else if (item instanceof Drink) {
+                Drink drink = (Drink) item;
+                drink.setDrinkID(typeId);
+                drink.setAveragePricePerKg(averagePricePerKg);
+                drink.getIngredients().addAll(ingredients);
+                drink.getStandards().addAll(standards);
+                drink.getFeedbacks().addAll(feedbacks);
+                drink.setLabCondition(labCondition);
+                drink.setPrepprotocol(prepprotocol);
+                drink.setConservecondition(conservecondition);
+                drink.setConsumpcondition(consumpcondition);
+                drink.setTrademarkInfo(trademarkInfo);
+                drink.setVeto(veto);
+                drink.setConsumerProfile(consumerProfile);
+                drink.setPositiveImpacts(positiveImpacts);
+                drink.setSideEffects(sideEffects);
+            }
+        }
+    }
+}
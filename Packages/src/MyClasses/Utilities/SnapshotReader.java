@@ -0,0 +1,187 @@
+package MyClasses.Utilities;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.LinkedList;
+
+/**
+ * Reads a snapshot written by SnapshotWriter through a memory-mapped view of the file
+ * The string dictionary is decoded once; records are decoded on demand through the index.
+ */
+public class SnapshotReader implements Closeable {
+
+    private final MappedByteBuffer data;
+    private final int schemaVersion;
+    private final int recordCount;
+    private final long indexOffset;
+    private final String[] strings;
+
+    /**
+     * @param expectedKind kind passed to SnapshotWriter; any other kind is rejected
+     * @throws IOException if the file is not a complete snapshot of that kind
+     */
+    public SnapshotReader(Path file, int expectedKind) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < SnapshotWriter.HEADER_SIZE + SnapshotWriter.FOOTER_SIZE) {
+                throw new IOException("Snapshot too short: " + file);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        if (data.getInt(0) != SnapshotWriter.MAGIC) {
+            throw new IOException("Not a snapshot file");
+        }
+        int formatVersion = data.getShort(4);
+        if (formatVersion != SnapshotWriter.FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot format version " + formatVersion);
+        }
+        schemaVersion = data.getShort(6);
+        int kind = data.getInt(8);
+        if (kind != expectedKind) {
+            throw new IOException("Snapshot holds kind " + kind + ", expected " + expectedKind);
+        }
+
+        int footer = data.limit() - SnapshotWriter.FOOTER_SIZE;
+        if (data.getInt(footer + 20) != SnapshotWriter.FOOTER_MAGIC) {
+            throw new IOException("Snapshot is incomplete (no footer)");
+        }
+        long stringsOffset = data.getLong(footer);
+        indexOffset = data.getLong(footer + 8);
+        recordCount = data.getInt(footer + 16);
+
+        ByteBuffer in = data.duplicate();
+        in.position((int) stringsOffset);
+        strings = new String[in.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] utf8 = new byte[in.getInt()];
+            in.get(utf8);
+            strings[i] = new String(utf8, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * True if the file starts with the snapshot magic number
+     */
+    public static boolean isSnapshot(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // keep reading until 4 bytes or end of file
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == SnapshotWriter.MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public int getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Decoder positioned at the start of record i
+     */
+    public RecordInput record(int index) {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + recordCount);
+        }
+        int offset = (int) data.getLong((int) indexOffset + index * 8);
+        int length = data.getInt(offset);
+        ByteBuffer slice = data.duplicate();
+        slice.position(offset + 4);
+        slice.limit(offset + 4 + length);
+        return new RecordInput(slice.slice());
+    }
+
+    /**
+     * Nothing to release explicitly; the mapping goes away with the reader
+     */
+    @Override
+    public void close() {
+    }
+
+    // ============ INNER CLASS: RECORD INPUT ============
+
+    /**
+     * Decoder for one record (mirror of SnapshotWriter.RecordOutput)
+     */
+    public class RecordInput {
+        private final ByteBuffer in;
+
+        private RecordInput(ByteBuffer in) {
+            this.in = in;
+        }
+
+        public boolean readBoolean() {
+            return in.get() != 0;
+        }
+
+        public int readInt() {
+            int value = readUnsigned();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        public long readLong() {
+            return in.getLong();
+        }
+
+        public double readDouble() {
+            return in.getDouble();
+        }
+
+        public String readString() {
+            int id = readUnsigned();
+            return id == 0 ? null : strings[id - 1];
+        }
+
+        public Date readDate() {
+            return readBoolean() ? new Date(in.getLong()) : null;
+        }
+
+        /**
+         * Strings written by writeStrings (null if a null list was written)
+         */
+        public LinkedList<String> readStrings() {
+            int count = readInt();
+            if (count < 0) {
+                return null;
+            }
+            LinkedList<String> values = new LinkedList<>();
+            for (int i = 0; i < count; i++) {
+                values.add(readString());
+            }
+            return values;
+        }
+
+        /**
+         * True while the record has unread bytes (fields added by newer schema versions)
+         */
+        public boolean hasMore() {
+            return in.hasRemaining();
+        }
+
+        private int readUnsigned() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = in.get();
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package MyClasses.Utilities;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+
+/**
+ * Writes a binary snapshot file (read back with SnapshotReader)
+ *
+ * Layout (big-endian):
+ *   header   magic "FDSS", format version (short), schema version (short), kind (int)
+ *   records  [int length][payload] ... payloads use varints and string dictionary ids
+ *   strings  [int count] then [int byteLength][UTF-8 bytes] per distinct string
+ *   index    [long offset] per record
+ *   footer   strings offset (long), index offset (long), record count (int), magic "SSDF"
+ *
+ * Written through one buffered FileChannel into a temporary file that replaces the
+ * target on commit(), so a crash never leaves a half-written snapshot behind.
+ * Usage: try (SnapshotWriter w = new SnapshotWriter(...)) { ...records...; w.commit(); }
+ */
+public class SnapshotWriter implements Closeable {
+
+    static final int MAGIC = 0x46445353;          // "FDSS"
+    static final int FOOTER_MAGIC = 0x53534446;   // "SSDF"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 12;
+    static final int FOOTER_SIZE = 24;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long written = 0;
+
+    private final HashMap<String, Integer> stringIds = new HashMap<>();
+    private final ArrayList<String> strings = new ArrayList<>();
+    private long[] recordOffsets = new long[1024];
+    private int recordCount = 0;
+
+    private final RecordOutput record = new RecordOutput();
+    private boolean recordOpen = false;
+    private boolean committed = false;
+
+    /**
+     * @param kind what the file holds (checked by SnapshotReader)
+     * @param schemaVersion version of the record layout, for readers of older files
+     */
+    public SnapshotWriter(Path target, int kind, int schemaVersion) throws IOException {
+        this.target = target;
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) FORMAT_VERSION);
+        buffer.putShort((short) schemaVersion);
+        buffer.putInt(kind);
+    }
+
+    /**
+     * Start the next record; its content is written with the returned output
+     */
+    public RecordOutput beginRecord() {
+        if (recordOpen) {
+            throw new IllegalStateException("Previous record not ended");
+        }
+        recordOpen = true;
+        record.reset();
+        return record;
+    }
+
+    public void endRecord() throws IOException {
+        if (!recordOpen) {
+            throw new IllegalStateException("No record started");
+        }
+        recordOpen = false;
+
+        if (recordCount == recordOffsets.length) {
+            recordOffsets = Arrays.copyOf(recordOffsets, recordCount * 2);
+        }
+        recordOffsets[recordCount++] = position();
+
+        ensureRoom(4);
+        buffer.putInt(record.size);
+        put(record.bytes, 0, record.size);
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Write string dictionary, index and footer, then replace the target file
+     */
+    public void commit() throws IOException {
+        if (recordOpen) {
+            throw new IllegalStateException("Record not ended");
+        }
+
+        long stringsOffset = position();
+        ensureRoom(4);
+        buffer.putInt(strings.size());
+        for (String s : strings) {
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            ensureRoom(4);
+            buffer.putInt(utf8.length);
+            put(utf8, 0, utf8.length);
+        }
+
+        long indexOffset = position();
+        for (int i = 0; i < recordCount; i++) {
+            ensureRoom(8);
+            buffer.putLong(recordOffsets[i]);
+        }
+
+        ensureRoom(FOOTER_SIZE);
+        buffer.putLong(stringsOffset);
+        buffer.putLong(indexOffset);
+        buffer.putInt(recordCount);
+        buffer.putInt(FOOTER_MAGIC);
+        flushBuffer();
+
+        channel.force(true);
+        channel.close();
+        replaceTarget();
+        committed = true;
+    }
+
+    /**
+     * Discard the snapshot unless commit() succeeded
+     */
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            channel.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // ============ HELPER METHODS ============
+
+    private int internString(String s) {
+        Integer id = stringIds.get(s);
+        if (id == null) {
+            id = strings.size();
+            strings.add(s);
+            stringIds.put(s, id);
+        }
+        return id;
+    }
+
+    private long position() {
+        return written + buffer.position();
+    }
+
+    private void ensureRoom(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flushBuffer();
+        }
+    }
+
+    private void put(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!buffer.hasRemaining()) {
+                flushBuffer();
+            }
+            int chunk = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void replaceTarget() throws IOException {
+        try {
+            moveTempToTarget();
+        } catch (FileSystemException e) {
+            // A mapping of the previous snapshot may still be alive (some platforms cannot
+            // replace a mapped file); let it be collected and retry once
+            System.gc();
+            moveTempToTarget();
+        }
+    }
+
+    private void moveTempToTarget() throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // ============ INNER CLASS: RECORD OUTPUT ============
+
+    /**
+     * Encoder for one record: zigzag varints, fixed-width longs/doubles,
+     * strings as dictionary ids (0 = null)
+     */
+    public class RecordOutput {
+        private byte[] bytes = new byte[256];
+        private int size = 0;
+
+        private void reset() {
+            size = 0;
+        }
+
+        public void writeBoolean(boolean value) {
+            writeByte(value ? 1 : 0);
+        }
+
+        public void writeInt(int value) {
+            writeUnsigned((value << 1) ^ (value >> 31));
+        }
+
+        public void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        public void writeDouble(double value) {
+            writeLong(Double.doubleToRawLongBits(value));
+        }
+
+        public void writeString(String value) {
+            writeUnsigned(value == null ? 0 : internString(value) + 1);
+        }
+
+        public void writeDate(Date value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                writeLong(value.getTime());
+            }
+        }
+
+        /**
+         * Element count (-1 for null) followed by the strings
+         */
+        public void writeStrings(Collection<String> values) {
+            if (values == null) {
+                writeInt(-1);
+                return;
+            }
+            writeInt(values.size());
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeUnsigned(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
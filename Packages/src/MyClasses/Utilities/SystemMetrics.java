@@ -0,0 +1,110 @@
+package MyClasses.Utilities;
+
+import MyClasses.Consumables.Item;
+import MyClasses.Feedback;
+import MyClasses.Persons.Customer;
+
+import java.util.EnumMap;
+import java.util.function.IntSupplier;
+
+/**
+ * System-wide counts for the statistics screens, each read in O(1)
+ * Counts kept by another structure anyway (accounts per role, catalog sizes, vetoed items) are
+ * gauges reading that structure's size. Purchases, revenue and feedback are counters: seeded
+ * once at load, then moved by the customers' activity events (it is their ActivityListener)
+ * and by DataManager when a customer's purchases are replaced or removed.
+ */
+public class SystemMetrics implements Customer.ActivityListener {
+
+    public enum Metric {
+        ADMINS, AUTHORS, CUSTOMERS, FORMULATIONS, FOODS, DRINKS, VETOED,
+        PURCHASES, LIKES, DISLIKES
+    }
+
+    private final EnumMap<Metric, IntSupplier> gauges = new EnumMap<>(Metric.class);
+    private long purchases;
+    private double revenue;
+    private long likes;
+    private long dislikes;
+
+    /**
+     * Read a metric from the structure that maintains it
+     */
+    public synchronized void registerGauge(Metric metric, IntSupplier gauge) {
+        gauges.put(metric, gauge);
+    }
+
+    public synchronized long get(Metric metric) {
+        switch (metric) {
+            case PURCHASES:
+                return purchases;
+            case LIKES:
+                return likes;
+            case DISLIKES:
+                return dislikes;
+            default:
+                IntSupplier gauge = gauges.get(metric);
+                return gauge == null ? 0 : gauge.getAsInt();
+        }
+    }
+
+    /**
+     * Sum of the prices paid over all purchases
+     */
+    public synchronized double getRevenue() {
+        return revenue;
+    }
+
+    // ============ EVENTS ============
+
+    @Override
+    public synchronized void purchased(Customer customer, Customer.PurchaseRecord record) {
+        purchases++;
+        revenue += record.getPrice();
+    }
+
+    @Override
+    public synchronized void feedbackGiven(Customer customer, Item item, Feedback feedback) {
+        if (feedback.isLike()) {
+            likes++;
+        } else {
+            dislikes++;
+        }
+    }
+
+    /**
+     * Count the purchases a customer already holds (loaded, or copied from another instance)
+     */
+    public synchronized void countPurchases(Customer customer) {
+        for (Customer.PurchaseRecord record : customer.getPurchasedItems().values()) {
+            purchases++;
+            revenue += record.getPrice();
+        }
+    }
+
+    /**
+     * Take back a customer's purchases before they are replaced or the customer is removed
+     */
+    public synchronized void uncountPurchases(Customer customer) {
+        for (Customer.PurchaseRecord record : customer.getPurchasedItems().values()) {
+            purchases--;
+            revenue -= record.getPrice();
+        }
+    }
+
+    /**
+     * Forget all purchases (before the customers are published again)
+     */
+    public synchronized void resetPurchases() {
+        purchases = 0;
+        revenue = 0;
+    }
+
+    /**
+     * Add stored feedback (e.g. the totals read at startup)
+     */
+    public synchronized void addFeedback(long storedLikes, long storedDislikes) {
+        likes += storedLikes;
+        dislikes += storedDislikes;
+    }
+}
@@ -0,0 +1,252 @@
+package gui.components;
+
+import MyClasses.Consumables.Drink;
+import MyClasses.Consumables.Food;
+import MyClasses.Consumables.Item;
+import MyClasses.Database.DatabaseConfig;
+import MyClasses.Database.UnitOfWork;
+import MyClasses.Persons.Author;
+import MyClasses.Persons.Customer;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking facade over DataManager for the screens
+ * Database work runs off the JavaFX thread: reads on a small bounded pool, writes one at a
+ * time on a writer thread (so saves keep their order). In-memory changes (catalog, change
+ * collection) still happen on the calling JavaFX thread, so the collections are never shared
+ * between threads. Results come back through the UI executor (Platform.runLater).
+ * Reads started for a screen are cancelled when ScreenManager navigates away; writes always finish.
+ */
+public class AsyncDataManager {
+
+    private final DataManager dataManager;
+    private final Executor uiExecutor;
+    private final ThreadPoolExecutor readPool;
+    private final ExecutorService writer;
+
+    // Reads started by the current screen (cancelled on navigation); UI thread only
+    private final LinkedList<CompletableFuture<?>> screenTasks = new LinkedList<>();
+    // Last save requested; a new save waits for it so the same changes are never written twice
+    private CompletableFuture<Boolean> lastSave;
+
+    /**
+     * @param uiExecutor runs result callbacks on the UI thread (Platform::runLater)
+     */
+    public AsyncDataManager(DataManager dataManager, Executor uiExecutor) {
+        this.dataManager = dataManager;
+        this.uiExecutor = uiExecutor;
+
+        int threads = Math.max(1, DatabaseConfig.getIntProperty("ui.io.threads", 4));
+        int queueSize = Math.max(1, DatabaseConfig.getIntProperty("ui.io.queueSize", 256));
+        this.readPool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueSize), daemonThreads("data-read"));
+        this.readPool.allowCoreThreadTimeOut(true);
+        this.writer = Executors.newSingleThreadExecutor(daemonThreads("data-write"));
+    }
+
+    public DataManager getDataManager() {
+        return dataManager;
+    }
+
+    // ============ READS ============
+
+    /**
+     * Run a read on the I/O pool; it is cancelled if the user leaves the current screen
+     */
+    public <T> CompletableFuture<T> read(Supplier<T> task) {
+        CompletableFuture<T> future = submit(readPool, task);
+        screenTasks.add(future);
+        future.whenComplete((result, error) -> uiExecutor.execute(() -> screenTasks.remove(future)));
+        return future;
+    }
+
+    /**
+     * Make sure an item's details are in memory (fetched from the database if needed)
+     */
+    public CompletableFuture<Item> loadDetails(Item item) {
+        return read(() -> {
+            // Any detail getter fills the item through the detail cache
+            if (item instanceof Food) {
+                ((Food) item).getIngredients();
+            } else if (item instanceof Drink) {
+                ((Drink) item).getIngredients();
+            }
+            return item;
+        });
+    }
+
+    /**
+     * "You may also like" for a customer, free of their allergens; call on the UI thread
+     * Candidates are taken from the catalog here; the allergen check runs on the I/O pool, as
+     * an item never checked before reads its ingredients (possibly from the database).
+     */
+    public CompletableFuture<LinkedList<Item>> loadRecommendations(Customer customer, int limit) {
+        LinkedList<Item> candidates = dataManager.getRecommendationCandidates(customer);
+        return read(() -> dataManager.filterAllergenFree(candidates, customer, limit));
+    }
+
+    /**
+     * Formulations bought or favored together with one, filtered as loadRecommendations
+     */
+    public CompletableFuture<LinkedList<Item>> loadSimilarFormulations(Item formulation, Customer customer, int limit) {
+        LinkedList<Item> candidates = dataManager.getSimilarCandidates(formulation);
+        return read(() -> dataManager.filterAllergenFree(candidates, customer, limit));
+    }
+
+    // ============ WRITES ============
+
+    /**
+     * Save everything that changed; call on the UI thread
+     * Changes are collected here and written on the writer thread. A save requested while
+     * another is running starts after it, with the changes made in between.
+     */
+    public CompletableFuture<Boolean> saveAllData() {
+        CompletableFuture<Boolean> previous = lastSave;
+        CompletableFuture<Boolean> save = new CompletableFuture<>();
+        lastSave = save;
+
+        if (previous == null || previous.isDone()) {
+            startSave(save);
+        } else {
+            previous.whenComplete((result, error) -> uiExecutor.execute(() -> startSave(save)));
+        }
+        return save;
+    }
+
+    /**
+     * Add a formulation to the catalog now and store it in the background; call on the UI thread
+     */
+    public CompletableFuture<Boolean> addFormulation(Item formulation, Author author) {
+        dataManager.indexFormulation(formulation, author);
+        return submit(writer, () -> dataManager.persistFormulation(formulation));
+    }
+
+    /**
+     * Reindex an edited formulation now and store it in the background; call on the UI thread
+     */
+    public CompletableFuture<Boolean> updateFormulation(Item formulation) {
+        dataManager.reindexFormulation(formulation);
+        return submit(writer, () -> dataManager.persistFormulation(formulation));
+    }
+
+    // ============ UI DELIVERY ============
+
+    /**
+     * Hand the outcome to the UI thread; nothing is delivered if the task was cancelled
+     */
+    public <T> void onUi(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        future.whenComplete((result, error) -> uiExecutor.execute(() -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            if (error == null) {
+                onSuccess.accept(result);
+            } else if (onError != null) {
+                onError.accept(unwrap(error));
+            } else {
+                System.err.println("❌ Background task failed: " + unwrap(error).getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Cancel the reads of the screen being left (called by ScreenManager on navigation)
+     */
+    public void cancelScreenTasks() {
+        Iterator<CompletableFuture<?>> it = screenTasks.iterator();
+        while (it.hasNext()) {
+            it.next().cancel(false);
+            it.remove();
+        }
+    }
+
+    /**
+     * Stop accepting work; pending writes still run to completion
+     */
+    public void shutdown() {
+        cancelScreenTasks();
+        readPool.shutdownNow();
+        writer.shutdown();
+    }
+
+    // ============ HELPER METHODS ============
+
+    private void startSave(CompletableFuture<Boolean> save) {
+        if (!dataManager.isLoaded()) {
+            // Nothing is tracked before startup publishes it; save once everything is in place
+            dataManager.whenLoaded().thenRunAsync(() -> startSave(save), uiExecutor);
+            return;
+        }
+
+        UnitOfWork.ChangeSet changes;
+        try {
+            changes = dataManager.collectChanges();
+        } catch (RuntimeException e) {
+            save.completeExceptionally(e);
+            return;
+        }
+
+        submit(writer, () -> dataManager.writeChanges(changes)).whenComplete((saved, error) -> {
+            if (error != null) {
+                save.completeExceptionally(unwrap(error));
+            } else {
+                save.complete(saved);
+            }
+        });
+    }
+
+    /**
+     * Run a task on an executor; a task cancelled while still queued never starts
+     */
+    private static <T> CompletableFuture<T> submit(ExecutorService executor, Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(task.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new IllegalStateException("Too many pending database tasks", e));
+        }
+        return future;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        if ((error instanceof CompletionException || error instanceof CancellationException)
+                && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,21 +1,46 @@
 package gui.components;
 
-import MyClasses.Consumables.Food;
 import MyClasses.Consumables.Drink;
+import MyClasses.Consumables.Food;
 import MyClasses.Consumables.Item;
+import MyClasses.Database.ChangeFeed;
+import MyClasses.Database.DatabaseConfig;
 import MyClasses.Database.DatabaseManager;
+import MyClasses.Database.StaleDataException;
+import MyClasses.Database.StartupLoader;
+import MyClasses.Database.UnitOfWork;
 import MyClasses.Ingredients.Ingredient;
 import MyClasses.Ingredients.Quantity;
 import MyClasses.Persons.Admin;
 import MyClasses.Persons.Author;
 import MyClasses.Persons.Customer;
+import MyClasses.Persons.Person;
+import MyClasses.Persons.Role;
+import MyClasses.Security.CredentialStore;
+import MyClasses.Utilities.ActivityRollups;
 import MyClasses.Utilities.AuditTrail;
+import MyClasses.Utilities.AutocompleteIndex;
+import MyClasses.Utilities.CatalogIndex;
+import MyClasses.Utilities.CoPurchaseRecommender;
+import MyClasses.Utilities.FormulationSearchIndex;
+import MyClasses.Utilities.IngredientUsageIndex;
+import MyClasses.Utilities.SystemMetrics;
 import MyClasses.Feedback;
 import MyClasses.Conditions.*;
 import MyClasses.Persons.ConsumerSpecificInfo;
+import MyClasses.Restrictions.Veto;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Centralized data management for the application
@@ -24,218 +49,842 @@ public class DataManager {
     private DatabaseManager databaseManager;
     private AuditTrail auditTrail;
 
-    // Data structures
-    private LinkedList<Admin> admins;
-    private LinkedList<Author> authors;
-    private LinkedList<Customer> customers;
-    private LinkedList<Item> allFormulations;
+    // Tracks what changed since the last load/save so only deltas are written
+    private UnitOfWork unitOfWork;
+
+    // Data structures - accounts keyed by ID (insertion order kept for display)
+    private LinkedHashMap<Integer, Admin> admins;
+    private LinkedHashMap<Integer, Author> authors;
+    private LinkedHashMap<Integer, Customer> customers;
+
+    // Formulations with id / veto / type / author indexes
+    private CatalogIndex catalog;
+
+    // Full-text search over names and detail text (names indexed here, detail text streamed at startup)
+    private final FormulationSearchIndex searchIndex;
+
+    // Ingredient name -> formulations using it (told about ingredient edits by the items)
+    private final IngredientUsageIndex ingredientUsage;
+
+    // Ingredient names, units and standards for entry suggestions (counted again as formulations are saved)
+    private final AutocompleteIndex autocomplete;
+
+    // Counts for the statistics screens (told about purchases and feedback by the customers)
+    private final SystemMetrics metrics;
+
+    // Purchases and feedback per author / item / type over time (history backfilled at startup)
+    private final ActivityRollups rollups;
+
+    // Items bought or favored together ("you may also like"), kept up to date on every purchase
+    private final CoPurchaseRecommender recommender;
+
+    // Every customer's ActivityListener: feeds the metrics, the rollups and the recommender
+    private final Customer.ActivityListener activityListener;
+
+    // name -> account per role, hashed passwords, verified sessions
+    private CredentialStore credentials;
+
+    // Saves made by other instances sharing the database (runs once startChangeFeed is called)
+    private final ChangeFeed changeFeed;
+
+    // Completed (on the owner thread) as startLoading publishes each aggregate
+    private final CompletableFuture<Void> adminsLoaded = new CompletableFuture<>();
+    private final CompletableFuture<Void> catalogLoaded = new CompletableFuture<>();
+    private final CompletableFuture<Void> authorsLoaded = new CompletableFuture<>();
+    private final CompletableFuture<Void> customersLoaded = new CompletableFuture<>();
+    private final CompletableFuture<Void> auditTrailLoaded = new CompletableFuture<>();
+    private final CompletableFuture<Void> feedbackCountsLoaded = new CompletableFuture<>();
+    private final CompletableFuture<Void> allLoaded = new CompletableFuture<>();
+    // Thread owning the collections, as given to startLoading (the caller's until then)
+    private volatile Executor ownerExecutor = Runnable::run;
 
     public DataManager(DatabaseManager databaseManager) {
         this.databaseManager = databaseManager;
         this.auditTrail = new AuditTrail();
-        this.admins = new LinkedList<>();
-        this.authors = new LinkedList<>();
-        this.customers = new LinkedList<>();
-        this.allFormulations = new LinkedList<>();
+        this.unitOfWork = new UnitOfWork();
+        // Items with unsaved detail edits stay in memory; loaded details become the clean state
+        databaseManager.getDetailCache().setListener(unitOfWork);
+        this.admins = new LinkedHashMap<>();
+        this.authors = new LinkedHashMap<>();
+        this.customers = new LinkedHashMap<>();
+        this.catalog = new CatalogIndex();
+        this.searchIndex = new FormulationSearchIndex();
+        this.ingredientUsage = new IngredientUsageIndex();
+        this.autocomplete = new AutocompleteIndex();
+        this.metrics = new SystemMetrics();
+        metrics.registerGauge(SystemMetrics.Metric.ADMINS, admins::size);
+        metrics.registerGauge(SystemMetrics.Metric.AUTHORS, authors::size);
+        metrics.registerGauge(SystemMetrics.Metric.CUSTOMERS, customers::size);
+        metrics.registerGauge(SystemMetrics.Metric.FORMULATIONS, () -> catalog.size());
+        metrics.registerGauge(SystemMetrics.Metric.FOODS, () -> catalog.getCount(CatalogIndex.ItemType.FOOD));
+        metrics.registerGauge(SystemMetrics.Metric.DRINKS, () -> catalog.getCount(CatalogIndex.ItemType.DRINK));
+        metrics.registerGauge(SystemMetrics.Metric.VETOED, () -> catalog.getVetoedCount());
+        this.rollups = new ActivityRollups();
+        this.recommender = new CoPurchaseRecommender();
+        this.activityListener = new Customer.ActivityListener() {
+            @Override
+            public void purchased(Customer customer, Customer.PurchaseRecord record) {
+                metrics.purchased(customer, record);
+                recordPurchase(record);
+                recommender.add(customer.getCustomerID(), record.getItemID());
+            }
+
+            @Override
+            public void feedbackGiven(Customer customer, Item item, Feedback feedback) {
+                metrics.feedbackGiven(customer, item, feedback);
+                rollups.recordFeedback(item.getItemID(), catalog.getAuthorId(item.getItemID()),
+                        CatalogIndex.ItemType.of(item), feedback.getTimestamp().getTime(),
+                        feedback.isLike() ? 1 : 0, feedback.isLike() ? 0 : 1);
+            }
+        };
+        this.changeFeed = new ChangeFeed(databaseManager);
+        this.credentials = new CredentialStore(
+                DatabaseConfig.getIntProperty("security.hash.workFactor", 14),
+                DatabaseConfig.getIntProperty("security.hash.threads", 2),
+                DatabaseConfig.getIntProperty("security.hash.queueSize", 32),
+                DatabaseConfig.getIntProperty("security.session.ttl", 900000));
     }
 
     // ============ LOAD DATA METHODS ============
 
+    /**
+     * Load everything and return when it is in place
+     * Same pipeline as startLoading; the calling thread does the publishing.
+     */
     public void loadAllData() {
-        loadAdmins();
-        loadAuthors();
-        loadCustomers();
-        loadFormulations();
-        loadAuditTrail();
+        LinkedBlockingQueue<Runnable> publications = new LinkedBlockingQueue<>();
+        CompletableFuture<Void> loaded = startLoading(publications::add);
+        try {
+            while (!loaded.isDone()) {
+                Runnable publication = publications.poll(100, TimeUnit.MILLISECONDS);
+                if (publication != null) {
+                    publication.run();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Start loading all aggregates in parallel (see StartupLoader) and return immediately
+     * Each aggregate is published through ownerExecutor, the thread that owns the collections
+     * (Platform::runLater in the GUI), as soon as it is loaded: admins, catalog and audit trail
+     * on their own, authors and customers once their formulations and favorites are linked.
+     * @return completes when everything is published
+     */
+    public CompletableFuture<Void> startLoading(Executor ownerExecutor) {
+        this.ownerExecutor = ownerExecutor;
+        StartupLoader loader = new StartupLoader(databaseManager, changeFeed.isEnabled() ? changeFeed : null,
+                searchIndex, ingredientUsage, autocomplete, rollups);
+
+        publish(loader.getAdmins(), this::publishAdmins, adminsLoaded, ownerExecutor);
+        publish(loader.getFormulations(), this::publishFormulations, catalogLoaded, ownerExecutor);
+        // Author links go into the catalog index, so authors are published after it
+        publish(loader.getAuthors().thenCombine(catalogLoaded, (loaded, published) -> loaded),
+                this::publishAuthors, authorsLoaded, ownerExecutor);
+        publish(loader.getCustomers(), this::publishCustomers, customersLoaded, ownerExecutor);
+        publish(loader.getAuditTrail(), this::publishAuditTrail, auditTrailLoaded, ownerExecutor);
+        publish(loader.getFeedbackCounts(), counts -> metrics.addFeedback(counts[0], counts[1]),
+                feedbackCountsLoaded, ownerExecutor);
+        // Until this completes, searches match names and the text of edited formulations only
+        loader.getSearchText().thenRun(() -> System.out.println("✓ Search index: " + searchIndex.size() +
+                " formulation(s), " + searchIndex.getTermCount() + " term(s)"));
+        loader.getIngredientUsage().thenRun(() -> System.out.println("✓ Ingredient usage: " +
+                ingredientUsage.size() + " ingredient(s)"));
+        loader.getSuggestions().thenRun(() -> System.out.println("✓ Entry suggestions loaded"));
+        loader.getActivity().thenRun(() -> System.out.println("✓ Activity rollups: " +
+                rollups.size(ActivityRollups.Dimension.ITEM) + " formulation(s) with purchases or feedback"));
+
+        CompletableFuture.allOf(loader.getAll().exceptionally(error -> null), adminsLoaded, catalogLoaded,
+                authorsLoaded, customersLoaded, auditTrailLoaded, feedbackCountsLoaded).thenRunAsync(() -> {
+            System.out.println("✓ " + databaseManager.getIdentityMap().getStatistics());
+            System.out.println("✓ Startup phases: " + loader.getTimings());
+            auditTrail.logAction("SYSTEM", "Data loaded from database at " + new Date());
+            allLoaded.complete(null);
+        }, ownerExecutor);
+        return allLoaded;
+    }
 
-        auditTrail.logAction("SYSTEM", "Data loaded from database at " + new Date());
+    /**
+     * Completes once everything loaded by startLoading is in place (on the owner thread)
+     */
+    public CompletableFuture<Void> whenLoaded() {
+        return allLoaded;
     }
 
-    private void loadAdmins() {
-        LinkedList<Admin> loadedAdmins = databaseManager.loadAdmins();
+    public boolean isLoaded() {
+        return allLoaded.isDone();
+    }
+
+    /**
+     * Run a publisher on the owner thread when its phase finishes, then mark the aggregate loaded
+     * A failed phase leaves the aggregate empty (as a failed query always did) instead of blocking logins.
+     */
+    private <T> void publish(CompletableFuture<T> phase, Consumer<T> publisher,
+                             CompletableFuture<Void> published, Executor ownerExecutor) {
+        phase.whenComplete((loaded, error) -> ownerExecutor.execute(() -> {
+            try {
+                if (error != null) {
+                    System.err.println("❌ Startup phase failed: " + error.getMessage());
+                } else {
+                    publisher.accept(loaded);
+                }
+            } finally {
+                published.complete(null);
+            }
+        }));
+    }
+
+    private void publishAdmins(LinkedList<Admin> loadedAdmins) {
         if (loadedAdmins != null && !loadedAdmins.isEmpty()) {
-            admins = loadedAdmins;
+            admins.clear();
+            for (Admin admin : loadedAdmins) {
+                admins.put(admin.getAdminID(), admin);
+            }
         } else {
             // Create default admin
             Admin defaultAdmin = new Admin(1, "System Admin", "HQ", "+1-000-0000", "1980-01-01", "admin123");
-            admins.add(defaultAdmin);
+            defaultAdmin.setPassword(credentials.hashPassword(defaultAdmin.getPassword()));
+            admins.put(defaultAdmin.getAdminID(), defaultAdmin);
             databaseManager.saveAdmin(defaultAdmin);
             auditTrail.logAction("SYSTEM", "Default admin account created");
         }
+        credentials.rebuild(Role.ADMIN, admins.values());
+        unitOfWork.trackAdmins(admins.values());
     }
 
-    private void loadAuthors() {
-        LinkedList<Author> loadedAuthors = databaseManager.loadAuthors();
-        if (loadedAuthors != null && !loadedAuthors.isEmpty()) {
-            authors = loadedAuthors;
+    private void publishFormulations(LinkedList<Item> loadedFormulations) {
+        if (loadedFormulations != null && !loadedFormulations.isEmpty()) {
+            catalog.rebuild(loadedFormulations, null);
+        }
+        for (Item item : catalog.getItems()) {
+            indexContents(item);
         }
+        unitOfWork.trackItems(catalog.getItems());
     }
 
-    private void loadCustomers() {
-        LinkedList<Customer> loadedCustomers = databaseManager.loadCustomers();
-        if (loadedCustomers != null && !loadedCustomers.isEmpty()) {
-            customers = loadedCustomers;
+    private void publishAuthors(LinkedList<Author> loadedAuthors) {
+        if (loadedAuthors != null && !loadedAuthors.isEmpty()) {
+            authors.clear();
+            for (Author author : loadedAuthors) {
+                authors.put(author.getAuthorID(), author);
+                for (Item item : author.getFormulatedItems()) {
+                    if (catalog.containsItem(item.getItemID())) {
+                        catalog.linkAuthor(author.getAuthorID(), item.getItemID());
+                    }
+                }
+            }
         }
+        credentials.rebuild(Role.AUTHOR, authors.values());
+        unitOfWork.trackAuthors(authors.values());
     }
 
-    private void loadFormulations() {
-        LinkedList<Item> loadedFormulations = databaseManager.loadFormulations();
-        if (loadedFormulations != null && !loadedFormulations.isEmpty()) {
-            allFormulations = loadedFormulations;
+    private void publishCustomers(LinkedList<Customer> loadedCustomers) {
+        if (loadedCustomers != null && !loadedCustomers.isEmpty()) {
+            customers.clear();
+            for (Customer customer : loadedCustomers) {
+                customers.put(customer.getCustomerID(), customer);
+            }
+        }
+        credentials.rebuild(Role.CUSTOMER, customers.values());
+        unitOfWork.trackCustomers(customers.values());
+        metrics.resetPurchases();
+        recommender.clear();
+        for (Customer customer : customers.values()) {
+            customer.setActivityListener(activityListener);
+            metrics.countPurchases(customer);
+            addBasket(customer);
         }
     }
 
-    private void loadAuditTrail() {
-        AuditTrail loadedAudit = databaseManager.loadAuditTrail();
+    private void publishAuditTrail(AuditTrail loadedAudit) {
         if (loadedAudit != null) {
+            // Keep what was logged while loading, at its original time (record 0 is the
+            // placeholder's own initialization); the loaded trail's writer stores the copies
+            auditTrail.visitRecordsFrom(1, Integer.MAX_VALUE,
+                    (sequence, timestamp, user, action) -> loadedAudit.replayAction(timestamp, user, action));
             auditTrail = loadedAudit;
         }
     }
 
+    // ============ CHANGES FROM OTHER INSTANCES ============
+
+    /**
+     * Follow saves made by other instances (see ChangeFeed) once everything is loaded
+     * @param ownerExecutor thread that owns the collections (Platform::runLater in the GUI)
+     */
+    public void startChangeFeed(Executor ownerExecutor) {
+        allLoaded.thenRun(() -> changeFeed.start(batch -> {
+            // Their detail text and ingredients are read here, on the feed thread (both indexes
+            // have their own lock)
+            LinkedList<Integer> itemIds = new LinkedList<>();
+            for (Item item : batch.getItems()) {
+                itemIds.add(item.getItemID());
+            }
+            databaseManager.loadSearchText(searchIndex, itemIds);
+            databaseManager.loadIngredientUsage(ingredientUsage, itemIds);
+            ownerExecutor.execute(() -> applyRemoteChanges(batch));
+        }));
+    }
+
+    public void stopChangeFeed() {
+        changeFeed.stop();
+    }
+
+    /**
+     * Refresh the items and customers other instances saved or deleted; nothing else is touched
+     * Unsaved local edits of such an entity are replaced: saving them would be rejected as stale.
+     */
+    private void applyRemoteChanges(ChangeFeed.Batch batch) {
+        int items = 0;
+        int customerCount = 0;
+
+        for (Item current : batch.getItems()) {
+            Item item = catalog.getItem(current.getItemID());
+            if (item == null) {
+                item = databaseManager.adoptFormulations(Collections.singletonList(current)).getFirst();
+                catalog.addItem(item);
+                Integer authorId = batch.getAuthorId(item.getItemID());
+                Author author = authorId != null ? authors.get(authorId) : null;
+                if (author != null) {
+                    item.setAuthor(author);
+                    if (!author.getFormulatedItems().contains(item)) {
+                        author.getFormulatedItems().add(item);
+                    }
+                    catalog.linkAuthor(author.getAuthorID(), item.getItemID());
+                }
+            } else if (current.getVersion() > item.getVersion()) {
+                if (unitOfWork.hasUnsavedChanges(item)) {
+                    System.out.println("⚠ Formulation '" + item.getName() +
+                            "' was changed on another instance; unsaved local edits replaced");
+                }
+                databaseManager.refreshFormulation(item, current);
+                catalog.updateItem(item);
+            } else {
+                continue;
+            }
+            unitOfWork.trackItem(item);
+            indexContents(item);
+            items++;
+        }
+
+        for (Customer current : batch.getCustomers()) {
+            Customer customer = customers.get(current.getCustomerID());
+            if (customer == null) {
+                customer = current;
+                customers.put(customer.getCustomerID(), customer);
+                credentials.register(Role.CUSTOMER, customer);
+                customer.setActivityListener(activityListener);
+                metrics.countPurchases(customer);
+                recordNewPurchases(null, customer);
+                addBasket(customer);
+            } else if (current.getVersion() > customer.getVersion()) {
+                if (unitOfWork.hasUnsavedChanges(customer)) {
+                    System.out.println("⚠ Customer '" + customer.getName() +
+                            "' was changed on another instance; unsaved local edits replaced");
+                }
+                boolean renamed = !Objects.equals(customer.getName(), current.getName());
+                if (renamed) {
+                    credentials.unregister(Role.CUSTOMER, customer);
+                }
+                metrics.uncountPurchases(customer);
+                recordNewPurchases(customer, current);
+                databaseManager.refreshCustomer(customer, current);
+                metrics.countPurchases(customer);
+                if (renamed) {
+                    credentials.register(Role.CUSTOMER, customer);
+                }
+            } else {
+                continue;
+            }
+            unitOfWork.trackCustomer(customer);
+            customerCount++;
+        }
+
+        int deleted = 0;
+        for (int itemId : batch.getDeletedItemIds()) {
+            Item item = catalog.getItem(itemId);
+            if (item != null) {
+                catalog.removeItem(item);
+                unindexContents(item);
+                databaseManager.forgetFormulation(item);
+                for (Author author : authors.values()) {
+                    author.getFormulatedItems().remove(item);
+                }
+                for (Customer customer : customers.values()) {
+                    customer.getFavoriteFormulations().remove(item);
+                }
+                deleted++;
+            }
+        }
+        for (int customerId : batch.getDeletedCustomerIds()) {
+            Customer customer = customers.remove(customerId);
+            if (customer != null) {
+                credentials.unregister(Role.CUSTOMER, customer);
+                customer.setActivityListener(null);
+                metrics.uncountPurchases(customer);
+                deleted++;
+            }
+        }
+
+        if (items + customerCount + deleted > 0) {
+            System.out.println("✓ Applied changes from other instances: " + items + " formulation(s), " +
+                    customerCount + " customer(s), " + deleted + " deletion(s)");
+        }
+    }
+
+    /**
+     * Add the purchases another instance made for a customer to the rollups
+     * @param known the loaded copy (null for a customer new to this instance)
+     */
+    private void recordNewPurchases(Customer known, Customer current) {
+        for (Customer.PurchaseRecord record : current.getPurchasedItems().values()) {
+            if (known == null || !known.getPurchasedItems().containsKey(record.getItemID())) {
+                recordPurchase(record);
+                recommender.add(current.getCustomerID(), record.getItemID());
+            }
+        }
+    }
+
+    /**
+     * Put a customer's purchases and favorites into the recommender
+     */
+    private void addBasket(Customer customer) {
+        recommender.add(customer.getCustomerID(), customer.getPurchasedItems().keySet());
+        for (Item item : customer.getFavoriteFormulations()) {
+            recommender.add(customer.getCustomerID(), item.getItemID());
+        }
+    }
+
+    private void recordPurchase(Customer.PurchaseRecord record) {
+        int itemId = record.getItemID();
+        Item item = catalog.getItem(itemId);
+        rollups.recordPurchases(itemId, catalog.getAuthorId(itemId),
+                item != null ? CatalogIndex.ItemType.of(item) : null,
+                record.getPurchaseDate() != null ? record.getPurchaseDate().getTime() : System.currentTimeMillis(),
+                1, record.getPrice());
+    }
+
     // ============ SAVE DATA METHODS ============
 
     public boolean saveAllData() {
+        if (!isLoaded()) {
+            // Aggregates not published yet would look new and be written again in full
+            System.err.println("⚠ Data is still loading; nothing saved");
+            return false;
+        }
         try {
-            databaseManager.saveAdmins(admins);
-            databaseManager.saveAuthors(authors);
-            databaseManager.saveCustomers(customers);
-            databaseManager.saveFormulations(allFormulations);
-            databaseManager.saveAuditTrail(auditTrail);
-
-            auditTrail.logAction("SYSTEM", "All data saved to database at " + new Date());
-            return true;
+            return writeChanges(collectChanges());
         } catch (Exception e) {
             e.printStackTrace();
             return false;
         }
     }
 
+    /**
+     * Only entities (and child collections) that changed since the last load/save
+     * Reads the in-memory collections, so it runs on the thread that owns them (the UI thread)
+     */
+    public UnitOfWork.ChangeSet collectChanges() {
+        UnitOfWork.ChangeSet changes = unitOfWork.collectChanges(admins.values(), authors.values(),
+                customers.values(), catalog.getItems());
+        // Edits made in place (e.g. new feedback) become searchable with the save
+        for (Item item : changes.getItems()) {
+            searchIndex.indexItem(item);
+        }
+        return changes;
+    }
+
+    /**
+     * Write collected changes and the audit trail (database only, safe on a background thread)
+     * @throws StaleDataException if another instance saved a changed item or customer first;
+     *         its current version is then fetched through the change feed
+     */
+    public boolean writeChanges(UnitOfWork.ChangeSet changes) {
+        try {
+            if (!databaseManager.saveChanges(changes)) {
+                return false;
+            }
+        } catch (StaleDataException e) {
+            changeFeed.refreshSoon(e);
+            throw e;
+        }
+        unitOfWork.markClean(changes);
+        for (Item item : changes.getItems()) {
+            autocomplete.countItem(item);
+        }
+        databaseManager.saveAuditTrail(auditTrail);
+
+        auditTrail.logAction("SYSTEM", "All data saved to database at " + new Date());
+        return true;
+    }
+
     // ============ FORMULATION MANAGEMENT ============
 
     public void addFormulation(Item formulation) {
-        allFormulations.add(formulation);
-        databaseManager.saveItem(formulation);
+        catalog.addItem(formulation);
+        indexContents(formulation);
+        persistFormulation(formulation);
+    }
+
+    /**
+     * Add a formulation created by an author
+     */
+    public void addFormulation(Item formulation, Author author) {
+        indexFormulation(formulation, author);
+        persistFormulation(formulation);
     }
 
     public void updateFormulation(Item formulation) {
-        databaseManager.saveItem(formulation);
+        reindexFormulation(formulation);
+        persistFormulation(formulation);
+    }
+
+    /**
+     * In-memory part of addFormulation (catalog, author link, search and ingredient indexes)
+     */
+    public void indexFormulation(Item formulation, Author author) {
+        catalog.addItem(formulation);
+        catalog.linkAuthor(author.getAuthorID(), formulation.getItemID());
+        indexContents(formulation);
+    }
+
+    /**
+     * In-memory part of updateFormulation: veto status, type or searchable text may have changed
+     */
+    public void reindexFormulation(Item formulation) {
+        catalog.updateItem(formulation);
+        indexContents(formulation);
+    }
+
+    /**
+     * Database part of add/updateFormulation (safe on a background thread)
+     * @throws StaleDataException if another instance saved the formulation first; its current
+     *         version is then fetched through the change feed
+     */
+    public boolean persistFormulation(Item formulation) {
+        try {
+            if (databaseManager.saveItem(formulation)) {
+                unitOfWork.trackItem(formulation);
+                autocomplete.countItem(formulation);
+                return true;
+            }
+        } catch (StaleDataException e) {
+            changeFeed.refreshSoon(e);
+            throw e;
+        }
+        return false;
     }
 
     public void removeFormulation(Item formulation) {
-        allFormulations.remove(formulation);
+        catalog.removeItem(formulation);
+        unindexContents(formulation);
         // Note: You might want to add a method to delete from database
     }
 
-    public LinkedList<Item> getFormulationsForCustomer(Customer customer) {
-        LinkedList<Item> availableItems = new LinkedList<>();
-        for (Item item : allFormulations) {
-            if (!isItemVetoed(item)) {
-                availableItems.add(item);
+    public Item findFormulationById(int itemId) {
+        return catalog.getItem(itemId);
+    }
+
+    /**
+     * Formulations a customer may browse (not vetoed), read-only view
+     */
+    public Collection<Item> getFormulationsForCustomer(Customer customer) {
+        return catalog.getAvailableItems();
+    }
+
+    /**
+     * One page of the formulations a customer may browse, in item ID order
+     * Served from the in-memory index (which already reflects unsaved vetoes)
+     * @param afterItemId ID of the last item already shown, or Integer.MIN_VALUE for the first page
+     */
+    public LinkedList<Item> getFormulationPage(Customer customer, int afterItemId, int pageSize) {
+        return catalog.getAvailablePage(afterItemId, pageSize);
+    }
+
+    /**
+     * Formulations matching what the user typed, best first (see FormulationSearchIndex)
+     * @param customer limits the results to what the customer may browse (not vetoed); null for all
+     */
+    public LinkedList<Item> searchFormulations(String query, int limit, Customer customer) {
+        LinkedList<Item> results = new LinkedList<>();
+        for (int itemId : searchIndex.search(query, limit, id -> customer == null
+                ? catalog.containsItem(id) : catalog.containsItem(id) && !catalog.isVetoed(id))) {
+            results.add(catalog.getItem(itemId));
+        }
+        return results;
+    }
+
+    /**
+     * Most used stored values starting with what the user typed (safe on any thread)
+     */
+    public LinkedList<String> suggest(AutocompleteIndex.Kind kind, String prefix, int limit) {
+        return autocomplete.suggest(kind, prefix, limit);
+    }
+
+    /**
+     * "You may also like" candidates for a customer: formulations bought or favored together
+     * with theirs, best first, limited to what they may browse (not vetoed). Call on the owner
+     * thread; their allergens are checked by filterAllergenFree (see AsyncDataManager).
+     */
+    public LinkedList<Item> getRecommendationCandidates(Customer customer) {
+        return toBrowsableItems(recommender.recommendFor(customer.getCustomerID(), CoPurchaseRecommender.TOP_K));
+    }
+
+    /**
+     * Formulations most often bought or favored together with one, filtered as
+     * getRecommendationCandidates
+     */
+    public LinkedList<Item> getSimilarCandidates(Item formulation) {
+        return toBrowsableItems(recommender.similarTo(formulation.getItemID(), CoPurchaseRecommender.TOP_K));
+    }
+
+    /**
+     * The first `limit` candidates free of the customer's allergens (no check for null)
+     * Items checked before answer from their cached allergen mask; the others read their
+     * ingredients, which may load details from the database: call this off the JavaFX thread.
+     */
+    public LinkedList<Item> filterAllergenFree(Collection<Item> candidates, Customer customer, int limit) {
+        LinkedList<Item> safe = new LinkedList<>();
+        for (Item item : candidates) {
+            if (safe.size() >= limit) {
+                break;
+            }
+            if (customer == null || !customer.hasAllergenIn(item)) {
+                safe.add(item);
             }
         }
-        return availableItems;
+        return safe;
     }
 
-    public LinkedList<Item> getFormulationsForAuthor(Author author) {
-        LinkedList<Item> authorFormulations = new LinkedList<>();
-        for (Item item : allFormulations) {
-            // Assuming you have a way to check if author created this item
-            // This is a placeholder - you need to implement based on your data structure
-            authorFormulations.add(item);
+    private LinkedList<Item> toBrowsableItems(LinkedList<Integer> itemIds) {
+        LinkedList<Item> items = new LinkedList<>();
+        for (int itemId : itemIds) {
+            if (catalog.containsItem(itemId) && !catalog.isVetoed(itemId)) {
+                items.add(catalog.getItem(itemId));
+            }
         }
-        return authorFormulations;
+        return items;
     }
 
-    private boolean isItemVetoed(Item item) {
-        if (item instanceof Food) {
-            return ((Food) item).isVetoed();
-        } else if (item instanceof Drink) {
-            return ((Drink) item).isVetoed();
+    /**
+     * Where an ingredient is used (formulation IDs, line count, quantity totals), or null
+     */
+    public IngredientUsageIndex.Usage getIngredientUsage(String ingredientName) {
+        return ingredientUsage.getUsage(ingredientName);
+    }
+
+    /**
+     * Formulations listing an ingredient, in item ID order
+     */
+    public LinkedList<Item> getFormulationsUsing(String ingredientName) {
+        LinkedList<Item> items = new LinkedList<>();
+        for (int itemId : ingredientUsage.getItemIds(ingredientName)) {
+            Item item = catalog.getItem(itemId);
+            if (item != null) {
+                items.add(item);
+            }
         }
-        return false;
+        return items;
+    }
+
+    /**
+     * Veto every formulation listing an ingredient (e.g. a supplier recall); written by the next save
+     * @return number of formulations newly vetoed
+     */
+    public int vetoFormulationsUsing(String ingredientName, String reason, Admin admin) {
+        int vetoed = 0;
+        Date now = new Date();
+        for (Item item : getFormulationsUsing(ingredientName)) {
+            if (CatalogIndex.isItemVetoed(item)) {
+                continue;
+            }
+            Veto veto = new Veto(true, reason, now, admin);
+            if (item instanceof Food) {
+                ((Food) item).setVeto(veto);
+            } else if (item instanceof Drink) {
+                ((Drink) item).setVeto(veto);
+            }
+            catalog.updateItem(item);
+            vetoed++;
+        }
+        auditTrail.logAction("ADMIN:" + admin.getName(), "Vetoed " + vetoed +
+                " formulation(s) using ingredient '" + ingredientName + "': " + reason);
+        return vetoed;
+    }
+
+    public int countFormulationsForCustomer(Customer customer) {
+        return catalog.getAvailableCount();
+    }
+
+    public LinkedList<Item> getFormulationsForAuthor(Author author) {
+        return catalog.getItemsByAuthor(author.getAuthorID());
+    }
+
+    public Collection<Item> getFormulationsByType(CatalogIndex.ItemType type) {
+        return catalog.getItems(type);
+    }
+
+    /**
+     * Register a catalog formulation with the search and ingredient indexes
+     */
+    private void indexContents(Item item) {
+        item.setIngredientListener(ingredientUsage);
+        ingredientUsage.indexItem(item);
+        searchIndex.indexItem(item);
+    }
+
+    private void unindexContents(Item item) {
+        item.setIngredientListener(null);
+        ingredientUsage.removeItem(item.getItemID());
+        searchIndex.removeItem(item.getItemID());
     }
 
     // ============ USER MANAGEMENT ============
 
     public boolean addAdmin(Admin admin) {
         // Check if ID exists
-        for (Admin a : admins) {
-            if (a.getAdminID() == admin.getAdminID()) {
-                return false;
-            }
+        if (admins.containsKey(admin.getAdminID())) {
+            return false;
+        }
+        credentials.register(Role.ADMIN, admin);
+        admins.put(admin.getAdminID(), admin);
+        if (databaseManager.saveAdmin(admin)) {
+            unitOfWork.trackAdmin(admin);
         }
-        admins.add(admin);
-        databaseManager.saveAdmin(admin);
         return true;
     }
 
     public boolean addAuthor(Author author) {
         // Check if ID exists
-        for (Author a : authors) {
-            if (a.getAuthorID() == author.getAuthorID()) {
-                return false;
-            }
+        if (authors.containsKey(author.getAuthorID())) {
+            return false;
+        }
+        credentials.register(Role.AUTHOR, author);
+        authors.put(author.getAuthorID(), author);
+        if (databaseManager.saveAuthor(author)) {
+            unitOfWork.trackAuthor(author);
         }
-        authors.add(author);
-        databaseManager.saveAuthor(author);
         return true;
     }
 
     public boolean addCustomer(Customer customer) {
         // Check if ID exists
-        for (Customer c : customers) {
-            if (c.getCustomerID() == customer.getCustomerID()) {
-                return false;
+        if (customers.containsKey(customer.getCustomerID())) {
+            return false;
+        }
+        credentials.register(Role.CUSTOMER, customer);
+        customers.put(customer.getCustomerID(), customer);
+        customer.setActivityListener(activityListener);
+        metrics.countPurchases(customer);
+        try {
+            if (databaseManager.saveCustomer(customer)) {
+                unitOfWork.trackCustomer(customer);
             }
+        } catch (StaleDataException e) {
+            // Another instance registered this ID first
+            customers.remove(customer.getCustomerID());
+            credentials.unregister(Role.CUSTOMER, customer);
+            customer.setActivityListener(null);
+            metrics.uncountPurchases(customer);
+            return false;
         }
-        customers.add(customer);
-        databaseManager.saveCustomer(customer);
         return true;
     }
 
+    // add* hash a plaintext password on the caller's thread and throw IllegalStateException,
+    // before anything is added, when too many hashes are waiting. The *Async variants hash on
+    // the CredentialStore's executor, so the JavaFX thread continues meanwhile, then add the
+    // account on ownerExecutor; they report a full queue by completing exceptionally.
+
+    public CompletableFuture<Boolean> addAdminAsync(Admin admin, Executor ownerExecutor) {
+        return credentials.hashPasswordAsync(admin).thenApplyAsync(hashed -> addAdmin(admin), ownerExecutor);
+    }
+
+    public CompletableFuture<Boolean> addAuthorAsync(Author author, Executor ownerExecutor) {
+        return credentials.hashPasswordAsync(author).thenApplyAsync(hashed -> addAuthor(author), ownerExecutor);
+    }
+
+    public CompletableFuture<Boolean> addCustomerAsync(Customer customer, Executor ownerExecutor) {
+        return credentials.hashPasswordAsync(customer).thenApplyAsync(hashed -> addCustomer(customer), ownerExecutor);
+    }
+
+    // Credentials are checked on the CredentialStore's hashing executor; the *Async
+    // variants let the JavaFX thread continue while the hash runs. While startLoading is
+    // still running they first wait for the data the role's dashboard shows. The account
+    // is handed over (and an upgraded password hash stored) on the owner thread.
+
+    public CompletableFuture<Admin> authenticateAdminAsync(String name, String password) {
+        // Admin screens summarize every aggregate
+        return allLoaded.thenCompose(loaded -> credentials.authenticateAsync(Role.ADMIN, name, password))
+                .thenApplyAsync(login -> (Admin) login.apply(), ownerExecutor);
+    }
+
+    public CompletableFuture<Author> authenticateAuthorAsync(String name, String password) {
+        return authorsLoaded.thenCompose(loaded -> credentials.authenticateAsync(Role.AUTHOR, name, password))
+                .thenApplyAsync(login -> (Author) login.apply(), ownerExecutor);
+    }
+
+    public CompletableFuture<Customer> authenticateCustomerAsync(String name, String password) {
+        return CompletableFuture.allOf(customersLoaded, catalogLoaded)
+                .thenCompose(loaded -> credentials.authenticateAsync(Role.CUSTOMER, name, password))
+                .thenApplyAsync(login -> (Customer) login.apply(), ownerExecutor);
+    }
+
     public Admin authenticateAdmin(String name, String password) {
-        for (Admin admin : admins) {
-            if (admin.getName().equals(name) && admin.getPassword().equals(password)) {
-                return admin;
-            }
-        }
-        return null;
+        return (Admin) credentials.authenticate(Role.ADMIN, name, password);
     }
 
     public Author authenticateAuthor(String name, String password) {
-        for (Author author : authors) {
-            if (author.getName().equals(name) && author.getPassword().equals(password)) {
-                return author;
-            }
-        }
-        return null;
+        return (Author) credentials.authenticate(Role.AUTHOR, name, password);
     }
 
     public Customer authenticateCustomer(String name, String password) {
-        for (Customer customer : customers) {
-            if (customer.getName().equals(name) && customer.getPassword().equals(password)) {
-                return customer;
-            }
-        }
-        return null;
+        return (Customer) credentials.authenticate(Role.CUSTOMER, name, password);
+    }
+
+    /**
+     * True if the user logged in within the session lifetime (no need to re-enter the password)
+     */
+    public boolean isSessionVerified(String userType, Object user) {
+        return user instanceof Person
+                && credentials.isSessionVerified(Role.valueOf(userType), (Person) user);
+    }
+
+    public void endSession(String userType, String name) {
+        credentials.endSession(Role.valueOf(userType), name);
     }
 
     // ============ GETTERS ============
+    // Collections are read-only views; nothing is copied per call
+
+    public Collection<Admin> getAdmins() {
+        return Collections.unmodifiableCollection(admins.values());
+    }
 
-    public LinkedList<Admin> getAdmins() {
-        return new LinkedList<>(admins);
+    public Collection<Author> getAuthors() {
+        return Collections.unmodifiableCollection(authors.values());
     }
 
-    public LinkedList<Author> getAuthors() {
-        return new LinkedList<>(authors);
+    public Collection<Customer> getCustomers() {
+        return Collections.unmodifiableCollection(customers.values());
     }
 
-    public LinkedList<Customer> getCustomers() {
-        return new LinkedList<>(customers);
+    public Collection<Item> getAllFormulations() {
+        return catalog.getItems();
     }
 
-    public LinkedList<Item> getAllFormulations() {
-        return new LinkedList<>(allFormulations);
+    public Admin getAdmin(int adminId) {
+        return admins.get(adminId);
+    }
+
+    public Author getAuthor(int authorId) {
+        return authors.get(authorId);
+    }
+
+    public Customer getCustomer(int customerId) {
+        return customers.get(customerId);
     }
 
     public AuditTrail getAuditTrail() {
@@ -243,7 +892,7 @@ public class DataManager {
     }
 
     public int getTotalFormulations() {
-        return allFormulations.size();
+        return catalog.size();
     }
 
     public int getTotalUsers() {
@@ -251,20 +900,24 @@ public class DataManager {
     }
 
     public int getVetoedFormulationsCount() {
-        int count = 0;
-        for (Item item : allFormulations) {
-            if (isItemVetoed(item)) {
-                count++;
-            }
-        }
-        return count;
+        return catalog.getVetoedCount();
     }
 
     public int getTotalPurchases() {
-        int total = 0;
-        for (Customer customer : customers) {
-            total += customer.getPurchasedItems().size();
-        }
-        return total;
+        return (int) metrics.get(SystemMetrics.Metric.PURCHASES);
+    }
+
+    /**
+     * Counters for the statistics screens, each read in O(1)
+     */
+    public SystemMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Purchases and feedback over time per author, formulation and type (see ActivityRollups)
+     */
+    public ActivityRollups getRollups() {
+        return rollups;
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package gui.components;
 import MyClasses.Consumables.Item;
 import MyClasses.Ingredients.Ingredient;
 import MyClasses.Ingredients.Quantity;
+import MyClasses.Utilities.AutocompleteIndex;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -20,10 +21,21 @@ import java.util.Optional;
  */
 public class DialogFactory {
 
+    // Suggestions shown under a field at a time
+    private static final int SUGGESTION_LIMIT = 8;
+
     /**
      * Create a dialog for adding/editing ingredients
      */
     public static Stage createIngredientDialog(ObservableList<Ingredient> ingredientsList) {
+        return createIngredientDialog(ingredientsList, null);
+    }
+
+    /**
+     * Create a dialog for adding/editing ingredients, suggesting stored names and units as they are typed
+     * @param dataManager source of the suggestions, or null for plain fields
+     */
+    public static Stage createIngredientDialog(ObservableList<Ingredient> ingredientsList, DataManager dataManager) {
         Stage dialog = new Stage();
         dialog.initModality(Modality.APPLICATION_MODAL);
         dialog.setTitle("Add Ingredient");
@@ -50,6 +62,13 @@ public class DialogFactory {
         TextField txtFraction = createGridTextField(grid, "Fraction (0.0-1.0):", 4);
         TextField txtUnit = createGridTextField(grid, "Unit (e.g., grams, ml):", 5);
 
+        if (dataManager != null) {
+            UIComponents.attachSuggestions(txtName,
+                    text -> dataManager.suggest(AutocompleteIndex.Kind.INGREDIENT, text, SUGGESTION_LIMIT));
+            UIComponents.attachSuggestions(txtUnit,
+                    text -> dataManager.suggest(AutocompleteIndex.Kind.UNIT, text, SUGGESTION_LIMIT));
+        }
+
         HBox buttonBox = new HBox(10);
         buttonBox.setAlignment(javafx.geometry.Pos.CENTER);
 
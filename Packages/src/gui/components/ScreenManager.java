@@ -1,10 +1,12 @@
 package gui.components;
 
+import MyClasses.Consumables.Item;
 import MyClasses.Database.DatabaseManager;
 import MyClasses.Persons.Admin;
 import MyClasses.Persons.Author;
 import MyClasses.Persons.Customer;
 import gui.screens.*;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import javafx.scene.control.Alert;
@@ -19,6 +21,8 @@ import java.util.Optional;
 public class ScreenManager {
     private Stage primaryStage;
     private DataManager dataManager;
+    // Database work off the JavaFX thread; reads of the current screen are cancelled on navigation
+    private AsyncDataManager asyncDataManager;
 
     // Current user session
     private Object currentUser;
@@ -31,7 +35,11 @@ public class ScreenManager {
     public ScreenManager(Stage primaryStage, DatabaseManager databaseManager) {
         this.primaryStage = primaryStage;
         this.dataManager = new DataManager(databaseManager);
-        this.dataManager.loadAllData();
+        // Loads in the background; the first screen shows right away and logins wait for their data
+        this.dataManager.startLoading(Platform::runLater);
+        // Saves by other instances sharing the database refresh just the affected entries
+        this.dataManager.startChangeFeed(Platform::runLater);
+        this.asyncDataManager = new AsyncDataManager(dataManager, Platform::runLater);
     }
 
     // ============ SCREEN NAVIGATION METHODS ============
@@ -152,6 +160,13 @@ public class ScreenManager {
     }
 
     public void showFormulationDetailsDialog(Object item) {
+        if (item instanceof Item && !((Item) item).isDetailsLoaded()) {
+            // Details are fetched in the background; the dialog opens once they are in memory
+            asyncDataManager.onUi(asyncDataManager.loadDetails((Item) item),
+                    loaded -> new FormulationDetailsDialog(this, loaded).show(),
+                    error -> showError("Error", "Could not load formulation details: " + error.getMessage()));
+            return;
+        }
         FormulationDetailsDialog dialog = new FormulationDetailsDialog(this, item);
         dialog.show();
     }
@@ -183,6 +198,7 @@ public class ScreenManager {
             }
 
             getDataManager().getAuditTrail().logAction(currentUserType + ":" + userName, "Logged out at " + new java.util.Date());
+            getDataManager().endSession(currentUserType, userName);
             saveDataToDatabase();
         }
 
@@ -195,6 +211,10 @@ public class ScreenManager {
         return dataManager;
     }
 
+    public AsyncDataManager getAsyncDataManager() {
+        return asyncDataManager;
+    }
+
     // Convenience method to get audit trail
     public MyClasses.Utilities.AuditTrail getAuditTrail() {
         return getDataManager().getAuditTrail();
@@ -203,6 +223,8 @@ public class ScreenManager {
     // ============ UTILITY METHODS ============
 
     private void setScene(Scene scene) {
+        // Results for the screen being left are no longer wanted
+        asyncDataManager.cancelScreenTasks();
         primaryStage.setScene(scene);
     }
 
@@ -235,12 +257,17 @@ public class ScreenManager {
         return result.isPresent() && result.get() == ButtonType.OK;
     }
 
+    /**
+     * Save in the background; the outcome is shown when the write finishes
+     */
     public void saveDataToDatabase() {
-        if (getDataManager().saveAllData()) {
-            showInformation("Success", "Data saved successfully!");
-        } else {
-            showError("Error", "Failed to save data!");
-        }
+        asyncDataManager.onUi(asyncDataManager.saveAllData(), saved -> {
+            if (saved) {
+                showInformation("Success", "Data saved successfully!");
+            } else {
+                showError("Error", "Failed to save data!");
+            }
+        }, error -> showError("Error", "Failed to save data: " + error.getMessage()));
     }
 
     public void handleExit() {
@@ -260,9 +287,18 @@ public class ScreenManager {
 
         if (result.isPresent()) {
             if (result.get() == btnSaveExit) {
-                saveDataToDatabase();
-                getDataManager().getAuditTrail().logAction("SYSTEM", "Application closed with data save at " + new java.util.Date());
-                System.exit(0);
+                // Exit once the save (and any save still running) has been written
+                primaryStage.getScene().getRoot().setDisable(true);
+                asyncDataManager.onUi(asyncDataManager.saveAllData(), saved -> {
+                    if (!saved) {
+                        showError("Error", "Failed to save data!");
+                    }
+                    getDataManager().getAuditTrail().logAction("SYSTEM", "Application closed with data save at " + new java.util.Date());
+                    System.exit(0);
+                }, error -> {
+                    showError("Error", "Failed to save data: " + error.getMessage());
+                    System.exit(0);
+                });
             } else if (result.get() == btnExitNoSave) {
                 getDataManager().getAuditTrail().logAction("SYSTEM", "Application closed without saving at " + new java.util.Date());
                 System.exit(0);
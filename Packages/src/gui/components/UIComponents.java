@@ -2,14 +2,21 @@ package gui.components;
 
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.geometry.Side;
 import javafx.scene.control.Button;
+import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 
+import java.util.List;
+import java.util.function.Function;
+
 /**
  * Factory for creating reusable UI components
  */
@@ -115,4 +122,46 @@ public class UIComponents {
         footer.getChildren().add(lblFooter);
         return footer;
     }
-}
\ No newline at end of file
+
+    /**
+     * Show suggestions under a text field as the user types; picking one fills the field
+     * @param source values for the text typed so far, best first (called on every keystroke)
+     */
+    public static void attachSuggestions(TextField field, Function<String, List<String>> source) {
+        ContextMenu popup = new ContextMenu();
+        boolean[] picking = {false};
+
+        field.textProperty().addListener((obs, oldText, newText) -> {
+            if (picking[0]) {
+                return;
+            }
+            List<String> suggestions = newText == null || newText.trim().isEmpty()
+                    ? List.of() : source.apply(newText);
+            // Nothing to offer once the field holds the only match
+            if (suggestions.isEmpty()
+                    || (suggestions.size() == 1 && suggestions.get(0).equalsIgnoreCase(newText.trim()))) {
+                popup.hide();
+                return;
+            }
+            popup.getItems().clear();
+            for (String suggestion : suggestions) {
+                MenuItem item = new MenuItem(suggestion);
+                item.setOnAction(e -> {
+                    picking[0] = true;
+                    field.setText(suggestion);
+                    field.positionCaret(suggestion.length());
+                    picking[0] = false;
+                });
+                popup.getItems().add(item);
+            }
+            if (!popup.isShowing() && field.getScene() != null) {
+                popup.show(field, Side.BOTTOM, 0, 0);
+            }
+        });
+        field.focusedProperty().addListener((obs, wasFocused, focused) -> {
+            if (!focused) {
+                popup.hide();
+            }
+        });
+    }
+}
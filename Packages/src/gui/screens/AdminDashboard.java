@@ -60,7 +60,7 @@ public class AdminDashboard {
         buttons[0].setOnAction(e -> screenManager.showAccountManagementScreen());
         buttons[1].setOnAction(e -> screenManager.showFormulationManagementScreen());
         buttons[2].setOnAction(e -> showCheckFormulationIssuesScreen());
-        buttons[3].setOnAction(e -> showSystemStatisticsScreen());
+        buttons[3].setOnAction(e -> screenManager.showSystemStatisticsScreen());
         buttons[4].setOnAction(e -> showAllAccountsScreen());
         buttons[5].setOnAction(e -> showAuditTrailScreen());
         buttons[6].setOnAction(e -> saveDataToDatabase());
@@ -86,11 +86,6 @@ public class AdminDashboard {
         screenManager.showInformation("Formulation Issues", "This feature would show formulation issues.");
     }
 
-    private void showSystemStatisticsScreen() {
-        // Implementation would go here or in a separate screen class
-        screenManager.showInformation("System Statistics", "This feature would show system statistics.");
-    }
-
     private void showAllAccountsScreen() {
         // Implementation would go here or in a separate screen class
         screenManager.showInformation("All Accounts", "This feature would show all accounts.");
@@ -102,8 +97,8 @@ public class AdminDashboard {
     }
 
     private void saveDataToDatabase() {
-        // Implementation for saving data
-        screenManager.showInformation("Save", "Data saved successfully!");
+        // Written in the background; ScreenManager reports the outcome
+        screenManager.saveDataToDatabase();
     }
 
     private void showInformation(String title, String message) {
@@ -1,5 +1,6 @@
 package gui.screens;
 
+import MyClasses.Utilities.AuditTrail;
 import gui.components.ScreenManager;
 import gui.components.UIComponents;
 import javafx.geometry.Insets;
@@ -35,7 +36,10 @@ public class AuditTrailScreen {
         contentBox.setAlignment(Pos.TOP_CENTER);
         contentBox.setPadding(new Insets(20));
 
-        Label lblTotal = new Label("Total Log Entries: " + screenManager.getDataManager().getAuditTrail().records.size());
+        AuditTrail auditTrail = screenManager.getDataManager().getAuditTrail();
+        int totalEntries = auditTrail.getRecordCount();
+
+        Label lblTotal = new Label("Total Log Entries: " + totalEntries);
         lblTotal.setTextFill(javafx.scene.paint.Color.WHITE);
         lblTotal.setFont(Font.font("Segoe UI", FontWeight.BOLD, 16));
 
@@ -45,18 +49,18 @@ public class AuditTrailScreen {
         txtAudit.setWrapText(true);
         txtAudit.setStyle("-fx-control-inner-background: #f8f8f8; -fx-border-color: " + UIComponents.COLOR_NEUTRAL + ";");
 
-        if (screenManager.getDataManager().getAuditTrail().records.isEmpty()) {
+        if (totalEntries == 0) {
             txtAudit.setText("No audit records available.");
         } else {
             StringBuilder auditText = new StringBuilder();
-            int startIndex = Math.max(0, screenManager.getDataManager().getAuditTrail().records.size() - 50);
 
-            for (int i = startIndex; i < screenManager.getDataManager().getAuditTrail().records.size(); i++) {
-                auditText.append(screenManager.getDataManager().getAuditTrail().records.get(i)).append("\n");
+            // Only the displayed entries are formatted
+            for (String record : auditTrail.getRecentRecords(50)) {
+                auditText.append(record).append("\n");
             }
 
-            if (screenManager.getDataManager().getAuditTrail().records.size() > 50) {
-                auditText.insert(0, "Showing last 50 of " + screenManager.getDataManager().getAuditTrail().records.size() + " entries\n\n");
+            if (totalEntries > 50) {
+                auditText.insert(0, "Showing last 50 of " + totalEntries + " entries\n\n");
             }
 
             txtAudit.setText(auditText.toString());
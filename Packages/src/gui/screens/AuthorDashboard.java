@@ -2,6 +2,7 @@ package gui.screens;
 
 import MyClasses.Persons.Author;
 import MyClasses.Consumables.Item;
+import gui.components.AsyncDataManager;
 import gui.components.ScreenManager;
 import gui.components.UIComponents;
 import javafx.geometry.Insets;
@@ -169,11 +170,19 @@ public class AuthorDashboard {
         Button btnLogout = createFeatureButton("Logout", UIComponents.COLOR_ERROR, "Exit author session");
 
         btnSaveData.setOnAction(e -> {
-            if (screenManager.getDataManager().saveAllData()) {
-                screenManager.showInformation("Data Saved", "All your formulations have been successfully saved.");
-            } else {
-                screenManager.showError("Save Failed", "Failed to save data to database.");
-            }
+            btnSaveData.setDisable(true);
+            AsyncDataManager asyncData = screenManager.getAsyncDataManager();
+            asyncData.onUi(asyncData.saveAllData(), saved -> {
+                btnSaveData.setDisable(false);
+                if (saved) {
+                    screenManager.showInformation("Data Saved", "All your formulations have been successfully saved.");
+                } else {
+                    screenManager.showError("Save Failed", "Failed to save data to database.");
+                }
+            }, error -> {
+                btnSaveData.setDisable(false);
+                screenManager.showError("Save Failed", "Failed to save data to database: " + error.getMessage());
+            });
         });
         btnProfile.setOnAction(e -> showAuthorProfileDialog());
         btnLogout.setOnAction(e -> screenManager.logout());
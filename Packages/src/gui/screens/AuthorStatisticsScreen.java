@@ -3,25 +3,33 @@ package gui.screens;
 import MyClasses.Consumables.Item;
 import MyClasses.Consumables.Food;
 import MyClasses.Consumables.Drink;
-import MyClasses.Feedback;
 import MyClasses.Persons.Author;
+import MyClasses.Utilities.ActivityRollups;
 import gui.components.ScreenManager;
 import gui.components.UIComponents;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
+import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 
-import java.util.LinkedList;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 
 /**
  * Author Statistics Screen
  */
 public class AuthorStatisticsScreen {
+    // Days shown in the trend chart
+    private static final int TREND_DAYS = 90;
+
     private Scene scene;
     private ScreenManager screenManager;
     private Author author;
@@ -62,37 +70,36 @@ public class AuthorStatisticsScreen {
         addStatRow(statsGrid, 1, "Food Items:", String.valueOf(foodCount), UIComponents.COLOR_SUCCESS);
         addStatRow(statsGrid, 2, "Drink Items:", String.valueOf(drinkCount), UIComponents.COLOR_INFO);
 
-        // Calculate total feedbacks
-        int totalFeedbacks = 0;
-        int positiveFeedbacks = 0;
-        for (Item item : author.getFormulatedItems()) {
-            LinkedList<Feedback> feedbacks = getFeedbacks(item);
-            if (feedbacks != null) {
-                totalFeedbacks += feedbacks.size();
-                for (Feedback fb : feedbacks) {
-                    if (fb.isLike()) positiveFeedbacks++;
-                }
-            }
-        }
-        addStatRow(statsGrid, 3, "Total Feedbacks:", String.valueOf(totalFeedbacks), "#8E44AD");
-        addStatRow(statsGrid, 4, "Positive Feedbacks:", String.valueOf(positiveFeedbacks), UIComponents.COLOR_SUCCESS);
-
-        // Calculate average rating
-        double avgRating = totalFeedbacks > 0 ? (double) positiveFeedbacks / totalFeedbacks * 100 : 0;
-        addStatRow(statsGrid, 5, "Positive Rating:", String.format("%.1f%%", avgRating),
+        // Purchases and feedback come from the pre-aggregated rollups: no item details are read
+        ActivityRollups rollups = screenManager.getDataManager().getRollups();
+        ActivityRollups.Totals totals = rollups.getTotals(ActivityRollups.Dimension.AUTHOR, author.getAuthorID());
+        long totalFeedbacks = totals.getLikes() + totals.getDislikes();
+        addStatRow(statsGrid, 3, "Total Purchases:", String.valueOf(totals.getPurchases()),
+                UIComponents.COLOR_SUCCESS);
+        addStatRow(statsGrid, 4, "Total Revenue:", String.format("$%.2f", totals.getRevenue()),
+                UIComponents.COLOR_SUCCESS);
+        addStatRow(statsGrid, 5, "Total Feedbacks:", String.valueOf(totalFeedbacks), "#8E44AD");
+        addStatRow(statsGrid, 6, "Positive Feedbacks:", String.valueOf(totals.getLikes()),
+                UIComponents.COLOR_SUCCESS);
+
+        double avgRating = totals.getPositiveRating();
+        addStatRow(statsGrid, 7, "Positive Rating:", String.format("%.1f%%", avgRating),
                 avgRating >= 80 ? UIComponents.COLOR_SUCCESS :
                         avgRating >= 60 ? UIComponents.COLOR_WARNING : UIComponents.COLOR_ERROR);
 
+        LineChart<String, Number> trendChart = createTrendChart(rollups.getTrend(ActivityRollups.Dimension.AUTHOR,
+                author.getAuthorID(), ActivityRollups.Resolution.DAY, TREND_DAYS, System.currentTimeMillis()));
+
         Button btnBack = UIComponents.createMenuButton("Back to Dashboard", UIComponents.COLOR_NEUTRAL);
         btnBack.setOnAction(e -> screenManager.showAuthorDashboard());
 
-        contentBox.getChildren().addAll(statsGrid, btnBack);
+        contentBox.getChildren().addAll(statsGrid, trendChart, btnBack);
         root.setCenter(contentBox);
 
         scene = new Scene(root, ScreenManager.WINDOW_WIDTH, ScreenManager.WINDOW_HEIGHT);
     }
 
-    private void addStatRow(GridPane grid, int row, String label, String value, String color) {
+    private Label addStatRow(GridPane grid, int row, String label, String value, String color) {
         Label lblLabel = new Label(label);
         lblLabel.setTextFill(javafx.scene.paint.Color.web(UIComponents.COLOR_PRIMARY));
         lblLabel.setFont(javafx.scene.text.Font.font("Segoe UI", javafx.scene.text.FontWeight.BOLD, 14));
@@ -103,15 +110,34 @@ public class AuthorStatisticsScreen {
 
         grid.add(lblLabel, 0, row);
         grid.add(lblValue, 1, row);
+        return lblValue;
     }
 
-    private LinkedList<Feedback> getFeedbacks(Item item) {
-        if (item instanceof Food) {
-            return ((Food) item).getFeedbacks();
-        } else if (item instanceof Drink) {
-            return ((Drink) item).getFeedbacks();
+    /**
+     * Daily purchases and likes of the author's formulations, oldest day first
+     */
+    private LineChart<String, Number> createTrendChart(ActivityRollups.Trend trend) {
+        CategoryAxis xAxis = new CategoryAxis();
+        NumberAxis yAxis = new NumberAxis();
+        LineChart<String, Number> chart = new LineChart<>(xAxis, yAxis);
+        chart.setTitle("Last " + TREND_DAYS + " Days");
+        chart.setCreateSymbols(false);
+        chart.setAnimated(false);
+        chart.setPrefHeight(250);
+
+        XYChart.Series<String, Number> purchases = new XYChart.Series<>();
+        purchases.setName("Purchases");
+        XYChart.Series<String, Number> likes = new XYChart.Series<>();
+        likes.setName("Likes");
+        SimpleDateFormat dayFormat = new SimpleDateFormat("MMM d");
+        for (int i = 0; i < trend.size(); i++) {
+            String day = dayFormat.format(new Date(trend.getBucketStart(i)));
+            purchases.getData().add(new XYChart.Data<>(day, trend.getPurchases()[i]));
+            likes.getData().add(new XYChart.Data<>(day, trend.getLikes()[i]));
         }
-        return null;
+        chart.getData().add(purchases);
+        chart.getData().add(likes);
+        return chart;
     }
 
     public Scene getScene() {
@@ -22,6 +22,7 @@ import javafx.scene.text.FontWeight;
 
 import java.util.Date;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Create Formulation Screen
@@ -117,7 +118,7 @@ public class CreateFormulationScreen {
         Button btnRemoveIngredient = UIComponents.createSmallButton("Remove Selected", UIComponents.COLOR_ERROR);
 
         btnAddIngredient.setOnAction(e -> {
-            Stage dialog = DialogFactory.createIngredientDialog(ingredientsList);
+            Stage dialog = DialogFactory.createIngredientDialog(ingredientsList, screenManager.getDataManager());
             dialog.initOwner(screenManager.getPrimaryStage());
             dialog.showAndWait();
         });
@@ -220,7 +221,7 @@ public class CreateFormulationScreen {
         Button btnRemoveIngredient = UIComponents.createSmallButton("Remove Selected", UIComponents.COLOR_ERROR);
 
         btnAddIngredient.setOnAction(e -> {
-            Stage dialog = DialogFactory.createIngredientDialog(ingredientsList);
+            Stage dialog = DialogFactory.createIngredientDialog(ingredientsList, screenManager.getDataManager());
             dialog.initOwner(screenManager.getPrimaryStage());
             dialog.showAndWait();
         });
@@ -292,7 +293,7 @@ public class CreateFormulationScreen {
 
             // Add to system
             author.getFormulatedItems().add(food);
-            screenManager.getDataManager().addFormulation(food);
+            storeInBackground(screenManager.getAsyncDataManager().addFormulation(food, author));
 
             screenManager.getDataManager().getAuditTrail().logAction(
                     "AUTHOR:" + author.getName(),
@@ -309,6 +310,18 @@ public class CreateFormulationScreen {
         }
     }
 
+    /**
+     * The catalog already shows the formulation; only a failed database write is reported
+     */
+    private void storeInBackground(CompletableFuture<Boolean> store) {
+        screenManager.getAsyncDataManager().onUi(store, stored -> {
+            if (!stored) {
+                screenManager.showError("Database Error",
+                        "The formulation was created but could not be stored yet; it will be written on the next save.");
+            }
+        }, error -> screenManager.showError("Database Error", "Failed to store formulation: " + error.getMessage()));
+    }
+
     private void createDrinkFormulation(String name, String id, String price,
                                         String avgPrice, String expiry,
                                         ObservableList<Ingredient> ingredients) {
@@ -341,7 +354,7 @@ public class CreateFormulationScreen {
 
             // Add to system
             author.getFormulatedItems().add(drink);
-            screenManager.getDataManager().addFormulation(drink);
+            storeInBackground(screenManager.getAsyncDataManager().addFormulation(drink, author));
 
             screenManager.getDataManager().getAuditTrail().logAction(
                     "AUTHOR:" + author.getName(),
@@ -2,19 +2,24 @@ package gui.screens;
 
 import MyClasses.Consumables.Item;
 import MyClasses.Consumables.Food;
-import MyClasses.Consumables.Drink;
 import MyClasses.Persons.Customer;
+import gui.components.AsyncDataManager;
 import gui.components.ScreenManager;
 import gui.components.DialogFactory;
 import gui.components.UIComponents;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
-import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
@@ -23,12 +28,35 @@ import java.util.LinkedList;
 
 /**
  * Customer Browse Catalog Screen
+ * Formulations are shown in a virtualized ListView (only the visible rows have nodes, and
+ * rows are reused while scrolling) and fetched page by page as the user scrolls down.
+ * Typing in the search box replaces the pages with the best matches (full-text index, see
+ * DataManager.searchFormulations); clearing it goes back to browsing.
  */
 public class CustomerBrowseCatalogScreen {
+    private static final int PAGE_SIZE = 50;
+    // Fetch the next page when a row this close to the end is displayed
+    private static final int PREFETCH_DISTANCE = 10;
+    private static final int SEARCH_LIMIT = 100;
+    // Formulations shown under "You may also like"
+    private static final int RECOMMENDATION_LIMIT = 5;
+
     private Scene scene;
     private ScreenManager screenManager;
     private Customer customer;
 
+    private final ObservableList<Item> loadedItems = FXCollections.observableArrayList();
+    private int lastLoadedItemId = Integer.MIN_VALUE;
+    private boolean allPagesLoaded = false;
+    private boolean pageRequested = false;
+    private int totalItems;
+    private Label lblCount;
+    private final HBox recommendationBox = new HBox(10);
+    // Latest recommendation refresh; only its result is shown
+    private int recommendationRequest = 0;
+    // Non-empty while search results are shown instead of the pages
+    private String searchQuery = "";
+
     public CustomerBrowseCatalogScreen(ScreenManager screenManager, Customer customer) {
         this.screenManager = screenManager;
         this.customer = customer;
@@ -43,79 +71,49 @@ public class CustomerBrowseCatalogScreen {
         VBox header = UIComponents.createHeader("BROWSE CATALOG", "Customer: " + customer.getName());
         root.setTop(header);
 
-        ScrollPane scrollPane = new ScrollPane();
-        scrollPane.setFitToWidth(true);
-        scrollPane.setStyle("-fx-background: transparent; -fx-background-color: transparent;");
-
         VBox contentBox = new VBox(15);
         contentBox.setPadding(new Insets(20));
 
-        LinkedList<Item> availableItems = screenManager.getDataManager().getFormulationsForCustomer(customer);
+        totalItems = screenManager.getDataManager().countFormulationsForCustomer(customer);
+        loadNextPage();
 
-        if (availableItems.isEmpty()) {
+        if (loadedItems.isEmpty()) {
             Label lblEmpty = new Label("No formulations available at this time.");
             lblEmpty.setTextFill(javafx.scene.paint.Color.WHITE);
             lblEmpty.setFont(Font.font("Segoe UI", FontWeight.NORMAL, 16));
             contentBox.getChildren().add(lblEmpty);
         } else {
-            for (Item item : availableItems) {
-                VBox itemBox = new VBox(8);
-                itemBox.setStyle("-fx-background-color: rgba(255,255,255,0.1); -fx-padding: 15; -fx-background-radius: 6; " +
-                        "-fx-border-color: rgba(255,255,255,0.1); -fx-border-width: 1;");
-
-                Label lblName = new Label(item.getName());
-                lblName.setTextFill(javafx.scene.paint.Color.WHITE);
-                lblName.setFont(Font.font("Segoe UI", FontWeight.BOLD, 16));
-
-                Label lblType = new Label("Type: " + (item instanceof Food ? "Food" : "Drink"));
-                lblType.setTextFill(javafx.scene.paint.Color.LIGHTGRAY);
-                lblType.setFont(Font.font("Segoe UI", FontWeight.NORMAL, 12));
-
-                Label lblPrice = new Label("Price: $" + String.format("%.2f", item.getPrice()));
-                lblPrice.setTextFill(javafx.scene.paint.Color.web(UIComponents.COLOR_SUCCESS));
-                lblPrice.setFont(Font.font("Segoe UI", FontWeight.BOLD, 14));
-
-                boolean purchased = customer.isPaid(item);
-                Label lblStatus = new Label(purchased ? "✓ PURCHASED" : "🔒 Not Purchased");
-                lblStatus.setTextFill(purchased ? javafx.scene.paint.Color.web(UIComponents.COLOR_SUCCESS) :
-                        javafx.scene.paint.Color.web(UIComponents.COLOR_ERROR));
-                lblStatus.setFont(Font.font("Segoe UI", FontWeight.BOLD, 12));
-
-                HBox buttonBox = new HBox(10);
-                Button btnView = UIComponents.createSmallButton("View Details", UIComponents.COLOR_INFO);
-                Button btnPurchase = UIComponents.createSmallButton(purchased ? "Purchased" : "Purchase",
-                        purchased ? UIComponents.COLOR_NEUTRAL : UIComponents.COLOR_SUCCESS);
-                btnPurchase.setDisable(purchased);
-
-                btnView.setOnAction(e -> screenManager.showFormulationDetailsDialog(item));
-                btnPurchase.setOnAction(e -> {
-                    javafx.stage.Stage dialog = DialogFactory.createPurchaseDialog(item, ev -> {
-                        // Simulate purchase
-                        if (customer.makePayment(item, "Credit Card")) {
-                            screenManager.getDataManager().getAuditTrail().logAction(
-                                    "CUSTOMER:" + customer.getName(),
-                                    "Purchased: " + item.getName() + " for $" + item.getPrice()
-                            );
-                            screenManager.showInformation("Success", "Purchase completed successfully!");
-                            screenManager.showCustomerBrowseCatalogScreen(); // Refresh
-                        }
-                    });
-                    dialog.initOwner(screenManager.getPrimaryStage());
-                    dialog.showAndWait();
-                });
-
-                buttonBox.getChildren().addAll(btnView, btnPurchase);
-                itemBox.getChildren().addAll(lblName, lblType, lblPrice, lblStatus, buttonBox);
-                contentBox.getChildren().add(itemBox);
-            }
+            lblCount = new Label();
+            lblCount.setTextFill(javafx.scene.paint.Color.LIGHTGRAY);
+            lblCount.setFont(Font.font("Segoe UI", FontWeight.NORMAL, 12));
+            updateCountLabel();
+
+            TextField txtSearch = new TextField();
+            txtSearch.setPromptText("Search by name, ingredient, preparation, standard or review");
+            txtSearch.setStyle("-fx-font-size: 14px; -fx-background-radius: 4; -fx-padding: 8; " +
+                    "-fx-background-color: white; -fx-border-color: " + UIComponents.COLOR_NEUTRAL + ";");
+            // The index answers in milliseconds, so every keystroke searches
+            txtSearch.textProperty().addListener((obs, oldText, newText) -> search(newText));
+
+            ListView<Item> listView = new ListView<>(loadedItems);
+            listView.setStyle("-fx-background-color: transparent; -fx-control-inner-background: transparent;");
+            listView.setCellFactory(param -> new FormulationCell());
+            VBox.setVgrow(listView, Priority.ALWAYS);
+
+            recommendationBox.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+            recommendationBox.setVisible(false);
+            recommendationBox.setManaged(false);
+            // Started once the scene is shown: switching scenes cancels the reads started before
+            Platform.runLater(this::showRecommendations);
+
+            contentBox.getChildren().addAll(txtSearch, recommendationBox, lblCount, listView);
         }
 
         Button btnBack = UIComponents.createMenuButton("Back to Dashboard", UIComponents.COLOR_NEUTRAL);
         btnBack.setOnAction(e -> screenManager.showCustomerDashboard());
         contentBox.getChildren().add(btnBack);
 
-        scrollPane.setContent(contentBox);
-        root.setCenter(scrollPane);
+        root.setCenter(contentBox);
 
         scene = new Scene(root, ScreenManager.WINDOW_WIDTH, ScreenManager.WINDOW_HEIGHT);
     }
@@ -123,4 +121,206 @@ public class CustomerBrowseCatalogScreen {
     public Scene getScene() {
         return scene;
     }
-}
\ No newline at end of file
+
+    // ============ PAGING ============
+
+    private void loadNextPage() {
+        pageRequested = false;
+        if (allPagesLoaded) {
+            return;
+        }
+
+        LinkedList<Item> page = screenManager.getDataManager()
+                .getFormulationPage(customer, lastLoadedItemId, PAGE_SIZE);
+        if (!page.isEmpty()) {
+            lastLoadedItemId = page.getLast().getItemID();
+            loadedItems.addAll(page);
+        }
+        if (page.size() < PAGE_SIZE) {
+            allPagesLoaded = true;
+        }
+        updateCountLabel();
+    }
+
+    /**
+     * Called while a row is laid out; the list itself is changed afterwards on the FX thread
+     */
+    private void requestPageIfNeeded(int displayedIndex) {
+        if (!allPagesLoaded && !pageRequested && displayedIndex >= loadedItems.size() - PREFETCH_DISTANCE) {
+            pageRequested = true;
+            Platform.runLater(this::loadNextPage);
+        }
+    }
+
+    private void updateCountLabel() {
+        if (lblCount == null) {
+            return;
+        }
+        if (searchQuery.isEmpty()) {
+            lblCount.setText("Showing " + loadedItems.size() + " of " + totalItems + " formulation(s)");
+        } else if (loadedItems.size() >= SEARCH_LIMIT) {
+            lblCount.setText("Showing the best " + loadedItems.size() + " match(es)");
+        } else {
+            lblCount.setText(loadedItems.size() + " match(es)");
+        }
+    }
+
+    // ============ RECOMMENDATIONS ============
+
+    /**
+     * Refresh the "You may also like" row in the background (allergen checks may load details)
+     */
+    private void showRecommendations() {
+        int request = ++recommendationRequest;
+        AsyncDataManager asyncData = screenManager.getAsyncDataManager();
+        asyncData.onUi(asyncData.loadRecommendations(customer, RECOMMENDATION_LIMIT), recommended -> {
+            // An older request finishing late must not replace a newer row
+            if (request == recommendationRequest) {
+                fillRecommendations(recommended);
+            }
+        }, null);
+    }
+
+    /**
+     * Fill the "You may also like" row (hidden while there is nothing to recommend)
+     */
+    private void fillRecommendations(LinkedList<Item> recommended) {
+        recommendationBox.getChildren().clear();
+        recommendationBox.setVisible(!recommended.isEmpty());
+        recommendationBox.setManaged(!recommended.isEmpty());
+        if (recommended.isEmpty()) {
+            return;
+        }
+
+        Label lblTitle = new Label("You may also like:");
+        lblTitle.setTextFill(javafx.scene.paint.Color.WHITE);
+        lblTitle.setFont(Font.font("Segoe UI", FontWeight.BOLD, 13));
+        recommendationBox.getChildren().add(lblTitle);
+        for (Item item : recommended) {
+            Button btnItem = UIComponents.createSmallButton(item.getName(), UIComponents.COLOR_INFO);
+            btnItem.setOnAction(e -> screenManager.showFormulationDetailsDialog(item));
+            recommendationBox.getChildren().add(btnItem);
+        }
+    }
+
+    // ============ SEARCH ============
+
+    private void search(String text) {
+        searchQuery = text == null ? "" : text.trim();
+        if (searchQuery.isEmpty()) {
+            // Back to browsing from the first page
+            loadedItems.clear();
+            lastLoadedItemId = Integer.MIN_VALUE;
+            allPagesLoaded = false;
+            loadNextPage();
+            return;
+        }
+
+        // No paging while searching (a page already requested finds allPagesLoaded set)
+        allPagesLoaded = true;
+        // The untrimmed text tells whether the last word is still being typed (prefix match)
+        loadedItems.setAll(screenManager.getDataManager().searchFormulations(text, SEARCH_LIMIT, customer));
+        updateCountLabel();
+    }
+
+    // ============ INNER CLASS: FORMULATION CELL ============
+
+    /**
+     * Row for one formulation; its nodes are created once and refilled for every item it shows
+     */
+    private class FormulationCell extends ListCell<Item> {
+        private final VBox itemBox = new VBox(8);
+        private final Label lblName = new Label();
+        private final Label lblType = new Label();
+        private final Label lblPrice = new Label();
+        private final Label lblStatus = new Label();
+        private final Button btnView = UIComponents.createSmallButton("View Details", UIComponents.COLOR_INFO);
+        private final Button btnPurchase = UIComponents.createSmallButton("Purchase", UIComponents.COLOR_SUCCESS);
+        private final Button btnPurchased = UIComponents.createSmallButton("Purchased", UIComponents.COLOR_NEUTRAL);
+
+        FormulationCell() {
+            itemBox.setStyle("-fx-background-color: rgba(255,255,255,0.1); -fx-padding: 15; -fx-background-radius: 6; " +
+                    "-fx-border-color: rgba(255,255,255,0.1); -fx-border-width: 1;");
+
+            lblName.setTextFill(javafx.scene.paint.Color.WHITE);
+            lblName.setFont(Font.font("Segoe UI", FontWeight.BOLD, 16));
+
+            lblType.setTextFill(javafx.scene.paint.Color.LIGHTGRAY);
+            lblType.setFont(Font.font("Segoe UI", FontWeight.NORMAL, 12));
+
+            lblPrice.setTextFill(javafx.scene.paint.Color.web(UIComponents.COLOR_SUCCESS));
+            lblPrice.setFont(Font.font("Segoe UI", FontWeight.BOLD, 14));
+
+            lblStatus.setFont(Font.font("Segoe UI", FontWeight.BOLD, 12));
+
+            btnView.setOnAction(e -> {
+                if (getItem() != null) {
+                    screenManager.showFormulationDetailsDialog(getItem());
+                }
+            });
+            btnPurchase.setOnAction(e -> {
+                if (getItem() != null) {
+                    purchase(getItem());
+                }
+            });
+
+            btnPurchased.setDisable(true);
+            // Exactly one of the two purchase buttons is shown (and laid out) at a time
+            btnPurchase.managedProperty().bind(btnPurchase.visibleProperty());
+            btnPurchased.managedProperty().bind(btnPurchased.visibleProperty());
+
+            HBox buttonBox = new HBox(10);
+            buttonBox.getChildren().addAll(btnView, btnPurchase, btnPurchased);
+            itemBox.getChildren().addAll(lblName, lblType, lblPrice, lblStatus, buttonBox);
+
+            setStyle("-fx-background-color: transparent; -fx-padding: 0 0 15 0;");
+        }
+
+        @Override
+        protected void updateItem(Item item, boolean empty) {
+            super.updateItem(item, empty);
+            if (empty || item == null) {
+                setGraphic(null);
+                return;
+            }
+
+            lblName.setText(item.getName());
+            lblType.setText("Type: " + (item instanceof Food ? "Food" : "Drink"));
+            lblPrice.setText("Price: $" + String.format("%.2f", item.getPrice()));
+            showPurchaseStatus(item);
+            setGraphic(itemBox);
+
+            requestPageIfNeeded(getIndex());
+        }
+
+        private void showPurchaseStatus(Item item) {
+            boolean purchased = customer.isPaid(item);
+            lblStatus.setText(purchased ? "✓ PURCHASED" : "🔒 Not Purchased");
+            lblStatus.setTextFill(purchased ? javafx.scene.paint.Color.web(UIComponents.COLOR_SUCCESS) :
+                    javafx.scene.paint.Color.web(UIComponents.COLOR_ERROR));
+            btnPurchase.setVisible(!purchased);
+            btnPurchased.setVisible(purchased);
+        }
+
+        private void purchase(Item item) {
+            javafx.stage.Stage dialog = DialogFactory.createPurchaseDialog(item, ev -> {
+                // Simulate purchase
+                if (customer.makePayment(item, "Credit Card")) {
+                    screenManager.getDataManager().getAuditTrail().logAction(
+                            "CUSTOMER:" + customer.getName(),
+                            "Purchased: " + item.getName() + " for $" + item.getPrice()
+                    );
+                    screenManager.showInformation("Success", "Purchase completed successfully!");
+                    // The purchase is already in the recommender
+                    showRecommendations();
+                    // Only this row changes; the rest of the list is left as it is
+                    if (item == getItem()) {
+                        showPurchaseStatus(item);
+                    }
+                }
+            });
+            dialog.initOwner(screenManager.getPrimaryStage());
+            dialog.showAndWait();
+        }
+    }
+}
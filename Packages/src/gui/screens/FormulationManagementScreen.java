@@ -4,6 +4,7 @@ import MyClasses.Consumables.Item;
 import MyClasses.Consumables.Food;
 import MyClasses.Consumables.Drink;
 import MyClasses.Persons.Admin;
+import MyClasses.Utilities.IngredientUsageIndex;
 import gui.components.ScreenManager;
 import gui.components.DialogFactory;
 import gui.components.UIComponents;
@@ -23,6 +24,8 @@ import java.util.Date;
 
 /**
  * Formulation Management Screen
+ * The recall bar answers "which formulations use ingredient X" from the reverse ingredient
+ * index and can veto all of them at once.
  */
 public class FormulationManagementScreen {
     private Scene scene;
@@ -47,6 +50,7 @@ public class FormulationManagementScreen {
 
         VBox contentBox = new VBox(15);
         contentBox.setPadding(new Insets(20));
+        contentBox.getChildren().add(createRecallBar());
 
         if (screenManager.getDataManager().getAllFormulations().isEmpty()) {
             Label lblEmpty = new Label("No formulations in the system.");
@@ -117,6 +121,68 @@ public class FormulationManagementScreen {
         scene = new Scene(root, ScreenManager.WINDOW_WIDTH, ScreenManager.WINDOW_HEIGHT);
     }
 
+    // ============ INGREDIENT RECALL ============
+
+    private HBox createRecallBar() {
+        TextField txtIngredient = new TextField();
+        txtIngredient.setPromptText("Ingredient name (e.g. for a supplier recall)");
+        txtIngredient.setStyle("-fx-font-size: 14px; -fx-background-radius: 4; -fx-padding: 8; " +
+                "-fx-background-color: white; -fx-border-color: " + UIComponents.COLOR_NEUTRAL + ";");
+        HBox.setHgrow(txtIngredient, javafx.scene.layout.Priority.ALWAYS);
+
+        Button btnWhereUsed = UIComponents.createSmallButton("Where Used", UIComponents.COLOR_INFO);
+        btnWhereUsed.setOnAction(e -> showWhereUsed(txtIngredient.getText()));
+
+        Button btnVetoAll = UIComponents.createSmallButton("Veto All Using It", UIComponents.COLOR_ERROR);
+        btnVetoAll.setOnAction(e -> vetoAllUsing(txtIngredient.getText()));
+
+        HBox recallBar = new HBox(10, txtIngredient, btnWhereUsed, btnVetoAll);
+        recallBar.setAlignment(Pos.CENTER_LEFT);
+        return recallBar;
+    }
+
+    private void showWhereUsed(String ingredientName) {
+        IngredientUsageIndex.Usage usage = screenManager.getDataManager().getIngredientUsage(ingredientName);
+        if (usage == null) {
+            screenManager.showInformation("Where Used", "No formulation lists '" + ingredientName.trim() + "'.");
+            return;
+        }
+
+        StringBuilder message = new StringBuilder();
+        message.append(usage.getName()).append(" is used by ").append(usage.getFormulationCount())
+                .append(" formulation(s) on ").append(usage.getLineCount()).append(" ingredient line(s)\n")
+                .append(String.format("Total weight: %.2f, total volume: %.2f%n%n",
+                        usage.getTotalWeight(), usage.getTotalVolume()));
+        int shown = 0;
+        for (Item item : screenManager.getDataManager().getFormulationsUsing(ingredientName)) {
+            if (shown++ == 50) {
+                message.append("... and ").append(usage.getFormulationCount() - 50).append(" more\n");
+                break;
+            }
+            message.append(item.getName()).append(" (ID: ").append(item.getItemID()).append(")")
+                    .append(isItemVetoed(item) ? " - vetoed" : "").append("\n");
+        }
+        screenManager.showInformation("Where Used", message.toString());
+    }
+
+    private void vetoAllUsing(String ingredientName) {
+        IngredientUsageIndex.Usage usage = screenManager.getDataManager().getIngredientUsage(ingredientName);
+        if (usage == null) {
+            screenManager.showInformation("Veto All", "No formulation lists '" + ingredientName.trim() + "'.");
+            return;
+        }
+        if (!screenManager.showConfirmation("Veto All", "Veto all " + usage.getFormulationCount() +
+                " formulation(s) using " + usage.getName() + "?")) {
+            return;
+        }
+
+        Admin admin = (Admin) screenManager.getCurrentUser();
+        int vetoed = screenManager.getDataManager().vetoFormulationsUsing(ingredientName,
+                "Ingredient recall: " + usage.getName(), admin);
+        screenManager.showInformation("Veto All", vetoed + " formulation(s) vetoed.");
+        screenManager.showFormulationManagementScreen(); // Refresh
+    }
+
     private boolean isItemVetoed(Item item) {
         if (item instanceof Food) {
             return ((Food) item).isVetoed();
@@ -3,8 +3,10 @@ package gui.screens;
 import MyClasses.Persons.Admin;
 import MyClasses.Persons.Author;
 import MyClasses.Persons.Customer;
+import MyClasses.Persons.Person;
 import gui.components.ScreenManager;
 import gui.components.UIComponents;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -14,6 +16,9 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * Login Screen for all user types
  */
@@ -86,7 +91,7 @@ public class LoginScreen {
                 return;
             }
 
-            performLogin(name, password);
+            performLogin(name, password, btnLogin);
         });
 
         btnBack.setOnAction(e -> screenManager.showWelcomeScreen());
@@ -101,32 +106,50 @@ public class LoginScreen {
         scene = new Scene(root, ScreenManager.WINDOW_WIDTH, ScreenManager.WINDOW_HEIGHT);
     }
 
-    private void performLogin(String name, String password) {
+    private void performLogin(String name, String password, Button btnLogin) {
+        CompletableFuture<? extends Person> login;
+
+        // Password hashing runs off the JavaFX thread; the result is handled back on it
+        switch (userType) {
+            case "ADMIN":
+                login = screenManager.getDataManager().authenticateAdminAsync(name, password);
+                break;
+            case "AUTHOR":
+                login = screenManager.getDataManager().authenticateAuthorAsync(name, password);
+                break;
+            case "CUSTOMER":
+                login = screenManager.getDataManager().authenticateCustomerAsync(name, password);
+                break;
+            default:
+                login = CompletableFuture.completedFuture(null);
+                break;
+        }
+
+        btnLogin.setDisable(true);
+        login.whenComplete((authenticatedUser, error) -> Platform.runLater(() -> {
+            btnLogin.setDisable(false);
+            completeLogin(name, authenticatedUser, error);
+        }));
+    }
+
+    private void completeLogin(String name, Object authenticatedUser, Throwable error) {
         boolean loginSuccessful = false;
-        Object authenticatedUser = null;
-
-        try {
-            switch (userType) {
-                case "ADMIN":
-                    authenticatedUser = screenManager.getDataManager().authenticateAdmin(name, password);
-                    break;
-                case "AUTHOR":
-                    authenticatedUser = screenManager.getDataManager().authenticateAuthor(name, password);
-                    break;
-                case "CUSTOMER":
-                    authenticatedUser = screenManager.getDataManager().authenticateCustomer(name, password);
-                    break;
-            }
 
-            if (authenticatedUser != null) {
-                screenManager.setCurrentUser(authenticatedUser, userType);
-                screenManager.getAuditTrail().logAction(userType + ":" + name, "Logged in");
-                screenManager.showInformation("Login Successful", "Welcome, " + name + "!");
-                screenManager.showUserDashboard();
-                loginSuccessful = true;
+        if (error != null) {
+            Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+            screenManager.showError("Login Error", "Error during login: " + cause.getMessage());
+        } else {
+            try {
+                if (authenticatedUser != null) {
+                    screenManager.setCurrentUser(authenticatedUser, userType);
+                    screenManager.getAuditTrail().logAction(userType + ":" + name, "Logged in");
+                    screenManager.showInformation("Login Successful", "Welcome, " + name + "!");
+                    screenManager.showUserDashboard();
+                    loginSuccessful = true;
+                }
+            } catch (Exception e) {
+                screenManager.showError("Login Error", "Error during login: " + e.getMessage());
             }
-        } catch (Exception e) {
-            screenManager.showError("Login Error", "Error during login: " + e.getMessage());
         }
 
         if (!loginSuccessful) {
@@ -1,5 +1,6 @@
 package gui.screens;
 
+import MyClasses.Utilities.SystemMetrics;
 import gui.components.ScreenManager;
 import gui.components.UIComponents;
 import javafx.geometry.Insets;
@@ -41,32 +42,46 @@ public class SystemStatisticsScreen {
         statsGrid.setVgap(20);
         statsGrid.setAlignment(Pos.CENTER);
 
-        addStatRow(statsGrid, 0, "Total Admins:",
-                String.valueOf(screenManager.getDataManager().getAdmins().size()),
+        // Every value is a maintained counter; nothing is scanned here
+        SystemMetrics metrics = screenManager.getDataManager().getMetrics();
+        int row = 0;
+
+        addStatRow(statsGrid, row++, "Total Admins:",
+                String.valueOf(metrics.get(SystemMetrics.Metric.ADMINS)),
                 UIComponents.COLOR_ADMIN);
 
-        addStatRow(statsGrid, 1, "Total Authors:",
-                String.valueOf(screenManager.getDataManager().getAuthors().size()),
+        addStatRow(statsGrid, row++, "Total Authors:",
+                String.valueOf(metrics.get(SystemMetrics.Metric.AUTHORS)),
                 UIComponents.COLOR_INFO);
 
-        addStatRow(statsGrid, 2, "Total Customers:",
-                String.valueOf(screenManager.getDataManager().getCustomers().size()),
+        addStatRow(statsGrid, row++, "Total Customers:",
+                String.valueOf(metrics.get(SystemMetrics.Metric.CUSTOMERS)),
                 UIComponents.COLOR_SUCCESS);
 
-        addStatRow(statsGrid, 3, "Total Formulations:",
-                String.valueOf(screenManager.getDataManager().getTotalFormulations()),
+        addStatRow(statsGrid, row++, "Total Formulations:",
+                metrics.get(SystemMetrics.Metric.FORMULATIONS) + " (" +
+                        metrics.get(SystemMetrics.Metric.FOODS) + " food, " +
+                        metrics.get(SystemMetrics.Metric.DRINKS) + " drink)",
                 "#8E44AD");
 
-        addStatRow(statsGrid, 4, "Vetoed Formulations:",
-                String.valueOf(screenManager.getDataManager().getVetoedFormulationsCount()),
+        addStatRow(statsGrid, row++, "Vetoed Formulations:",
+                String.valueOf(metrics.get(SystemMetrics.Metric.VETOED)),
                 UIComponents.COLOR_ERROR);
 
-        addStatRow(statsGrid, 5, "Total Purchases:",
-                String.valueOf(screenManager.getDataManager().getTotalPurchases()),
+        addStatRow(statsGrid, row++, "Total Purchases:",
+                String.valueOf(metrics.get(SystemMetrics.Metric.PURCHASES)),
+                UIComponents.COLOR_SUCCESS);
+
+        addStatRow(statsGrid, row++, "Total Revenue:",
+                String.format("$%.2f", metrics.getRevenue()),
                 UIComponents.COLOR_SUCCESS);
 
-        addStatRow(statsGrid, 6, "Audit Log Entries:",
-                String.valueOf(screenManager.getDataManager().getAuditTrail().records.size()),
+        addStatRow(statsGrid, row++, "Feedback (Likes / Dislikes):",
+                metrics.get(SystemMetrics.Metric.LIKES) + " / " + metrics.get(SystemMetrics.Metric.DISLIKES),
+                UIComponents.COLOR_INFO);
+
+        addStatRow(statsGrid, row, "Audit Log Entries:",
+                String.valueOf(screenManager.getDataManager().getAuditTrail().getRecordCount()),
                 UIComponents.COLOR_SECONDARY);
 
         Button btnBack = UIComponents.createMenuButton("Back to Dashboard", UIComponents.COLOR_NEUTRAL);
@@ -4,6 +4,7 @@ import MyClasses.Consumables.Item;
 import MyClasses.Consumables.Food;
 import MyClasses.Consumables.Drink;
 import MyClasses.Persons.Author;
+import gui.components.AsyncDataManager;
 import gui.components.ScreenManager;
 import gui.components.UIComponents;
 import javafx.collections.FXCollections;
@@ -124,7 +125,14 @@ public class UpdateFormulationScreen {
 
         Button btnSave = UIComponents.createMenuButton("Save Changes", UIComponents.COLOR_SUCCESS);
         btnSave.setOnAction(e -> {
-            screenManager.getDataManager().updateFormulation(item);
+            // Catalog is updated now; the database write runs in the background
+            AsyncDataManager asyncData = screenManager.getAsyncDataManager();
+            asyncData.onUi(asyncData.updateFormulation(item), stored -> {
+                if (!stored) {
+                    screenManager.showError("Database Error",
+                            "The changes could not be stored yet; they will be written on the next save.");
+                }
+            }, error -> screenManager.showError("Database Error", "Failed to store changes: " + error.getMessage()));
             screenManager.getAuditTrail().logAction(
                     "AUTHOR:" + author.getName(),
                     "Updated formulation: " + item.getName()